@@ -3,8 +3,10 @@ import adapter.ReversiModelImpl;
 import controller.Controller;
 import decorator.HintDecorator;
 import game.type.BoardType;
+import game.type.HexBitboard;
 import game.type.HexReversi;
 import game.ReversiModel;
+import game.type.SquareBitboard;
 import game.type.SquareReversi;
 import player.Player;
 import player.PlayerColor;
@@ -18,6 +20,10 @@ import view.SquareReversiView;
  * Create the model and view and then connect them.
  */
 public final class Reversi {
+  // the strong hints show the 3 best moves, searched up to 8 plies for at most a second
+  private static final int STRONG_HINT_COUNT = 3;
+  private static final int STRONG_HINT_DEPTH = 8;
+  private static final long STRONG_HINT_MILLIS = 1000;
 
 
   /**
@@ -32,13 +38,26 @@ public final class Reversi {
     String player1Type = args.length > 2 ? args[2] : "human"; //Player 1 type is the second argument
     // Player 2 type is the third argument
     String player2Type = args.length > 3 ? args[3] : "providerHuman";
-    BoardType boardType = boardTypeStr.equalsIgnoreCase("square")
+    // "strong" or "strong<count>" as the fifth argument turns on the strong hints
+    String hintType = args.length > 4 ? args[4] : "";
+    // the "bitboard" board type plays on the square board with the 8x8 bitboard model,
+    // and "hexbitboard" plays on the hexagon board with the multi-word bitboard model
+    boolean bitboard = boardTypeStr.equalsIgnoreCase("bitboard");
+    boolean hexBitboard = boardTypeStr.equalsIgnoreCase("hexbitboard");
+    BoardType boardType = boardTypeStr.equalsIgnoreCase("square") || bitboard
             ? BoardType.SQUARE : BoardType.HEXAGONAL;
 
 
     // Initialize model
-    ReversiModel model = boardType == BoardType.SQUARE
-            ? new SquareReversi(size) : new HexReversi(size);
+    ReversiModel model;
+    if (bitboard) {
+      model = new SquareBitboard(size);
+    } else if (hexBitboard) {
+      model = new HexBitboard(size);
+    } else {
+      model = boardType == BoardType.SQUARE
+              ? new SquareReversi(size) : new HexReversi(size);
+    }
     HintDecorator decoratedModel = new HintDecorator(model);
     Player blackPlayer = ReversiUtils.createPlayer(decoratedModel, player1Type,
             PlayerColor.BLACK, boardType);
@@ -46,11 +65,14 @@ public final class Reversi {
     decoratedModel.gameStarted();
 
     // Initialize view for Player 1
-    ReversiView viewPlayer1 = boardType == BoardType.SQUARE ? new SquareReversiView(decoratedModel,
-            PlayerColor.BLACK)
-            : new HexReversiView(decoratedModel, PlayerColor.BLACK);
+    ReversiView viewPlayer1 = boardType == BoardType.SQUARE
+            ? new SquareReversiView(decoratedModel, PlayerColor.BLACK,
+                    decoratedModel::getStrongHints)
+            : new HexReversiView(decoratedModel, PlayerColor.BLACK,
+                    decoratedModel::getStrongHints);
     Controller controller1 = new Controller(decoratedModel, blackPlayer, viewPlayer1);
     decoratedModel.addModelListener(controller1);
+    decoratedModel.addHintListener(viewPlayer1::refresh);
 
     // Initialize Player 2
     Player whitePlayer;
@@ -65,13 +87,22 @@ public final class Reversi {
       providerModel.subscribeForTurnNotifs(controller2);
     } else {
       ReversiView viewPlayer2 = boardType == BoardType.SQUARE
-              ? new SquareReversiView(decoratedModel, PlayerColor.BLACK)
-              : new HexReversiView(decoratedModel, PlayerColor.BLACK);
+              ? new SquareReversiView(decoratedModel, PlayerColor.BLACK,
+                      decoratedModel::getStrongHints)
+              : new HexReversiView(decoratedModel, PlayerColor.BLACK,
+                      decoratedModel::getStrongHints);
       whitePlayer = ReversiUtils.createPlayer(decoratedModel, player2Type,
               PlayerColor.WHITE, boardType);
       Controller controller2 = new Controller(decoratedModel, whitePlayer, viewPlayer2);
       decoratedModel.addModelListener(controller2);
       decoratedModel.setWhitePlayer(whitePlayer);
+      decoratedModel.addHintListener(viewPlayer2::refresh);
+    }
+
+    if (hintType.toLowerCase().startsWith("strong")) {
+      String countStr = hintType.substring("strong".length());
+      int count = countStr.isEmpty() ? STRONG_HINT_COUNT : Integer.parseInt(countStr);
+      decoratedModel.enableStrongHints(count, STRONG_HINT_DEPTH, STRONG_HINT_MILLIS);
     }
 
   }
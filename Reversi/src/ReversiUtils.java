@@ -1,3 +1,6 @@
+import java.io.IOException;
+import java.nio.file.Paths;
+
 import adapter.ProviderStrategyAdapter;
 import adapter.ReversiModelImpl;
 import game.ReversiModel;
@@ -11,9 +14,20 @@ import provider.cs3500.reversi.strategy.PlaceForHighestScoreStrategy;
 import strategy.AvoidCornerCellStrategy;
 import strategy.CombinedStrategy;
 import strategy.CornerStrategy;
+import strategy.EndgameStrategy;
+import strategy.Evaluator;
+import strategy.LazySmpStrategy;
 import strategy.MaxCaptureStrategy;
 import strategy.MinimaxStrategy;
+import strategy.MoveFilter;
+import strategy.MoveOrdering;
+import strategy.OpeningBook;
+import strategy.ParallelMinimaxStrategy;
+import strategy.PatternEvaluator;
+import strategy.PatternWeights;
+import strategy.PvsStrategy;
 import strategy.ReversiStrategy;
+import strategy.StabilityEvaluator;
 
 /**
  * Utility class for reversi main game. Containing helper related to player creation
@@ -26,7 +40,8 @@ public class ReversiUtils {
   }
 
   /**
-   * Use to create player in the main method.
+   * Use to create player in the main method. An AI player type may end with
+   * ":book=<file>" to play the opening from a book made by the OpeningBookBuilder.
    *
    * @param model      - the reversi model.
    * @param playerType - either human or AI player.
@@ -38,7 +53,11 @@ public class ReversiUtils {
     if (playerType.toLowerCase().startsWith("human")) {
       return new HumanPlayer(color);
     } else if (playerType.toLowerCase().startsWith("ai")) {
-      String strategyPart = playerType.length() > 2 ? playerType.substring(2) : "";
+      int bookAt = playerType.toLowerCase().indexOf(":book=");
+      OpeningBook book = bookAt < 0 ? null
+              : loadBook(playerType.substring(bookAt + ":book=".length()));
+      String aiType = bookAt < 0 ? playerType : playerType.substring(0, bookAt);
+      String strategyPart = aiType.length() > 2 ? aiType.substring(2) : "";
       String strategyName = strategyPart.isEmpty() ? "maxcapture"
               : extractStrategyName(strategyPart); // default to maxcapture
       System.out.println("Extracted Strategy Name: " + strategyName);
@@ -46,7 +65,7 @@ public class ReversiUtils {
       String depthStr = strategyPart.length() > strategyName.length()
               ? strategyPart.substring(strategyName.length()) : "";
       ReversiStrategy strategy = returnStrategy(strategyName, depthStr, boardType);
-      return new AIPlayer(strategy, model, color);
+      return new AIPlayer(strategy, model, color, book);
     } else {
       throw new IllegalArgumentException("Unknown player type: " + playerType);
     }
@@ -61,7 +80,8 @@ public class ReversiUtils {
    */
   private static String extractStrategyName(String strategyPart) {
     // Add all strategy names here, longest names first
-    String[] strategyNames = {"getcorner", "avoidcorner", "minimax", "maxcapture", "combined"};
+    String[] strategyNames = {"getcorner", "avoidcorner", "minimax", "maxcapture", "combined",
+                              "parallel", "lazysmp", "pvs"};
     for (String name : strategyNames) {
       if (strategyPart.toLowerCase().startsWith(name)) {
         return name;
@@ -87,15 +107,195 @@ public class ReversiUtils {
       case "getcorner":
         return new CornerStrategy(boardType);
       case "minimax":
-        int depth = depthStr.isEmpty() ? 5 : Integer.parseInt(depthStr);
-        return new MinimaxStrategy(depth);
+        return minimaxStrategy(depthStr, false);
+      case "pvs":
+        return minimaxStrategy(depthStr, true);
+      case "parallel":
+        return parallelStrategy(depthStr);
+      case "lazysmp":
+        return lazySmpStrategy(depthStr);
       case "combined":
-        return new CombinedStrategy();
+        return combinedStrategy();
       default:
         throw new IllegalArgumentException("Unknown strategy: " + strategyName);
     }
   }
 
+  /**
+   * Initialize the combined strategy of the configuration: a corner if there is one, else
+   * the move that captures the most discs among the ones that are not next to a corner (all
+   * of them if they all are), the most upper left one on a tie.
+   *
+   * @return the combined strategy.
+   */
+  private static ReversiStrategy combinedStrategy() {
+    CombinedStrategy strategy = new CombinedStrategy();
+    strategy.addFilter(MoveFilter.corners());
+    strategy.addFilter(MoveFilter.awayFromCorners());
+    strategy.addStrategy(new MaxCaptureStrategy());
+    return strategy;
+  }
+
+  /**
+   * Initialize the minimax strategy from its options: an optional depth, then an optional
+   * time limit per move such as "@250ms". With a time limit and no depth the search goes as
+   * deep as the time allows. Other options follow, each after a colon: "tt=<entries>" gives
+   * the strategy a transposition table, the entries may end with k or m (times 1024 or
+   * 1024 * 1024). "order" sorts the moves by corners, killer moves and history, and
+   * "order=mobility" also by the replies they leave the opponent. "endgame=<empties>"
+   * solves the game exactly once there are that many empty cells left. "eval=pattern"
+   * scores positions with a PatternEvaluator instead of the disc difference, "eval=stable"
+   * with a StabilityEvaluator, and "weights=<file>" with a PatternEvaluator using the
+   * weights of a file made by the PatternTrainer.
+   * The same options set up the principal variation search strategy.
+   *
+   * @param options            - what follows "minimax" or "pvs" in the configuration, like
+   *                           "3", "@250ms", "8@1000ms" or "6:tt=1m".
+   * @param principalVariation - true for a PvsStrategy, false for a MinimaxStrategy.
+   * @return the minimax strategy.
+   */
+  private static ReversiStrategy minimaxStrategy(String options, boolean principalVariation) {
+    String[] parts = options.split(":");
+    int tableEntries = 0;
+    MoveOrdering ordering = null;
+    int endgame = -1;
+    Evaluator evaluator = null;
+    for (int i = 1; i < parts.length; i++) {
+      String option = parts[i].toLowerCase();
+      if (option.startsWith("tt=")) {
+        tableEntries = parseCount(option.substring("tt=".length()));
+      } else if (option.equals("order")) {
+        ordering = new MoveOrdering(false);
+      } else if (option.equals("order=mobility")) {
+        ordering = new MoveOrdering(true);
+      } else if (option.equals("eval=pattern")) {
+        evaluator = new PatternEvaluator();
+      } else if (option.equals("eval=stable")) {
+        evaluator = new StabilityEvaluator();
+      } else if (option.startsWith("weights=")) {
+        evaluator = new PatternEvaluator(loadWeights(parts[i].substring("weights=".length())));
+      } else if (option.startsWith("endgame=")) {
+        endgame = Integer.parseInt(option.substring("endgame=".length()));
+      } else {
+        throw new IllegalArgumentException("Unknown minimax option: " + parts[i]);
+      }
+    }
+
+    String search = parts.length == 0 ? "" : parts[0];
+    int at = search.indexOf('@');
+    String depthStr = at < 0 ? search : search.substring(0, at);
+    int depth;
+    long timeLimit = 0;
+    if (at < 0) {
+      depth = depthStr.isEmpty() ? 5 : Integer.parseInt(depthStr);
+    } else {
+      String timeStr = search.substring(at + 1).toLowerCase();
+      if (timeStr.endsWith("ms")) {
+        timeStr = timeStr.substring(0, timeStr.length() - 2);
+      }
+      depth = depthStr.isEmpty() ? Integer.MAX_VALUE : Integer.parseInt(depthStr);
+      timeLimit = Long.parseLong(timeStr);
+    }
+    ReversiStrategy strategy = principalVariation
+            ? new PvsStrategy(depth, timeLimit, tableEntries, ordering, evaluator)
+            : new MinimaxStrategy(depth, timeLimit, tableEntries, ordering, evaluator);
+    return endgame < 0 ? strategy : new EndgameStrategy(endgame, strategy);
+  }
+
+  /**
+   * Initialize the parallel minimax strategy from its options: an optional depth, then
+   * options after a colon: "threads=<n>" for the number of threads, one per processor if it
+   * is not given, and "tt=<entries>" for the size of the shared transposition table.
+   *
+   * @param options - what follows "parallel" in the configuration, like "6" or
+   *                "8:threads=4:tt=1m".
+   * @return the parallel minimax strategy.
+   */
+  private static ReversiStrategy parallelStrategy(String options) {
+    String[] parts = options.split(":");
+    int threads = Runtime.getRuntime().availableProcessors();
+    int tableEntries = 1 << 16;
+    for (int i = 1; i < parts.length; i++) {
+      String option = parts[i].toLowerCase();
+      if (option.startsWith("threads=")) {
+        threads = Integer.parseInt(option.substring("threads=".length()));
+      } else if (option.startsWith("tt=")) {
+        tableEntries = parseCount(option.substring("tt=".length()));
+      } else {
+        throw new IllegalArgumentException("Unknown parallel option: " + parts[i]);
+      }
+    }
+    String depthStr = parts.length == 0 ? "" : parts[0];
+    int depth = depthStr.isEmpty() ? 5 : Integer.parseInt(depthStr);
+    return new ParallelMinimaxStrategy(depth, threads, tableEntries);
+  }
+
+  /**
+   * Initialize the Lazy SMP strategy from its options: a depth and a time limit per move as
+   * for minimax, then "threads=<n>" and "tt=<entries>" as for the parallel strategy.
+   *
+   * @param options - what follows "lazysmp" in the configuration, like "8", "@250ms" or
+   *                "@1000ms:threads=8:tt=4m".
+   * @return the Lazy SMP strategy.
+   */
+  private static ReversiStrategy lazySmpStrategy(String options) {
+    String[] parts = options.split(":");
+    int threads = Runtime.getRuntime().availableProcessors();
+    int tableEntries = 1 << 16;
+    for (int i = 1; i < parts.length; i++) {
+      String option = parts[i].toLowerCase();
+      if (option.startsWith("threads=")) {
+        threads = Integer.parseInt(option.substring("threads=".length()));
+      } else if (option.startsWith("tt=")) {
+        tableEntries = parseCount(option.substring("tt=".length()));
+      } else {
+        throw new IllegalArgumentException("Unknown lazysmp option: " + parts[i]);
+      }
+    }
+
+    String search = parts.length == 0 ? "" : parts[0];
+    int at = search.indexOf('@');
+    String depthStr = at < 0 ? search : search.substring(0, at);
+    if (at < 0) {
+      int depth = depthStr.isEmpty() ? 5 : Integer.parseInt(depthStr);
+      return new LazySmpStrategy(depth, 0, threads, tableEntries);
+    }
+    String timeStr = search.substring(at + 1).toLowerCase();
+    if (timeStr.endsWith("ms")) {
+      timeStr = timeStr.substring(0, timeStr.length() - 2);
+    }
+    int depth = depthStr.isEmpty() ? Integer.MAX_VALUE : Integer.parseInt(depthStr);
+    return new LazySmpStrategy(depth, Long.parseLong(timeStr), threads, tableEntries);
+  }
+
+  // load the weights of a pattern evaluator.
+  private static PatternWeights loadWeights(String file) {
+    try {
+      return PatternWeights.load(Paths.get(file));
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Cannot load pattern weights: " + e.getMessage(), e);
+    }
+  }
+
+  // open an opening book.
+  private static OpeningBook loadBook(String file) {
+    try {
+      return OpeningBook.load(Paths.get(file));
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Cannot load opening book: " + e.getMessage(), e);
+    }
+  }
+
+  // parse a count that may end with k (times 1024) or m (times 1024 * 1024).
+  private static int parseCount(String count) {
+    if (count.endsWith("k")) {
+      return Integer.parseInt(count.substring(0, count.length() - 1)) << 10;
+    } else if (count.endsWith("m")) {
+      return Integer.parseInt(count.substring(0, count.length() - 1)) << 20;
+    }
+    return Integer.parseInt(count);
+  }
+
   /**
    * Create a player for the provider code.
    * @param model - the model adapter.
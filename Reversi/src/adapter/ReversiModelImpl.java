@@ -108,11 +108,8 @@ public class ReversiModelImpl implements ReversiModel {
     Set<CustomPoint2D> validMoves = new HashSet<>();
     GameState gameState = convertPlayerTileToGameState(t);
 
-    // Iterate through all cells on the board
-    for (ICell cell : adapt.getBoard()) {
-      if (cell.getPlayer() == PlayerState.EMPTY && adapt.isValidMove(cell, gameState)) {
-        validMoves.add(new CustomPoint2DImpl(cell.getR(), cell.getQ()));
-      }
+    for (ICell cell : adapt.getLegalMoves(gameState)) {
+      validMoves.add(new CustomPoint2DImpl(cell.getR(), cell.getQ()));
     }
 
     return validMoves;
@@ -0,0 +1,70 @@
+package decorator;
+
+import java.util.Arrays;
+
+import game.ReadonlyReversiModel;
+import game.utility.GameState;
+import game.utility.MoveList;
+import game.utility.RayTable;
+
+/**
+ * Represent the hints of one position: the captures of every cell for the player to move,
+ * 0 on the cells that are not valid moves. The table is filled from one scoring of the moves
+ * and kept until the position changes, so a view that repaints the hints many times per move
+ * asks the rules once. The cached position is known by its hash and the player to move, and
+ * the decorator also drops it when the model says a move was made.
+ */
+final class HintCache {
+  private final MoveList moves = new MoveList();
+  private RayTable rays;
+  private int[] captures = new int[0]; // [cell index]
+  private long hash;
+  private GameState player;
+  private boolean isFilled;
+
+  /**
+   * Forget the cached position, the next hint scores the moves again.
+   */
+  synchronized void invalidate() {
+    isFilled = false;
+  }
+
+  /**
+   * Get the hint of a cell in the current position of a model, filling the table first if it
+   * holds another position.
+   *
+   * @param model - the model.
+   * @param q     - the q coordinate of the cell.
+   * @param r     - the r coordinate of the cell.
+   * @return the captures of a move on the cell, 0 if it is not a valid move.
+   */
+  synchronized int getCaptures(ReadonlyReversiModel model, int q, int r) {
+    GameState toMove = model.getCurrentState();
+    if (toMove != GameState.BLACK_TURN && toMove != GameState.WHITE_TURN) {
+      return 0;
+    }
+    long positionHash = model.getPositionHash();
+    if (!isFilled || positionHash != hash || toMove != player) {
+      fill(model, toMove, positionHash);
+    }
+    int index = rays.indexOf(q, r);
+    return index < 0 ? 0 : captures[index];
+  }
+
+  // score the moves of the position and spread them over the cells.
+  private void fill(ReadonlyReversiModel model, GameState toMove, long positionHash) {
+    model.scoreMoves(toMove, moves);
+    rays = moves.getRays();
+    if (captures.length != rays.getCellCount()) {
+      captures = new int[rays.getCellCount()];
+    } else {
+      Arrays.fill(captures, 0);
+    }
+    for (int move = 0; move < moves.size(); move++) {
+      captures[moves.getIndex(move)] = moves.getCaptures(move);
+    }
+    hash = positionHash;
+    player = toMove;
+    isFilled = true;
+  }
+}
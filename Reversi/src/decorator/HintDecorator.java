@@ -1,23 +1,50 @@
 package decorator;
 
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import controller.ModelActionListener;
+import game.type.BoardType;
+import game.utility.BoardSnapshot;
 import game.utility.GameState;
 import game.utility.ICell;
+import game.utility.MoveList;
+import game.utility.RankedMoves;
 import game.ReversiModel;
 import player.Player;
+import player.PlayerColor;
+import strategy.MoveRanker;
 
 /**
  * Hint decorator - Allows the users to display hints on the selected cell.
  * This takes in a reversi model and allows users to enable hints.
+ * The hints of the current position are cached: the views repaint on every click and key,
+ * and read the captures of the cells from the cache instead of evaluating the rules again.
+ * The cache is dropped when the decorated model reports a move.
+ * With strong hints on, the turn of a human player also starts a search for the best moves
+ * on a snapshot of the position, on a worker thread, so the views never wait for it. The
+ * search is bounded in time, and its result is published when it is done. Each change of the
+ * position counts up a version number: the search of an older version is stopped, and its
+ * result is thrown away if it finishes anyway.
  */
 public class HintDecorator implements ReversiModel {
   private ReversiModel decoratedModel;
   private boolean blackHintsEnabled;
 
   private boolean whiteHintsEnabled;
-
+  private final HintCache hints = new HintCache();
+  private final Object strongHintLock = new Object();
+  private final List<Runnable> hintListeners = new CopyOnWriteArrayList<>();
+  private MoveRanker ranker; // null while strong hints are off
+  private int strongHintCount;
+  private ExecutorService worker; // runs the searches, made when strong hints are turned on
+  private Future<?> search; // the search of the current position, null if none
+  private long positionVersion;
+  private volatile RankedMoves strongHints; // null until the search of the position is done
 
   /**
    * Hint Decorator constructor.
@@ -27,6 +54,7 @@ public class HintDecorator implements ReversiModel {
     this.decoratedModel = decoratedModel;
     this.blackHintsEnabled = false;
     this.whiteHintsEnabled = false;
+    decoratedModel.addModelListener(new HintInvalidator());
   }
 
 
@@ -45,6 +73,11 @@ public class HintDecorator implements ReversiModel {
     return decoratedModel.getSize();
   }
 
+  @Override
+  public BoardType getBoardType() {
+    return decoratedModel.getBoardType();
+  }
+
   @Override
   public ICell getCell(int q, int r) {
     return decoratedModel.getCell(q, r);
@@ -70,11 +103,21 @@ public class HintDecorator implements ReversiModel {
     return decoratedModel.isValidMove(cell, player);
   }
 
+  @Override
+  public List<ICell> getLegalMoves(GameState player) {
+    return decoratedModel.getLegalMoves(player);
+  }
+
   @Override
   public int getCaptureCells(ICell cell, GameState player) {
     return decoratedModel.getCaptureCells(cell, player);
   }
 
+  @Override
+  public void scoreMoves(GameState player, MoveList into) {
+    decoratedModel.scoreMoves(player, into);
+  }
+
   @Override
   public void wannaPass() {
     decoratedModel.wannaPass();
@@ -90,6 +133,163 @@ public class HintDecorator implements ReversiModel {
     return decoratedModel.getClone();
   }
 
+  @Override
+  public BoardSnapshot getSnapshot() {
+    return decoratedModel.getSnapshot();
+  }
+
+  @Override
+  public long getPositionHash() {
+    return decoratedModel.getPositionHash();
+  }
+
+  @Override
+  public boolean isStable(int q, int r) {
+    return decoratedModel.isStable(q, r);
+  }
+
+  @Override
+  public int[] getStableCounts() {
+    return decoratedModel.getStableCounts();
+  }
+
+  @Override
+  public int getHintCaptures(int q, int r) {
+    return hints.getCaptures(decoratedModel, q, r);
+  }
+
+  /**
+   * Get the strong hints of the current position: its best moves with their scores, as
+   * found by the search that runs in the background. They may not be ready yet.
+   *
+   * @return the best moves, best first, or null if there are none for this position yet.
+   */
+  public RankedMoves getStrongHints() {
+    return strongHints;
+  }
+
+  /**
+   * Turn strong hints on. From now on, whenever a human player is to move, the best moves of
+   * the position are searched in the background, starting with the current position.
+   *
+   * @param count           - how many of the best moves to show.
+   * @param depth           - the deepest search to try.
+   * @param timeLimitMillis - the time a search may take in milliseconds.
+   * @throws IllegalArgumentException if the count, depth or time limit is not positive.
+   */
+  public void enableStrongHints(int count, int depth, long timeLimitMillis) {
+    if (count <= 0 || depth <= 0 || timeLimitMillis <= 0) {
+      throw new IllegalArgumentException("Strong hints need a count, a depth and a time limit");
+    }
+    synchronized (strongHintLock) {
+      if (worker == null) {
+        worker = Executors.newSingleThreadExecutor(task -> {
+          Thread thread = new Thread(task, "strong-hints");
+          thread.setDaemon(true); // a search never keeps the game open
+          return thread;
+        });
+      }
+      ranker = new MoveRanker(depth, timeLimitMillis);
+      strongHintCount = count;
+    }
+    positionChanged(true);
+  }
+
+  /**
+   * Turn strong hints off, stopping the running search.
+   */
+  public void disableStrongHints() {
+    synchronized (strongHintLock) {
+      ranker = null;
+      if (worker != null) {
+        worker.shutdownNow();
+        worker = null;
+      }
+    }
+    positionChanged(false);
+  }
+
+  /**
+   * Check if strong hints are on.
+   *
+   * @return true if the best moves are searched on the turns of human players.
+   */
+  public boolean isStrongHintsEnabled() {
+    synchronized (strongHintLock) {
+      return ranker != null;
+    }
+  }
+
+  /**
+   * Add a listener told when the strong hints of the position are ready. It is called on the
+   * worker thread, so a view should only ask Swing to repaint, which is safe from any thread.
+   *
+   * @param listener - the listener.
+   */
+  public void addHintListener(Runnable listener) {
+    hintListeners.add(listener);
+  }
+
+  /**
+   * Get the version of the position, counted up each time the decorated model reports a
+   * change of position.
+   *
+   * @return the version.
+   */
+  public long getPositionVersion() {
+    synchronized (strongHintLock) {
+      return positionVersion;
+    }
+  }
+
+  // drop the hints of the old position, and search the new one when a human is to move.
+  private void positionChanged(boolean searchNewPosition) {
+    hints.invalidate();
+    synchronized (strongHintLock) {
+      positionVersion++;
+      strongHints = null;
+      if (search != null) {
+        search.cancel(true);
+        search = null;
+      }
+      if (!searchNewPosition || ranker == null || !isHumanToMove()) {
+        return;
+      }
+      long version = positionVersion;
+      MoveRanker searcher = ranker;
+      int count = strongHintCount;
+      // the snapshot is taken here, the worker never reads the live model
+      BoardSnapshot snapshot = decoratedModel.getSnapshot();
+      search = worker.submit(() -> publish(version, searcher.rank(snapshot, count)));
+    }
+  }
+
+  // check if the turn is a human's, and the game goes on.
+  private boolean isHumanToMove() {
+    GameState turn = decoratedModel.getCurrentState();
+    Player player = decoratedModel.getCurrentPlayer();
+    return (turn == GameState.BLACK_TURN || turn == GameState.WHITE_TURN)
+            && player != null && !player.isAI()
+            && decoratedModel.isGameStarted() && !decoratedModel.isGameOver();
+  }
+
+  // publish the result of a search, unless the position changed since it started or not even
+  // one ply was searched, its moves then have no scores to show.
+  private void publish(long version, RankedMoves found) {
+    if (found.getDepth() == 0) {
+      return;
+    }
+    synchronized (strongHintLock) {
+      if (version != positionVersion) {
+        return; // stale
+      }
+      strongHints = found;
+    }
+    for (Runnable listener : hintListeners) {
+      listener.run();
+    }
+  }
+
   @Override
   public void toggleBlackHints() {
     this.blackHintsEnabled = !this.blackHintsEnabled;
@@ -125,6 +325,8 @@ public class HintDecorator implements ReversiModel {
   @Override
   public void gameStarted() {
     decoratedModel.gameStarted();
+    // the models report the new turn before the discs are placed, search the full board
+    positionChanged(true);
   }
 
   @Override
@@ -176,4 +378,28 @@ public class HintDecorator implements ReversiModel {
   public Player getCurrentPlayer() {
     return decoratedModel.getCurrentPlayer();
   }
+
+  // drop the hints whenever the position of the decorated model changes. a new turn or game
+  // starts the strong hint search, the score update comes in the middle of a move.
+  private final class HintInvalidator implements ModelActionListener {
+    @Override
+    public void onPlayerTurnChanged(PlayerColor playerColor) {
+      positionChanged(true);
+    }
+
+    @Override
+    public void onGameOver(GameState winner) {
+      positionChanged(false);
+    }
+
+    @Override
+    public void onScoreUpdate() {
+      positionChanged(false);
+    }
+
+    @Override
+    public void onGameStarted() {
+      positionChanged(true);
+    }
+  }
 }
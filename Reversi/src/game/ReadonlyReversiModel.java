@@ -1,9 +1,14 @@
 package game;
 
+import java.util.List;
 import java.util.Set;
+
 import controller.ModelActionListener;
+import game.type.BoardType;
+import game.utility.BoardSnapshot;
 import game.utility.GameState;
 import game.utility.ICell;
+import game.utility.MoveList;
 
 /**
  * Represents a read-only view of a reversi game. This interface is used to allow
@@ -40,6 +45,13 @@ public interface ReadonlyReversiModel {
    */
   int getSize();
 
+  /**
+   * Get the type of board of the model.
+   *
+   * @return - the board type, hexagonal or square.
+   */
+  BoardType getBoardType();
+
   /**
    * Return the cell at the corresponding coordinates.
    *
@@ -81,6 +93,15 @@ public interface ReadonlyReversiModel {
    */
   boolean isValidMove(ICell cell, GameState player);
 
+  /**
+   * Return the cells where the given player may move, top row first and left to right
+   * inside a row.
+   *
+   * @param player - BLACK_TURN or WHITE_TURN.
+   * @return the valid moves, empty if there is none.
+   */
+  List<ICell> getLegalMoves(GameState player);
+
   /**
    * get the captured cells for this move.
    *
@@ -90,6 +111,17 @@ public interface ReadonlyReversiModel {
    */
   int getCaptureCells(ICell cell, GameState player);
 
+  /**
+   * Score every valid move of the given player in one pass over the board: fill the list
+   * with the moves in the order of getLegalMoves, each with the number of discs it
+   * captures and the mask of the discs it flips. Strategies keep one list and refill it on
+   * each turn, so asking for the moves and their captures allocates nothing.
+   *
+   * @param player - BLACK_TURN or WHITE_TURN.
+   * @param into   - the list to fill, emptied first.
+   */
+  void scoreMoves(GameState player, MoveList into);
+
   /**
    * if there is no more valid move, pass.
    * if there are two passes in a row, game is over.
@@ -112,11 +144,49 @@ public interface ReadonlyReversiModel {
 
 
   /**
-   * Creates a modifiable copy of this game.
+   * Creates a modifiable copy of this game. The copy is started, has the same player to
+   * move, and shares no cells with this game.
    * @return the modifiable clone
    */
   ReversiModel getClone();
 
+  /**
+   * Take a snapshot of the current position as a flat array of cells.
+   * @return the snapshot, independent of this game.
+   */
+  BoardSnapshot getSnapshot();
+
+  /**
+   * Get the Zobrist hash of the current position: the discs on the board and the player to
+   * move. Equal positions on boards of the same type and size have equal hashes, in any game.
+   * @return the hash.
+   */
+  long getPositionHash();
+
+  /**
+   * Check if the disc on a cell is stable: it can never be flipped, whatever the players do.
+   * A few stable discs may not be found, but a disc said to be stable always is.
+   * @param q - the q coordinate of the cell.
+   * @param r - the r coordinate of the cell.
+   * @return true if there is a stable disc on the cell.
+   */
+  boolean isStable(int q, int r);
+
+  /**
+   * Count the stable discs of both players, see isStable.
+   * @return the stable discs of black, then of white.
+   */
+  int[] getStableCounts();
+
+  /**
+   * Get the hint of a cell for the player to move: the number of discs a move there would
+   * capture. This is what the views show when hints are enabled.
+   * @param q - the q coordinate of the cell.
+   * @param r - the r coordinate of the cell.
+   * @return the captures, 0 if the cell is not a valid move or no one is to move.
+   */
+  int getHintCaptures(int q, int r);
+
 
   /**
    * This is the hint for block player.
@@ -0,0 +1,707 @@
+package game.type;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+import controller.ModelActionListener;
+import game.utility.BoardSnapshot;
+import game.utility.GameState;
+import game.utility.ICell;
+import game.utility.MoveList;
+import game.utility.PlayerState;
+import game.utility.RayTable;
+import game.utility.SearchBoard;
+import game.utility.StableDiscs;
+import game.utility.ZobristKeys;
+import game.ReversiModel;
+import player.Player;
+import player.PlayerColor;
+
+
+/**
+ * Represent a hexagon reversi game of any size backed by multi-word bitboards.
+ * Each axial cell (q, r) maps to the bit (r + size) * stride + (q + size), where the stride
+ * is one wider than the hexagon so every row ends in an always-empty guard column. With that
+ * layout each of the 6 hex directions is a constant shift of the whole bitboard, and a
+ * per-direction mask of the cells a one-step shift may land on keeps moves on the hexagon.
+ * The black and white discs are stored in long[] words, and legal moves and flips are
+ * computed with shift-and-mask fills over those words.
+ * The cells handed out by this model are views of the bitboards.
+ */
+public class HexBitboard implements ReversiModel {
+  private final int size; // the size of the game board
+  private final int stride; // bits per row of the layout, 2 * size + 2
+  private final int words; // longs per bitboard
+  private final int[] shifts; // the bit shift of each of the 6 directions
+  private final long[][] landMasks; // per direction, the cells a one-step shift may land on
+  private final long[] valid; // the cells of the hexagon
+  private final BitCell[] cells; // the cell views, indexed by bit, null off the hexagon
+  private final long[] black; // the black discs
+  private final long[] white; // the white discs
+  // scratch words reused by the fills so that rule checks don't allocate.
+  private final long[] run;
+  private final long[] next;
+  private final long[] moves;
+  private final long[] scored;
+  private final RayTable rays; // the ray table of the hexagon boards of this size
+  private final ZobristKeys keys; // hash keys of the boards of this type and size
+  private long cellHash; // Zobrist hash of the discs on the board
+  private final StableDiscs stableDiscs; // stable discs found so far in the game
+  private boolean isGameStarted; // check if game is started
+  private GameState currentState; // keep track of the current player.
+  public int countPass; // keep track of pass times.
+  private ModelActionListener modelListener;
+  private Player currentPlayer;
+  private Player blackPlayer;
+  private Player whitePlayer;
+  private List<ModelActionListener> listeners = new ArrayList<>();
+  private boolean blackHintsEnabled;
+  private boolean whiteHintsEnabled;
+
+  /**
+   * HexBitboard constructor.
+   *
+   * @param size - size of the board.
+   */
+  public HexBitboard(int size) {
+    if (size <= 0) {
+      throw new IllegalArgumentException("Size cannot be zero or negative");
+    }
+    this.size = size;
+    this.rays = RayTable.of(BoardType.HEXAGONAL, size);
+    this.keys = ZobristKeys.of(rays);
+    this.stableDiscs = new StableDiscs(rays);
+    this.stride = 2 * size + 2;
+    int bits = (2 * size + 1) * stride;
+    this.words = (bits + 63) >>> 6;
+    this.valid = new long[words];
+    this.cells = new BitCell[bits];
+    for (int r = -size; r <= size; r++) {
+      for (int q = -size; q <= size; q++) {
+        if (Math.abs(q + r) <= size) {
+          int bit = bitOf(q, r);
+          valid[bit >>> 6] |= 1L << bit;
+          cells[bit] = new BitCell(bit, q, r);
+        }
+      }
+    }
+    // same direction order as HexReversi: (0, 1), (-1, 1), (-1, 0), (0, -1), (1, -1), (1, 0)
+    this.shifts = new int[]{stride, stride - 1, -1, -stride, 1 - stride, 1};
+    this.landMasks = new long[shifts.length][words];
+    for (int direction = 0; direction < shifts.length; direction++) {
+      shift(valid, shifts[direction], valid, landMasks[direction]);
+    }
+    this.black = new long[words];
+    this.white = new long[words];
+    this.run = new long[words];
+    this.next = new long[words];
+    this.moves = new long[words];
+    this.scored = new long[words];
+    this.blackHintsEnabled = false;
+    this.whiteHintsEnabled = false;
+  }
+
+  // the bit of the given axial coordinates, the caller must check they are on the board.
+  private int bitOf(int q, int r) {
+    return (r + size) * stride + (q + size);
+  }
+
+  // shift src by the given number of bits into dst, keeping only the bits set in mask.
+  // src and dst must be different arrays.
+  private void shift(long[] src, int amount, long[] mask, long[] dst) {
+    int wordShift = Math.abs(amount) >>> 6;
+    int bitShift = Math.abs(amount) & 63;
+    for (int i = 0; i < words; i++) {
+      long value;
+      if (amount > 0) {
+        int from = i - wordShift;
+        value = from >= 0 ? src[from] << bitShift : 0L;
+        if (bitShift != 0 && from - 1 >= 0) {
+          value |= src[from - 1] >>> (64 - bitShift);
+        }
+      } else {
+        int from = i + wordShift;
+        value = from < words ? src[from] >>> bitShift : 0L;
+        if (bitShift != 0 && from + 1 < words) {
+          value |= src[from + 1] << (64 - bitShift);
+        }
+      }
+      dst[i] = value & mask[i];
+    }
+  }
+
+  // extend run along the given direction through the cells of opp until it stops growing,
+  // then leave in next the cells one step beyond the run.
+  private void fillThrough(long[] opp, int direction) {
+    boolean grew = true;
+    while (grew) {
+      shift(run, shifts[direction], landMasks[direction], next);
+      grew = false;
+      for (int i = 0; i < words; i++) {
+        long added = next[i] & opp[i] & ~run[i];
+        if (added != 0) {
+          run[i] |= added;
+          grew = true;
+        }
+      }
+    }
+    shift(run, shifts[direction], landMasks[direction], next);
+  }
+
+  // compute into moves every empty cell where the owner of own may play against opp.
+  private void legalMoves(long[] own, long[] opp) {
+    for (int i = 0; i < words; i++) {
+      moves[i] = 0L;
+    }
+    for (int direction = 0; direction < shifts.length; direction++) {
+      shift(own, shifts[direction], landMasks[direction], run);
+      for (int i = 0; i < words; i++) {
+        run[i] &= opp[i];
+      }
+      fillThrough(opp, direction);
+      for (int i = 0; i < words; i++) {
+        moves[i] |= next[i] & valid[i] & ~(own[i] | opp[i]);
+      }
+    }
+  }
+
+  // compute into moves the opponent discs flipped when the owner of own plays on bit.
+  // return the number of flipped discs.
+  private int flips(int bit, long[] own, long[] opp) {
+    for (int i = 0; i < words; i++) {
+      moves[i] = 0L;
+    }
+    if (((own[bit >>> 6] | opp[bit >>> 6]) & (1L << bit)) != 0) {
+      return 0;
+    }
+    int flipped = 0;
+    for (int direction = 0; direction < shifts.length; direction++) {
+      for (int i = 0; i < words; i++) {
+        next[i] = 0L;
+      }
+      next[bit >>> 6] = 1L << bit;
+      shift(next, shifts[direction], landMasks[direction], run);
+      for (int i = 0; i < words; i++) {
+        run[i] &= opp[i];
+      }
+      fillThrough(opp, direction);
+      boolean closed = false;
+      for (int i = 0; i < words; i++) {
+        closed |= (next[i] & own[i]) != 0;
+      }
+      if (closed) {
+        for (int i = 0; i < words; i++) {
+          moves[i] |= run[i];
+          flipped += Long.bitCount(run[i]);
+        }
+      }
+    }
+    return flipped;
+  }
+
+  // the discs of the given player.
+  private long[] discsOf(GameState player) {
+    return player == GameState.BLACK_TURN ? black : white;
+  }
+
+  // the discs of the opponent of the given player.
+  private long[] discsAgainst(GameState player) {
+    return player == GameState.BLACK_TURN ? white : black;
+  }
+
+  // return the bit of the given cell, or -1 if it is not on the board.
+  private int bitOf(ICell cell) {
+    return cellExists(cell.getQ(), cell.getR()) ? bitOf(cell.getQ(), cell.getR()) : -1;
+  }
+
+  // the ray table index of the cell of a bit on the hexagon.
+  private int indexOf(int bit) {
+    return rays.indexOf(cells[bit].getQ(), cells[bit].getR());
+  }
+
+  private static int count(long[] bits) {
+    int count = 0;
+    for (long word : bits) {
+      count += Long.bitCount(word);
+    }
+    return count;
+  }
+
+  @Override
+  public int[] getScores() {
+    return new int[]{count(black), count(white)};
+  }
+
+  @Override
+  public Set<ICell> getBoard() {
+    Set<ICell> copy = new HashSet<>();
+    for (ICell cell : cells) {
+      if (cell != null) {
+        copy.add(cell);
+      }
+    }
+    return copy;
+  }
+
+  @Override
+  public boolean isGameOver() throws IllegalStateException {
+    if (!isGameStarted) {
+      throw new IllegalStateException("Game cannot be over if game hasn't started");
+    }
+    // Check if either player has no discs left
+    int blackDiscs = count(black);
+    int whiteDiscs = count(white);
+    if (blackDiscs == 0 || whiteDiscs == 0) {
+      return true;
+    }
+    // Check if game board is full
+    if (blackDiscs + whiteDiscs == count(valid)) {
+      return true;
+    }
+    // Check if both players have passed in succession
+    if (countPass >= 2) {
+      return true;
+    }
+    // Check if there are no more valid moves for the current player
+    return !hasValidMoves();
+  }
+
+  @Override
+  public int getSize() {
+    return this.size;
+  }
+
+  @Override
+  public BoardType getBoardType() {
+    return BoardType.HEXAGONAL;
+  }
+
+  @Override
+  public ICell getCell(int q, int r) {
+    if (!isGameStarted) {
+      throw new IllegalStateException("Game has not started cant get a cell");
+    }
+    if (!cellExists(q, r)) {
+      throw new IllegalStateException("Cell does not exist: " + q + ", " + r);
+    }
+    return cells[bitOf(q, r)];
+  }
+
+  @Override
+  public boolean cellExists(int q, int r) {
+    return q >= -size && q <= size && r >= -size && r <= size && Math.abs(q + r) <= size;
+  }
+
+  @Override
+  public GameState returnWinner() {
+    if (isGameOver()) {
+      int blackCount = count(black);
+      int whiteCount = count(white);
+      if (blackCount > whiteCount) {
+        return GameState.BLACK_WIN;
+      } else if (blackCount < whiteCount) {
+        return GameState.WHITE_WIN;
+      }
+    }
+    return GameState.TIE;
+  }
+
+  @Override
+  public GameState getCurrentState() {
+    return currentState;
+  }
+
+  @Override
+  public boolean isValidMove(ICell cell, GameState player) {
+    int bit = bitOf(cell);
+    return bit >= 0 && flips(bit, discsOf(player), discsAgainst(player)) > 0;
+  }
+
+  @Override
+  public List<ICell> getLegalMoves(GameState player) {
+    legalMoves(discsOf(player), discsAgainst(player));
+    List<ICell> found = new ArrayList<>(count(moves));
+    for (int i = 0; i < words; i++) {
+      long word = moves[i];
+      while (word != 0) {
+        found.add(cells[i * 64 + Long.numberOfTrailingZeros(word)]);
+        word &= word - 1;
+      }
+    }
+    return found;
+  }
+
+  @Override
+  public int getCaptureCells(ICell cell, GameState player) {
+    int bit = bitOf(cell);
+    return bit < 0 ? 0 : flips(bit, discsOf(player), discsAgainst(player));
+  }
+
+  // record that the cell of a bit changed from one color to another.
+  private void cellChanged(int bit, int previous, int color) {
+    int index = indexOf(bit);
+    cellHash ^= keys.cell(index, previous) ^ keys.cell(index, color);
+    stableDiscs.set(index, color);
+  }
+
+  @Override
+  public void scoreMoves(GameState player, MoveList into) {
+    long[] own = discsOf(player);
+    long[] opp = discsAgainst(player);
+    legalMoves(own, opp);
+    // flips reuses moves, so the legal moves are walked from a copy
+    System.arraycopy(moves, 0, scored, 0, words);
+    into.reset(rays);
+    for (int i = 0; i < words; i++) {
+      long word = scored[i];
+      while (word != 0) {
+        int bit = i * 64 + Long.numberOfTrailingZeros(word);
+        into.add(indexOf(bit));
+        flips(bit, own, opp);
+        for (int j = 0; j < words; j++) {
+          long flipped = moves[j];
+          while (flipped != 0) {
+            into.addFlip(indexOf(j * 64 + Long.numberOfTrailingZeros(flipped)));
+            flipped &= flipped - 1;
+          }
+        }
+        word &= word - 1;
+      }
+    }
+  }
+
+  @Override
+  public void wannaPass() {
+    if (!hasValidMoves()) {
+      switchPlayer();
+      countPass++;
+    }
+    if (modelListener != null) {
+      modelListener.onScoreUpdate();
+    }
+  }
+
+  @Override
+  public void setModelListener(ModelActionListener listener) {
+    this.modelListener = listener;
+  }
+
+  @Override
+  public boolean isGameStarted() {
+    return isGameStarted;
+  }
+
+  @Override
+  public ReversiModel getClone() {
+    HexBitboard clone = new HexBitboard(size);
+    System.arraycopy(black, 0, clone.black, 0, words);
+    System.arraycopy(white, 0, clone.white, 0, words);
+    clone.cellHash = this.cellHash;
+    clone.stableDiscs.copyFrom(this.stableDiscs);
+    clone.isGameStarted = this.isGameStarted;
+    clone.currentState = this.currentState;
+    clone.countPass = this.countPass;
+    clone.blackPlayer = this.blackPlayer;
+    clone.whitePlayer = this.whitePlayer;
+    clone.currentPlayer = this.currentPlayer;
+    return clone;
+  }
+
+  @Override
+  public BoardSnapshot getSnapshot() {
+    byte[] colors = new byte[rays.getCellCount()];
+    for (int index = 0; index < colors.length; index++) {
+      ICell cell = cells[bitOf(rays.getQ(index), rays.getR(index))];
+      colors[index] = SearchBoard.colorOf(cell.getPlayer());
+    }
+    return new BoardSnapshot(rays, colors, currentState, countPass);
+  }
+
+  @Override
+  public long getPositionHash() {
+    return currentState == GameState.WHITE_TURN ? cellHash ^ keys.whiteToMove() : cellHash;
+  }
+
+  @Override
+  public boolean isStable(int q, int r) {
+    StableDiscs stable = stableDiscs.update();
+    int index = rays.indexOf(q, r);
+    return index >= 0 && stable.isStable(index);
+  }
+
+  @Override
+  public int[] getStableCounts() {
+    StableDiscs stable = stableDiscs.update();
+    return new int[]{stable.count(SearchBoard.BLACK), stable.count(SearchBoard.WHITE)};
+  }
+
+  @Override
+  public int getHintCaptures(int q, int r) {
+    if ((currentState != GameState.BLACK_TURN && currentState != GameState.WHITE_TURN)
+            || !cellExists(q, r)) {
+      return 0;
+    }
+    ICell cell = getCell(q, r);
+    return isValidMove(cell, currentState) ? getCaptureCells(cell, currentState) : 0;
+  }
+
+  @Override
+  public void toggleBlackHints() {
+    if (currentState == GameState.BLACK_TURN) {
+      blackHintsEnabled = !blackHintsEnabled;
+    } else {
+      throw new IllegalStateException("Not your turn! Can't show hints for your opponents!");
+    }
+  }
+
+  @Override
+  public void toggleWhiteHints() {
+    if (currentState == GameState.WHITE_TURN) {
+      whiteHintsEnabled = !whiteHintsEnabled;
+    } else {
+      throw new IllegalStateException("Not your turn! Can't show hints for your opponents!");
+    }
+  }
+
+  @Override
+  public boolean isBlackHintsEnabled() {
+    return blackHintsEnabled;
+  }
+
+  @Override
+  public boolean isWhiteHintsEnabled() {
+    return whiteHintsEnabled;
+  }
+
+  @Override
+  public int getCountPass() {
+    return countPass;
+  }
+
+  @Override
+  public void gameStarted() {
+    this.initializeBoard();
+    this.isGameStarted = true;
+    this.currentState = GameState.BLACK_TURN;
+    this.currentPlayer = blackPlayer;
+    this.notifyTurnChanged(currentPlayer.getColor());
+
+    cells[bitOf(0, 1)].setPlayer(PlayerState.WHITE);
+    cells[bitOf(-1, 1)].setPlayer(PlayerState.BLACK);
+    cells[bitOf(-1, 0)].setPlayer(PlayerState.WHITE);
+    cells[bitOf(0, -1)].setPlayer(PlayerState.BLACK);
+    cells[bitOf(1, -1)].setPlayer(PlayerState.WHITE);
+    cells[bitOf(1, 0)].setPlayer(PlayerState.BLACK);
+  }
+
+  private void notifyTurnChanged(PlayerColor playerColor) {
+    for (ModelActionListener listener : listeners) {
+      listener.onPlayerTurnChanged(playerColor);
+    }
+  }
+
+  @Override
+  public void initializeBoard() {
+    stableDiscs.clear();
+    for (int i = 0; i < words; i++) {
+      black[i] = 0L;
+      white[i] = 0L;
+    }
+    cellHash = 0L;
+  }
+
+  @Override
+  public void makeMove(ICell clicked) {
+    //check if the game is started.
+    if (!isGameStarted) {
+      throw new IllegalStateException("Game has not started, can't make a move.");
+    }
+
+    // ensure the clicked cell is not null
+    if (clicked == null) {
+      throw new IllegalStateException("Cell cannot be null");
+    }
+
+    // ensure the clicked cell is not empty
+    if (clicked.getPlayer() != PlayerState.EMPTY) {
+      throw new IllegalStateException("Cell is not empty");
+    }
+
+    // ensure that the move to the clicked cell is valid
+    int bit = bitOf(clicked);
+    long[] own = discsOf(currentState);
+    long[] opp = discsAgainst(currentState);
+    if (bit < 0 || flips(bit, own, opp) == 0) {
+      throw new IllegalArgumentException("Invalid move");
+    }
+
+    // place the disc and flip the captured discs, which flips() left in moves.
+    int color = currentState == GameState.BLACK_TURN ? SearchBoard.BLACK : SearchBoard.WHITE;
+    own[bit >>> 6] |= 1L << bit;
+    cellChanged(bit, SearchBoard.EMPTY, color);
+    for (int i = 0; i < words; i++) {
+      own[i] |= moves[i];
+      opp[i] &= ~moves[i];
+      for (long word = moves[i]; word != 0; word &= word - 1) {
+        cellChanged((i << 6) + Long.numberOfTrailingZeros(word), SearchBoard.opponent(color),
+                color);
+      }
+    }
+
+    for (ModelActionListener listener : listeners) {
+      if (listener != null) {
+        listener.onScoreUpdate();
+      }
+    }
+    // switch the current player
+    switchPlayer();
+  }
+
+  @Override
+  public boolean hasValidMoves() {
+    legalMoves(discsOf(currentState), discsAgainst(currentState));
+    for (long word : moves) {
+      if (word != 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public void switchPlayer() {
+    if (currentState == GameState.BLACK_TURN) {
+      currentState = GameState.WHITE_TURN;
+      currentPlayer = whitePlayer;
+    } else {
+      currentState = GameState.BLACK_TURN;
+      currentPlayer = blackPlayer;
+    }
+    if (modelListener != null) {
+      for (ModelActionListener listener : listeners) {
+        listener.onPlayerTurnChanged(currentPlayer.getColor());
+      }
+    }
+  }
+
+  @Override
+  public void setBlackPlayer(Player player) {
+    if (player.getColor() != PlayerColor.BLACK) {
+      throw new IllegalArgumentException("Player color must be BLACK.");
+    }
+    blackPlayer = player;
+  }
+
+  @Override
+  public void setWhitePlayer(Player player) {
+    if (player.getColor() != PlayerColor.WHITE) {
+      throw new IllegalArgumentException("Player color must be WHITE.");
+    }
+    whitePlayer = player;
+  }
+
+  @Override
+  public void addModelListener(ModelActionListener listener) {
+    this.listeners.add(listener);
+  }
+
+  @Override
+  public Player getCurrentPlayer() {
+    return currentPlayer;
+  }
+
+  /**
+   * A cell of the bitboard. Its player is read from and written to the bitboards.
+   */
+  private final class BitCell implements ICell {
+    private final int bit;
+    private final int q;
+    private final int r;
+    private boolean isSelected;
+
+    private BitCell(int bit, int q, int r) {
+      this.bit = bit;
+      this.q = q;
+      this.r = r;
+      this.isSelected = false;
+    }
+
+    @Override
+    public void setPlayer(PlayerState player) {
+      cellChanged(bit, SearchBoard.colorOf(getPlayer()), SearchBoard.colorOf(player));
+      long mask = 1L << bit;
+      int word = bit >>> 6;
+      black[word] &= ~mask;
+      white[word] &= ~mask;
+      if (player == PlayerState.BLACK) {
+        black[word] |= mask;
+      } else if (player == PlayerState.WHITE) {
+        white[word] |= mask;
+      }
+    }
+
+    @Override
+    public String toString() {
+      return getPlayer().getLetterRep();
+    }
+
+    @Override
+    public int getQ() {
+      return q;
+    }
+
+    @Override
+    public int getR() {
+      return r;
+    }
+
+    @Override
+    public PlayerState getPlayer() {
+      long mask = 1L << bit;
+      int word = bit >>> 6;
+      if ((black[word] & mask) != 0) {
+        return PlayerState.BLACK;
+      } else if ((white[word] & mask) != 0) {
+        return PlayerState.WHITE;
+      }
+      return PlayerState.EMPTY;
+    }
+
+    @Override
+    public void flip() {
+      long mask = 1L << bit;
+      int word = bit >>> 6;
+      int previous = SearchBoard.colorOf(getPlayer());
+      if (previous != SearchBoard.EMPTY) {
+        black[word] ^= mask;
+        white[word] ^= mask;
+        cellChanged(bit, previous, SearchBoard.opponent(previous));
+      }
+    }
+
+    @Override
+    public void setSelected(Boolean selected) {
+      this.isSelected = selected;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      BitCell cell = (BitCell) o;
+      return q == cell.q && r == cell.r;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(q, r);
+    }
+  }
+}
@@ -6,10 +6,17 @@ import java.util.List;
 import java.util.Set;
 
 import controller.ModelActionListener;
+import game.utility.BoardSnapshot;
 import game.utility.Cell;
 import game.utility.GameState;
 import game.utility.ICell;
+import game.utility.LegalMoveSet;
+import game.utility.MoveList;
 import game.utility.PlayerState;
+import game.utility.RayTable;
+import game.utility.SearchBoard;
+import game.utility.StableDiscs;
+import game.utility.ZobristKeys;
 import game.ReversiModel;
 import player.Player;
 import player.PlayerColor;
@@ -37,6 +44,14 @@ public class HexReversi implements ReversiModel {
   private List<ModelActionListener> listeners = new ArrayList<>();
   private boolean blackHintsEnabled;
   private boolean whiteHintsEnabled;
+  private final RayTable rays; // shared ray table of hexagon boards of this size
+  private ICell[] cells; // the cells of the board, indexed by their ray table index
+  private final LegalMoveSet legalMoves; // valid moves of both players, updated lazily
+  private final int[] discs; // cells of each color, indexed by the SearchBoard colors
+  private int boardVersion; // changes each time the board is rebuilt
+  private final ZobristKeys keys; // hash keys of the boards of this type and size
+  private long cellHash; // Zobrist hash of the discs on the board
+  private final StableDiscs stableDiscs; // stable discs found so far in the game
 
 
   /**
@@ -55,16 +70,80 @@ public class HexReversi implements ReversiModel {
     this.board = new HashSet<>();
     this.blackHintsEnabled = false;
     this.whiteHintsEnabled = false;
-
-
+    this.rays = RayTable.of(BoardType.HEXAGONAL, size);
+    this.cells = new ICell[rays.getCellCount()];
+    this.legalMoves = new LegalMoveSet(rays);
+    this.discs = new int[3];
+    this.keys = ZobristKeys.of(rays);
+    this.stableDiscs = new StableDiscs(rays);
   }
 
   /**
-   * Convenience constructor.
+   * Convenience constructor. The game gets its own cells, with the players of the given ones.
    */
   public HexReversi(Set<ICell> board, int size) {
     this(size);
-    this.board = board;
+    this.copyBoard(board);
+  }
+
+  /**
+   * Create a started game holding the position of the given snapshot, with its own cells.
+   *
+   * @param snapshot - a snapshot of a hexagonal board.
+   * @throws IllegalArgumentException if the snapshot is not of a hexagonal board.
+   */
+  public HexReversi(BoardSnapshot snapshot) {
+    this(snapshot.getSize());
+    if (snapshot.getBoardType() != BoardType.HEXAGONAL) {
+      throw new IllegalArgumentException("Snapshot is not of a hexagonal board");
+    }
+    this.initializeBoard();
+    for (int index = 0; index < cells.length; index++) {
+      cells[index].setPlayer(snapshot.getPlayer(index));
+    }
+    this.isGameStarted = true;
+    this.currentState = snapshot.getTurn();
+    this.countPass = snapshot.getCountPass();
+  }
+
+  // return the cell at the given axial coordinates, or null if there is none.
+  private ICell cellAt(int q, int r) {
+    int index = rays.indexOf(q, r);
+    return index < 0 ? null : cells[index];
+  }
+
+  // rebuild the board with cells of its own, holding the players of the given cells.
+  private void copyBoard(Set<ICell> source) {
+    this.startNewBoard();
+    for (ICell cell : source) {
+      if (rays.indexOf(cell.getQ(), cell.getR()) >= 0) {
+        ICell copy = new BoardCell(cell.getQ(), cell.getR());
+        copy.setPlayer(cell.getPlayer());
+        board.add(copy);
+      }
+    }
+  }
+
+  // drop the cells of the current board, they stop reporting their changes.
+  private void startNewBoard() {
+    this.board.clear();
+    this.cells = new ICell[rays.getCellCount()];
+    this.discs[SearchBoard.EMPTY] = 0;
+    this.discs[SearchBoard.BLACK] = 0;
+    this.discs[SearchBoard.WHITE] = 0;
+    this.cellHash = 0L;
+    this.stableDiscs.clear();
+    this.boardVersion++;
+  }
+
+  // record that the cell at the given index changed from one player to another.
+  private void cellChanged(int index, PlayerState previous, PlayerState player) {
+    discs[SearchBoard.colorOf(previous)]--;
+    discs[SearchBoard.colorOf(player)]++;
+    legalMoves.set(index, SearchBoard.colorOf(player));
+    cellHash ^= keys.cell(index, SearchBoard.colorOf(previous))
+            ^ keys.cell(index, SearchBoard.colorOf(player));
+    stableDiscs.set(index, SearchBoard.colorOf(player));
   }
 
   @Override
@@ -95,27 +174,14 @@ public class HexReversi implements ReversiModel {
   }
 
 
-  // Creates the hexagonal game board by adding cells layer by layer in a spiral manner.
+  // Creates the hexagonal game board from the cells of the shared ray table.
   // uses the cubic coordinate system to determine each cell's position.
   @Override
   public void initializeBoard() {
-    this.board.clear();
-    // track the number of cells in the board.
-    int numCells = 0;
+    this.startNewBoard();
 
-    for (int r = -size; r <= 0; r++) {
-      board.add(new Cell(0, r));
-    }
-
-    for (int r = -size; r <= size; r++) {
-      int q1 = Math.max(-size, -r - size);
-      int q2 = Math.min(size, -r + size);
-      for (int q = q1; q <= q2; q++) {
-        if (q != 0 || r > 0) {  // Avoid duplicating the cells added in the first loop
-          board.add(new Cell(q, r));
-          numCells++;
-        }
-      }
+    for (int index = 0; index < cells.length; index++) {
+      board.add(new BoardCell(rays.getQ(index), rays.getR(index)));
     }
   }
 
@@ -167,8 +233,9 @@ public class HexReversi implements ReversiModel {
     }
 
     // flip the different-colored discs in all 6 directions of that clicked cell.
-    for (int direction = 0; direction < 6; direction++) {
-      flipDiffColorDiscs(clicked, direction);
+    int index = rays.indexOf(clicked.getQ(), clicked.getR());
+    for (int direction = 0; direction < rays.getDirections(); direction++) {
+      flipDiffColorDiscs(rays.ray(index, direction));
     }
 
     for (ModelActionListener listener : listeners) {
@@ -193,72 +260,86 @@ public class HexReversi implements ReversiModel {
 
   @Override
   public ReversiModel getClone() {
-    return new HexReversi(this.getBoard(), this.getSize());
-  }
-
-  // if it is possible, flip all the discs that have different colors in this direction.
-  private void flipDiffColorDiscs(ICell clicked, int direction) {
-    int dq = 0;
-    int dr = 0;
-    if (direction == 0) {
-      dq = 0;
-      dr = 1;
-    } else if (direction == 1) {
-      dq = -1;
-      dr = 1;
-    } else if (direction == 2) {
-      dq = -1;
-      dr = 0;
-    } else if (direction == 3) {
-      dq = 0;
-      dr = -1;
-    } else if (direction == 4) {
-      dq = 1;
-      dr = -1;
-    } else if (direction == 5) {
-      dq = 1;
-      dr = 0;
-    }
-
-    int q = clicked.getQ() + dq;
-    int r = clicked.getR() + dr;
-
-    List<ICell> discsToFlip = new ArrayList<>();
-
-    while (q >= -size && q <= size && r >= -size && r <= size) {
-      if (!cellExists(q, r)) {
-        return;
+    HexReversi clone = new HexReversi(this.getSnapshot());
+    clone.blackPlayer = this.blackPlayer;
+    clone.whitePlayer = this.whitePlayer;
+    clone.currentPlayer = this.currentPlayer;
+    return clone;
+  }
+
+  @Override
+  public BoardSnapshot getSnapshot() {
+    byte[] colors = new byte[cells.length];
+    for (int index = 0; index < cells.length; index++) {
+      if (cells[index] != null) {
+        colors[index] = SearchBoard.colorOf(cells[index].getPlayer());
       }
-      ICell cell = getCell(q, r);
+    }
+    return new BoardSnapshot(rays, colors, currentState, countPass);
+  }
+
+  @Override
+  public long getPositionHash() {
+    return currentState == GameState.WHITE_TURN ? cellHash ^ keys.whiteToMove() : cellHash;
+  }
+
+  @Override
+  public boolean isStable(int q, int r) {
+    StableDiscs stable = stableDiscs.update();
+    int index = rays.indexOf(q, r);
+    return index >= 0 && stable.isStable(index);
+  }
+
+  @Override
+  public int[] getStableCounts() {
+    StableDiscs stable = stableDiscs.update();
+    return new int[]{stable.count(SearchBoard.BLACK), stable.count(SearchBoard.WHITE)};
+  }
 
-      if (cell.getPlayer() == PlayerState.EMPTY) {
+  @Override
+  public int getHintCaptures(int q, int r) {
+    if ((currentState != GameState.BLACK_TURN && currentState != GameState.WHITE_TURN)
+            || !cellExists(q, r)) {
+      return 0;
+    }
+    ICell cell = getCell(q, r);
+    return isValidMove(cell, currentState) ? getCaptureCells(cell, currentState) : 0;
+  }
+
+  // if it is possible, flip all the discs that have different colors along this ray.
+  private void flipDiffColorDiscs(int[] ray) {
+    for (int step = 0; step < ray.length; step++) {
+      ICell cell = cells[ray[step]];
+      if (cell == null || cell.getPlayer() == PlayerState.EMPTY) {
         return;
       }
 
       if (isCellOfCurrentPlayer(cell)) {
-        for (ICell cellToFlip : discsToFlip) {
-          cellToFlip.flip();
+        for (int flip = 0; flip < step; flip++) {
+          cells[ray[flip]].flip();
         }
         return;  // flipped all the discs and can exit
       }
-
-      discsToFlip.add(cell);
-      q += dq;
-      r += dr;
-
     }
   }
 
   @Override
   public boolean isValidMove(ICell cell, GameState player) {
-    // ensure that the cell is empty and that the move is made by the current player
+    // ensure that the cell is empty
     if (cell.getPlayer() != PlayerState.EMPTY) {
       return false;
     }
+    int index = rays.indexOf(cell.getQ(), cell.getR());
+    if (index < 0) {
+      return false;
+    }
+    if (cells[index] == cell) {
+      return legalMoves().isLegal(index, colorOf(player));
+    }
 
-    // check in all 6 directions if there are any opposing discs to flip
-    for (int direction = 0; direction < 6; direction++) {
-      if (wouldFlipOpposingDisks(cell, direction)) {
+    // a cell that is not on this board: check in all 6 directions for opposing discs to flip
+    for (int direction = 0; direction < rays.getDirections(); direction++) {
+      if (wouldFlipOpposingDisks(rays.ray(index, direction), discOf(player))) {
         return true;
       }
     }
@@ -266,51 +347,61 @@ public class HexReversi implements ReversiModel {
   }
 
 
-  // check if we can flip the opposing disks in the given direction of the given cell
-  private boolean wouldFlipOpposingDisks(ICell cell, int direction) {
-    int dq = 0;
-    int dr = 0;
-
-    // directions to check based on the given direction
-    if (direction == 0) {
-      dq = 0;
-      dr = 1;
-    } else if (direction == 1) {
-      dq = -1;
-      dr = 1;
-    } else if (direction == 2) {
-      dq = -1;
-      dr = 0;
-    } else if (direction == 3) {
-      dq = 0;
-      dr = -1;
-    } else if (direction == 4) {
-      dq = 1;
-      dr = -1;
-    } else if (direction == 5) {
-      dq = 1;
-      dr = 0;
-    }
-
-    int q = cell.getQ() + dq;
-    int r = cell.getR() + dr;
+  // check if the player of the given discs can flip the opposing disks along the given ray.
+  private boolean wouldFlipOpposingDisks(int[] ray, PlayerState own) {
     boolean hasOpponentCell = false;
-
-    while (cellExists(q, r)) { // Check if the cell exists
-      ICell adjCell = getCell(q, r);
-      if (adjCell.getPlayer() == PlayerState.EMPTY) {
+    for (int next : ray) {
+      ICell adjCell = cells[next];
+      if (adjCell == null || adjCell.getPlayer() == PlayerState.EMPTY) {
         return false;
-      } else if (isCellOfCurrentPlayer(adjCell)) {
+      } else if (adjCell.getPlayer() == own) {
         return hasOpponentCell;
       } else {
         hasOpponentCell = true;
       }
-      q += dq;
-      r += dr;
     }
     return false;
   }
 
+  @Override
+  public List<ICell> getLegalMoves(GameState player) {
+    int color = SearchBoard.colorOf(player);
+    LegalMoveSet legal = legalMoves();
+    List<ICell> moves = new ArrayList<>(legal.count(color));
+    for (int index = 0; index < cells.length; index++) {
+      if (legal.isLegal(index, color)) {
+        moves.add(cells[index]);
+      }
+    }
+    return moves;
+  }
+
+  @Override
+  public void scoreMoves(GameState player, MoveList into) {
+    legalMoves().score(SearchBoard.colorOf(player), into);
+  }
+
+  // the valid moves of both players, brought up to date with the cells.
+  private LegalMoveSet legalMoves() {
+    legalMoves.update();
+    return legalMoves;
+  }
+
+  // the color of the current player, white unless it is black's turn.
+  private int currentColor() {
+    return colorOf(currentState);
+  }
+
+  // the color of the given player, white unless it is black's, as the bitboard models do.
+  private static int colorOf(GameState player) {
+    return player == GameState.BLACK_TURN ? SearchBoard.BLACK : SearchBoard.WHITE;
+  }
+
+  // the discs of the given player.
+  private static PlayerState discOf(GameState player) {
+    return player == GameState.BLACK_TURN ? PlayerState.BLACK : PlayerState.WHITE;
+  }
+
   // check if the selected cell is the same color as the current player.
   private boolean isCellOfCurrentPlayer(ICell cell) {
     if (currentState == GameState.BLACK_TURN) {
@@ -322,16 +413,7 @@ public class HexReversi implements ReversiModel {
 
   @Override
   public int[] getScores() {
-    int blackScore = 0;
-    int whiteScore = 0;
-    for (ICell cell : board) {
-      if (cell.getPlayer() == PlayerState.BLACK) {
-        blackScore++;
-      } else if (cell.getPlayer() == PlayerState.WHITE) {
-        whiteScore++;
-      }
-    }
-    return new int[]{blackScore, whiteScore};
+    return new int[]{discs[SearchBoard.BLACK], discs[SearchBoard.WHITE]};
   }
 
 
@@ -342,16 +424,7 @@ public class HexReversi implements ReversiModel {
     }
 
     // Check if either player has no discs left
-    int blackDiscs = 0;
-    int whiteDiscs = 0;
-    for (ICell cell : board) {
-      if (cell.getPlayer() == PlayerState.BLACK) {
-        blackDiscs++;
-      } else if (cell.getPlayer() == PlayerState.WHITE) {
-        whiteDiscs++;
-      }
-    }
-    if (blackDiscs == 0 || whiteDiscs == 0) {
+    if (discs[SearchBoard.BLACK] == 0 || discs[SearchBoard.WHITE] == 0) {
       return true;
     }
 
@@ -372,20 +445,10 @@ public class HexReversi implements ReversiModel {
   @Override
   public GameState returnWinner() {
     if (isGameOver()) {
-      int blackCount = 0;
-      int whiteCount = 0;
-
-      for (ICell cell : board) {
-        if (cell.getPlayer() == PlayerState.BLACK) {
-          blackCount++;
-        } else if (cell.getPlayer() == PlayerState.WHITE) {
-          whiteCount++;
-        }
-        if (blackCount > whiteCount) {
-          return GameState.BLACK_WIN;
-        } else if (blackCount < whiteCount) {
-          return GameState.WHITE_WIN;
-        }
+      if (discs[SearchBoard.BLACK] > discs[SearchBoard.WHITE]) {
+        return GameState.BLACK_WIN;
+      } else if (discs[SearchBoard.BLACK] < discs[SearchBoard.WHITE]) {
+        return GameState.WHITE_WIN;
       }
     }
     return GameState.TIE;
@@ -397,23 +460,13 @@ public class HexReversi implements ReversiModel {
   }
 
   private boolean noMoreValidMovesForCurrentPlayer() {
-    for (ICell cell : board) {
-      if (isValidMove(cell, this.currentState)) {
-        return false;
-      }
-    }
-    return true;
+    return legalMoves().count(currentColor()) == 0;
   }
 
 
   // check if game board is full.
   private boolean gameboardFull() {
-    for (ICell cell : board) {
-      if (cell.getPlayer() == PlayerState.EMPTY) {
-        return false;
-      }
-    }
-    return true;
+    return discs[SearchBoard.EMPTY] == 0;
   }
 
   @Override
@@ -429,70 +482,31 @@ public class HexReversi implements ReversiModel {
 
   @Override
   public int getCaptureCells(ICell cell, GameState player) {
+    int index = rays.indexOf(cell.getQ(), cell.getR());
+    if (index < 0) {
+      return 0;
+    }
     int cellCaptured = 0;
 
-    for (int direction = 0; direction < 6; direction++) {
-      cellCaptured += countCellCapturedInEachDirection(cell, player, direction);
+    for (int direction = 0; direction < rays.getDirections(); direction++) {
+      cellCaptured += countCellCapturedInEachDirection(rays.ray(index, direction), player);
     }
     return cellCaptured;
   }
 
-  // count the cell captured in this direction.
-  private int countCellCapturedInEachDirection(ICell cell,
-                                               GameState player, int direction) {
+  // count the cell captured along this ray.
+  private int countCellCapturedInEachDirection(int[] ray, GameState player) {
     int cellCaptured = 0;
-    int dq = 0;
-    int dr = 0;
-
-    switch (direction) {
-      case 0:
-        dq = 0;
-        dr = 1;
-        break;
-      case 1:
-        dq = -1;
-        dr = 1;
-        break;
-      case 2:
-        dq = -1;
-        dr = 0;
-        break;
-      case 3:
-        dq = 0;
-        dr = -1;
-        break;
-      case 4:
-        dq = 1;
-        dr = -1;
-        break;
-      case 5:
-        dq = 1;
-        dr = 0;
-        break;
-      default:
-    }
-    int q = cell.getQ() + dq;
-    int r = cell.getR() + dr;
-    boolean hasOpponentCell = false;
-    while (q >= -size && q <= size && r >= -size && r <= size) {
-      if (!cellExists(q, r)) {
-        return 0;
-      }
-      ICell nextCell = getCell(q, r);
-      if (nextCell.getPlayer() == PlayerState.EMPTY) {
-        break; // no opponent cell
+    for (int next : ray) {
+      ICell nextCell = cells[next];
+      if (nextCell == null || nextCell.getPlayer() == PlayerState.EMPTY) {
+        return 0; // no opponent cell
       } else if (nextCell.getPlayer() == PlayerState.WHITE && player == GameState.BLACK_TURN
               || nextCell.getPlayer() == PlayerState.BLACK && player == GameState.WHITE_TURN) {
-        hasOpponentCell = true;
         cellCaptured++;
       } else {
-        if (hasOpponentCell) {
-          return cellCaptured;
-        }
-        break; //found player's cell but no opponent
+        return cellCaptured; //found player's cell, captured nothing if there was no opponent
       }
-      q += dq;
-      r += dr;
     }
     return 0; // no flippable cell
 
@@ -500,12 +514,7 @@ public class HexReversi implements ReversiModel {
 
   @Override
   public boolean hasValidMoves() {
-    for (ICell cell : board) {
-      if (isValidMove(cell, this.currentState)) {
-        return true;
-      }
-    }
-    return false;
+    return legalMoves().count(currentColor()) > 0;
   }
 
 
@@ -514,25 +523,22 @@ public class HexReversi implements ReversiModel {
     return this.size;
   }
 
+  @Override
+  public BoardType getBoardType() {
+    return BoardType.HEXAGONAL;
+  }
+
   @Override
   public ICell getCell(int q, int r) {
     if (!isGameStarted) {
       throw new IllegalStateException("Game has not started cant get a cell");
     }
 
-    if (!cellExists(q, r)) {
-      System.out.println("this cell: " + q + ", " + r);
+    ICell cell = cellAt(q, r);
+    if (cell == null) {
       throw new IllegalStateException("Cell does not exist: " + q + ", " + r);
     }
-
-    for (ICell cell : board) {
-      if (cell.getQ() == q && cell.getR() == r) {
-        System.out.println("q: " + q + ", r: " + r);
-        return cell;
-      }
-    }
-    System.out.println("cell: " + q + " " + r);
-    throw new IllegalArgumentException("No cell found");
+    return cell;
   }
 
   @Override
@@ -559,12 +565,7 @@ public class HexReversi implements ReversiModel {
 
   @Override
   public boolean cellExists(int q, int r) {
-    for (ICell cell : board) {
-      if (cell.getQ() == q && cell.getR() == r) {
-        return true;
-      }
-    }
-    return false;
+    return cellAt(q, r) != null;
   }
 
   @Override
@@ -616,5 +617,28 @@ public class HexReversi implements ReversiModel {
     return countPass;
   }
 
-
+  /**
+   * A cell of this game's board. It registers itself in the cell index, and reports every
+   * change of its player so the disc counts and the valid moves stay up to date.
+   */
+  private final class BoardCell extends Cell {
+    private final int index; // the ray table index of the cell
+    private final int version; // the board the cell belongs to
+
+    private BoardCell(int q, int r) {
+      super(q, r);
+      this.index = rays.indexOf(q, r);
+      this.version = boardVersion;
+      cells[index] = this;
+      discs[SearchBoard.EMPTY]++;
+      legalMoves.set(index, SearchBoard.EMPTY);
+    }
+
+    @Override
+    protected void changed(PlayerState previous) {
+      if (version == boardVersion) {
+        cellChanged(index, previous, getPlayer());
+      }
+    }
+  }
 }
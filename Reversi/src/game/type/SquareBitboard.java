@@ -0,0 +1,610 @@
+package game.type;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+import controller.ModelActionListener;
+import game.utility.BoardSnapshot;
+import game.utility.GameState;
+import game.utility.ICell;
+import game.utility.MoveList;
+import game.utility.PlayerState;
+import game.utility.RayTable;
+import game.utility.SearchBoard;
+import game.utility.StableDiscs;
+import game.utility.ZobristKeys;
+import game.ReversiModel;
+import player.Player;
+import player.PlayerColor;
+
+
+/**
+ * Represent a standard 8x8 square reversi game backed by two 64-bit bitboards.
+ * Bit (r * 8 + q) of a bitboard is set when the cell at column q, row r holds a disc of
+ * that color. Legal moves and flips are computed for all eight directions at once with
+ * Kogge-Stone shift-and-mask fills, so no ray is walked cell by cell.
+ * The cells handed out by this model are views of the bitboards: reading or changing
+ * their player reads or changes the bitboards directly.
+ */
+public class SquareBitboard implements ReversiModel {
+  /**
+   * The only board size supported by this model.
+   */
+  public static final int SIZE = 8;
+
+  private static final long NOT_A_FILE = 0xfefefefefefefefeL; // every column except q = 0
+  private static final long NOT_H_FILE = 0x7f7f7f7f7f7f7f7fL; // every column except q = 7
+
+  // the shift of each of the 8 directions, positive values shift towards higher bits.
+  private static final int[] SHIFTS = {-8, -7, 1, 9, 8, 7, -1, -9};
+  // the cells a one-step shift in each direction may land on without wrapping a row.
+  private static final long[] WRAP_MASKS = {
+      -1L, NOT_A_FILE, NOT_A_FILE, NOT_A_FILE, -1L, NOT_H_FILE, NOT_H_FILE, NOT_H_FILE
+  };
+
+  private long black; // the black discs
+  private long white; // the white discs
+  private final BitCell[] cells; // the cell views, indexed by bit
+  private final RayTable rays; // the ray table of the square boards of this size
+  private final ZobristKeys keys; // hash keys of the boards of this type and size
+  private long cellHash; // Zobrist hash of the discs on the board
+  private final StableDiscs stableDiscs; // stable discs found so far in the game
+  private boolean isGameStarted; // check if game is started
+  private GameState currentState; // keep track of the current player.
+  public int countPass; // keep track of pass times.
+  private ModelActionListener modelListener;
+  private Player currentPlayer;
+  private Player blackPlayer;
+  private Player whitePlayer;
+  private List<ModelActionListener> listeners = new ArrayList<>();
+  private boolean blackHintsEnabled;
+  private boolean whiteHintsEnabled;
+
+  /**
+   * Constructor.
+   *
+   * @param size - the given size, must be 8.
+   */
+  public SquareBitboard(int size) {
+    if (size != SIZE) {
+      throw new IllegalArgumentException("Bitboard reversi only supports a board of size "
+              + SIZE);
+    }
+    this.cells = new BitCell[SIZE * SIZE];
+    this.rays = RayTable.of(BoardType.SQUARE, SIZE);
+    this.keys = ZobristKeys.of(rays);
+    this.stableDiscs = new StableDiscs(rays);
+    for (int bit = 0; bit < cells.length; bit++) {
+      cells[bit] = new BitCell(bit);
+    }
+    this.blackHintsEnabled = false;
+    this.whiteHintsEnabled = false;
+  }
+
+  // shift the bitboard one step in the given direction, dropping discs that leave the board.
+  private static long shift(long bits, int direction) {
+    int amount = SHIFTS[direction];
+    long shifted = amount > 0 ? bits << amount : bits >>> -amount;
+    return shifted & WRAP_MASKS[direction];
+  }
+
+  // Kogge-Stone occluded fill: every cell reachable from gen in the given direction by
+  // stepping only through cells of pro, including gen itself.
+  private static long fill(long gen, long pro, int direction) {
+    int amount = SHIFTS[direction];
+    pro &= WRAP_MASKS[direction];
+    if (amount > 0) {
+      gen |= pro & (gen << amount);
+      pro &= pro << amount;
+      gen |= pro & (gen << (amount << 1));
+      pro &= pro << (amount << 1);
+      gen |= pro & (gen << (amount << 2));
+    } else {
+      amount = -amount;
+      gen |= pro & (gen >>> amount);
+      pro &= pro >>> amount;
+      gen |= pro & (gen >>> (amount << 1));
+      pro &= pro >>> (amount << 1);
+      gen |= pro & (gen >>> (amount << 2));
+    }
+    return gen;
+  }
+
+  /**
+   * Every empty cell where the owner of own may play against opp.
+   *
+   * @param own - the discs of the player to move.
+   * @param opp - the discs of the opponent.
+   * @return a bitboard of the legal moves.
+   */
+  public static long legalMoves(long own, long opp) {
+    long empty = ~(own | opp);
+    long moves = 0L;
+    for (int direction = 0; direction < SHIFTS.length; direction++) {
+      long run = fill(own, opp, direction) & opp;
+      moves |= shift(run, direction) & empty;
+    }
+    return moves;
+  }
+
+  /**
+   * The opponent discs flipped when the owner of own plays on the given bit.
+   *
+   * @param bit - the bit of the move.
+   * @param own - the discs of the player to move.
+   * @param opp - the discs of the opponent.
+   * @return a bitboard of the discs that would flip, empty if the move is not legal.
+   */
+  public static long flips(int bit, long own, long opp) {
+    long move = 1L << bit;
+    if (((own | opp) & move) != 0) {
+      return 0L;
+    }
+    long flipped = 0L;
+    for (int direction = 0; direction < SHIFTS.length; direction++) {
+      long run = fill(move, opp, direction);
+      if ((shift(run, direction) & own) != 0) {
+        flipped |= run & ~move;
+      }
+    }
+    return flipped;
+  }
+
+  // the discs of the given player.
+  private long discsOf(GameState player) {
+    return player == GameState.BLACK_TURN ? black : white;
+  }
+
+  // the discs of the opponent of the given player.
+  private long discsAgainst(GameState player) {
+    return player == GameState.BLACK_TURN ? white : black;
+  }
+
+  // return the bit of the given cell, or -1 if it is not on the board.
+  private int bitOf(ICell cell) {
+    return cellExists(cell.getQ(), cell.getR()) ? cell.getR() * SIZE + cell.getQ() : -1;
+  }
+
+  @Override
+  public int[] getScores() {
+    return new int[]{Long.bitCount(black), Long.bitCount(white)};
+  }
+
+  @Override
+  public Set<ICell> getBoard() {
+    Set<ICell> copy = new HashSet<>();
+    for (ICell cell : cells) {
+      copy.add(cell);
+    }
+    return copy;
+  }
+
+  @Override
+  public boolean isGameOver() throws IllegalStateException {
+    if (!isGameStarted) {
+      throw new IllegalStateException("Game cannot be over if game hasn't started");
+    }
+    // Check if either player has no discs left, or if the board is full
+    if (black == 0 || white == 0 || (black | white) == -1L) {
+      return true;
+    }
+    // Check if both players have passed in succession
+    if (countPass >= 2) {
+      return true;
+    }
+    // Check if there are no more valid moves for the current player
+    return !hasValidMoves();
+  }
+
+  @Override
+  public int getSize() {
+    return SIZE;
+  }
+
+  @Override
+  public BoardType getBoardType() {
+    return BoardType.SQUARE;
+  }
+
+  @Override
+  public ICell getCell(int q, int r) {
+    if (!isGameStarted) {
+      throw new IllegalStateException("Game has not started cant get a cell");
+    }
+    if (!cellExists(q, r)) {
+      throw new IllegalStateException("Cell does not exist: " + q + ", " + r);
+    }
+    return cells[r * SIZE + q];
+  }
+
+  @Override
+  public boolean cellExists(int q, int r) {
+    return q >= 0 && q < SIZE && r >= 0 && r < SIZE;
+  }
+
+  @Override
+  public GameState returnWinner() {
+    if (isGameOver()) {
+      int blackCount = Long.bitCount(black);
+      int whiteCount = Long.bitCount(white);
+      if (blackCount > whiteCount) {
+        return GameState.BLACK_WIN;
+      } else if (blackCount < whiteCount) {
+        return GameState.WHITE_WIN;
+      }
+    }
+    return GameState.TIE;
+  }
+
+  @Override
+  public GameState getCurrentState() {
+    return currentState;
+  }
+
+  @Override
+  public boolean isValidMove(ICell cell, GameState player) {
+    int bit = bitOf(cell);
+    return bit >= 0 && flips(bit, discsOf(player), discsAgainst(player)) != 0;
+  }
+
+  @Override
+  public List<ICell> getLegalMoves(GameState player) {
+    long legal = legalMoves(discsOf(player), discsAgainst(player));
+    List<ICell> moves = new ArrayList<>(Long.bitCount(legal));
+    while (legal != 0) {
+      moves.add(cells[Long.numberOfTrailingZeros(legal)]);
+      legal &= legal - 1;
+    }
+    return moves;
+  }
+
+  @Override
+  public int getCaptureCells(ICell cell, GameState player) {
+    int bit = bitOf(cell);
+    return bit < 0 ? 0 : Long.bitCount(flips(bit, discsOf(player), discsAgainst(player)));
+  }
+
+  @Override
+  public void scoreMoves(GameState player, MoveList into) {
+    long own = discsOf(player);
+    long opp = discsAgainst(player);
+    long legal = legalMoves(own, opp);
+    into.reset(rays);
+    while (legal != 0) {
+      // the ray table counts the cells row by row like the bits, so a bit is its index
+      int bit = Long.numberOfTrailingZeros(legal);
+      into.add(bit);
+      into.addFlips(0, flips(bit, own, opp));
+      legal &= legal - 1;
+    }
+  }
+
+  @Override
+  public void wannaPass() {
+    if (!hasValidMoves()) {
+      switchPlayer();
+      countPass++;
+    }
+    if (modelListener != null) {
+      modelListener.onScoreUpdate();
+    }
+  }
+
+  @Override
+  public void setModelListener(ModelActionListener listener) {
+    this.modelListener = listener;
+  }
+
+  @Override
+  public boolean isGameStarted() {
+    return isGameStarted;
+  }
+
+  @Override
+  public ReversiModel getClone() {
+    SquareBitboard clone = new SquareBitboard(SIZE);
+    clone.black = this.black;
+    clone.white = this.white;
+    clone.cellHash = this.cellHash;
+    clone.stableDiscs.copyFrom(this.stableDiscs);
+    clone.isGameStarted = this.isGameStarted;
+    clone.currentState = this.currentState;
+    clone.countPass = this.countPass;
+    clone.blackPlayer = this.blackPlayer;
+    clone.whitePlayer = this.whitePlayer;
+    clone.currentPlayer = this.currentPlayer;
+    return clone;
+  }
+
+  @Override
+  public BoardSnapshot getSnapshot() {
+    byte[] colors = new byte[rays.getCellCount()];
+    for (int index = 0; index < colors.length; index++) {
+      ICell cell = cells[rays.getR(index) * SIZE + rays.getQ(index)];
+      colors[index] = SearchBoard.colorOf(cell.getPlayer());
+    }
+    return new BoardSnapshot(rays, colors, currentState, countPass);
+  }
+
+  @Override
+  public long getPositionHash() {
+    return currentState == GameState.WHITE_TURN ? cellHash ^ keys.whiteToMove() : cellHash;
+  }
+
+  // record that the cell at the given index changed from one color to another. the bits
+  // are indexed like the ray table.
+  private void cellChanged(int index, int previous, int color) {
+    cellHash ^= keys.cell(index, previous) ^ keys.cell(index, color);
+    stableDiscs.set(index, color);
+  }
+
+  // record that the discs of the given bitboard changed from one color to another.
+  private void cellsChanged(long discs, int previous, int color) {
+    for (long bits = discs; bits != 0; bits &= bits - 1) {
+      cellChanged(Long.numberOfTrailingZeros(bits), previous, color);
+    }
+  }
+
+  @Override
+  public boolean isStable(int q, int r) {
+    StableDiscs stable = stableDiscs.update();
+    int index = rays.indexOf(q, r);
+    return index >= 0 && stable.isStable(index);
+  }
+
+  @Override
+  public int[] getStableCounts() {
+    StableDiscs stable = stableDiscs.update();
+    return new int[]{stable.count(SearchBoard.BLACK), stable.count(SearchBoard.WHITE)};
+  }
+
+  @Override
+  public int getHintCaptures(int q, int r) {
+    if ((currentState != GameState.BLACK_TURN && currentState != GameState.WHITE_TURN)
+            || !cellExists(q, r)) {
+      return 0;
+    }
+    ICell cell = getCell(q, r);
+    return isValidMove(cell, currentState) ? getCaptureCells(cell, currentState) : 0;
+  }
+
+  @Override
+  public void toggleBlackHints() {
+    if (currentState == GameState.BLACK_TURN) {
+      blackHintsEnabled = !blackHintsEnabled;
+    } else {
+      throw new IllegalStateException("Not your turn! Can't show hints for your opponents!");
+    }
+  }
+
+  @Override
+  public void toggleWhiteHints() {
+    if (currentState == GameState.WHITE_TURN) {
+      whiteHintsEnabled = !whiteHintsEnabled;
+    } else {
+      throw new IllegalStateException("Not your turn! Can't show hints for your opponents!");
+    }
+  }
+
+  @Override
+  public boolean isBlackHintsEnabled() {
+    return blackHintsEnabled;
+  }
+
+  @Override
+  public boolean isWhiteHintsEnabled() {
+    return whiteHintsEnabled;
+  }
+
+  @Override
+  public int getCountPass() {
+    return countPass;
+  }
+
+  @Override
+  public void gameStarted() {
+    this.initializeBoard();
+    this.isGameStarted = true;
+    this.currentState = GameState.BLACK_TURN;
+    this.currentPlayer = blackPlayer;
+    this.notifyTurnChanged(currentPlayer.getColor());
+  }
+
+  private void notifyTurnChanged(PlayerColor playerColor) {
+    for (ModelActionListener listener : listeners) {
+      listener.onPlayerTurnChanged(playerColor);
+    }
+  }
+
+  @Override
+  public void initializeBoard() {
+    stableDiscs.clear();
+    this.cellHash = 0L;
+    int half = SIZE / 2;
+    this.black = (1L << ((half - 1) * SIZE + half - 1)) | (1L << (half * SIZE + half));
+    this.white = (1L << ((half - 1) * SIZE + half)) | (1L << (half * SIZE + half - 1));
+    cellsChanged(black, SearchBoard.EMPTY, SearchBoard.BLACK);
+    cellsChanged(white, SearchBoard.EMPTY, SearchBoard.WHITE);
+  }
+
+  @Override
+  public void makeMove(ICell clicked) {
+    //check if the game is started.
+    if (!isGameStarted) {
+      throw new IllegalStateException("Game has not started, can't make a move.");
+    }
+
+    // ensure the clicked cell is not null
+    if (clicked == null) {
+      throw new IllegalStateException("Cell cannot be null");
+    }
+
+    // ensure the clicked cell is not empty
+    if (clicked.getPlayer() != PlayerState.EMPTY) {
+      throw new IllegalStateException("Cell is not empty");
+    }
+
+    // ensure that the move to the clicked cell is valid
+    int bit = bitOf(clicked);
+    long flipped = bit < 0 ? 0L : flips(bit, discsOf(currentState), discsAgainst(currentState));
+    if (flipped == 0) {
+      throw new IllegalArgumentException("Invalid move");
+    }
+
+    // place the disc and flip the captured discs in one step.
+    long move = 1L << bit;
+    if (currentState == GameState.BLACK_TURN) {
+      black |= move | flipped;
+      white &= ~flipped;
+    } else {
+      white |= move | flipped;
+      black &= ~flipped;
+    }
+    int color = currentState == GameState.BLACK_TURN ? SearchBoard.BLACK : SearchBoard.WHITE;
+    cellChanged(bit, SearchBoard.EMPTY, color);
+    cellsChanged(flipped, SearchBoard.opponent(color), color);
+
+    for (ModelActionListener listener : listeners) {
+      if (listener != null) {
+        listener.onScoreUpdate();
+      }
+    }
+    // switch the current player
+    switchPlayer();
+  }
+
+  @Override
+  public boolean hasValidMoves() {
+    return legalMoves(discsOf(currentState), discsAgainst(currentState)) != 0;
+  }
+
+  @Override
+  public void switchPlayer() {
+    if (currentState == GameState.BLACK_TURN) {
+      currentState = GameState.WHITE_TURN;
+      currentPlayer = whitePlayer;
+    } else {
+      currentState = GameState.BLACK_TURN;
+      currentPlayer = blackPlayer;
+    }
+    if (modelListener != null) {
+      for (ModelActionListener listener : listeners) {
+        listener.onPlayerTurnChanged(currentPlayer.getColor());
+      }
+    }
+  }
+
+  @Override
+  public void setBlackPlayer(Player player) {
+    if (player.getColor() != PlayerColor.BLACK) {
+      throw new IllegalArgumentException("Player color must be BLACK.");
+    }
+    blackPlayer = player;
+  }
+
+  @Override
+  public void setWhitePlayer(Player player) {
+    if (player.getColor() != PlayerColor.WHITE) {
+      throw new IllegalArgumentException("Player color must be WHITE.");
+    }
+    whitePlayer = player;
+  }
+
+  @Override
+  public void addModelListener(ModelActionListener listener) {
+    this.listeners.add(listener);
+  }
+
+  @Override
+  public Player getCurrentPlayer() {
+    return currentPlayer;
+  }
+
+  /**
+   * A cell of the bitboard. Its player is read from and written to the bitboards.
+   */
+  private final class BitCell implements ICell {
+    private final int bit;
+    private boolean isSelected;
+
+    private BitCell(int bit) {
+      this.bit = bit;
+      this.isSelected = false;
+    }
+
+    @Override
+    public void setPlayer(PlayerState player) {
+      cellChanged(bit, SearchBoard.colorOf(getPlayer()), SearchBoard.colorOf(player));
+      long mask = 1L << bit;
+      black &= ~mask;
+      white &= ~mask;
+      if (player == PlayerState.BLACK) {
+        black |= mask;
+      } else if (player == PlayerState.WHITE) {
+        white |= mask;
+      }
+    }
+
+    @Override
+    public String toString() {
+      return getPlayer().getLetterRep();
+    }
+
+    @Override
+    public int getQ() {
+      return bit % SIZE;
+    }
+
+    @Override
+    public int getR() {
+      return bit / SIZE;
+    }
+
+    @Override
+    public PlayerState getPlayer() {
+      long mask = 1L << bit;
+      if ((black & mask) != 0) {
+        return PlayerState.BLACK;
+      } else if ((white & mask) != 0) {
+        return PlayerState.WHITE;
+      }
+      return PlayerState.EMPTY;
+    }
+
+    @Override
+    public void flip() {
+      long mask = 1L << bit;
+      int previous = SearchBoard.colorOf(getPlayer());
+      if (previous != SearchBoard.EMPTY) {
+        black ^= mask;
+        white ^= mask;
+        cellChanged(bit, previous, SearchBoard.opponent(previous));
+      }
+    }
+
+    @Override
+    public void setSelected(Boolean selected) {
+      this.isSelected = selected;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      BitCell cell = (BitCell) o;
+      return bit == cell.bit;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(getQ(), getR());
+    }
+  }
+}
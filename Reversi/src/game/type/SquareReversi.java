@@ -6,10 +6,17 @@ import java.util.List;
 import java.util.Set;
 
 import controller.ModelActionListener;
+import game.utility.BoardSnapshot;
 import game.utility.Cell;
 import game.utility.GameState;
 import game.utility.ICell;
+import game.utility.LegalMoveSet;
+import game.utility.MoveList;
 import game.utility.PlayerState;
+import game.utility.RayTable;
+import game.utility.SearchBoard;
+import game.utility.StableDiscs;
+import game.utility.ZobristKeys;
 import game.ReversiModel;
 import player.Player;
 import player.PlayerColor;
@@ -33,6 +40,14 @@ public class SquareReversi implements ReversiModel {
   private List<ModelActionListener> listeners = new ArrayList<>();
   private boolean blackHintsEnabled;
   private boolean whiteHintsEnabled;
+  private final RayTable rays; // shared ray table of square boards of this size
+  private ICell[] cells; // the cells of the board, indexed by their ray table index
+  private final LegalMoveSet legalMoves; // valid moves of both players, updated lazily
+  private final int[] discs; // cells of each color, indexed by the SearchBoard colors
+  private int boardVersion; // changes each time the board is rebuilt
+  private final ZobristKeys keys; // hash keys of the boards of this type and size
+  private long cellHash; // Zobrist hash of the discs on the board
+  private final StableDiscs stableDiscs; // stable discs found so far in the game
 
   /**
    * Constructor.
@@ -47,20 +62,67 @@ public class SquareReversi implements ReversiModel {
     this.board = new HashSet<>();
     this.blackHintsEnabled = false;
     this.whiteHintsEnabled = false;
+    this.rays = RayTable.of(BoardType.SQUARE, size);
+    this.cells = new ICell[rays.getCellCount()];
+    this.legalMoves = new LegalMoveSet(rays);
+    this.discs = new int[3];
+    this.keys = ZobristKeys.of(rays);
+    this.stableDiscs = new StableDiscs(rays);
+  }
+
+  /**
+   * Create a started game holding the position of the given snapshot, with its own cells.
+   *
+   * @param snapshot - a snapshot of a square board.
+   * @throws IllegalArgumentException if the snapshot is not of a square board.
+   */
+  public SquareReversi(BoardSnapshot snapshot) {
+    this(snapshot.getSize());
+    if (snapshot.getBoardType() != BoardType.SQUARE) {
+      throw new IllegalArgumentException("Snapshot is not of a square board");
+    }
+    this.initializeBoard();
+    for (int index = 0; index < cells.length; index++) {
+      cells[index].setPlayer(snapshot.getPlayer(index));
+    }
+    this.isGameStarted = true;
+    this.currentState = snapshot.getTurn();
+    this.countPass = snapshot.getCountPass();
+  }
+
+  // drop the cells of the current board, they stop reporting their changes.
+  private void startNewBoard() {
+    this.board.clear();
+    this.cells = new ICell[rays.getCellCount()];
+    this.discs[SearchBoard.EMPTY] = 0;
+    this.discs[SearchBoard.BLACK] = 0;
+    this.discs[SearchBoard.WHITE] = 0;
+    this.cellHash = 0L;
+    this.stableDiscs.clear();
+    this.boardVersion++;
+  }
+
+  // record that the cell at the given index changed from one player to another.
+  private void cellChanged(int index, PlayerState previous, PlayerState player) {
+    discs[SearchBoard.colorOf(previous)]--;
+    discs[SearchBoard.colorOf(player)]++;
+    if (index >= 0) {
+      legalMoves.set(index, SearchBoard.colorOf(player));
+      cellHash ^= keys.cell(index, SearchBoard.colorOf(previous))
+              ^ keys.cell(index, SearchBoard.colorOf(player));
+      stableDiscs.set(index, SearchBoard.colorOf(player));
+    }
+  }
+
+  // return the cell at the given coordinates, or null if there is none.
+  private ICell cellAt(int q, int r) {
+    int index = rays.indexOf(q, r);
+    return index < 0 ? null : cells[index];
   }
 
   @Override
   public int[] getScores() {
-    int blackScore = 0;
-    int whiteScore = 0;
-    for (ICell cell : board) {
-      if (cell.getPlayer() == PlayerState.BLACK) {
-        blackScore++;
-      } else if (cell.getPlayer() == PlayerState.WHITE) {
-        whiteScore++;
-      }
-    }
-    return new int[]{blackScore, whiteScore};
+    return new int[]{discs[SearchBoard.BLACK], discs[SearchBoard.WHITE]};
   }
 
 
@@ -71,16 +133,7 @@ public class SquareReversi implements ReversiModel {
     }
 
     // Check if either player has no discs left
-    int blackDiscs = 0;
-    int whiteDiscs = 0;
-    for (ICell cell : board) {
-      if (cell.getPlayer() == PlayerState.BLACK) {
-        blackDiscs++;
-      } else if (cell.getPlayer() == PlayerState.WHITE) {
-        whiteDiscs++;
-      }
-    }
-    if (blackDiscs == 0 || whiteDiscs == 0) {
+    if (discs[SearchBoard.BLACK] == 0 || discs[SearchBoard.WHITE] == 0) {
       return true;
     }
 
@@ -101,22 +154,12 @@ public class SquareReversi implements ReversiModel {
 
   // check if game board is full.
   private boolean gameboardFull() {
-    for (ICell cell : board) {
-      if (cell.getPlayer() == PlayerState.EMPTY) {
-        return false;
-      }
-    }
-    return true;
+    return discs[SearchBoard.EMPTY] == 0;
   }
 
 
   private boolean noMoreValidMovesForCurrentPlayer() {
-    for (ICell cell : board) {
-      if (isValidMove(cell, this.currentState)) {
-        return false;
-      }
-    }
-    return true;
+    return legalMoves().count(currentColor()) == 0;
   }
 
 
@@ -125,55 +168,37 @@ public class SquareReversi implements ReversiModel {
     return this.size;
   }
 
+  @Override
+  public BoardType getBoardType() {
+    return BoardType.SQUARE;
+  }
+
   @Override
   public ICell getCell(int q, int r) {
     if (!isGameStarted) {
       throw new IllegalStateException("Game has not started cant get a cell");
     }
 
-    if (!cellExists(q, r)) {
-      System.out.println("this cell: " + q + ", " + r);
+    ICell cell = cellAt(q, r);
+    if (cell == null) {
       throw new IllegalStateException("Cell does not exist: " + q + ", " + r);
     }
-
-    for (ICell cell : board) {
-      if (cell.getQ() == q && cell.getR() == r) {
-        System.out.println("q: " + q + ", r: " + r);
-        return cell;
-      }
-    }
-    System.out.println("cell: " + q + " " + r);
-    throw new IllegalArgumentException("No cell found");
+    return cell;
   }
 
   @Override
   public boolean cellExists(int q, int r) {
-    for (ICell cell : board) {
-      if (cell.getQ() == q && cell.getR() == r) {
-        return true;
-      }
-    }
-    return false;
+    return cellAt(q, r) != null;
   }
 
 
   @Override
   public GameState returnWinner() {
     if (isGameOver()) {
-      int blackCount = 0;
-      int whiteCount = 0;
-
-      for (ICell cell : board) {
-        if (cell.getPlayer() == PlayerState.BLACK) {
-          blackCount++;
-        } else if (cell.getPlayer() == PlayerState.WHITE) {
-          whiteCount++;
-        }
-        if (blackCount > whiteCount) {
-          return GameState.BLACK_WIN;
-        } else if (blackCount < whiteCount) {
-          return GameState.WHITE_WIN;
-        }
+      if (discs[SearchBoard.BLACK] > discs[SearchBoard.WHITE]) {
+        return GameState.BLACK_WIN;
+      } else if (discs[SearchBoard.BLACK] < discs[SearchBoard.WHITE]) {
+        return GameState.WHITE_WIN;
       }
     }
     return GameState.TIE;
@@ -190,81 +215,91 @@ public class SquareReversi implements ReversiModel {
     if (cell.getPlayer() != PlayerState.EMPTY) {
       return false;
     }
+    int index = rays.indexOf(cell.getQ(), cell.getR());
+    if (index < 0) {
+      return false;
+    }
+    if (cells[index] == cell) {
+      return legalMoves().isLegal(index, colorOf(player));
+    }
 
-    for (int direction = 0; direction < 8; direction++) {
-      if (hasFlippableDiscsInDirection(cell, direction)) {
+    // a cell that is not on this board, walk its rays
+    for (int direction = 0; direction < rays.getDirections(); direction++) {
+      if (hasFlippableDiscsInDirection(rays.ray(index, direction), discOf(player))) {
         return true;
       }
     }
     return false;
   }
 
-  private boolean hasFlippableDiscsInDirection(ICell cell, int direction) {
-    // Define the direction deltas for the square grid
-    int dq = 0;
-    int dr = 0;
-    switch (direction) {
-      case 0: // North
-        dq = 0;
-        dr = -1;
-        break;
-      case 1: // North-East
-        dq = 1;
-        dr = -1;
-        break;
-      case 2: // East
-        dq = 1;
-        dr = 0;
-        break;
-      case 3: // South-East
-        dq = 1;
-        dr = 1;
-        break;
-      case 4: // South
-        dq = 0;
-        dr = 1;
-        break;
-      case 5: // South-West
-        dq = -1;
-        dr = 1;
-        break;
-      case 6: // West
-        dq = -1;
-        dr = 0;
-        break;
-      case 7: // North-West
-        dq = -1;
-        dr = -1;
-        break;
-      default:
+  @Override
+  public List<ICell> getLegalMoves(GameState player) {
+    int color = SearchBoard.colorOf(player);
+    LegalMoveSet legal = legalMoves();
+    List<ICell> moves = new ArrayList<>(legal.count(color));
+    for (int index = 0; index < cells.length; index++) {
+      if (legal.isLegal(index, color)) {
+        moves.add(cells[index]);
+      }
     }
+    return moves;
+  }
 
-    int q = cell.getQ() + dq;
-    int r = cell.getR() + dr;
+  @Override
+  public void scoreMoves(GameState player, MoveList into) {
+    legalMoves().score(SearchBoard.colorOf(player), into);
+  }
+
+  // the valid moves of both players, brought up to date with the cells.
+  private LegalMoveSet legalMoves() {
+    legalMoves.update();
+    return legalMoves;
+  }
+
+  // the color of the current player, white unless it is black's turn.
+  private int currentColor() {
+    return colorOf(currentState);
+  }
+
+  // the color of the given player, white unless it is black's, as the bitboard models do.
+  private static int colorOf(GameState player) {
+    return player == GameState.BLACK_TURN ? SearchBoard.BLACK : SearchBoard.WHITE;
+  }
+
+  // the discs of the given player.
+  private static PlayerState discOf(GameState player) {
+    return player == GameState.BLACK_TURN ? PlayerState.BLACK : PlayerState.WHITE;
+  }
+
+  // check if the player of the given discs can flip the discs along the given ray.
+  private boolean hasFlippableDiscsInDirection(int[] ray, PlayerState own) {
     boolean hasOpponentCell = false;
 
-    // Traverse in the specified direction
-    while (cellExists(q, r)) {
-      ICell nextCell = getCell(q, r);
-      if (nextCell.getPlayer() == PlayerState.EMPTY) {
+    // Traverse along the ray
+    for (int next : ray) {
+      ICell nextCell = cells[next];
+      if (nextCell == null || nextCell.getPlayer() == PlayerState.EMPTY) {
         return false;
-      } else if (isCellOfCurrentPlayer(nextCell)) {
+      } else if (nextCell.getPlayer() == own) {
         return hasOpponentCell;
       } else {
         hasOpponentCell = true;
       }
-      q += dq;
-      r += dr;
     }
     return false;
   }
 
   @Override
   public int getCaptureCells(ICell cell, GameState player) {
+    int index = rays.indexOf(cell.getQ(), cell.getR());
+    if (index < 0) {
+      return 0;
+    }
+    PlayerState currentPlayer = getPlayerStateFromGameState(player);
     int cellCaptured = 0;
 
-    for (int direction = 0; direction < 8; direction++) {
-      cellCaptured += countCapturedInDirection(cell, player, direction);
+    for (int direction = 0; direction < rays.getDirections(); direction++) {
+      cellCaptured += countCapturedInDirection(rays.ray(index, direction), currentPlayer);
     }
     return cellCaptured;
   }
@@ -286,78 +321,70 @@ public class SquareReversi implements ReversiModel {
   }
 
 
-  private int countCapturedInDirection(ICell cell, GameState player, int direction) {
+  // count the discs of the other player captured along the given ray.
+  private int countCapturedInDirection(int[] ray, PlayerState currentPlayer) {
     int captured = 0;
-    PlayerState currentPlayer = getPlayerStateFromGameState(player);
-
-    int dq = 0;
-    int dr = 0;
-    switch (direction) {
-      case 0:
-        dq = 0;
-        dr = -1;
-        break; // North
-      case 1:
-        dq = 1;
-        dr = -1;
-        break; // Northeast
-      case 2:
-        dq = 1;
-        dr = 0;
-        break;  // East
-      case 3:
-        dq = 1;
-        dr = 1;
-        break;  // Southeast
-      case 4:
-        dq = 0;
-        dr = 1;
-        break;  // South
-      case 5:
-        dq = -1;
-        dr = 1;
-        break; // Southwest
-      case 6:
-        dq = -1;
-        dr = 0;
-        break; // West
-      case 7:
-        dq = -1;
-        dr = -1;
-        break;// Northwest
-      default:
-    }
-
-    int q = cell.getQ() + dq;
-    int r = cell.getR() + dr;
-    boolean opponentFound = false;
-
-    while (cellExists(q, r)) {
-      ICell nextCell = getCell(q, r);
-      if (nextCell.getPlayer() == currentPlayer) {
-        if (opponentFound) {
-          return captured;
-        } else {
-          break;
-        }
-      } else if (nextCell.getPlayer() == PlayerState.EMPTY) {
-        break;
+    for (int next : ray) {
+      ICell nextCell = cells[next];
+      if (nextCell == null || nextCell.getPlayer() == PlayerState.EMPTY) {
+        return 0;
+      } else if (nextCell.getPlayer() == currentPlayer) {
+        return captured;
       } else {
-        opponentFound = true;
         captured++;
       }
-
-      q += dq;
-      r += dr;
     }
     return 0;
   }
 
   @Override
   public ReversiModel getClone() {
-    return new SquareReversi(this.getSize());
+    SquareReversi clone = new SquareReversi(this.getSnapshot());
+    clone.blackPlayer = this.blackPlayer;
+    clone.whitePlayer = this.whitePlayer;
+    clone.currentPlayer = this.currentPlayer;
+    return clone;
+  }
+
+  @Override
+  public BoardSnapshot getSnapshot() {
+    byte[] colors = new byte[cells.length];
+    for (int index = 0; index < cells.length; index++) {
+      if (cells[index] != null) {
+        colors[index] = SearchBoard.colorOf(cells[index].getPlayer());
+      }
+    }
+    return new BoardSnapshot(rays, colors, currentState, countPass);
+  }
+
+
+  @Override
+  public long getPositionHash() {
+    return currentState == GameState.WHITE_TURN ? cellHash ^ keys.whiteToMove() : cellHash;
+  }
+
+  @Override
+  public boolean isStable(int q, int r) {
+    StableDiscs stable = stableDiscs.update();
+    int index = rays.indexOf(q, r);
+    return index >= 0 && stable.isStable(index);
   }
 
+  @Override
+  public int[] getStableCounts() {
+    StableDiscs stable = stableDiscs.update();
+    return new int[]{stable.count(SearchBoard.BLACK), stable.count(SearchBoard.WHITE)};
+  }
+
+  @Override
+  public int getHintCaptures(int q, int r) {
+    if ((currentState != GameState.BLACK_TURN && currentState != GameState.WHITE_TURN)
+            || !cellExists(q, r)) {
+      return 0;
+    }
+    ICell cell = getCell(q, r);
+    return isValidMove(cell, currentState) ? getCaptureCells(cell, currentState) : 0;
+  }
 
   @Override
   public void toggleBlackHints() {
@@ -423,13 +450,13 @@ public class SquareReversi implements ReversiModel {
 
   @Override
   public void initializeBoard() {
-    this.board.clear();
+    this.startNewBoard();
     int halfSize = this.getSize() / 2;
 
-    ICell topLeft = new Cell(halfSize - 1, halfSize - 1);
-    ICell topRight = new Cell(halfSize, halfSize - 1);
-    ICell bottomLeft = new Cell(halfSize - 1, halfSize);
-    ICell bottomRight = new Cell(halfSize, halfSize);
+    ICell topLeft = new BoardCell(halfSize - 1, halfSize - 1);
+    ICell topRight = new BoardCell(halfSize, halfSize - 1);
+    ICell bottomLeft = new BoardCell(halfSize - 1, halfSize);
+    ICell bottomRight = new BoardCell(halfSize, halfSize);
 
     topLeft.setPlayer(PlayerState.BLACK);
     topRight.setPlayer(PlayerState.WHITE);
@@ -448,11 +475,10 @@ public class SquareReversi implements ReversiModel {
         if ((q == halfSize - 1 || q == halfSize) && (r == halfSize - 1 || r == halfSize)) {
           continue;
         }
-        this.board.add(new Cell(q, r));
+        this.board.add(new BoardCell(q, r));
       }
     }
 
-
   }
 
   @Override
@@ -483,7 +509,10 @@ public class SquareReversi implements ReversiModel {
     } else {
       clicked.setPlayer(PlayerState.WHITE);
     }
-    flipDiffColorDiscs(clicked);
+    int index = rays.indexOf(clicked.getQ(), clicked.getR());
+    for (int direction = 0; direction < rays.getDirections(); direction++) {
+      flipDiffColorDiscs(rays.ray(index, direction));
+    }
 
 
     for (ModelActionListener listener : listeners) {
@@ -503,49 +532,19 @@ public class SquareReversi implements ReversiModel {
   }
 
 
-  private void flipDiffColorDiscs(ICell clicked) {
-    // The 8 directions in a square grid
-    int[][] directions = {
-            {0, 1},   // North
-            {1, 1},   // Northeast
-            {1, 0},   // East
-            {1, -1},  // Southeast
-            {0, -1},  // South
-            {-1, -1}, // Southwest
-            {-1, 0},  // West
-            {-1, 1}   // Northwest
-    };
-
-    for (int[] dir : directions) {
-      int dq = dir[0];
-      int dr = dir[1];
-
-      int q = clicked.getQ() + dq;
-      int r = clicked.getR() + dr;
-
-      List<ICell> discsToFlip = new ArrayList<>();
-
-      while (q >= -this.getSize() && q <= this.getSize()
-              && r >= -this.getSize() && r <= this.getSize()) {
-        if (!cellExists(q, r)) {
-          break;
-        }
-        ICell cell = getCell(q, r);
-
-        if (cell.getPlayer() == PlayerState.EMPTY) {
-          break;
-        }
+  // if it is possible, flip all the discs that have different colors along this ray.
+  private void flipDiffColorDiscs(int[] ray) {
+    for (int step = 0; step < ray.length; step++) {
+      ICell cell = cells[ray[step]];
+      if (cell == null || cell.getPlayer() == PlayerState.EMPTY) {
+        return;
+      }
 
-        if (isCellOfCurrentPlayer(cell)) {
-          for (ICell cellToFlip : discsToFlip) {
-            cellToFlip.flip();
-          }
-          break;
+      if (isCellOfCurrentPlayer(cell)) {
+        for (int flip = 0; flip < step; flip++) {
+          cells[ray[flip]].flip();
         }
-
-        discsToFlip.add(cell);
-        q += dq;
-        r += dr;
+        return;
       }
     }
   }
@@ -561,19 +560,7 @@ public class SquareReversi implements ReversiModel {
 
   @Override
   public boolean hasValidMoves() {
-
-    for (int q = -this.getSize(); q <= this.getSize(); q++) {
-      for (int r = -this.getSize(); r <= this.getSize(); r++) {
-        if (cellExists(q, r)) {
-          ICell cell = getCell(q, r);
-          if (cell.getPlayer() == PlayerState.EMPTY
-                  && canCaptureInAnyDirection(cell, this.getCurrentState())) {
-            return true;
-          }
-        }
-      }
-    }
-    return false;
+    return legalMoves().count(SearchBoard.colorOf(this.getCurrentState())) > 0;
   }
 
   @Override
@@ -621,58 +608,6 @@ public class SquareReversi implements ReversiModel {
     return currentPlayer;
   }
 
-  private boolean canCaptureInAnyDirection(ICell cell, GameState playerState) {
-    int[][] directions = {
-            {0, 1},   // North
-            {1, 1},   // Northeast
-            {1, 0},   // East
-            {1, -1},  // Southeast
-            {0, -1},  // South
-            {-1, -1}, // Southwest
-            {-1, 0},  // West
-            {-1, 1}   // Northwest
-    };
-
-    for (int[] dir : directions) {
-      if (canCaptureInDirection(cell, playerState, dir[0], dir[1])) {
-        return true;
-      }
-    }
-    return false;
-  }
-
-  private boolean canCaptureInDirection(ICell cell, GameState playerState, int dq, int dr) {
-    int q = cell.getQ() + dq;
-    int r = cell.getR() + dr;
-    boolean hasOpponentCell = false;
-
-    while (q >= -this.getSize() && q <= this.getSize()
-            && r >= -this.getSize() && r <= this.getSize()) {
-      if (!cellExists(q, r)) {
-        break;
-      }
-      ICell nextCell = getCell(q, r);
-      PlayerState opponent = (playerState == GameState.BLACK_TURN)
-              ? PlayerState.WHITE : PlayerState.BLACK;
-
-      if (nextCell.getPlayer() == PlayerState.EMPTY) {
-        break;
-      } else if (nextCell.getPlayer() == opponent) {
-        hasOpponentCell = true;
-      } else if (hasOpponentCell && nextCell.getPlayer()
-              == getPlayerStateFromGameState(playerState)) {
-        return true;
-      } else {
-        break;
-      }
-
-      q += dq;
-      r += dr;
-    }
-
-    return false; // Can't capture in this direction
-  }
-
   private PlayerState getPlayerStateFromGameState(GameState gameState) {
     switch (gameState) {
       case BLACK_TURN:
@@ -685,4 +620,30 @@ public class SquareReversi implements ReversiModel {
     }
   }
 
+  /**
+   * A cell of this game's board. It registers itself in the cell index, and reports every
+   * change of its player so the disc counts and the valid moves stay up to date.
+   */
+  private final class BoardCell extends Cell {
+    private final int index; // the ray table index of the cell, -1 if it is off the table
+    private final int version; // the board the cell belongs to
+
+    private BoardCell(int q, int r) {
+      super(q, r);
+      this.index = rays.indexOf(q, r);
+      this.version = boardVersion;
+      if (index >= 0) {
+        cells[index] = this;
+        legalMoves.set(index, SearchBoard.EMPTY);
+      }
+      discs[SearchBoard.EMPTY]++;
+    }
+
+    @Override
+    protected void changed(PlayerState previous) {
+      if (version == boardVersion) {
+        cellChanged(index, previous, getPlayer());
+      }
+    }
+  }
 }
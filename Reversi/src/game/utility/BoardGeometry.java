@@ -0,0 +1,228 @@
+package game.utility;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+
+import game.type.BoardType;
+
+/**
+ * Represent the shape of a reversi board of one type and size, as tables indexed by cell:
+ * which cells are corners, on an edge or next to a corner, and how far each cell is from the
+ * nearest corner. The tables are built once per board and shared, so strategies,
+ * evaluators and views read them in constant time instead of working them out from
+ * coordinates on each call.
+ * A corner is a cell with only 3 neighbours, the fewest on both boards: the 6 tips of a
+ * hexagon, the 4 corners of a square (a square of one cell has none). An edge cell is on the
+ * border, with fewer neighbours than there are directions. The cells next to a corner come
+ * in two kinds, as on the classic board: a C cell is next to a corner along the border, and
+ * an X cell is next to it inside the board (the diagonal one on square boards, the one
+ * towards the center on hexagons).
+ * The corners come in the order the strategies try them: on hexagons (size, -size),
+ * (size, 0), (-size, size), (-size, 0), (0, size) then (0, -size), on squares (0, 0),
+ * (0, size - 1), (size - 1, 0) then (size - 1, size - 1).
+ * The distance between two cells is the fewest steps from one to the other, a step going to
+ * a neighbour in any direction. The axial distance is |dq| + |dr|, the sum of the
+ * differences of the coordinates, which AvoidCornerCellStrategy has always used.
+ */
+public final class BoardGeometry {
+  private static final int CORNER_NEIGHBOURS = 3;
+  private static final Map<RayTable, BoardGeometry> GEOMETRIES = new ConcurrentHashMap<>();
+
+  private final RayTable rays;
+  private final int[] corners; // the corners, in the order the strategies try them
+  private final boolean[] isCorner;
+  private final boolean[] isEdge;
+  private final boolean[] isNextToCorner;
+  private final int[] cornerDistances;
+  private final int[] axialCornerDistances;
+
+  private BoardGeometry(RayTable rays) {
+    this.rays = rays;
+    int cellCount = rays.getCellCount();
+    int[] neighbours = new int[cellCount];
+    for (int index = 0; index < cellCount; index++) {
+      for (int direction = 0; direction < rays.getDirections(); direction++) {
+        if (rays.ray(index, direction).length > 0) {
+          neighbours[index]++;
+        }
+      }
+    }
+
+    this.isCorner = new boolean[cellCount];
+    this.isEdge = new boolean[cellCount];
+    this.isNextToCorner = new boolean[cellCount];
+    for (int index = 0; index < cellCount; index++) {
+      isEdge[index] = neighbours[index] < rays.getDirections();
+      isCorner[index] = neighbours[index] == CORNER_NEIGHBOURS;
+    }
+    int size = rays.getSize();
+    int[][] order = rays.getBoardType() == BoardType.HEXAGONAL
+            ? new int[][] {{size, -size}, {size, 0}, {-size, size}, {-size, 0}, {0, size},
+                {0, -size}}
+            : new int[][] {{0, 0}, {0, size - 1}, {size - 1, 0}, {size - 1, size - 1}};
+    int[] found = new int[order.length];
+    int cornerCount = 0;
+    for (int[] corner : order) {
+      int index = rays.indexOf(corner[0], corner[1]);
+      if (index >= 0 && isCorner[index]) {
+        found[cornerCount++] = index;
+      }
+    }
+    this.corners = Arrays.copyOf(found, cornerCount);
+
+    // a breadth first walk from all the corners at once
+    this.cornerDistances = new int[cellCount];
+    Arrays.fill(cornerDistances, -1);
+    Queue<Integer> next = new ArrayDeque<>();
+    for (int corner : corners) {
+      cornerDistances[corner] = 0;
+      next.add(corner);
+    }
+    while (!next.isEmpty()) {
+      int index = next.remove();
+      for (int direction = 0; direction < rays.getDirections(); direction++) {
+        int[] ray = rays.ray(index, direction);
+        if (ray.length > 0 && cornerDistances[ray[0]] < 0) {
+          cornerDistances[ray[0]] = cornerDistances[index] + 1;
+          next.add(ray[0]);
+        }
+      }
+    }
+    for (int index = 0; index < cellCount; index++) {
+      isNextToCorner[index] = cornerDistances[index] == 1;
+    }
+
+    this.axialCornerDistances = new int[cellCount];
+    for (int index = 0; index < cellCount; index++) {
+      int closest = corners.length == 0 ? -1 : Integer.MAX_VALUE;
+      for (int corner : corners) {
+        closest = Math.min(closest, Math.abs(rays.getQ(corner) - rays.getQ(index))
+                + Math.abs(rays.getR(corner) - rays.getR(index)));
+      }
+      axialCornerDistances[index] = closest;
+    }
+  }
+
+  /**
+   * Return the shared geometry of the boards of the given table, making it on first use.
+   *
+   * @param rays - the ray table of the board.
+   * @return the geometry.
+   */
+  public static BoardGeometry of(RayTable rays) {
+    return GEOMETRIES.computeIfAbsent(rays, BoardGeometry::new);
+  }
+
+  /**
+   * Return the shared geometry of the boards of the given type and size.
+   *
+   * @param boardType - the board type.
+   * @param size      - the size of the board.
+   * @return the geometry.
+   */
+  public static BoardGeometry of(BoardType boardType, int size) {
+    return of(RayTable.of(boardType, size));
+  }
+
+  /**
+   * Get the ray table of the boards this geometry is for.
+   *
+   * @return the ray table.
+   */
+  public RayTable getRays() {
+    return rays;
+  }
+
+  /**
+   * Get the number of corners of the board.
+   *
+   * @return 6 on hexagon boards, 4 on square ones.
+   */
+  public int getCornerCount() {
+    return corners.length;
+  }
+
+  /**
+   * Get one of the corners.
+   *
+   * @param corner - the place of the corner in the order the strategies try them, from 0 to
+   *               getCornerCount() - 1.
+   * @return the index of its cell.
+   */
+  public int getCorner(int corner) {
+    return corners[corner];
+  }
+
+  /**
+   * Check if a cell is a corner.
+   *
+   * @param index - index of the cell.
+   * @return true if it is a corner.
+   */
+  public boolean isCorner(int index) {
+    return isCorner[index];
+  }
+
+  /**
+   * Check if a cell is on an edge of the board, corners included.
+   *
+   * @param index - index of the cell.
+   * @return true if the board ends next to it.
+   */
+  public boolean isEdge(int index) {
+    return isEdge[index];
+  }
+
+  /**
+   * Check if a cell is next to a corner, and is not a corner itself.
+   *
+   * @param index - index of the cell.
+   * @return true if it is a C or X cell.
+   */
+  public boolean isNextToCorner(int index) {
+    return isNextToCorner[index];
+  }
+
+  /**
+   * Check if a cell is next to a corner along the border.
+   *
+   * @param index - index of the cell.
+   * @return true if it is a C cell.
+   */
+  public boolean isCCell(int index) {
+    return isNextToCorner[index] && isEdge[index];
+  }
+
+  /**
+   * Check if a cell is next to a corner, inside the board.
+   *
+   * @param index - index of the cell.
+   * @return true if it is an X cell.
+   */
+  public boolean isXCell(int index) {
+    return isNextToCorner[index] && !isEdge[index];
+  }
+
+  /**
+   * Get the distance from a cell to the nearest corner.
+   *
+   * @param index - index of the cell.
+   * @return the fewest steps to a corner, 0 on a corner, -1 if the board has no corner.
+   */
+  public int getCornerDistance(int index) {
+    return cornerDistances[index];
+  }
+
+  /**
+   * Get the axial distance from a cell to the nearest corner: the smallest |dq| + |dr|.
+   *
+   * @param index - index of the cell.
+   * @return the axial distance, 0 on a corner, -1 if the board has no corner.
+   */
+  public int getAxialCornerDistance(int index) {
+    return axialCornerDistances[index];
+  }
+}
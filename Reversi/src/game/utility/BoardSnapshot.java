@@ -0,0 +1,121 @@
+package game.utility;
+
+import game.type.BoardType;
+
+/**
+ * Represent an immutable snapshot of a reversi position: the color of every cell as a flat
+ * byte array indexed by the shared RayTable of the board, the player to move and the number
+ * of passes made so far. Taking a snapshot and building a model or a SearchBoard from it
+ * both cost O(cells), and the snapshot shares no mutable state with the model it came from.
+ */
+public final class BoardSnapshot {
+  private final RayTable rays;
+  private final byte[] cells; // SearchBoard colors, indexed by the ray table
+  private final GameState turn;
+  private final int countPass;
+
+  /**
+   * Create a snapshot.
+   *
+   * @param rays      - the ray table of the board.
+   * @param cells     - the SearchBoard color of each cell, indexed by the table, it is copied.
+   * @param turn      - the player to move, null if the game hasn't started.
+   * @param countPass - the number of passes made so far.
+   * @throws IllegalArgumentException if the cells don't match the table.
+   */
+  public BoardSnapshot(RayTable rays, byte[] cells, GameState turn, int countPass) {
+    if (cells.length != rays.getCellCount()) {
+      throw new IllegalArgumentException("Cells don't match the board");
+    }
+    this.rays = rays;
+    this.cells = cells.clone();
+    this.turn = turn;
+    this.countPass = countPass;
+  }
+
+  /**
+   * Get the ray table of the board.
+   *
+   * @return the ray table.
+   */
+  public RayTable getRays() {
+    return rays;
+  }
+
+  /**
+   * Get the type of the board.
+   *
+   * @return the board type.
+   */
+  public BoardType getBoardType() {
+    return rays.getBoardType();
+  }
+
+  /**
+   * Get the size of the board.
+   *
+   * @return the size.
+   */
+  public int getSize() {
+    return rays.getSize();
+  }
+
+  /**
+   * Get the player of the cell at the given index.
+   *
+   * @param index - index of the cell in the ray table.
+   * @return the player state of the cell.
+   */
+  public PlayerState getPlayer(int index) {
+    switch (cells[index]) {
+      case SearchBoard.BLACK:
+        return PlayerState.BLACK;
+      case SearchBoard.WHITE:
+        return PlayerState.WHITE;
+      default:
+        return PlayerState.EMPTY;
+    }
+  }
+
+  /**
+   * Return a copy of the cells, as SearchBoard colors indexed by the ray table.
+   *
+   * @return the cells.
+   */
+  public byte[] getCells() {
+    return cells.clone();
+  }
+
+  // the cells without a copy, for the classes of this package that copy them anyway.
+  byte[] cells() {
+    return cells;
+  }
+
+  /**
+   * Get the player to move.
+   *
+   * @return the turn, null if the game hasn't started.
+   */
+  public GameState getTurn() {
+    return turn;
+  }
+
+  /**
+   * Get the Zobrist hash of this position, equal to the hash of the model it was taken from.
+   *
+   * @return the hash.
+   */
+  public long getHash() {
+    return ZobristKeys.of(rays).hash(cells,
+            turn == GameState.WHITE_TURN ? SearchBoard.WHITE : SearchBoard.BLACK);
+  }
+
+  /**
+   * Get the number of passes made so far.
+   *
+   * @return the pass count.
+   */
+  public int getCountPass() {
+    return countPass;
+  }
+}
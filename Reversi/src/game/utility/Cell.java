@@ -33,7 +33,19 @@ public class Cell extends CoordinateSystem implements ICell {
    * @param player - state.
    */
   public void setPlayer(PlayerState player) {
+    PlayerState previous = this.currentPlayer;
     this.currentPlayer = player;
+    changed(previous);
+  }
+
+  /**
+   * Called after the player of this cell was set or flipped. Does nothing here, a model can
+   * override it to keep track of the cells of its board.
+   *
+   * @param previous - the player of this cell before the change.
+   */
+  protected void changed(PlayerState previous) {
+    // no one to tell
   }
 
 
@@ -82,8 +94,10 @@ public class Cell extends CoordinateSystem implements ICell {
   public void flip() {
     if (this.currentPlayer == PlayerState.BLACK) {
       this.currentPlayer = PlayerState.WHITE;
+      changed(PlayerState.BLACK);
     } else if (this.currentPlayer == PlayerState.WHITE) {
       this.currentPlayer = PlayerState.BLACK;
+      changed(PlayerState.WHITE);
     }
   }
 
@@ -92,7 +106,7 @@ public class Cell extends CoordinateSystem implements ICell {
     if (this == o) {
       return true;
     }
-    if (o == null || getClass() != o.getClass()) {
+    if (!(o instanceof Cell)) {
       return false;
     }
     Cell cell = (Cell) o;
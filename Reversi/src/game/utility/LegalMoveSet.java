@@ -0,0 +1,184 @@
+package game.utility;
+
+import java.util.Arrays;
+
+/**
+ * Represent the valid moves of both players on one board, kept up to date across moves.
+ * The model reports every cell whose color changes, and the next update only re-evaluates
+ * the cells whose validity may have changed: each changed cell, and the first empty cell
+ * along each ray from it. A move can only be made or unmade by a disc inside the unbroken
+ * run of discs next to it, so no other cell needs to be looked at, and a turn costs a walk
+ * along the rays of the placed and flipped discs instead of a rule check on every cell.
+ */
+public final class LegalMoveSet {
+  private static final byte OFF = 3; // no cell at this index, it stops rays like an empty one
+
+  private final RayTable rays;
+  private final byte[] colors; // the color of each cell, OFF until the cell is set
+  private final boolean[][] legal; // [color][index], BLACK and WHITE as in SearchBoard
+  private final int[] counts; // the number of valid moves of each color
+  private final int[] changed; // cells set since the last update
+  private int changes;
+  private final int[] dirty;
+  private final boolean[] marked;
+
+  /**
+   * Create a set for the boards of the given table, with no cells and no valid moves.
+   *
+   * @param rays - the ray table of the board.
+   */
+  public LegalMoveSet(RayTable rays) {
+    int cellCount = rays.getCellCount();
+    this.rays = rays;
+    this.colors = new byte[cellCount];
+    Arrays.fill(colors, OFF);
+    this.legal = new boolean[3][cellCount];
+    this.counts = new int[3];
+    this.changed = new int[cellCount];
+    this.dirty = new int[cellCount];
+    this.marked = new boolean[cellCount];
+  }
+
+  /**
+   * Record the color of a cell. The valid moves are recomputed on the next update.
+   *
+   * @param index - index of the cell.
+   * @param color - EMPTY, BLACK or WHITE.
+   */
+  public void set(int index, int color) {
+    if (colors[index] == color) {
+      return;
+    }
+    // marked means "already in changed" until the update, which reuses it for dirty cells
+    if (!marked[index]) {
+      marked[index] = true;
+      changed[changes++] = index;
+    }
+    colors[index] = (byte) color;
+  }
+
+  /**
+   * Bring the valid moves up to date with the cells set since the last update.
+   */
+  public void update() {
+    if (changes == 0) {
+      return;
+    }
+    for (int i = 0; i < changes; i++) {
+      marked[changed[i]] = false;
+    }
+
+    int dirtyCount = 0;
+    for (int i = 0; i < changes; i++) {
+      int index = changed[i];
+      dirtyCount = mark(index, dirtyCount);
+      for (int direction = 0; direction < rays.getDirections(); direction++) {
+        for (int next : rays.ray(index, direction)) {
+          if (colors[next] == SearchBoard.EMPTY) {
+            dirtyCount = mark(next, dirtyCount);
+            break;
+          } else if (colors[next] == OFF) {
+            break;
+          }
+        }
+      }
+    }
+    changes = 0;
+
+    for (int i = 0; i < dirtyCount; i++) {
+      int index = dirty[i];
+      marked[index] = false;
+      evaluate(index, SearchBoard.BLACK);
+      evaluate(index, SearchBoard.WHITE);
+    }
+  }
+
+  // add the cell to the cells to re-evaluate, once.
+  private int mark(int index, int dirtyCount) {
+    if (!marked[index]) {
+      marked[index] = true;
+      dirty[dirtyCount++] = index;
+    }
+    return dirtyCount;
+  }
+
+  // recompute whether the given color may play on the given cell.
+  private void evaluate(int index, int color) {
+    boolean valid = false;
+    if (colors[index] == SearchBoard.EMPTY) {
+      for (int direction = 0; direction < rays.getDirections() && !valid; direction++) {
+        valid = flanks(rays.ray(index, direction), color);
+      }
+    }
+    if (valid != legal[color][index]) {
+      legal[color][index] = valid;
+      counts[color] += valid ? 1 : -1;
+    }
+  }
+
+  // check if the ray holds at least one disc of the other color followed by one of the color.
+  private boolean flanks(int[] ray, int color) {
+    return flankedLength(ray, color) > 0;
+  }
+
+  /**
+   * Check if the given player may play on the cell at the given index, as of the last update.
+   *
+   * @param index - index of the cell.
+   * @param color - BLACK or WHITE.
+   * @return true if the move is valid.
+   */
+  public boolean isLegal(int index, int color) {
+    return legal[color][index];
+  }
+
+  /**
+   * Fill a list with the valid moves of the given player as of the last update, each with
+   * the discs it flips. Only the rays of the valid moves are walked, each once.
+   *
+   * @param color - BLACK or WHITE.
+   * @param into  - the list, emptied first.
+   */
+  public void score(int color, MoveList into) {
+    into.reset(rays);
+    int found = 0;
+    for (int index = 0; index < colors.length && found < counts[color]; index++) {
+      if (!legal[color][index]) {
+        continue;
+      }
+      found++;
+      into.add(index);
+      for (int direction = 0; direction < rays.getDirections(); direction++) {
+        int[] ray = rays.ray(index, direction);
+        int length = flankedLength(ray, color);
+        for (int step = 0; step < length; step++) {
+          into.addFlip(ray[step]);
+        }
+      }
+    }
+  }
+
+  // the number of discs of the other color that the color flanks along the ray, 0 if none.
+  private int flankedLength(int[] ray, int color) {
+    for (int step = 0; step < ray.length; step++) {
+      int cell = colors[ray[step]];
+      if (cell == SearchBoard.EMPTY || cell == OFF) {
+        return 0;
+      }
+      if (cell == color) {
+        return step;
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Get the number of valid moves of the given player, as of the last update.
+   *
+   * @param color - BLACK or WHITE.
+   * @return the number of valid moves.
+   */
+  public int count(int color) {
+    return counts[color];
+  }
+}
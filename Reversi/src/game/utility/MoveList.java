@@ -0,0 +1,187 @@
+package game.utility;
+
+/**
+ * Represent the valid moves of one player in one position, each with the number of discs it
+ * captures and the mask of the discs it flips, as filled in by
+ * ReadonlyReversiModel.scoreMoves. The moves are in board order, top row first and left to
+ * right inside a row, like getLegalMoves. Cells are ray table indices, and a flip mask is a
+ * bitset of them: bit (index % 64) of word (index / 64).
+ * The list is a reusable buffer of primitive arrays: it is sized for a board the first time
+ * it is filled for it and then refilled in place, so scoring the moves of a position
+ * allocates nothing once a strategy holds on to its list.
+ */
+public final class MoveList {
+  private RayTable rays;
+  private int words; // longs per flip mask
+  private int[] moves = new int[0];
+  private int[] captures = new int[0];
+  private long[] flips = new long[0]; // [move * words + word]
+  private int size;
+
+  /**
+   * Empty the list and make it fit the boards of the given table, keeping its arrays if
+   * they are already for them. The models call it before adding the moves.
+   *
+   * @param rays - the ray table of the board.
+   */
+  public void reset(RayTable rays) {
+    if (this.rays != rays) {
+      int cellCount = rays.getCellCount();
+      this.rays = rays;
+      this.words = (cellCount + 63) >>> 6;
+      this.moves = new int[cellCount];
+      this.captures = new int[cellCount];
+      this.flips = new long[cellCount * words];
+    }
+    size = 0;
+  }
+
+  /**
+   * Add a move that flips nothing yet, after the ones already in the list.
+   *
+   * @param index - index of the cell of the move.
+   * @throws IllegalStateException if the list has not been reset for a board.
+   */
+  public void add(int index) {
+    if (rays == null) {
+      throw new IllegalStateException("The list is not for a board");
+    }
+    moves[size] = index;
+    captures[size] = 0;
+    int start = size * words;
+    for (int word = 0; word < words; word++) {
+      flips[start + word] = 0L;
+    }
+    size++;
+  }
+
+  /**
+   * Record that the last move added flips the disc of a cell.
+   *
+   * @param index - index of the flipped cell.
+   */
+  public void addFlip(int index) {
+    int at = (size - 1) * words + (index >>> 6);
+    long bit = 1L << index;
+    if ((flips[at] & bit) == 0) {
+      flips[at] |= bit;
+      captures[size - 1]++;
+    }
+  }
+
+  /**
+   * Set the flip mask of the last move added from one word of a bitboard.
+   *
+   * @param word - the word of the mask.
+   * @param mask - the flipped cells in that word.
+   */
+  public void addFlips(int word, long mask) {
+    int at = (size - 1) * words + word;
+    captures[size - 1] += Long.bitCount(mask & ~flips[at]);
+    flips[at] |= mask;
+  }
+
+  /**
+   * Get the ray table of the board the list was last filled for.
+   *
+   * @return the ray table, null if it was never filled.
+   */
+  public RayTable getRays() {
+    return rays;
+  }
+
+  /**
+   * Get the number of moves in the list.
+   *
+   * @return the number of valid moves, 0 if the player has none.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Get the cell of a move.
+   *
+   * @param move - the place of the move in the list.
+   * @return the index of its cell.
+   */
+  public int getIndex(int move) {
+    return moves[move];
+  }
+
+  /**
+   * Get the q coordinate of the cell of a move.
+   *
+   * @param move - the place of the move in the list.
+   * @return the q coordinate.
+   */
+  public int getQ(int move) {
+    return rays.getQ(moves[move]);
+  }
+
+  /**
+   * Get the r coordinate of the cell of a move.
+   *
+   * @param move - the place of the move in the list.
+   * @return the r coordinate.
+   */
+  public int getR(int move) {
+    return rays.getR(moves[move]);
+  }
+
+  /**
+   * Get the number of discs a move captures.
+   *
+   * @param move - the place of the move in the list.
+   * @return the number of flipped discs.
+   */
+  public int getCaptures(int move) {
+    return captures[move];
+  }
+
+  /**
+   * Check if a move flips the disc of a cell.
+   *
+   * @param move  - the place of the move in the list.
+   * @param index - index of the cell.
+   * @return true if the cell is in the flip mask of the move.
+   */
+  public boolean flips(int move, int index) {
+    return (flips[move * words + (index >>> 6)] & (1L << index)) != 0;
+  }
+
+  /**
+   * Get one word of the flip mask of a move.
+   *
+   * @param move - the place of the move in the list.
+   * @param word - the word, from 0 to getFlipWords() - 1.
+   * @return the flipped cells with an index in that word.
+   */
+  public long getFlipWord(int move, int word) {
+    return flips[move * words + word];
+  }
+
+  /**
+   * Get the number of words of a flip mask.
+   *
+   * @return the number of longs that hold a bit for each cell of the board.
+   */
+  public int getFlipWords() {
+    return words;
+  }
+
+  /**
+   * Find the place of the move on a cell.
+   *
+   * @param index - index of the cell.
+   * @return the place of its move in the list, -1 if the cell is not a valid move.
+   */
+  public int find(int index) {
+    for (int move = 0; move < size; move++) {
+      if (moves[move] == index) {
+        return move;
+      }
+    }
+    return -1;
+  }
+}
@@ -0,0 +1,269 @@
+package game.utility;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Represent the patterns of a reversi board of one type and size: fixed groups of cells
+ * whose colors, read as the digits of a base 3 number, give an index into a table of
+ * weights. There are two classes of patterns. A corner region is a corner and its three
+ * neighbours: first the one on the axis of symmetry through the corner, then the two others.
+ * An edge is the line of cells along the border from one corner to the next; on big boards
+ * only the EDGE_END_CELLS cells next to each end are used, so the tables stay small. All the
+ * patterns of a class have the same number of cells, so they share a table. The cells of an
+ * edge are in order from one corner to the other.
+ * A symmetry of the board maps each pattern onto a pattern of its class, with its cells in
+ * the same order or in the mirrored one: the two last neighbours of a corner swapped, an
+ * edge reversed (see mirror). So a table scores all the images of a position the same when
+ * each index has the weight of its mirror.
+ * Each cell also knows the patterns it is in and the power of 3 of its place in them, so a
+ * board can update the indices of its patterns as cells change (see SearchBoard.usePatterns).
+ */
+public final class PatternSet {
+  /**
+   * The class of the corner regions.
+   */
+  public static final int CORNER = 0;
+  /**
+   * The class of the edges.
+   */
+  public static final int EDGE = 1;
+  /**
+   * The cells taken from each end of an edge too long to be used whole.
+   */
+  public static final int EDGE_END_CELLS = 5;
+
+  private static final Map<RayTable, PatternSet> SETS = new ConcurrentHashMap<>();
+
+  private final RayTable rays;
+  private final int[][] cells; // [pattern] -> cells, first digit first
+  private final int[] classes; // [pattern] -> CORNER or EDGE
+  private final int[] classCells; // [class] -> cells of its patterns
+  private final int[][] cellPatterns; // [cell] -> the patterns that hold it
+  private final int[][] cellPowers; // [cell] -> 3 to the power of its place in each of them
+
+  private PatternSet(RayTable rays) {
+    this.rays = rays;
+    BoardGeometry geometry = BoardGeometry.of(rays);
+    Symmetries symmetries = Symmetries.of(rays);
+    List<int[]> corners = new ArrayList<>();
+    List<int[]> edges = new ArrayList<>();
+    for (int i = 0; i < geometry.getCornerCount(); i++) {
+      int corner = geometry.getCorner(i);
+      int[] region = new int[4];
+      int length = 2;
+      region[0] = corner;
+      for (int direction = 0; direction < rays.getDirections(); direction++) {
+        int[] ray = rays.ray(corner, direction);
+        if (ray.length > 0 && isOnAxis(symmetries, corner, ray[0])) {
+          region[1] = ray[0];
+        } else if (ray.length > 0) {
+          region[length++] = ray[0];
+        }
+        // an edge runs along the border to another corner, taken once from its lower end
+        if (ray.length > 0 && ray[ray.length - 1] > corner
+                && geometry.isCorner(ray[ray.length - 1]) && onBorder(ray, geometry)) {
+          edges.add(edge(corner, ray));
+        }
+      }
+      corners.add(region);
+    }
+
+    this.cells = new int[corners.size() + edges.size()][];
+    this.classes = new int[cells.length];
+    int pattern = 0;
+    for (int[] region : corners) {
+      classes[pattern] = CORNER;
+      cells[pattern++] = region;
+    }
+    for (int[] edge : edges) {
+      classes[pattern] = EDGE;
+      cells[pattern++] = edge;
+    }
+    this.classCells = new int[] {4, edges.isEmpty() ? 0 : edges.get(0).length};
+
+    int cellCount = rays.getCellCount();
+    int[] holders = new int[cellCount];
+    for (int[] patternCells : cells) {
+      for (int cell : patternCells) {
+        holders[cell]++;
+      }
+    }
+    this.cellPatterns = new int[cellCount][];
+    this.cellPowers = new int[cellCount][];
+    for (int cell = 0; cell < cellCount; cell++) {
+      cellPatterns[cell] = new int[holders[cell]];
+      cellPowers[cell] = new int[holders[cell]];
+      holders[cell] = 0;
+    }
+    for (pattern = 0; pattern < cells.length; pattern++) {
+      for (int place = 0, power = 1; place < cells[pattern].length; place++, power *= 3) {
+        int cell = cells[pattern][place];
+        cellPatterns[cell][holders[cell]] = pattern;
+        cellPowers[cell][holders[cell]++] = power;
+      }
+    }
+  }
+
+  // check if a neighbour of a corner is on the axis of symmetry through it: the reflection
+  // that keeps the corner in place keeps it too.
+  private static boolean isOnAxis(Symmetries symmetries, int corner, int neighbour) {
+    for (int transform = 1; transform < symmetries.getCount(); transform++) {
+      if (symmetries.map(transform, corner) == corner
+              && symmetries.map(transform, neighbour) == neighbour) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // check if every cell of the ray is on the border.
+  private static boolean onBorder(int[] ray, BoardGeometry geometry) {
+    for (int index : ray) {
+      if (!geometry.isEdge(index)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // the cells of the edge from the corner along the ray, or its two ends if it is too long.
+  private static int[] edge(int corner, int[] ray) {
+    int length = ray.length + 1;
+    if (length <= 2 * EDGE_END_CELLS) {
+      int[] edge = new int[length];
+      edge[0] = corner;
+      System.arraycopy(ray, 0, edge, 1, ray.length);
+      return edge;
+    }
+    int[] edge = new int[2 * EDGE_END_CELLS];
+    edge[0] = corner;
+    System.arraycopy(ray, 0, edge, 1, EDGE_END_CELLS - 1);
+    System.arraycopy(ray, ray.length - EDGE_END_CELLS, edge, EDGE_END_CELLS, EDGE_END_CELLS);
+    return edge;
+  }
+
+  /**
+   * Return the shared patterns of the boards of the given table, making them on first use.
+   *
+   * @param rays - the ray table of the board.
+   * @return the patterns.
+   */
+  public static PatternSet of(RayTable rays) {
+    return SETS.computeIfAbsent(rays, PatternSet::new);
+  }
+
+  /**
+   * Get the ray table of the boards these patterns are for.
+   *
+   * @return the ray table.
+   */
+  public RayTable getRays() {
+    return rays;
+  }
+
+  /**
+   * Get the number of patterns.
+   *
+   * @return the pattern count.
+   */
+  public int getPatternCount() {
+    return cells.length;
+  }
+
+  /**
+   * Get the class of a pattern.
+   *
+   * @param pattern - the pattern.
+   * @return CORNER or EDGE.
+   */
+  public int getPatternClass(int pattern) {
+    return classes[pattern];
+  }
+
+  /**
+   * Get the cells of a pattern, the first one is the lowest digit of its index. The array
+   * is shared and must not be changed.
+   *
+   * @param pattern - the pattern.
+   * @return the indices of the cells.
+   */
+  public int[] cells(int pattern) {
+    return cells[pattern];
+  }
+
+  /**
+   * Get the patterns that hold a cell. The array is shared and must not be changed.
+   *
+   * @param cell - index of the cell.
+   * @return the patterns, none for most cells away from the border.
+   */
+  public int[] patternsOf(int cell) {
+    return cellPatterns[cell];
+  }
+
+  /**
+   * Get the weight of a cell in the index of each pattern that holds it, in the order of
+   * patternsOf. The array is shared and must not be changed.
+   *
+   * @param cell - index of the cell.
+   * @return 3 to the power of the place of the cell in each pattern.
+   */
+  public int[] powersOf(int cell) {
+    return cellPowers[cell];
+  }
+
+  /**
+   * Get the number of indices of the patterns of a class, the size of its weight table.
+   *
+   * @param patternClass - CORNER or EDGE.
+   * @return 3 to the power of the cells of its patterns.
+   */
+  public int getTableSize(int patternClass) {
+    int size = 1;
+    for (int i = 0; i < classCells[patternClass]; i++) {
+      size *= 3;
+    }
+    return size;
+  }
+
+  /**
+   * Get the index of a pattern of a class read in the mirrored order of its cells: the two
+   * last cells swapped for a corner region, the cells reversed for an edge.
+   *
+   * @param patternClass - CORNER or EDGE.
+   * @param index        - the index.
+   * @return the index of the same colors read in the mirrored order.
+   */
+  public int mirror(int patternClass, int index) {
+    if (patternClass == CORNER) {
+      int second = index / 9 % 3;
+      int third = index / 27 % 3;
+      return index + (third - second) * 9 + (second - third) * 27;
+    }
+    int mirrored = 0;
+    for (int i = 0; i < classCells[EDGE]; i++, index /= 3) {
+      mirrored = mirrored * 3 + index % 3;
+    }
+    return mirrored;
+  }
+
+  /**
+   * Compute the index of a pattern in a position: the sum of the color of each of its cells
+   * (EMPTY, BLACK or WHITE) times 3 to the power of its place in the pattern.
+   *
+   * @param board   - the position.
+   * @param pattern - the pattern.
+   * @return the index.
+   */
+  public int index(SearchBoard board, int pattern) {
+    int[] patternCells = cells[pattern];
+    int index = 0;
+    for (int i = patternCells.length - 1; i >= 0; i--) {
+      index = index * 3 + board.get(patternCells[i]);
+    }
+    return index;
+  }
+}
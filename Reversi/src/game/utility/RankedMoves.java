@@ -0,0 +1,119 @@
+package game.utility;
+
+import java.util.Arrays;
+
+/**
+ * Represent the best moves of a position as found by a search, best first, each with its
+ * score for the player to move and the depth the search reached. The moves are cell indices
+ * of the ray table of the board. Instances are immutable, so a search thread can hand them
+ * to the views as they are.
+ */
+public final class RankedMoves {
+  private final RayTable rays;
+  private final int[] moves;
+  private final int[] scores;
+  private final int depth;
+
+  /**
+   * Constructor for ranked moves.
+   *
+   * @param rays   - the ray table of the board.
+   * @param moves  - the indices of the moves, best first.
+   * @param scores - the score of each move, in the same order.
+   * @param depth  - the depth the moves were searched to.
+   * @throws IllegalArgumentException if there are not as many scores as moves.
+   */
+  public RankedMoves(RayTable rays, int[] moves, int[] scores, int depth) {
+    if (moves.length != scores.length) {
+      throw new IllegalArgumentException("Each move needs one score");
+    }
+    this.rays = rays;
+    this.moves = Arrays.copyOf(moves, moves.length);
+    this.scores = Arrays.copyOf(scores, scores.length);
+    this.depth = depth;
+  }
+
+  /**
+   * Get the ray table of the board of the moves.
+   *
+   * @return the ray table.
+   */
+  public RayTable getRays() {
+    return rays;
+  }
+
+  /**
+   * Get the number of moves.
+   *
+   * @return the number of moves.
+   */
+  public int size() {
+    return moves.length;
+  }
+
+  /**
+   * Get the cell index of a move.
+   *
+   * @param rank - the rank of the move, 0 for the best.
+   * @return the index of its cell.
+   */
+  public int getIndex(int rank) {
+    return moves[rank];
+  }
+
+  /**
+   * Get the q coordinate of a move.
+   *
+   * @param rank - the rank of the move, 0 for the best.
+   * @return the q coordinate of its cell.
+   */
+  public int getQ(int rank) {
+    return rays.getQ(moves[rank]);
+  }
+
+  /**
+   * Get the r coordinate of a move.
+   *
+   * @param rank - the rank of the move, 0 for the best.
+   * @return the r coordinate of its cell.
+   */
+  public int getR(int rank) {
+    return rays.getR(moves[rank]);
+  }
+
+  /**
+   * Get the score of a move for the player to move, higher is better.
+   *
+   * @param rank - the rank of the move, 0 for the best.
+   * @return the score.
+   */
+  public int getScore(int rank) {
+    return scores[rank];
+  }
+
+  /**
+   * Find the rank of the move on a cell.
+   *
+   * @param q - the q coordinate of the cell.
+   * @param r - the r coordinate of the cell.
+   * @return the rank of the move, -1 if the cell is not one of the moves.
+   */
+  public int rankOf(int q, int r) {
+    int index = rays.indexOf(q, r);
+    for (int rank = 0; rank < moves.length; rank++) {
+      if (moves[rank] == index) {
+        return rank;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Get the depth the moves were searched to.
+   *
+   * @return the depth in plies.
+   */
+  public int getDepth() {
+    return depth;
+  }
+}
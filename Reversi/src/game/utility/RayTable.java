@@ -0,0 +1,193 @@
+package game.utility;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import game.type.BoardType;
+
+/**
+ * Represent the geometry of a reversi board of one type and size, precomputed once.
+ * Every cell of the board gets a compact index, row by row from the top (smallest r) and
+ * left to right inside a row (smallest q). For each cell and direction the table holds the
+ * ordered indices of the cells along that ray, up to the edge of the board, so rule checks
+ * can walk a ray without computing coordinates or checking bounds.
+ * Tables are immutable and shared: every model of the same board type and size, including
+ * the copies made for search, uses the same instance.
+ */
+public final class RayTable {
+  // hexagon directions, in the order used by HexReversi.
+  private static final int[][] HEX_DIRECTIONS = {
+      {0, 1}, {-1, 1}, {-1, 0}, {0, -1}, {1, -1}, {1, 0}
+  };
+  // square directions: north, north-east, east, south-east, south, south-west, west, north-west.
+  private static final int[][] SQUARE_DIRECTIONS = {
+      {0, -1}, {1, -1}, {1, 0}, {1, 1}, {0, 1}, {-1, 1}, {-1, 0}, {-1, -1}
+  };
+  private static final Map<String, RayTable> TABLES = new ConcurrentHashMap<>();
+
+  private final BoardType boardType;
+  private final int size;
+  private final int offset; // added to q and r to reach the bounding grid
+  private final int span; // width of the bounding grid
+  private final int[] gridToIndex; // the index of each grid position, -1 off the board
+  private final int[] qs; // q of each index
+  private final int[] rs; // r of each index
+  private final int[][][] rays; // [index][direction] -> indices along the ray
+
+  private RayTable(BoardType boardType, int size) {
+    this.boardType = boardType;
+    this.size = size;
+    this.offset = boardType == BoardType.HEXAGONAL ? size : 0;
+    this.span = boardType == BoardType.HEXAGONAL ? 2 * size + 1 : size;
+    this.gridToIndex = new int[span * span];
+
+    int count = 0;
+    for (int r = -offset; r < span - offset; r++) {
+      for (int q = -offset; q < span - offset; q++) {
+        boolean onBoard = boardType != BoardType.HEXAGONAL || Math.abs(q + r) <= size;
+        gridToIndex[(r + offset) * span + (q + offset)] = onBoard ? count++ : -1;
+      }
+    }
+    this.qs = new int[count];
+    this.rs = new int[count];
+    for (int r = -offset; r < span - offset; r++) {
+      for (int q = -offset; q < span - offset; q++) {
+        int index = indexOf(q, r);
+        if (index >= 0) {
+          qs[index] = q;
+          rs[index] = r;
+        }
+      }
+    }
+
+    int[][] directions = boardType == BoardType.HEXAGONAL ? HEX_DIRECTIONS : SQUARE_DIRECTIONS;
+    this.rays = new int[count][directions.length][];
+    int[] buffer = new int[span];
+    for (int index = 0; index < count; index++) {
+      for (int direction = 0; direction < directions.length; direction++) {
+        int length = 0;
+        int q = qs[index] + directions[direction][0];
+        int r = rs[index] + directions[direction][1];
+        int next = indexOf(q, r);
+        while (next >= 0) {
+          buffer[length++] = next;
+          q += directions[direction][0];
+          r += directions[direction][1];
+          next = indexOf(q, r);
+        }
+        rays[index][direction] = Arrays.copyOf(buffer, length);
+      }
+    }
+  }
+
+  /**
+   * Return the shared table of the given board type and size, building it on first use.
+   *
+   * @param boardType - the type of the board.
+   * @param size      - the size of the board.
+   * @return the ray table.
+   * @throws IllegalArgumentException if the size is zero or negative.
+   */
+  public static RayTable of(BoardType boardType, int size) {
+    if (size <= 0) {
+      throw new IllegalArgumentException("Size cannot be zero or negative");
+    }
+    return TABLES.computeIfAbsent(boardType + ":" + size, key -> new RayTable(boardType, size));
+  }
+
+  /**
+   * Get the board type of this table.
+   *
+   * @return the board type.
+   */
+  public BoardType getBoardType() {
+    return boardType;
+  }
+
+  /**
+   * Get the size of the board of this table.
+   *
+   * @return the size.
+   */
+  public int getSize() {
+    return size;
+  }
+
+  /**
+   * Get the number of cells of the board.
+   *
+   * @return the number of cells.
+   */
+  public int getCellCount() {
+    return qs.length;
+  }
+
+  /**
+   * Get the number of directions a ray can take, 6 on a hexagon and 8 on a square.
+   *
+   * @return the number of directions.
+   */
+  public int getDirections() {
+    return rays.length == 0 ? 0 : rays[0].length;
+  }
+
+  /**
+   * Get the direction opposite to the given one.
+   *
+   * @param direction - a direction.
+   * @return the opposite direction.
+   */
+  public int opposite(int direction) {
+    int directions = getDirections();
+    return (direction + directions / 2) % directions;
+  }
+
+  /**
+   * Return the index of the cell at the given coordinates.
+   *
+   * @param q - q coordinate.
+   * @param r - r coordinate.
+   * @return the index, or -1 if the coordinates are not on the board.
+   */
+  public int indexOf(int q, int r) {
+    int col = q + offset;
+    int row = r + offset;
+    if (col < 0 || col >= span || row < 0 || row >= span) {
+      return -1;
+    }
+    return gridToIndex[row * span + col];
+  }
+
+  /**
+   * Get the q coordinate of the cell at the given index.
+   *
+   * @param index - index of the cell.
+   * @return the q coordinate.
+   */
+  public int getQ(int index) {
+    return qs[index];
+  }
+
+  /**
+   * Get the r coordinate of the cell at the given index.
+   *
+   * @param index - index of the cell.
+   * @return the r coordinate.
+   */
+  public int getR(int index) {
+    return rs[index];
+  }
+
+  /**
+   * Return the indices of the cells along the ray that leaves the given cell in the given
+   * direction, nearest first. The array is shared and must not be modified.
+   *
+   * @param index     - index of the cell the ray starts from (not included).
+   * @param direction - the direction of the ray.
+   * @return the cells along the ray.
+   */
+  public int[] ray(int index, int direction) {
+    return rays[index][direction];
+  }
+}
@@ -0,0 +1,548 @@
+package game.utility;
+
+import java.util.Arrays;
+
+import game.ReadonlyReversiModel;
+
+/**
+ * Represent a reversi position made for game tree search. The board is a flat byte array
+ * indexed by the cells of a shared RayTable, and moves are played and taken back in place:
+ * every flipped cell is recorded on a preallocated undo stack, so a search can walk the
+ * whole tree on one board without copying it or allocating at every node.
+ * The rules match the models: the game is over when a player has no discs left, the board
+ * is full, two passes have been made, or the player to move has no valid move.
+ * With usePatterns the board also keeps the index of each of its patterns up to date, for
+ * the evaluations that weight them (see PatternSet).
+ * With useSymmetries the board also keeps the hash of each image of the position under the
+ * symmetries of the board, so tables can share one entry between symmetric positions (see
+ * getCanonicalHash). It costs a few more XORs for each flip, so it is off by default.
+ */
+public final class SearchBoard {
+  /**
+   * An empty cell.
+   */
+  public static final byte EMPTY = 0;
+  /**
+   * A cell with a black disc, also used for the black player.
+   */
+  public static final byte BLACK = 1;
+  /**
+   * A cell with a white disc, also used for the white player.
+   */
+  public static final byte WHITE = 2;
+  /**
+   * The move recorded on the undo stack for a pass.
+   */
+  public static final int PASS = -1;
+
+  private final RayTable rays;
+  private final byte[] cells;
+  private final int[] counts; // discs of each color, indexed by EMPTY, BLACK and WHITE
+  private int toMove; // BLACK or WHITE
+  private int countPass; // passes made so far, like the models' countPass
+  private final ZobristKeys keys;
+  private long hash; // Zobrist hash of the position, the same as the models'
+  private PatternSet patterns; // null until usePatterns
+  private int[] patternIndices; // [pattern] -> index of the pattern in the position
+  private Symmetries symmetries; // null until useSymmetries
+  private long[] symmetricHashes; // [transform] -> hash of the image of the position
+
+  // undo stack: the move and number of flips of each ply, and the flipped cells.
+  private int[] plyMoves;
+  private int[] plyFlips;
+  private int plies;
+  private int[] flipped;
+  private int flipTop;
+
+  /**
+   * Create a search board from the given cells.
+   *
+   * @param rays      - the ray table of the board.
+   * @param cells     - the color of each cell, indexed by the ray table, it is copied.
+   * @param toMove    - BLACK or WHITE, the player to move.
+   * @param countPass - the number of passes made so far.
+   * @throws IllegalArgumentException if the cells don't match the table or toMove is not a
+   *                                  player.
+   */
+  public SearchBoard(RayTable rays, byte[] cells, int toMove, int countPass) {
+    if (cells.length != rays.getCellCount()) {
+      throw new IllegalArgumentException("Cells don't match the board");
+    }
+    if (toMove != BLACK && toMove != WHITE) {
+      throw new IllegalArgumentException("The player to move must be black or white");
+    }
+    this.rays = rays;
+    this.cells = cells.clone();
+    this.counts = new int[3];
+    for (byte cell : this.cells) {
+      counts[cell]++;
+    }
+    this.toMove = toMove;
+    this.countPass = countPass;
+    this.keys = ZobristKeys.of(rays);
+    this.hash = keys.hash(this.cells, toMove);
+    this.plyMoves = new int[cells.length * 2 + 2];
+    this.plyFlips = new int[plyMoves.length];
+    this.flipped = new int[cells.length * 4];
+  }
+
+  /**
+   * Create a search board holding the current position of the given model.
+   *
+   * @param model  - the model to copy.
+   * @param player - the player to move, BLACK_TURN or WHITE_TURN.
+   * @return the search board.
+   */
+  public static SearchBoard from(ReadonlyReversiModel model, GameState player) {
+    BoardSnapshot snapshot = model.getSnapshot();
+    return new SearchBoard(snapshot.getRays(), snapshot.cells(), colorOf(player),
+            snapshot.getCountPass());
+  }
+
+  /**
+   * Create a search board holding the position of the given snapshot.
+   *
+   * @param snapshot - the snapshot to copy, its turn must be BLACK_TURN or WHITE_TURN.
+   * @return the search board.
+   */
+  public static SearchBoard from(BoardSnapshot snapshot) {
+    return new SearchBoard(snapshot.getRays(), snapshot.cells(), colorOf(snapshot.getTurn()),
+            snapshot.getCountPass());
+  }
+
+  /**
+   * Take a snapshot of the current position of this board.
+   *
+   * @return the snapshot.
+   */
+  public BoardSnapshot snapshot() {
+    GameState turn = toMove == BLACK ? GameState.BLACK_TURN : GameState.WHITE_TURN;
+    return new BoardSnapshot(rays, cells, turn, countPass);
+  }
+
+  /**
+   * Return the search board color of the given cell state.
+   *
+   * @param player - the state of a cell.
+   * @return EMPTY, BLACK or WHITE.
+   */
+  public static byte colorOf(PlayerState player) {
+    switch (player) {
+      case BLACK:
+        return BLACK;
+      case WHITE:
+        return WHITE;
+      default:
+        return EMPTY;
+    }
+  }
+
+  /**
+   * Return the search board color of the player of the given turn.
+   *
+   * @param player - BLACK_TURN or WHITE_TURN.
+   * @return BLACK or WHITE.
+   * @throws IllegalArgumentException if the state is not a turn.
+   */
+  public static byte colorOf(GameState player) {
+    switch (player) {
+      case BLACK_TURN:
+        return BLACK;
+      case WHITE_TURN:
+        return WHITE;
+      default:
+        throw new IllegalArgumentException("Invalid game state for player conversion: "
+                + player);
+    }
+  }
+
+  /**
+   * Return the other player.
+   *
+   * @param color - BLACK or WHITE.
+   * @return WHITE or BLACK.
+   */
+  public static int opponent(int color) {
+    return BLACK + WHITE - color;
+  }
+
+  /**
+   * Get the ray table of this board.
+   *
+   * @return the ray table.
+   */
+  public RayTable getRays() {
+    return rays;
+  }
+
+  /**
+   * Get the color of the cell at the given index.
+   *
+   * @param index - index of the cell.
+   * @return EMPTY, BLACK or WHITE.
+   */
+  public int get(int index) {
+    return cells[index];
+  }
+
+  /**
+   * Get the player to move.
+   *
+   * @return BLACK or WHITE.
+   */
+  public int getToMove() {
+    return toMove;
+  }
+
+  /**
+   * Get the number of discs of the given color, or of empty cells.
+   *
+   * @param color - EMPTY, BLACK or WHITE.
+   * @return the count.
+   */
+  public int count(int color) {
+    return counts[color];
+  }
+
+  /**
+   * Limit the depth of a search of the position to the plies the game can still last. Every
+   * move fills a cell, and the search never passes since a player without moves ends it, so
+   * the game is over before the search goes deeper than the number of empty cells.
+   *
+   * @param depth - the depth asked for.
+   * @return the depth the search can reach, never negative.
+   */
+  public int limitDepth(int depth) {
+    return Math.max(0, Math.min(depth, counts[EMPTY]));
+  }
+
+  /**
+   * Get the Zobrist hash of the position, kept up to date by play, pass and undo.
+   *
+   * @return the hash.
+   */
+  public long getHash() {
+    return hash;
+  }
+
+  /**
+   * Keep the index of each pattern of the board (see PatternSet) from now on, for
+   * getPatternIndex. Play and undo then update the indices of the patterns that hold the
+   * placed and flipped cells, instead of an evaluation reading every pattern again.
+   */
+  public void usePatterns() {
+    if (patterns == null) {
+      patterns = PatternSet.of(rays);
+      patternIndices = new int[patterns.getPatternCount()];
+      for (int pattern = 0; pattern < patternIndices.length; pattern++) {
+        patternIndices[pattern] = patterns.index(this, pattern);
+      }
+    }
+  }
+
+  /**
+   * Keep the hashes of the images of the position under the symmetries of the board from
+   * now on, for getCanonicalHash.
+   */
+  public void useSymmetries() {
+    if (symmetries == null) {
+      symmetries = Symmetries.of(rays);
+      symmetricHashes = new long[symmetries.getCount()];
+      symmetries.hashes(cells, toMove, symmetricHashes);
+    }
+  }
+
+  /**
+   * Get the index of a pattern in the position, the same as PatternSet.index.
+   *
+   * @param pattern - the pattern, of the PatternSet of the ray table of the board.
+   * @return the index.
+   * @throws IllegalStateException if usePatterns was not called.
+   */
+  public int getPatternIndex(int pattern) {
+    if (patterns == null) {
+      throw new IllegalStateException("The board doesn't keep its pattern indices");
+    }
+    return patternIndices[pattern];
+  }
+
+  /**
+   * Get the hash of the canonical form of the position: the same for every position that is
+   * an image of this one under a symmetry of the board, see Symmetries. Without
+   * useSymmetries it is the hash of the position.
+   *
+   * @return the canonical hash.
+   */
+  public long getCanonicalHash() {
+    return symmetries == null ? hash
+            : symmetricHashes[symmetries.canonicalTransform(symmetricHashes)];
+  }
+
+  /**
+   * Map a cell of the position to the canonical form of the position, to store it with the
+   * canonical hash.
+   *
+   * @param index - index of the cell, or a negative number for no cell.
+   * @return the index of the cell in the canonical form, negative numbers are kept.
+   */
+  public int toCanonical(int index) {
+    return symmetries == null || index < 0 ? index
+            : symmetries.map(symmetries.canonicalTransform(symmetricHashes), index);
+  }
+
+  /**
+   * Map a cell of the canonical form of the position back to the position, for a cell found
+   * with the canonical hash.
+   *
+   * @param index - index of the cell in the canonical form, or a negative number for none.
+   * @return the index of the cell, negative numbers are kept.
+   */
+  public int fromCanonical(int index) {
+    if (symmetries == null || index < 0) {
+      return index;
+    }
+    int transform = symmetries.canonicalTransform(symmetricHashes);
+    return symmetries.map(symmetries.inverse(transform), index);
+  }
+
+  /**
+   * Get the number of moves and passes played on this board that can be taken back.
+   *
+   * @return the number of plies.
+   */
+  public int getPly() {
+    return plies;
+  }
+
+  /**
+   * Count the discs the given player would flip by playing on the given cell.
+   *
+   * @param index - index of the cell.
+   * @param color - BLACK or WHITE.
+   * @return the number of flipped discs, 0 if the move is not valid.
+   */
+  public int countFlips(int index, int color) {
+    if (cells[index] != EMPTY) {
+      return 0;
+    }
+    int total = 0;
+    for (int direction = 0; direction < rays.getDirections(); direction++) {
+      total += flipsAlong(rays.ray(index, direction), color);
+    }
+    return total;
+  }
+
+  /**
+   * Check if the given player may play on the given cell.
+   *
+   * @param index - index of the cell.
+   * @param color - BLACK or WHITE.
+   * @return true if the move flips at least one disc.
+   */
+  public boolean isValidMove(int index, int color) {
+    if (cells[index] != EMPTY) {
+      return false;
+    }
+    for (int direction = 0; direction < rays.getDirections(); direction++) {
+      if (flipsAlong(rays.ray(index, direction), color) > 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // the number of discs the given color flips along the ray, 0 if the ray is not closed.
+  private int flipsAlong(int[] ray, int color) {
+    for (int step = 0; step < ray.length; step++) {
+      int cell = cells[ray[step]];
+      if (cell == EMPTY) {
+        return 0;
+      }
+      if (cell == color) {
+        return step;
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Write the valid moves of the given player into the buffer, in index order.
+   *
+   * @param color  - BLACK or WHITE.
+   * @param buffer - receives the indices of the moves, must hold every cell of the board.
+   * @return the number of moves written.
+   */
+  public int generateMoves(int color, int[] buffer) {
+    int count = 0;
+    for (int index = 0; index < cells.length; index++) {
+      if (isValidMove(index, color)) {
+        buffer[count++] = index;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Check if the given player has at least one valid move.
+   *
+   * @param color - BLACK or WHITE.
+   * @return true if there is a valid move.
+   */
+  public boolean hasValidMoves(int color) {
+    for (int index = 0; index < cells.length; index++) {
+      if (isValidMove(index, color)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Signal if the game is over, with the same conditions as the models.
+   *
+   * @return true if the game is over.
+   */
+  public boolean isGameOver() {
+    return counts[BLACK] == 0 || counts[WHITE] == 0 || counts[EMPTY] == 0
+            || countPass >= 2 || !hasValidMoves(toMove);
+  }
+
+  /**
+   * Play the player to move on the given cell, flip the captured discs and hand the turn to
+   * the other player. Nothing happens if the move is not valid.
+   *
+   * @param index - index of the cell.
+   * @return the number of flipped discs, 0 if the move was not played.
+   */
+  public int play(int index) {
+    if (cells[index] != EMPTY) {
+      return 0;
+    }
+    int start = flipTop;
+    for (int direction = 0; direction < rays.getDirections(); direction++) {
+      int[] ray = rays.ray(index, direction);
+      int length = flipsAlong(ray, toMove);
+      if (flipTop + length > flipped.length) {
+        flipped = Arrays.copyOf(flipped, Math.max(flipped.length * 2, flipTop + length));
+      }
+      for (int step = 0; step < length; step++) {
+        cells[ray[step]] = (byte) toMove;
+        flipped[flipTop++] = ray[step];
+        hash ^= keys.flip(ray[step]);
+      }
+    }
+    int flips = flipTop - start;
+    if (flips == 0) {
+      return 0;
+    }
+    cells[index] = (byte) toMove;
+    hash ^= keys.cell(index, toMove) ^ keys.whiteToMove();
+    if (patterns != null) {
+      updatePatternIndices(index, toMove, start, flipTop, 1);
+    }
+    if (symmetries != null) {
+      updateSymmetricHashes(index, toMove, start, flipTop);
+    }
+    counts[EMPTY]--;
+    counts[toMove] += flips + 1;
+    counts[opponent(toMove)] -= flips;
+    push(index, flips);
+    toMove = opponent(toMove);
+    return flips;
+  }
+
+  /**
+   * Pass the turn to the other player.
+   */
+  public void pass() {
+    countPass++;
+    hash ^= keys.whiteToMove();
+    if (symmetries != null) {
+      updateSymmetricHashes(PASS, toMove, flipTop, flipTop);
+    }
+    push(PASS, 0);
+    toMove = opponent(toMove);
+  }
+
+  // record a ply on the undo stack.
+  private void push(int move, int flips) {
+    if (plies == plyMoves.length) {
+      plyMoves = Arrays.copyOf(plyMoves, plies * 2);
+      plyFlips = Arrays.copyOf(plyFlips, plies * 2);
+    }
+    plyMoves[plies] = move;
+    plyFlips[plies] = flips;
+    plies++;
+  }
+
+  /**
+   * Take back the last move or pass.
+   *
+   * @throws IllegalStateException if there is nothing to take back.
+   */
+  public void undo() {
+    if (plies == 0) {
+      throw new IllegalStateException("No move to undo");
+    }
+    plies--;
+    int move = plyMoves[plies];
+    int flips = plyFlips[plies];
+    int mover = opponent(toMove);
+    toMove = mover;
+    hash ^= keys.whiteToMove();
+    if (symmetries != null) {
+      updateSymmetricHashes(move, mover, flipTop - flips, flipTop);
+    }
+    if (move == PASS) {
+      countPass--;
+      return;
+    }
+    if (patterns != null) {
+      updatePatternIndices(move, mover, flipTop - flips, flipTop, -1);
+    }
+    int opponent = opponent(mover);
+    for (int i = 0; i < flips; i++) {
+      int index = flipped[--flipTop];
+      cells[index] = (byte) opponent;
+      hash ^= keys.flip(index);
+    }
+    cells[move] = EMPTY;
+    hash ^= keys.cell(move, mover);
+    counts[EMPTY]++;
+    counts[mover] -= flips + 1;
+    counts[opponent] += flips;
+  }
+
+  // add (sign 1) or take back (sign -1) a move in the pattern indices: the disc of the mover
+  // on the cell, and the discs flipped to the mover recorded on the undo stack from start to
+  // end. A cell adds its color times its power of 3 to each pattern that holds it.
+  private void updatePatternIndices(int move, int mover, int start, int end, int sign) {
+    addToPatterns(move, sign * mover);
+    int flip = sign * (mover - opponent(mover));
+    for (int i = start; i < end; i++) {
+      addToPatterns(flipped[i], flip);
+    }
+  }
+
+  // add the change of the color of a cell to the indices of the patterns that hold it.
+  private void addToPatterns(int index, int change) {
+    int[] holders = patterns.patternsOf(index);
+    int[] powers = patterns.powersOf(index);
+    for (int i = 0; i < holders.length; i++) {
+      patternIndices[holders[i]] += change * powers[i];
+    }
+  }
+
+  // add or take back a move or pass in the hashes of the images: the disc of the mover on
+  // the cell, the flipped discs recorded on the undo stack from start to end, and the turn.
+  private void updateSymmetricHashes(int move, int mover, int start, int end) {
+    long turn = keys.whiteToMove();
+    for (int transform = 0; transform < symmetricHashes.length; transform++) {
+      long change = move == PASS ? turn : turn ^ symmetries.cell(transform, move, mover);
+      for (int i = start; i < end; i++) {
+        change ^= symmetries.flip(transform, flipped[i]);
+      }
+      symmetricHashes[transform] ^= change;
+    }
+  }
+}
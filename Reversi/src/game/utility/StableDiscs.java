@@ -0,0 +1,252 @@
+package game.utility;
+
+import java.util.Arrays;
+
+/**
+ * Represent the stable discs of a reversi position: the discs that can never be flipped,
+ * whatever the players do. A disc can only be flipped along a line through it, so it is
+ * stable if along each axis of the board (three on hexagon boards, four on square ones) it
+ * can't be taken: its line on that axis is full, or on one side of it the board ends or
+ * there is a stable disc of its color. Corners are stable as soon as they are taken, and
+ * stability spreads from them and from full lines until no disc is added.
+ * The analysis may miss a few stable discs, but a disc it finds is always stable. So once
+ * found, a disc stays stable for the rest of the game: a model reports each cell that
+ * changes with set, and update starts from the discs found for the previous position and
+ * only looks for new ones, while analyze starts from scratch for positions of a search,
+ * which come and go.
+ */
+public final class StableDiscs {
+  private final RayTable rays;
+  private final int axes;
+  private final int directions;
+  private final int[] neighbours; // [cell * directions + direction] -> next cell, -1 if none
+  private final int[] walls; // [cell] -> bit of each axis on which the board ends next to it
+  private final int[][] lines; // [line] -> its cells
+  private final int[] lineAxes; // [line] -> the bit of its axis
+  private final int[] held; // [cell] -> bit of each axis on which it can't be taken
+  private final byte[] colors; // the position analysed
+  private final boolean[] stable;
+  private final int[] counts = new int[3]; // stable discs of each color
+  private final int[] stack; // discs to check again, next to new stable discs
+  private boolean isDirty; // a cell was set since the last update
+
+  /**
+   * Create an analyser for the boards of the given ray table, with no stable disc.
+   *
+   * @param rays - the ray table of the board.
+   */
+  public StableDiscs(RayTable rays) {
+    int cellCount = rays.getCellCount();
+    this.rays = rays;
+    this.directions = rays.getDirections();
+    this.axes = directions / 2;
+    this.neighbours = new int[cellCount * directions];
+    for (int index = 0; index < cellCount; index++) {
+      for (int direction = 0; direction < directions; direction++) {
+        int[] ray = rays.ray(index, direction);
+        neighbours[index * directions + direction] = ray.length > 0 ? ray[0] : -1;
+      }
+    }
+    this.walls = new int[cellCount];
+    int[][] found = new int[cellCount * axes][];
+    int[] foundAxes = new int[found.length];
+    int lineCount = 0;
+    for (int axis = 0; axis < axes; axis++) {
+      for (int index = 0; index < cellCount; index++) {
+        // the opposite of a direction comes half the directions after it
+        int[] forward = rays.ray(index, axis);
+        int[] backward = rays.ray(index, axis + axes);
+        if (forward.length == 0 || backward.length == 0) {
+          walls[index] |= 1 << axis;
+        }
+        // each line is taken once, from its cell at the backward end
+        if (backward.length == 0) {
+          int[] line = new int[forward.length + 1];
+          line[0] = index;
+          System.arraycopy(forward, 0, line, 1, forward.length);
+          foundAxes[lineCount] = 1 << axis;
+          found[lineCount++] = line;
+        }
+      }
+    }
+    this.lines = Arrays.copyOf(found, lineCount);
+    this.lineAxes = Arrays.copyOf(foundAxes, lineCount);
+    this.held = new int[cellCount];
+    this.colors = new byte[cellCount];
+    this.stable = new boolean[cellCount];
+    this.stack = new int[cellCount * directions];
+  }
+
+  /**
+   * Check if this analyser is for the boards of the given ray table.
+   *
+   * @param table - the ray table.
+   * @return true if positions of those boards can be analysed.
+   */
+  public boolean isFor(RayTable table) {
+    return rays == table;
+  }
+
+  /**
+   * Forget the stable discs, for the start of a new game.
+   */
+  public void clear() {
+    Arrays.fill(colors, SearchBoard.EMPTY);
+    Arrays.fill(stable, false);
+    Arrays.fill(counts, 0);
+    isDirty = false;
+  }
+
+  /**
+   * Record that a cell of the position of the game changed. A disc found stable can't change
+   * and a disc can't be taken off the board in a game: if that happens, the position is not
+   * from the same game and the next update starts from scratch.
+   *
+   * @param index - index of the cell.
+   * @param color - its new color: SearchBoard.EMPTY, BLACK or WHITE.
+   */
+  public void set(int index, int color) {
+    if (colors[index] == color) {
+      return;
+    }
+    if (stable[index] || color == SearchBoard.EMPTY) {
+      Arrays.fill(stable, false);
+      Arrays.fill(counts, 0);
+    }
+    colors[index] = (byte) color;
+    isDirty = true;
+  }
+
+  /**
+   * Find the stable discs of the position of the game, as set cell by cell. The discs found
+   * stable before stay stable, and nothing is analysed if no cell changed.
+   *
+   * @return this analyser.
+   */
+  public StableDiscs update() {
+    if (isDirty) {
+      spread(false);
+      isDirty = false;
+    }
+    return this;
+  }
+
+  /**
+   * Take the position of the game and the stable discs found in it from another analyser of
+   * the same boards, for a copy of the game.
+   *
+   * @param other - the analyser to copy.
+   * @throws IllegalArgumentException if the analyser is for other boards.
+   */
+  public void copyFrom(StableDiscs other) {
+    if (other.rays != rays) {
+      throw new IllegalArgumentException("Analyser is not for this board");
+    }
+    System.arraycopy(other.colors, 0, colors, 0, colors.length);
+    System.arraycopy(other.stable, 0, stable, 0, stable.length);
+    System.arraycopy(other.counts, 0, counts, 0, counts.length);
+    isDirty = other.isDirty;
+  }
+
+  /**
+   * Find the stable discs of a position of a search, from scratch.
+   *
+   * @param board - the position.
+   * @return this analyser.
+   * @throws IllegalArgumentException if the position is of another board.
+   */
+  public StableDiscs analyze(SearchBoard board) {
+    if (board.getRays() != rays) {
+      throw new IllegalArgumentException("Position is not of this board");
+    }
+    Arrays.fill(stable, false);
+    Arrays.fill(counts, 0);
+    for (int index = 0; index < colors.length; index++) {
+      colors[index] = (byte) board.get(index);
+    }
+    isDirty = false;
+    spread(true);
+    return this;
+  }
+
+  // find the axes on which the discs are held by the board edge or a full line, then the
+  // stable discs: the ones held on every axis, and from them the discs of the same color
+  // next to a stable disc on each axis where they aren't held. Without stable discs at the
+  // start, only discs held on every axis can start a spread.
+  private void spread(boolean fromScratch) {
+    int allAxes = (1 << axes) - 1;
+    System.arraycopy(walls, 0, held, 0, walls.length);
+    for (int line = 0; line < lines.length; line++) {
+      boolean isFull = true;
+      for (int cell : lines[line]) {
+        if (colors[cell] == SearchBoard.EMPTY) {
+          isFull = false;
+          break;
+        }
+      }
+      if (isFull) {
+        for (int cell : lines[line]) {
+          held[cell] |= lineAxes[line];
+        }
+      }
+    }
+    for (int index = 0; index < colors.length; index++) {
+      if (stable[index] || colors[index] == SearchBoard.EMPTY
+              || (fromScratch ? held[index] != allAxes : !isHeld(index))) {
+        continue;
+      }
+      int top = 0;
+      stack[top++] = index;
+      stable[index] = true;
+      while (top > 0) {
+        int cell = stack[--top];
+        int color = colors[cell];
+        counts[color]++;
+        for (int i = cell * directions; i < (cell + 1) * directions; i++) {
+          int next = neighbours[i];
+          if (next >= 0 && !stable[next] && colors[next] == color && isHeld(next)) {
+            stable[next] = true;
+            stack[top++] = next;
+          }
+        }
+      }
+    }
+  }
+
+  // check if the disc can't be taken along any axis.
+  private boolean isHeld(int index) {
+    int first = index * directions;
+    for (int axis = 0; axis < axes; axis++) {
+      if ((held[index] & 1 << axis) != 0) {
+        continue;
+      }
+      int forward = neighbours[first + axis];
+      int backward = neighbours[first + axis + axes];
+      if (!(stable[forward] && colors[forward] == colors[index])
+              && !(stable[backward] && colors[backward] == colors[index])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Check if the disc of a cell is stable.
+   *
+   * @param index - index of the cell.
+   * @return true if there is a disc and it can never be flipped.
+   */
+  public boolean isStable(int index) {
+    return stable[index];
+  }
+
+  /**
+   * Count the stable discs of a player.
+   *
+   * @param color - SearchBoard.BLACK or SearchBoard.WHITE.
+   * @return the number of stable discs.
+   */
+  public int count(int color) {
+    return counts[color];
+  }
+}
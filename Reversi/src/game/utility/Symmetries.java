@@ -0,0 +1,226 @@
+package game.utility;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import game.type.BoardType;
+
+/**
+ * Represent the symmetries of a reversi board of one type and size: the rotations and
+ * reflections that map the board onto itself, 12 for hexagon boards (6 rotations, with or
+ * without a reflection) and 8 for square ones (4 rotations, with or without a reflection).
+ * A symmetric position plays the same, so a position and its images can share one entry in
+ * a table. Each transform is precomputed as a permutation of the cell indices, with the
+ * Zobrist keys of the cells it maps to, so the hash of the image of a position under every
+ * transform is kept up to date like the hash itself (see SearchBoard.useSymmetries).
+ * The canonical form of a position is its image with the smallest hash, and its transform
+ * is the one that leads to it. Transform 0 is the identity.
+ */
+public final class Symmetries {
+  private static final Map<RayTable, Symmetries> SYMMETRIES = new ConcurrentHashMap<>();
+
+  private final RayTable rays;
+  private final int[][] maps; // [transform][index] -> index of the image of the cell
+  private final int[] inverses; // [transform] -> the transform that undoes it
+  private final long[][] cellKeys; // [transform][index * 3 + color] -> key of the image
+  private final long[][] flipKeys; // [transform][index] -> flip key of the image
+
+  private Symmetries(RayTable rays) {
+    this.rays = rays;
+    boolean hexagon = rays.getBoardType() == BoardType.HEXAGONAL;
+    int rotations = hexagon ? 6 : 4;
+    int cellCount = rays.getCellCount();
+    this.maps = new int[2 * rotations][cellCount];
+    for (int transform = 0; transform < maps.length; transform++) {
+      for (int index = 0; index < cellCount; index++) {
+        int q = rays.getQ(index);
+        int r = rays.getR(index);
+        if (transform >= rotations) {
+          // reflect first: swap r and s = -q - r on hexagons, q and r on squares
+          int reflected = hexagon ? -q - r : q;
+          q = hexagon ? q : r;
+          r = reflected;
+        }
+        for (int turn = 0; turn < transform % rotations; turn++) {
+          // a sixth of a turn about the center cell, or a quarter of a turn of the grid
+          int turned = hexagon ? q + r : q;
+          q = hexagon ? -r : rays.getSize() - 1 - r;
+          r = turned;
+        }
+        maps[transform][index] = rays.indexOf(q, r);
+      }
+    }
+
+    this.inverses = new int[maps.length];
+    for (int transform = 0; transform < maps.length; transform++) {
+      for (int other = 0; other < maps.length; other++) {
+        if (maps[other][maps[transform][0]] == 0 && undoes(other, transform)) {
+          inverses[transform] = other;
+          break;
+        }
+      }
+    }
+
+    ZobristKeys keys = ZobristKeys.of(rays);
+    this.cellKeys = new long[maps.length][cellCount * 3];
+    this.flipKeys = new long[maps.length][cellCount];
+    for (int transform = 0; transform < maps.length; transform++) {
+      for (int index = 0; index < cellCount; index++) {
+        int image = maps[transform][index];
+        cellKeys[transform][index * 3 + SearchBoard.BLACK] = keys.cell(image, SearchBoard.BLACK);
+        cellKeys[transform][index * 3 + SearchBoard.WHITE] = keys.cell(image, SearchBoard.WHITE);
+        flipKeys[transform][index] = keys.flip(image);
+      }
+    }
+  }
+
+  // check if the other transform takes every cell back where the transform found it.
+  private boolean undoes(int other, int transform) {
+    for (int index = 0; index < rays.getCellCount(); index++) {
+      if (maps[other][maps[transform][index]] != index) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Return the shared symmetries of the boards of the given table, making them on first use.
+   *
+   * @param rays - the ray table of the board.
+   * @return the symmetries.
+   */
+  public static Symmetries of(RayTable rays) {
+    return SYMMETRIES.computeIfAbsent(rays, Symmetries::new);
+  }
+
+  /**
+   * Get the ray table of the boards these symmetries are for.
+   *
+   * @return the ray table.
+   */
+  public RayTable getRays() {
+    return rays;
+  }
+
+  /**
+   * Get the number of transforms, the identity included.
+   *
+   * @return 12 for hexagon boards, 8 for square ones.
+   */
+  public int getCount() {
+    return maps.length;
+  }
+
+  /**
+   * Get the image of a cell under a transform.
+   *
+   * @param transform - the transform.
+   * @param index     - index of the cell.
+   * @return the index of its image.
+   */
+  public int map(int transform, int index) {
+    return maps[transform][index];
+  }
+
+  /**
+   * Get the transform that undoes another one.
+   *
+   * @param transform - the transform.
+   * @return its inverse.
+   */
+  public int inverse(int transform) {
+    return inverses[transform];
+  }
+
+  /**
+   * Get the key of a disc of the given color on the image of a cell under a transform.
+   *
+   * @param transform - the transform.
+   * @param index     - index of the cell.
+   * @param color     - EMPTY, BLACK or WHITE, the key of EMPTY is 0.
+   * @return the key.
+   */
+  public long cell(int transform, int index, int color) {
+    return cellKeys[transform][index * 3 + color];
+  }
+
+  /**
+   * Get the change of the hash of the image under a transform when the disc of a cell is
+   * flipped.
+   *
+   * @param transform - the transform.
+   * @param index     - index of the cell.
+   * @return the key.
+   */
+  public long flip(int transform, int index) {
+    return flipKeys[transform][index];
+  }
+
+  /**
+   * Hash the image of a position under every transform.
+   *
+   * @param colors - the color of each cell, indexed by the ray table.
+   * @param toMove - BLACK or WHITE, or EMPTY when no one is to move.
+   * @param hashes - receives the hash of each image, must hold every transform.
+   */
+  public void hashes(byte[] colors, int toMove, long[] hashes) {
+    long turn = toMove == SearchBoard.WHITE ? ZobristKeys.of(rays).whiteToMove() : 0L;
+    for (int transform = 0; transform < maps.length; transform++) {
+      long[] keys = cellKeys[transform];
+      long hash = turn;
+      for (int index = 0; index < colors.length; index++) {
+        hash ^= keys[index * 3 + colors[index]];
+      }
+      hashes[transform] = hash;
+    }
+  }
+
+  /**
+   * Find the transform that gives the canonical form of a position, from the hashes of its
+   * images.
+   *
+   * @param hashes - the hash of the image under each transform.
+   * @return the transform of the smallest hash, the first one on a tie.
+   */
+  public int canonicalTransform(long[] hashes) {
+    int best = 0;
+    for (int transform = 1; transform < maps.length; transform++) {
+      if (hashes[transform] < hashes[best]) {
+        best = transform;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Hash the canonical form of a position: the smallest hash of its images, the same for
+   * all the positions that are images of each other.
+   *
+   * @param snapshot - the position.
+   * @return the canonical hash.
+   * @throws IllegalArgumentException if the position is of another board.
+   */
+  public long canonicalHash(BoardSnapshot snapshot) {
+    long[] hashes = hashes(snapshot);
+    return hashes[canonicalTransform(hashes)];
+  }
+
+  /**
+   * Hash the image of a position under every transform, with the turn hashed like the
+   * models do (see ReadonlyReversiModel.getPositionHash).
+   *
+   * @param snapshot - the position.
+   * @return the hash of the image under each transform.
+   * @throws IllegalArgumentException if the position is of another board.
+   */
+  public long[] hashes(BoardSnapshot snapshot) {
+    if (snapshot.getRays() != rays) {
+      throw new IllegalArgumentException("Position is not of this board");
+    }
+    long[] hashes = new long[maps.length];
+    hashes(snapshot.cells(), snapshot.getTurn() == GameState.WHITE_TURN
+            ? SearchBoard.WHITE : SearchBoard.EMPTY, hashes);
+    return hashes;
+  }
+}
@@ -0,0 +1,90 @@
+package game.utility;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Represent the Zobrist keys of a reversi board of one type and size: a random 64-bit key
+ * for each cell and color, and one for white to move. The hash of a position is the XOR of
+ * the keys of its discs, and of the white key when white moves, so a move updates it with a
+ * few XORs instead of hashing the whole board again.
+ * The keys come from a fixed seed, so a position has the same hash in every game and every
+ * run of the program, and hashes can be stored in files.
+ */
+public final class ZobristKeys {
+  private static final Map<RayTable, ZobristKeys> KEYS = new ConcurrentHashMap<>();
+
+  private final long[] cells; // [index * 3 + color], 0 for EMPTY
+  private final long[] flips; // [index], the change of the hash when the disc is flipped
+  private final long whiteToMove;
+
+  private ZobristKeys(RayTable rays) {
+    SplittableRandom random = new SplittableRandom(
+            0x5DEECE66DL * (rays.getBoardType().ordinal() + 1) + rays.getSize());
+    int cellCount = rays.getCellCount();
+    this.cells = new long[cellCount * 3];
+    this.flips = new long[cellCount];
+    for (int index = 0; index < cellCount; index++) {
+      cells[index * 3 + SearchBoard.BLACK] = random.nextLong();
+      cells[index * 3 + SearchBoard.WHITE] = random.nextLong();
+      flips[index] = cells[index * 3 + SearchBoard.BLACK] ^ cells[index * 3 + SearchBoard.WHITE];
+    }
+    this.whiteToMove = random.nextLong();
+  }
+
+  /**
+   * Return the shared keys of the boards of the given table, making them on first use.
+   *
+   * @param rays - the ray table of the board.
+   * @return the keys.
+   */
+  public static ZobristKeys of(RayTable rays) {
+    return KEYS.computeIfAbsent(rays, ZobristKeys::new);
+  }
+
+  /**
+   * Get the key of a disc of the given color on the cell at the given index.
+   *
+   * @param index - index of the cell.
+   * @param color - EMPTY, BLACK or WHITE, the key of EMPTY is 0.
+   * @return the key.
+   */
+  public long cell(int index, int color) {
+    return cells[index * 3 + color];
+  }
+
+  /**
+   * Get the change of the hash when the disc on the cell at the given index is flipped.
+   *
+   * @param index - index of the cell.
+   * @return the key.
+   */
+  public long flip(int index) {
+    return flips[index];
+  }
+
+  /**
+   * Get the key added to the hash when white is to move.
+   *
+   * @return the key.
+   */
+  public long whiteToMove() {
+    return whiteToMove;
+  }
+
+  /**
+   * Hash a whole position.
+   *
+   * @param colors - the color of each cell, indexed by the ray table.
+   * @param toMove - BLACK or WHITE, or EMPTY when no one is to move.
+   * @return the hash.
+   */
+  public long hash(byte[] colors, int toMove) {
+    long hash = toMove == SearchBoard.WHITE ? whiteToMove : 0L;
+    for (int index = 0; index < colors.length; index++) {
+      hash ^= cells[index * 3 + colors[index]];
+    }
+    return hash;
+  }
+}
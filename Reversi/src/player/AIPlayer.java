@@ -8,6 +8,7 @@ import controller.PlayerActionListener;
 import game.utility.GameState;
 import game.utility.ICell;
 import game.ReversiModel;
+import strategy.OpeningBook;
 import strategy.ReversiStrategy;
 
 /**
@@ -15,6 +16,8 @@ import strategy.ReversiStrategy;
  * This class implements Player interfaces and encapsulates the behavior and properties of
  * of an AI Playe by using decision-making strategy.
  * The AI players uses a specified strategy to determ
+ * With an opening book, the moves of the positions in the book are played from it without
+ * asking the strategy.
  */
 public class AIPlayer implements Player {
   private PlayerActionListener actionListener;
@@ -24,6 +27,7 @@ public class AIPlayer implements Player {
   private PlayerColor color;
   private ProviderStrategyAdapter providerStrategy;
   private ReversiModelImpl providerModel;
+  private OpeningBook book; // null without a book
 
   /**
    * AI Player constructor.
@@ -37,6 +41,20 @@ public class AIPlayer implements Player {
     this.color = color;
   }
 
+  /**
+   * AI Player constructor with an opening book.
+   *
+   * @param strategy - the given strategy, for the positions that are not in the book.
+   * @param model    - the model of the game.
+   * @param color    - the color of the player.
+   * @param book     - the opening book.
+   */
+  public AIPlayer(ReversiStrategy strategy, ReversiModel model, PlayerColor color,
+                  OpeningBook book) {
+    this(strategy, model, color);
+    this.book = book;
+  }
+
   public AIPlayer(ReversiStrategy providerStrategy, PlayerColor color) {
     this.strategy = providerStrategy;
     this.color = color;
@@ -47,7 +65,10 @@ public class AIPlayer implements Player {
   @Override
   public void play(GameState player) {
     try {
-      Optional<ICell> bestMove = strategy.determineMove(model, player);
+      Optional<ICell> bestMove = book == null ? Optional.empty() : book.move(model, player);
+      if (!bestMove.isPresent()) {
+        bestMove = strategy.determineMove(model, player);
+      }
       bestMove.ifPresent(cell -> actionListener.onMoveMade(cell.getQ(), cell.getR()));
     } catch (IllegalStateException e) {
       // No valid move, so pass
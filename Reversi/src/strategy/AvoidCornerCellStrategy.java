@@ -1,13 +1,12 @@
 package strategy;
 
-import java.util.HashSet;
 import java.util.Optional;
-import java.util.Set;
 
 import game.type.BoardType;
+import game.utility.BoardGeometry;
 import game.utility.GameState;
 import game.utility.ICell;
-import game.utility.PlayerState;
+import game.utility.MoveList;
 import game.ReadonlyReversiModel;
 
 /**
@@ -15,9 +14,10 @@ import game.ReadonlyReversiModel;
  * avoid the cells next to corners: because you’re just
  * giving your opponent the ability to get a corner on their next turn.
  */
-public class AvoidCornerCellStrategy implements ReversiStrategy {
+public class AvoidCornerCellStrategy implements ScoredMoveStrategy {
 
   private BoardType boardType;
+  private final MoveContext position = new MoveContext(); // reused from turn to turn
 
 
   public AvoidCornerCellStrategy(BoardType boardType) {
@@ -26,67 +26,36 @@ public class AvoidCornerCellStrategy implements ReversiStrategy {
 
   @Override
   public Optional<ICell> determineMove(ReadonlyReversiModel model, GameState player) {
-    ICell bestMove = null;
-    Set<ICell> corners = cornerCells(model);
-    int minDistToCorner = Integer.MAX_VALUE; // ensure that any valid dist will be smaller
+    position.reset(model, player);
+    return determineMove(position);
+  }
 
-    for (ICell cell : model.getBoard()) {
-      if (cell.getPlayer() == PlayerState.EMPTY
-              && model.isValidMove(cell, player)) {
-        int distance = minDistanceFromCornerCells(cell, corners);
+  @Override
+  public Optional<ICell> determineMove(MoveContext context) {
+    MoveList moves = context.getMoves();
+    int bestMove = -1;
+    BoardGeometry geometry = BoardGeometry.of(boardType, context.getModel().getSize());
+    int maxDistToCorner = -1; // ensure that any valid dist will be bigger
+
+    for (int move = 0; move < moves.size(); move++) {
+      if (!context.isCandidate(move)) {
+        continue;
+      }
+      int distance = geometry.getAxialCornerDistance(moves.getIndex(move));
 
-        if (distance > minDistToCorner) {
-          bestMove = cell;
-          minDistToCorner = distance;
-        }
+      if (distance > maxDistToCorner) {
+        bestMove = move;
+        maxDistToCorner = distance;
       }
     }
 
-    if (bestMove == null) {
+    if (bestMove < 0) {
       throw new IllegalStateException("No best move founded for avoid corner");
       //This will help to implement how the player can pass.
       // I intended to use a try catch and call wannaPass for the player.
       // wannaPass is a method that we implemented in our model.
     }
 
-    return Optional.of(bestMove);
-  }
-
-  // check the lowest distance from the corner cells.
-  private int minDistanceFromCornerCells(ICell cell, Set<ICell> corners) {
-    int minDist = Integer.MAX_VALUE;
-    for (ICell corner : corners) {
-      int dist = Math.abs(corner.getQ() - cell.getQ()) + Math.abs(corner.getR() - cell.getR());
-      if (dist < minDist) {
-        minDist = dist;
-
-      }
-    }
-    return minDist;
-
+    return Optional.of(context.getModel().getCell(moves.getQ(bestMove), moves.getR(bestMove)));
   }
-
-  // set up the corners cell set.
-  private Set<ICell> cornerCells(ReadonlyReversiModel model) {
-    Set<ICell> corners = new HashSet<>();
-    int size = model.getSize();
-
-    if (boardType == BoardType.HEXAGONAL) {
-      // Add corners for hexagonal board
-      corners.add(model.getCell(0, -size));
-      corners.add(model.getCell(size, -size));
-      corners.add(model.getCell(-size, 0));
-      corners.add(model.getCell(size, 0));
-      corners.add(model.getCell(-size, size));
-      corners.add(model.getCell(0, size));
-    } else if (boardType == BoardType.SQUARE) {
-      // Add corners for square board
-      corners.add(model.getCell(0, 0));
-      corners.add(model.getCell(0, size - 1));
-      corners.add(model.getCell(size - 1, 0));
-      corners.add(model.getCell(size - 1, size - 1));
-    }
-    return corners;
-  }
-
-}
\ No newline at end of file
+}
@@ -11,15 +11,22 @@ import game.ReadonlyReversiModel;
 /**
  * A way to combine the strategy (flexible for how many strategies the.
  * user wanna combine..
+ * The strategies and filters run in the order they were added, as stages of one pipeline:
+ * the first strategy that finds a move plays it, and a strategy that finds none (an empty
+ * Optional) hands over to the next one. All the stages share one MoveContext per turn, so
+ * the moves are scored and sorted into corners and cells next to them once, however many
+ * stages look at them, and the filters narrow down the moves the strategies after them
+ * choose from.
  */
-public class CombinedStrategy implements ReversiStrategy {
-  private final List<ReversiStrategy> strategies;
+public class CombinedStrategy implements ScoredMoveStrategy {
+  private final List<ScoredMoveStrategy> stages;
+  private final MoveContext position = new MoveContext(); // reused from turn to turn
 
   /**
    * Combined strategy constructor.
    */
   public CombinedStrategy() {
-    strategies = new ArrayList<>();
+    stages = new ArrayList<>();
   }
 
   /**
@@ -28,13 +35,33 @@ public class CombinedStrategy implements ReversiStrategy {
    * @param strategy - given Reversi strategy.
    */
   public void addStrategy(ReversiStrategy strategy) {
-    strategies.add(strategy);
+    if (strategy instanceof ScoredMoveStrategy) {
+      stages.add((ScoredMoveStrategy) strategy);
+    } else {
+      stages.add(new Stage(strategy, null));
+    }
+  }
+
+  /**
+   * Add a filter of the moves the strategies added after it choose from. When the filter
+   * keeps none of them, they are all kept.
+   *
+   * @param filter - the filter.
+   */
+  public void addFilter(MoveFilter filter) {
+    stages.add(new Stage(null, filter));
   }
 
   @Override
   public Optional<ICell> determineMove(ReadonlyReversiModel model, GameState player) {
-    for (ReversiStrategy strategy : strategies) {
-      Optional<ICell> bestMove = strategy.determineMove(model, player);
+    position.reset(model, player);
+    return determineMove(position);
+  }
+
+  @Override
+  public Optional<ICell> determineMove(MoveContext context) {
+    for (ScoredMoveStrategy stage : stages) {
+      Optional<ICell> bestMove = stage.determineMove(context);
       if (bestMove.isPresent()) {
         return bestMove;
       }
@@ -42,4 +69,31 @@ public class CombinedStrategy implements ReversiStrategy {
     return Optional.empty(); // No valid move found by any strategy
   }
 
+  /**
+   * Represent a stage that is either a strategy that knows nothing of the scored moves, or a
+   * filter. A filter never finds a move itself.
+   */
+  private static final class Stage implements ScoredMoveStrategy {
+    private final ReversiStrategy strategy;
+    private final MoveFilter filter;
+
+    private Stage(ReversiStrategy strategy, MoveFilter filter) {
+      this.strategy = strategy;
+      this.filter = filter;
+    }
+
+    @Override
+    public Optional<ICell> determineMove(ReadonlyReversiModel model, GameState player) {
+      return strategy == null ? Optional.empty() : strategy.determineMove(model, player);
+    }
+
+    @Override
+    public Optional<ICell> determineMove(MoveContext context) {
+      if (filter != null) {
+        context.narrow(filter);
+        return Optional.empty();
+      }
+      return strategy.determineMove(context.getModel(), context.getPlayer());
+    }
+  }
 }
@@ -3,9 +3,10 @@ package strategy;
 import java.util.Optional;
 
 import game.type.BoardType;
+import game.utility.BoardGeometry;
 import game.utility.GameState;
 import game.utility.ICell;
-import game.utility.PlayerState;
+import game.utility.MoveList;
 import game.ReadonlyReversiModel;
 
 /**
@@ -13,9 +14,10 @@ import game.ReadonlyReversiModel;
  * go for the corners: discs in corners cannot be captured,
  * because they don’t have cells on their other side.
  */
-public class CornerStrategy implements ReversiStrategy {
+public class CornerStrategy implements ScoredMoveStrategy {
 
   private BoardType boardType;
+  private final MoveContext position = new MoveContext(); // reused from turn to turn
 
 
   public CornerStrategy(BoardType boardType) {
@@ -24,50 +26,34 @@ public class CornerStrategy implements ReversiStrategy {
 
   @Override
   public Optional<ICell> determineMove(ReadonlyReversiModel model, GameState player) {
-    int size = model.getSize();
-    int[][] corners = getCornerCoordinates(model.getSize());
-
-    ICell bestMove = null;
-    for (int[] corner : corners) {
-      ICell cell = model.getCell(corner[0], corner[1]);
-      if (model.cellExists(cell.getQ(), cell.getR())
-              && cell.getPlayer() == PlayerState.EMPTY
-              && model.isValidMove(cell, player)) {
-        return Optional.of(cell);
-      }
-    }
-
-    // if no corner move is valid, return any valid move (FALLBACK)
-    for (ICell cell : model.getBoard()) {
-      if (cell.getPlayer() == PlayerState.EMPTY && model.isValidMove(cell, player)) {
-        bestMove = cell;
-        break;
-      }
-    }
+    position.reset(model, player);
+    return determineMove(position);
+  }
 
-    if (bestMove == null) {
+  @Override
+  public Optional<ICell> determineMove(MoveContext context) {
+    MoveList moves = context.getMoves();
+    if (context.getCandidateCount() == 0) {
       throw new IllegalStateException("No best move found for go for corner");
       // This will help to implement how the player can pass.
       // I intended to use a try catch and call wannaPass for the player.
       // wannaPass is a method that we implemented in our model.
     }
-    return Optional.of(bestMove);
-  }
 
-  private int[][] getCornerCoordinates(int size) {
-    if (boardType == BoardType.HEXAGONAL) {
-      return new int[][] {
-              {size, -size}, {size, 0}, {-size, size}, {-size, 0}, {0, size}, {0, -size}
-      };
-    } else if (boardType == BoardType.SQUARE) {
-      return new int[][] {
-              {0, 0},
-              {0, size - 1},
-              {size - 1, 0},
-              {size - 1, size - 1}
-      };
-    } else {
-      throw new IllegalArgumentException("Unknown board type: " + boardType);
+    ReadonlyReversiModel model = context.getModel();
+    BoardGeometry geometry = BoardGeometry.of(boardType, model.getSize());
+    for (int corner = 0; corner < geometry.getCornerCount(); corner++) {
+      int move = moves.find(geometry.getCorner(corner));
+      if (move >= 0 && context.isCandidate(move)) {
+        return Optional.of(model.getCell(moves.getQ(move), moves.getR(move)));
+      }
+    }
+
+    // if no corner move is valid, return the first valid move (FALLBACK)
+    int bestMove = 0;
+    while (!context.isCandidate(bestMove)) {
+      bestMove++;
     }
+    return Optional.of(model.getCell(moves.getQ(bestMove), moves.getR(bestMove)));
   }
 }
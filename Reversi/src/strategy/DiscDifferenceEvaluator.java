@@ -0,0 +1,14 @@
+package strategy;
+
+import game.utility.SearchBoard;
+
+/**
+ * Evaluator that scores a position by the difference in numbers of discs, the final score
+ * of the game. It is the evaluation the searches use by default.
+ */
+public class DiscDifferenceEvaluator implements Evaluator {
+  @Override
+  public int evaluate(SearchBoard board, int color) {
+    return board.count(color) - board.count(SearchBoard.opponent(color));
+  }
+}
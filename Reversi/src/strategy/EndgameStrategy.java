@@ -0,0 +1,358 @@
+package strategy;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+import game.utility.GameState;
+import game.utility.ICell;
+import game.utility.RayTable;
+import game.utility.SearchBoard;
+import game.utility.StableDiscs;
+import game.ReadonlyReversiModel;
+
+/**
+ * Strategy that plays perfectly at the end of the game. Once there are few enough empty
+ * cells, it searches to the end of the game and plays the move with the best final disc
+ * difference; before that, it asks another strategy.
+ * The solver follows the rules of the models: the game ends when the player to move has no
+ * valid move, or after two passes, and the score is the difference of the discs on the
+ * board then. It orders moves by parity first: the empty cells are split in the regions they
+ * form at the start of the solve, and moves in a region with an odd number of empty cells
+ * come first, as they tend to leave the last move of the region to the player. With enough
+ * empty cells left, moves that leave the opponent the fewest replies come next ("fastest
+ * first"), and results are kept in a small transposition table of the solver's own.
+ * Stable discs bound the result: the opponent keeps its stable discs to the end, so when
+ * even winning every other cell can't beat the best score found so far the position is cut
+ * without a search (the stability cutoff), and the same for the player's own stable discs.
+ */
+public class EndgameStrategy implements ReversiStrategy {
+  /**
+   * The number of empty cells at which the strategy starts solving by default.
+   */
+  public static final int DEFAULT_THRESHOLD = 12;
+
+  // fewest empty cells left for fastest first ordering, below it parity alone is cheaper
+  private static final int FASTEST_FIRST_EMPTIES = 7;
+  // fewest empty cells left to use the table, below it the search is cheaper than a lookup
+  private static final int TABLE_EMPTIES = 6;
+  private static final int DEFAULT_TABLE_ENTRIES = 1 << 16;
+  private static final int INFINITY = 1 << 20;
+  // empties from which the stability cutoff is tried: finding the stable discs costs about
+  // as much as a node, so it only pays off on top of big subtrees
+  private static final int STABILITY_EMPTIES = 10;
+
+  private final int threshold;
+  private final ReversiStrategy fallback;
+  private final TranspositionTable table;
+  private long nodeCount; // nodes searched by the last solve
+  private long stabilityCutoffCount; // positions cut by stable discs in the last solve
+
+  /**
+   * Constructor for an endgame strategy with a table of 64k entries.
+   *
+   * @param threshold - the number of empty cells from which to solve the game.
+   * @param fallback  - the strategy for the moves before that.
+   * @throws IllegalArgumentException if the threshold is negative or the fallback is null.
+   */
+  public EndgameStrategy(int threshold, ReversiStrategy fallback) {
+    this(threshold, fallback, DEFAULT_TABLE_ENTRIES);
+  }
+
+  /**
+   * Constructor for an endgame strategy.
+   *
+   * @param threshold    - the number of empty cells from which to solve the game.
+   * @param fallback     - the strategy for the moves before that.
+   * @param tableEntries - slots of the solver's transposition table, rounded down to a power
+   *                     of two.
+   * @throws IllegalArgumentException if the threshold is negative, the fallback is null or
+   *                                  the table has no entry.
+   */
+  public EndgameStrategy(int threshold, ReversiStrategy fallback, int tableEntries) {
+    if (threshold < 0) {
+      throw new IllegalArgumentException("Threshold cannot be negative");
+    }
+    if (fallback == null) {
+      throw new IllegalArgumentException("Fallback strategy cannot be null");
+    }
+    this.threshold = threshold;
+    this.fallback = fallback;
+    this.table = new TranspositionTable(tableEntries);
+  }
+
+  /**
+   * Get the number of positions searched by the last solve.
+   *
+   * @return the node count.
+   */
+  public long getNodeCount() {
+    return nodeCount;
+  }
+
+  /**
+   * Get the number of positions the last solve cut by their stable discs.
+   *
+   * @return the stability cutoff count.
+   */
+  public long getStabilityCutoffCount() {
+    return stabilityCutoffCount;
+  }
+
+  @Override
+  public Optional<ICell> determineMove(ReadonlyReversiModel model, GameState player) {
+    Optional<Solution> solution = solve(model, player);
+    if (solution.isPresent()) {
+      return Optional.of(solution.get().getMove());
+    }
+    return fallback.determineMove(model, player);
+  }
+
+  /**
+   * Solve the position of the model, if it has few enough empty cells.
+   *
+   * @param model  - the model.
+   * @param player - the player to move, BLACK_TURN or WHITE_TURN.
+   * @return the perfect move and the final margin it gets, empty if the game is over or
+   *         there are more empty cells than the threshold.
+   */
+  public Optional<Solution> solve(ReadonlyReversiModel model, GameState player) {
+    SearchBoard board = SearchBoard.from(model, player);
+    if (board.isGameOver() || board.count(SearchBoard.EMPTY) > threshold) {
+      return Optional.empty();
+    }
+    table.newSearch();
+    Solver solver = new Solver(board, table);
+    int margin = solver.root();
+    nodeCount = solver.nodes;
+    stabilityCutoffCount = solver.stabilityCutoffs;
+    RayTable rays = board.getRays();
+    ICell move = model.getCell(rays.getQ(solver.bestMove), rays.getR(solver.bestMove));
+    return Optional.of(new Solution(move, margin));
+  }
+
+  /**
+   * Solve a position to the end of the game. The trainer of the pattern weights uses it to
+   * label positions with their exact outcome.
+   *
+   * @param board - the position, not over; it is the same after the solve.
+   * @param table - the transposition table to use.
+   * @return the final disc difference for the player to move with perfect play.
+   */
+  static int margin(SearchBoard board, TranspositionTable table) {
+    table.newSearch();
+    return new Solver(board, table).root();
+  }
+
+  /**
+   * Represent the solution of an endgame position.
+   */
+  public static final class Solution {
+    private final ICell move;
+    private final int margin;
+
+    private Solution(ICell move, int margin) {
+      this.move = move;
+      this.margin = margin;
+    }
+
+    /**
+     * Get the perfect move.
+     *
+     * @return the cell to play.
+     */
+    public ICell getMove() {
+      return move;
+    }
+
+    /**
+     * Get the final disc difference for the player to move, when both players play
+     * perfectly.
+     *
+     * @return the margin, negative if the player loses.
+     */
+    public int getMargin() {
+      return margin;
+    }
+  }
+
+  // the state of one solve.
+  private static final class Solver {
+    private final SearchBoard board;
+    private final TranspositionTable table;
+    private final int[] regionOf; // the region of each empty cell at the start, -1 if none
+    private final int[] regionEmpties; // the empty cells left in each region
+    private final int[][] moves; // one move buffer per ply
+    private final long[][] keys; // the sort keys of the moves of each ply
+    private final int[] replies;
+    private final StableDiscs stableDiscs;
+    private int bestMove = -1;
+    private long nodes;
+    private long stabilityCutoffs;
+
+    private Solver(SearchBoard board, TranspositionTable table) {
+      RayTable rays = board.getRays();
+      int cellCount = rays.getCellCount();
+      int empties = board.count(SearchBoard.EMPTY);
+      this.board = board;
+      this.table = table;
+      this.regionOf = new int[cellCount];
+      this.regionEmpties = new int[empties];
+      this.moves = new int[empties + 1][cellCount];
+      this.keys = new long[empties + 1][cellCount];
+      this.replies = new int[cellCount];
+      this.stableDiscs = new StableDiscs(rays);
+      findRegions(rays);
+    }
+
+    // split the empty cells in regions of neighbouring empty cells.
+    private void findRegions(RayTable rays) {
+      Arrays.fill(regionOf, -1);
+      int[] stack = new int[regionOf.length];
+      int regions = 0;
+      for (int start = 0; start < regionOf.length; start++) {
+        if (board.get(start) != SearchBoard.EMPTY || regionOf[start] >= 0) {
+          continue;
+        }
+        int top = 0;
+        stack[top++] = start;
+        regionOf[start] = regions;
+        while (top > 0) {
+          int index = stack[--top];
+          regionEmpties[regions]++;
+          for (int direction = 0; direction < rays.getDirections(); direction++) {
+            int[] ray = rays.ray(index, direction);
+            if (ray.length > 0 && board.get(ray[0]) == SearchBoard.EMPTY
+                    && regionOf[ray[0]] < 0) {
+              regionOf[ray[0]] = regions;
+              stack[top++] = ray[0];
+            }
+          }
+        }
+        regions++;
+      }
+    }
+
+    // solve the root position, keep its best move and return its margin.
+    private int root() {
+      int[] buffer = moves[0];
+      int count = order(0, board.count(SearchBoard.EMPTY), -1);
+      int alpha = -INFINITY;
+      for (int i = 0; i < count; i++) {
+        int score = -solveAfter(buffer[i], 1, -INFINITY, -alpha);
+        if (score > alpha) {
+          alpha = score;
+          bestMove = buffer[i];
+        }
+      }
+      return alpha;
+    }
+
+    // play the move, solve the position after it and take the move back.
+    private int solveAfter(int move, int ply, int alpha, int beta) {
+      board.play(move);
+      regionEmpties[regionOf[move]]--;
+      int score = solve(ply, alpha, beta);
+      regionEmpties[regionOf[move]]++;
+      board.undo();
+      return score;
+    }
+
+    // return the final disc difference for the player to move with perfect play, a bound if
+    // it is outside the window.
+    private int solve(int ply, int alpha, int beta) {
+      nodes++;
+      int toMove = board.getToMove();
+      if (board.isGameOver()) {
+        return board.count(toMove) - board.count(SearchBoard.opponent(toMove));
+      }
+      int cellCount = board.getRays().getCellCount();
+      int opponent = SearchBoard.opponent(toMove);
+      // the stable discs are only counted when they may be enough for a cutoff: when the
+      // player can't win every disc of the opponent, or lose every disc of its own
+      if (board.count(SearchBoard.EMPTY) >= STABILITY_EMPTIES
+              && (cellCount - 2 * board.count(opponent) <= alpha
+              || 2 * board.count(toMove) - cellCount >= beta)) {
+        stableDiscs.analyze(board);
+        int most = cellCount - 2 * stableDiscs.count(opponent);
+        int least = 2 * stableDiscs.count(toMove) - cellCount;
+        if (most <= alpha || least >= beta) {
+          stabilityCutoffs++;
+          return most <= alpha ? most : least;
+        }
+      }
+      int empties = board.count(SearchBoard.EMPTY);
+      long key = board.getHash();
+      int hashMove = -1;
+      boolean useTable = empties >= TABLE_EMPTIES;
+      if (useTable) {
+        int slot = table.probe(key);
+        if (slot >= 0) {
+          hashMove = table.getMove(slot);
+          int stored = table.getScore(slot);
+          int bound = table.getBound(slot);
+          if (bound == TranspositionTable.EXACT
+                  || bound == TranspositionTable.LOWER && stored >= beta
+                  || bound == TranspositionTable.UPPER && stored <= alpha) {
+            return stored;
+          }
+        }
+      }
+
+      int[] buffer = moves[ply];
+      int count = order(ply, empties, hashMove);
+      int bestScore = -INFINITY;
+      int best = -1;
+      int low = alpha;
+      for (int i = 0; i < count && low < beta; i++) {
+        int score = -solveAfter(buffer[i], ply + 1, -beta, -low);
+        if (score > bestScore) {
+          bestScore = score;
+          best = buffer[i];
+          low = Math.max(low, score);
+        }
+      }
+      if (useTable) {
+        int bound = bestScore <= alpha ? TranspositionTable.UPPER
+                : bestScore >= beta ? TranspositionTable.LOWER : TranspositionTable.EXACT;
+        // every ply fills a cell, so a position is always searched to the same depth
+        table.store(key, empties, bestScore, bound, best);
+      }
+      return bestScore;
+    }
+
+    // generate the moves of the ply and sort them: the hash move, then moves in regions of
+    // odd parity, then with enough empty cells the ones leaving fewer replies.
+    private int order(int ply, int empties, int hashMove) {
+      int[] buffer = moves[ply];
+      long[] sortKeys = keys[ply];
+      int count = board.generateMoves(board.getToMove(), buffer);
+      boolean fastestFirst = empties >= FASTEST_FIRST_EMPTIES;
+      for (int i = 0; i < count; i++) {
+        int move = buffer[i];
+        long key = (regionEmpties[regionOf[move]] & 1L) << 32;
+        if (move == hashMove) {
+          key = 1L << 40;
+        } else if (fastestFirst) {
+          board.play(move);
+          key |= replies.length - board.generateMoves(board.getToMove(), replies);
+          board.undo();
+        }
+        sortKeys[i] = key;
+      }
+      // insertion sort, there are only a few moves
+      for (int i = 1; i < count; i++) {
+        long key = sortKeys[i];
+        int move = buffer[i];
+        int j = i - 1;
+        while (j >= 0 && sortKeys[j] < key) {
+          sortKeys[j + 1] = sortKeys[j];
+          buffer[j + 1] = buffer[j];
+          j--;
+        }
+        sortKeys[j + 1] = key;
+        buffer[j + 1] = move;
+      }
+      return count;
+    }
+  }
+}
@@ -0,0 +1,19 @@
+package strategy;
+
+import game.utility.SearchBoard;
+
+/**
+ * Represent the evaluation function of a game tree search: how good a position is for a
+ * player, where the search stops. Higher is better, and the score for the other player is
+ * the opposite. Evaluators may keep buffers between calls, so a search needs its own.
+ */
+public interface Evaluator {
+  /**
+   * Evaluate the position of the board.
+   *
+   * @param board - the position, it is left as it is.
+   * @param color - the player to evaluate for, SearchBoard.BLACK or SearchBoard.WHITE.
+   * @return the score of the position for the player.
+   */
+  int evaluate(SearchBoard board, int color);
+}
@@ -0,0 +1,177 @@
+package strategy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import game.utility.BoardSnapshot;
+import game.utility.GameState;
+import game.utility.ICell;
+import game.utility.RayTable;
+import game.utility.SearchBoard;
+import game.ReadonlyReversiModel;
+
+/**
+ * Minimax strategy that runs the same iterative deepening search on several threads, in the
+ * style of "Lazy SMP". The threads don't split the tree: each one searches the whole root
+ * position on its own copy of the board, and they only talk through a shared lock-free
+ * transposition table. A thread finds the results the others stored and skips that part of
+ * the tree, so together they get deeper than one thread would in the same time. To keep them
+ * from searching the same moves in the same order, every other thread starts one ply deeper
+ * and each thread rotates the moves it tries after the hash move by a different amount.
+ * The search stops when a thread has searched the full depth, or when the time is up. The
+ * strategy plays the best move of the deepest search any thread finished.
+ */
+public class LazySmpStrategy implements ReversiStrategy {
+  private static final int DEFAULT_TABLE_ENTRIES = 1 << 16;
+
+  private final int depth;
+  private final long timeLimitMillis; // 0 for a search of fixed depth
+  private final int threads;
+  private final SharedTranspositionTable table;
+  private ForkJoinPool pool; // made on the first search
+  private long nodeCount; // nodes searched for the last move
+  private int depthReached; // of the last move
+
+  /**
+   * Constructor for a Lazy SMP strategy with a table of 64k entries.
+   *
+   * @param depth           - the deepest search to try.
+   * @param timeLimitMillis - the time a move may take in milliseconds, 0 to always search
+   *                        the full depth.
+   * @param threads         - the number of threads to search with.
+   * @throws IllegalArgumentException if the time limit is negative or there is less than
+   *                                  one thread.
+   */
+  public LazySmpStrategy(int depth, long timeLimitMillis, int threads) {
+    this(depth, timeLimitMillis, threads, DEFAULT_TABLE_ENTRIES);
+  }
+
+  /**
+   * Constructor for a Lazy SMP strategy.
+   *
+   * @param depth           - the deepest search to try.
+   * @param timeLimitMillis - the time a move may take in milliseconds, 0 to always search
+   *                        the full depth.
+   * @param threads         - the number of threads to search with.
+   * @param tableEntries    - slots of the shared transposition table, rounded down to a
+   *                        power of two.
+   * @throws IllegalArgumentException if the time limit is negative, or there is less than
+   *                                  one thread or one table entry.
+   */
+  public LazySmpStrategy(int depth, long timeLimitMillis, int threads, int tableEntries) {
+    if (timeLimitMillis < 0) {
+      throw new IllegalArgumentException("Time limit cannot be negative");
+    }
+    if (threads < 1) {
+      throw new IllegalArgumentException("The search needs at least one thread");
+    }
+    this.depth = depth;
+    this.timeLimitMillis = timeLimitMillis;
+    this.threads = threads;
+    this.table = new SharedTranspositionTable(tableEntries);
+  }
+
+  /**
+   * Get the number of positions searched for the last move, by all the threads.
+   *
+   * @return the node count.
+   */
+  public long getNodeCount() {
+    return nodeCount;
+  }
+
+  /**
+   * Get the depth of the deepest search any thread finished for the last move, to see how far
+   * the deepening went in its time.
+   *
+   * @return the depth, 0 if not even one ply finished.
+   */
+  public int getDepthReached() {
+    return depthReached;
+  }
+
+  @Override
+  public Optional<ICell> determineMove(ReadonlyReversiModel model, GameState player) {
+    long start = System.nanoTime();
+    SearchBoard board = SearchBoard.from(model, player);
+    if (depth <= 0 || board.isGameOver()) {
+      return Optional.empty();
+    }
+    int maxDepth = board.limitDepth(depth);
+    long deadline = timeLimitMillis == 0 ? 0 : start + timeLimitMillis * 1_000_000L;
+    table.newSearch();
+
+    BoardSnapshot position = board.snapshot();
+    AtomicBoolean stop = new AtomicBoolean();
+    List<Callable<long[]>> workers = new ArrayList<>();
+    for (int id = 0; id < threads; id++) {
+      SharedSearch search = new SharedSearch(SearchBoard.from(position), maxDepth, table,
+              stop, deadline, id);
+      int firstDepth = Math.min(1 + id % 2, maxDepth);
+      workers.add(() -> deepen(search, firstDepth, maxDepth, stop));
+    }
+
+    // in case not even one ply finishes in time
+    int[] moves = new int[board.getRays().getCellCount()];
+    board.generateMoves(board.getToMove(), moves);
+    int bestMove = moves[0];
+    long bestDepth = 0;
+    long nodes = 0;
+    for (Future<long[]> future : getPool().invokeAll(workers)) {
+      long[] result = join(future);
+      nodes += result[2];
+      if (result[0] > bestDepth) {
+        bestDepth = result[0];
+        bestMove = (int) result[1];
+      }
+    }
+    nodeCount = nodes;
+    depthReached = (int) bestDepth;
+    RayTable rays = board.getRays();
+    return Optional.of(model.getCell(rays.getQ(bestMove), rays.getR(bestMove)));
+  }
+
+  // deepen the search of one thread until it is stopped or has searched the full depth.
+  // return the deepest finished depth, its best move and the nodes searched.
+  private static long[] deepen(SharedSearch search, int firstDepth, int maxDepth,
+                               AtomicBoolean stop) {
+    long finished = 0;
+    long bestMove = -1;
+    for (int iteration = firstDepth; iteration <= maxDepth; iteration++) {
+      int move = search.root(iteration);
+      if (search.isStopped()) {
+        break;
+      }
+      finished = iteration;
+      bestMove = move;
+    }
+    // the other threads have nothing left to add once one of them searched the full depth
+    stop.set(true);
+    return new long[] {finished, bestMove, search.getNodes()};
+  }
+
+  // the result of a finished worker.
+  private static long[] join(Future<long[]> result) {
+    try {
+      return result.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Search interrupted", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Search failed", e.getCause());
+    }
+  }
+
+  private synchronized ForkJoinPool getPool() {
+    if (pool == null) {
+      pool = new ForkJoinPool(threads);
+    }
+    return pool;
+  }
+}
@@ -4,7 +4,7 @@ import java.util.Optional;
 
 import game.utility.GameState;
 import game.utility.ICell;
-import game.utility.PlayerState;
+import game.utility.MoveList;
 import game.ReadonlyReversiModel;
 
 
@@ -12,40 +12,34 @@ import game.ReadonlyReversiModel;
  * Represent one of the strategy of a reversi game.
  * Capture as many pieces on this turn as possible.
  */
-public class MaxCaptureStrategy implements ReversiStrategy {
+public class MaxCaptureStrategy implements ScoredMoveStrategy {
+  private final MoveContext position = new MoveContext(); // reused from turn to turn
+
   @Override
   public Optional<ICell> determineMove(ReadonlyReversiModel model, GameState player) {
-    ICell bestMove = null;
-    int maxCaptureCount = 0;
-    boolean passRequired = true;
+    position.reset(model, player);
+    return determineMove(position);
+  }
 
-    for (ICell cell : model.getBoard()) {
-      if (cell.getPlayer() == PlayerState.EMPTY && model.isValidMove(cell, player)) {
-        int captured = model.getCaptureCells(cell, player);
-        if (captured > maxCaptureCount || (captured == maxCaptureCount
-                && isUpperLeft(cell, bestMove))) {
-          maxCaptureCount = captured;
-          bestMove = cell;
-          passRequired = false;
-        }
+  @Override
+  public Optional<ICell> determineMove(MoveContext context) {
+    MoveList moves = context.getMoves();
+    // the moves come top row first and left to right, so on a tie the first one is the most
+    // upper left
+    int bestMove = -1;
+    int maxCaptureCount = 0;
+    for (int move = 0; move < moves.size(); move++) {
+      if (context.isCandidate(move) && moves.getCaptures(move) > maxCaptureCount) {
+        maxCaptureCount = moves.getCaptures(move);
+        bestMove = move;
       }
     }
-    if (passRequired) {
+    if (bestMove < 0) {
       throw new IllegalStateException("Strategy failed to make a choice!");
       //This will help to implement how the player can pass.
       // I intended to use a try catch and call wannaPass for the player.
       // wannaPass is a method that we implemented in our model.
     }
-    return Optional.of(bestMove);
-  }
-
-  // check if the best move cell is the upper left of this cell.
-  private boolean isUpperLeft(ICell cell, ICell bestMove) {
-    if (bestMove == null) {
-      return true;
-    }
-    // Compare based on axial coordinates (q, r)
-    return (cell.getR() < bestMove.getR() || (cell.getR() == bestMove.getR()
-            && cell.getQ() < bestMove.getQ()));
+    return Optional.of(context.getModel().getCell(moves.getQ(bestMove), moves.getR(bestMove)));
   }
-}
\ No newline at end of file
+}
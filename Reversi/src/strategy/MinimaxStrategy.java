@@ -1,21 +1,42 @@
 package strategy;
 
-import java.util.AbstractMap;
-import java.util.Map;
 import java.util.Optional;
 
 import game.utility.GameState;
 import game.utility.ICell;
-import game.utility.PlayerState;
+import game.utility.RayTable;
+import game.utility.SearchBoard;
 import game.ReadonlyReversiModel;
-import game.ReversiModel;
 
 /**
  * Minimax strategy that goes through all the game's possible future state.
  * Calculate the best move that the opponent can make.
+ * The search plays and takes back moves on a single SearchBoard, so it doesn't copy the
+ * model or allocate at every node.
+ * With a time limit, the strategy deepens one ply at a time until the time is up and plays
+ * the best move of the deepest search that finished. Each search tries the principal
+ * variation of the previous one first, so it cuts more of the tree.
+ * With a transposition table, positions reached again through another order of moves are
+ * looked up instead of searched, and the best move stored for a position is tried first.
+ * The table is kept from one move to the next.
+ * With a MoveOrdering, the other moves are sorted by corners, killer moves and history,
+ * so the best move tends to come first and the other ones are cut early.
+ * Positions where the search stops are scored by an Evaluator, the disc difference unless
+ * another one is given.
  */
 public class MinimaxStrategy implements ReversiStrategy {
+  // nodes searched between two looks at the clock, minus one
+  private static final int CLOCK_INTERVAL = 1023;
+
   private final int depth;
+  private final long timeLimitMillis; // 0 for a search of fixed depth
+  private final TranspositionTable table; // null to search without one
+  private final MoveOrdering ordering; // null to keep the moves in board order
+  private final Evaluator evaluator;
+  private long nodeCount; // nodes searched for the last move
+  private int depthReached; // of the last move
+  private long cutoffCount; // alpha-beta cutoffs for the last move
+  private long firstMoveCutoffCount; // the ones made by the first move tried
 
   /**
    * Constructor for minimax strategy class.
@@ -23,66 +44,357 @@ public class MinimaxStrategy implements ReversiStrategy {
    * @param depth - how depth you wanna search.
    */
   public MinimaxStrategy(int depth) {
+    this(depth, 0);
+  }
+
+  /**
+   * Constructor for a minimax strategy with a time limit for each move.
+   *
+   * @param depth           - the deepest search to try.
+   * @param timeLimitMillis - the time a move may take in milliseconds, 0 to always search
+   *                        the full depth.
+   * @throws IllegalArgumentException if the time limit is negative.
+   */
+  public MinimaxStrategy(int depth, long timeLimitMillis) {
+    this(depth, timeLimitMillis, 0);
+  }
+
+  /**
+   * Constructor for a minimax strategy with a time limit and a transposition table.
+   *
+   * @param depth           - the deepest search to try.
+   * @param timeLimitMillis - the time a move may take in milliseconds, 0 to always search
+   *                        the full depth.
+   * @param tableEntries    - slots of the transposition table, rounded down to a power of
+   *                        two, 0 for no table.
+   * @throws IllegalArgumentException if the time limit or the table size is negative.
+   */
+  public MinimaxStrategy(int depth, long timeLimitMillis, int tableEntries) {
+    this(depth, timeLimitMillis, tableEntries, null);
+  }
+
+  /**
+   * Constructor for a minimax strategy with a time limit, a transposition table and a move
+   * ordering.
+   *
+   * @param depth           - the deepest search to try.
+   * @param timeLimitMillis - the time a move may take in milliseconds, 0 to always search
+   *                        the full depth.
+   * @param tableEntries    - slots of the transposition table, rounded down to a power of
+   *                        two, 0 for no table.
+   * @param ordering        - the ordering of the moves, null to try them in board order. It
+   *                        keeps state from one move to the next, so it can't be shared.
+   * @throws IllegalArgumentException if the time limit or the table size is negative.
+   */
+  public MinimaxStrategy(int depth, long timeLimitMillis, int tableEntries,
+                         MoveOrdering ordering) {
+    this(depth, timeLimitMillis, tableEntries, ordering, null);
+  }
+
+  /**
+   * Constructor for a minimax strategy with all its settings.
+   *
+   * @param depth           - the deepest search to try.
+   * @param timeLimitMillis - the time a move may take in milliseconds, 0 to always search
+   *                        the full depth.
+   * @param tableEntries    - slots of the transposition table, rounded down to a power of
+   *                        two, 0 for no table.
+   * @param ordering        - the ordering of the moves, null to try them in board order. It
+   *                        keeps state from one move to the next, so it can't be shared.
+   * @param evaluator       - the evaluation of the positions where the search stops, null
+   *                        for the disc difference. It can't be shared either.
+   * @throws IllegalArgumentException if the time limit or the table size is negative.
+   */
+  public MinimaxStrategy(int depth, long timeLimitMillis, int tableEntries,
+                         MoveOrdering ordering, Evaluator evaluator) {
+    if (timeLimitMillis < 0) {
+      throw new IllegalArgumentException("Time limit cannot be negative");
+    }
+    if (tableEntries < 0) {
+      throw new IllegalArgumentException("Table size cannot be negative");
+    }
     this.depth = depth;
+    this.timeLimitMillis = timeLimitMillis;
+    this.table = tableEntries == 0 ? null : new TranspositionTable(tableEntries);
+    this.ordering = ordering;
+    this.evaluator = evaluator == null ? new DiscDifferenceEvaluator() : evaluator;
+  }
+
+  /**
+   * Get the number of positions searched for the last move, to compare settings.
+   *
+   * @return the node count.
+   */
+  public long getNodeCount() {
+    return nodeCount;
+  }
+
+  /**
+   * Get the depth of the deepest search that finished for the last move, to see how far the
+   * deepening went in its time.
+   *
+   * @return the depth, 0 if not even one ply finished.
+   */
+  public int getDepthReached() {
+    return depthReached;
+  }
+
+  /**
+   * Get the number of alpha-beta cutoffs of the search for the last move.
+   *
+   * @return the cutoff count.
+   */
+  public long getCutoffCount() {
+    return cutoffCount;
+  }
+
+  /**
+   * Get the number of cutoffs of the search for the last move that the first move tried
+   * made. The closer it is to the cutoff count, the better the moves were ordered.
+   *
+   * @return the first move cutoff count.
+   */
+  public long getFirstMoveCutoffCount() {
+    return firstMoveCutoffCount;
   }
 
   @Override
   public Optional<ICell> determineMove(ReadonlyReversiModel model, GameState player) {
-    return Optional.ofNullable(minimax(model, depth, player, true, Double.NEGATIVE_INFINITY,
-            Double.POSITIVE_INFINITY).getKey());
+    long start = System.nanoTime();
+    SearchBoard board = SearchBoard.from(model, player);
+    if (depth <= 0 || board.isGameOver()) {
+      return Optional.empty();
+    }
+    int maxDepth = board.limitDepth(depth);
+    if (table != null) {
+      table.newSearch();
+      // symmetric positions share their entries
+      board.useSymmetries();
+    }
+    if (ordering != null) {
+      ordering.newSearch(board.getRays(), maxDepth);
+    }
+    Search search = new Search(board, maxDepth,
+            timeLimitMillis == 0 ? 0 : start + timeLimitMillis * 1_000_000L, table, ordering,
+            evaluator);
+
+    int bestMove;
+    depthReached = 0;
+    if (timeLimitMillis == 0) {
+      bestMove = search.root(maxDepth);
+      depthReached = maxDepth;
+    } else {
+      bestMove = search.firstMove(); // in case not even one ply finishes in time
+      for (int iteration = 1; iteration <= maxDepth; iteration++) {
+        int move = search.root(iteration);
+        if (search.aborted) {
+          break;
+        }
+        bestMove = move;
+        depthReached = iteration;
+        search.keepPrincipalVariation();
+      }
+    }
+    nodeCount = search.nodes;
+    cutoffCount = search.cutoffs;
+    firstMoveCutoffCount = search.firstMoveCutoffs;
+    if (bestMove < 0) {
+      return Optional.empty();
+    }
+    RayTable rays = board.getRays();
+    return Optional.of(model.getCell(rays.getQ(bestMove), rays.getR(bestMove)));
   }
 
-  // implement the minimax algo. check ing throughout the tree with the given depth, player.
-  private Map.Entry<ICell, Double> minimax(ReadonlyReversiModel model, int depth,
-                                          GameState player,
-                                          boolean maximizingPlayer,
-                                          double alpha, double beta) {
-    if (depth == 0 || model.isGameOver()) {
-      return new AbstractMap.SimpleEntry<>(null, evaluateBoard(model, player));
-    }
-    double bestScore = maximizingPlayer ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
-    ICell bestMove = null;
-
-    for (ICell cell : model.getBoard()) {
-      if (cell.getPlayer() == PlayerState.EMPTY
-              && model.isValidMove(cell, player)) {
-        ReversiModel clone = model.getClone();
-        clone.makeMove(cell);
-        // Calculate the opponent based on the current player
-        GameState opponent = (player == GameState.BLACK_TURN)
-                ? GameState.WHITE_TURN
-                : GameState.BLACK_TURN;
+  // the state of the searches for one move.
+  private static final class Search {
+    private final SearchBoard board;
+    private final int root; // the player the strategy moves for
+    private final long deadline; // System.nanoTime() to stop at, 0 for no limit
+    private final TranspositionTable table; // may be null
+    private final MoveOrdering ordering; // may be null
+    private final Evaluator evaluator;
+    private final int[][] moves; // one move buffer per ply
+    private final int[][] pv; // the principal variation found from each ply
+    private final int[] pvLength;
+    private final int[] previousPv; // the principal variation of the last finished search
+    private int previousLength;
+    private long nodes;
+    private long cutoffs;
+    private long firstMoveCutoffs;
+    private boolean aborted;
+
+    private Search(SearchBoard board, int maxDepth, long deadline, TranspositionTable table,
+                   MoveOrdering ordering, Evaluator evaluator) {
+      int cellCount = board.getRays().getCellCount();
+      this.board = board;
+      this.root = board.getToMove();
+      this.deadline = deadline;
+      this.table = table;
+      this.ordering = ordering;
+      this.evaluator = evaluator;
+      this.moves = new int[maxDepth + 1][cellCount];
+      this.pv = new int[maxDepth + 1][maxDepth + 1];
+      this.pvLength = new int[maxDepth + 1];
+      this.previousPv = new int[maxDepth + 1];
+    }
+
+    // the first valid move of the root player, -1 if there is none.
+    private int firstMove() {
+      return board.generateMoves(root, moves[0]) > 0 ? moves[0][0] : -1;
+    }
+
+    // search the root position to the given depth and return the best move, -1 if none.
+    private int root(int depth) {
+      int count = board.generateMoves(root, moves[0]);
+      boolean ordered = followPrincipalVariation(0, count);
+      boolean first = ordered || tryHashMoveFirst(moves[0], count);
+      if (ordering != null) {
+        ordering.order(board, moves[0], first ? 1 : 0, count, 0, depth);
+      }
+      pvLength[0] = 0;
+      double bestScore = Double.NEGATIVE_INFINITY;
+      double alpha = Double.NEGATIVE_INFINITY;
+      int bestMove = -1;
+      for (int i = 0; i < count; i++) {
+        int move = moves[0][i];
+        board.play(move);
+        double score = minimax(depth - 1, 1, false, alpha, Double.POSITIVE_INFINITY,
+                ordered && i == 0);
+        board.undo();
+        if (aborted) {
+          return -1;
+        }
+        if (score > bestScore) {
+          bestScore = score;
+          bestMove = move;
+          updatePrincipalVariation(0, move);
+        }
+        alpha = Math.max(alpha, score);
+      }
+      if (table != null && bestMove >= 0) {
+        table.store(board.getCanonicalHash(), depth, (int) bestScore, TranspositionTable.EXACT,
+                board.toCanonical(bestMove));
+      }
+      return bestMove;
+    }
+
+    // implement the minimax algo. check ing throughout the tree with the given depth, player.
+    private double minimax(int depth, int ply, boolean maximizingPlayer,
+                           double alpha, double beta, boolean onPv) {
+      if ((++nodes & CLOCK_INTERVAL) == 0 && deadline != 0
+              && System.nanoTime() - deadline > 0) {
+        aborted = true;
+      }
+      pvLength[ply] = ply;
+      if (aborted) {
+        return 0;
+      }
+      if (depth == 0 || board.isGameOver()) {
+        return evaluateBoard();
+      }
+      // the window as seen by the player to move, which the table stores scores for
+      double low = maximizingPlayer ? alpha : -beta;
+      double high = maximizingPlayer ? beta : -alpha;
+      int hashMove = -1;
+      if (table != null) {
+        int slot = table.probe(board.getCanonicalHash());
+        if (slot >= 0) {
+          hashMove = board.fromCanonical(table.getMove(slot));
+          int stored = table.getScore(slot);
+          int bound = table.getBound(slot);
+          if (table.getDepth(slot) >= depth && (bound == TranspositionTable.EXACT
+                  || bound == TranspositionTable.LOWER && stored >= high
+                  || bound == TranspositionTable.UPPER && stored <= low)) {
+            return maximizingPlayer ? stored : -stored;
+          }
+        }
+      }
+
+      double bestScore = maximizingPlayer ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+      int bestMove = -1;
+      int[] buffer = moves[ply];
+      int count = board.generateMoves(board.getToMove(), buffer);
+      boolean ordered = onPv && followPrincipalVariation(ply, count);
+      boolean first = ordered || hashMove >= 0 && MoveOrdering.moveToFront(buffer, count, hashMove);
+      if (ordering != null) {
+        ordering.order(board, buffer, first ? 1 : 0, count, ply, depth);
+      }
+
+      for (int i = 0; i < count; i++) {
+        board.play(buffer[i]);
         // recursively call
-        double score = minimax(clone, depth - 1, opponent,
-                !maximizingPlayer, alpha, beta).getValue();
+        double score = minimax(depth - 1, ply + 1, !maximizingPlayer, alpha, beta,
+                ordered && i == 0);
+        board.undo();
+        if (aborted) {
+          return 0;
+        }
+        if (maximizingPlayer ? score > bestScore : score < bestScore) {
+          bestScore = score;
+          bestMove = buffer[i];
+          updatePrincipalVariation(ply, buffer[i]);
+        }
         if (maximizingPlayer) {
-          if (score > bestScore) {
-            bestScore = score;
-            bestMove = cell;
-          }
           alpha = Math.max(alpha, score);
         } else {
-          if (score < bestScore) {
-            bestScore = score;
-            bestMove = cell;
-          }
           beta = Math.min(beta, score);
         }
         // alpha beta pruning
         if (beta <= alpha) {
+          cutoffs++;
+          if (i == 0) {
+            firstMoveCutoffs++;
+          }
+          if (ordering != null) {
+            ordering.cutoff(buffer[i], ply, depth);
+          }
           break;
         }
       }
+      if (table != null) {
+        double own = maximizingPlayer ? bestScore : -bestScore;
+        int bound = own <= low ? TranspositionTable.UPPER
+                : own >= high ? TranspositionTable.LOWER : TranspositionTable.EXACT;
+        table.store(board.getCanonicalHash(), depth, (int) own, bound,
+                board.toCanonical(bestMove));
+      }
+      return bestScore;
     }
-    return new AbstractMap.SimpleEntry<>(bestMove, bestScore);
-  }
 
-  // evalute the board to see if the current player has any good move.
-  // scoring based on difference in numbers of discs
-  private Double evaluateBoard(ReadonlyReversiModel model, GameState player) {
-    int[] scores = model.getScores();
-    return (double) (player == GameState.BLACK_TURN
-            ? scores[0] - scores[1] : scores[1] - scores[0]);
-  }
+    // put the move of the previous principal variation at this ply first, if it is there.
+    private boolean followPrincipalVariation(int ply, int count) {
+      return ply < previousLength && MoveOrdering.moveToFront(moves[ply], count, previousPv[ply]);
+    }
+
+    // at the root, put the best move the table holds for the position first.
+    // return false if there is no such move.
+    private boolean tryHashMoveFirst(int[] buffer, int count) {
+      if (table != null) {
+        int slot = table.probe(board.getCanonicalHash());
+        if (slot >= 0 && table.getMove(slot) >= 0) {
+          return MoveOrdering.moveToFront(buffer, count, board.fromCanonical(table.getMove(slot)));
+        }
+      }
+      return false;
+    }
 
+    // the best line from this ply starts with the move, followed by the best line after it.
+    private void updatePrincipalVariation(int ply, int move) {
+      pv[ply][ply] = move;
+      int length = pvLength[ply + 1];
+      System.arraycopy(pv[ply + 1], ply + 1, pv[ply], ply + 1, length - ply - 1);
+      pvLength[ply] = length;
+    }
+
+    // remember the principal variation of the search that just finished.
+    private void keepPrincipalVariation() {
+      previousLength = pvLength[0];
+      System.arraycopy(pv[0], 0, previousPv, 0, previousLength);
+    }
+
+    // evalute the board to see if the root player has any good move.
+    private double evaluateBoard() {
+      return evaluator.evaluate(board, root);
+    }
+  }
 }
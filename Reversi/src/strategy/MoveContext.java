@@ -0,0 +1,154 @@
+package strategy;
+
+import game.ReadonlyReversiModel;
+import game.utility.BoardGeometry;
+import game.utility.GameState;
+import game.utility.MoveList;
+
+/**
+ * Represent what the stages of a CombinedStrategy know about the moves of one position: the
+ * valid moves of the player with their captures and flips, which of them are corners or next
+ * to a corner, and the candidates left by the filters so far. Each piece is computed the
+ * first time a stage asks for it and then shared by the later stages, so a pipeline of
+ * stages looks at the board once, and a stage that finds a move before the moves are needed
+ * never scores them. Corners and the cells next to them are read from the BoardGeometry of
+ * the board. The context is reused from position to position.
+ */
+public final class MoveContext {
+  private final MoveList moves = new MoveList();
+  private ReadonlyReversiModel model;
+  private GameState player;
+  private boolean isScored;
+  private BoardGeometry geometry; // of the board of the moves
+  private boolean[] candidates = new boolean[0]; // [move]
+  private int candidateCount;
+
+  /**
+   * Start over for the position of a model. Nothing is computed until a stage asks for it.
+   *
+   * @param model  - the model.
+   * @param player - the player to move.
+   */
+  public void reset(ReadonlyReversiModel model, GameState player) {
+    this.model = model;
+    this.player = player;
+    this.isScored = false;
+  }
+
+  /**
+   * Get the model of the position.
+   *
+   * @return the model.
+   */
+  public ReadonlyReversiModel getModel() {
+    return model;
+  }
+
+  /**
+   * Get the player to move.
+   *
+   * @return the player.
+   */
+  public GameState getPlayer() {
+    return player;
+  }
+
+  /**
+   * Get the valid moves of the player with their captures and flips, scoring them the first
+   * time they are asked for.
+   *
+   * @return the scored moves, in board order.
+   */
+  public MoveList getMoves() {
+    if (!isScored) {
+      model.scoreMoves(player, moves);
+      isScored = true;
+      if (geometry == null || geometry.getRays() != moves.getRays()) {
+        geometry = BoardGeometry.of(moves.getRays());
+      }
+      if (candidates.length < moves.size()) {
+        candidates = new boolean[moves.getRays().getCellCount()];
+      }
+      for (int move = 0; move < moves.size(); move++) {
+        candidates[move] = true;
+      }
+      candidateCount = moves.size();
+    }
+    return moves;
+  }
+
+  /**
+   * Check if a move is still a candidate, it passed the filters so far.
+   *
+   * @param move - the place of the move in getMoves.
+   * @return true if the move is a candidate.
+   */
+  public boolean isCandidate(int move) {
+    getMoves();
+    return candidates[move];
+  }
+
+  /**
+   * Get the number of candidates.
+   *
+   * @return the number of moves that passed the filters so far.
+   */
+  public int getCandidateCount() {
+    getMoves();
+    return candidateCount;
+  }
+
+  /**
+   * Keep only the candidates that pass a filter. When none of them does, the filter has
+   * nothing to choose from and the candidates are left as they are.
+   *
+   * @param filter - the filter.
+   * @return the number of candidates left.
+   */
+  public int narrow(MoveFilter filter) {
+    MoveList scored = getMoves();
+    int kept = 0;
+    for (int move = 0; move < scored.size(); move++) {
+      if (candidates[move] && filter.keeps(this, move)) {
+        kept++;
+      }
+    }
+    if (kept > 0 && kept < candidateCount) {
+      for (int move = 0; move < scored.size(); move++) {
+        candidates[move] = candidates[move] && filter.keeps(this, move);
+      }
+      candidateCount = kept;
+    }
+    return candidateCount;
+  }
+
+  /**
+   * Get the geometry of the board of the moves.
+   *
+   * @return the geometry.
+   */
+  public BoardGeometry getGeometry() {
+    getMoves();
+    return geometry;
+  }
+
+  /**
+   * Check if a move is on a corner of the board.
+   *
+   * @param move - the place of the move in getMoves.
+   * @return true if its cell is a corner.
+   */
+  public boolean isCorner(int move) {
+    return getGeometry().isCorner(moves.getIndex(move));
+  }
+
+  /**
+   * Check if a move is next to a corner of the board.
+   *
+   * @param move - the place of the move in getMoves.
+   * @return true if its cell is next to a corner.
+   */
+  public boolean isNextToCorner(int move) {
+    return getGeometry().isNextToCorner(moves.getIndex(move));
+  }
+}
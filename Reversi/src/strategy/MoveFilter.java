@@ -0,0 +1,35 @@
+package strategy;
+
+/**
+ * Represent a stage of a CombinedStrategy that narrows the candidate moves of a position
+ * down to the ones it likes, see MoveContext.narrow. The strategies after it only choose
+ * among the moves it kept.
+ */
+public interface MoveFilter {
+  /**
+   * Check if a move passes the filter.
+   *
+   * @param context - the moves of the position.
+   * @param move    - the place of the move in context.getMoves().
+   * @return true to keep the move.
+   */
+  boolean keeps(MoveContext context, int move);
+
+  /**
+   * A filter that keeps the moves on a corner.
+   *
+   * @return the filter.
+   */
+  static MoveFilter corners() {
+    return MoveContext::isCorner;
+  }
+
+  /**
+   * A filter that drops the moves next to a corner, which give the corner to the opponent.
+   *
+   * @return the filter.
+   */
+  static MoveFilter awayFromCorners() {
+    return (context, move) -> !context.isNextToCorner(move);
+  }
+}
@@ -0,0 +1,146 @@
+package strategy;
+
+import java.util.Arrays;
+
+import game.utility.BoardGeometry;
+import game.utility.RayTable;
+import game.utility.SearchBoard;
+
+/**
+ * Represent the move ordering of a minimax search, so alpha-beta pruning cuts as early as
+ * it can. After the hash move (put first by the search), the moves are tried in this order:
+ * corners, which can never be flipped back, then the two killer moves of the ply (the last
+ * moves that caused a cutoff at the same depth in the tree), then the other moves by their
+ * history score (how much the move caused cutoffs anywhere in the tree). With mobility
+ * ordering, moves that leave the opponent fewer replies come first within each of those
+ * groups; it costs a move and a move generation for each move, so it is only done at least
+ * MOBILITY_DEPTH plies from the leaves.
+ * The killers are forgotten at each new move of the game, the history fades by half.
+ */
+public final class MoveOrdering {
+  /**
+   * The fewest plies left to search for which mobility ordering is done.
+   */
+  public static final int MOBILITY_DEPTH = 3;
+
+  private static final int HISTORY_LIMIT = Integer.MAX_VALUE / 2;
+
+  private final boolean mobility;
+  private RayTable rays;
+  private BoardGeometry geometry;
+  private int[] history; // by cell index
+  private int[][] killers; // [ply][2]
+  private long[] keys; // the sort key of each move being ordered
+  private int[] replies; // move buffer for the mobility of the opponent
+
+  /**
+   * Create a move ordering.
+   *
+   * @param mobility - true to also order moves by the number of replies they leave.
+   */
+  public MoveOrdering(boolean mobility) {
+    this.mobility = mobility;
+  }
+
+  /**
+   * Get ready for the search of a new move of the game.
+   *
+   * @param rays     - the ray table of the board searched.
+   * @param maxDepth - the deepest ply the search will reach.
+   */
+  void newSearch(RayTable rays, int maxDepth) {
+    if (rays != this.rays) {
+      int cellCount = rays.getCellCount();
+      this.rays = rays;
+      this.geometry = BoardGeometry.of(rays);
+      this.history = new int[cellCount];
+      this.keys = new long[cellCount];
+      this.replies = new int[cellCount];
+    } else {
+      for (int index = 0; index < history.length; index++) {
+        history[index] >>= 1;
+      }
+    }
+    if (killers == null || killers.length < maxDepth + 1) {
+      killers = new int[maxDepth + 1][2];
+    }
+    for (int[] ply : killers) {
+      Arrays.fill(ply, -1);
+    }
+  }
+
+  /**
+   * Sort the moves of a position, best first.
+   *
+   * @param board - the board, in the position the moves are for.
+   * @param moves - the moves.
+   * @param first - the place of the first move to sort, the ones before it stay first.
+   * @param count - the number of moves.
+   * @param ply   - the plies made since the root.
+   * @param depth - the plies left to search.
+   */
+  void order(SearchBoard board, int[] moves, int first, int count, int ply, int depth) {
+    boolean byMobility = mobility && depth >= MOBILITY_DEPTH;
+    int[] killer = killers[ply];
+    for (int i = first; i < count; i++) {
+      int move = moves[i];
+      long group = geometry.isCorner(move) ? 3 : move == killer[0] ? 2 : move == killer[1] ? 1 : 0;
+      long fewerReplies = 0;
+      if (byMobility) {
+        board.play(move);
+        fewerReplies = replies.length - board.generateMoves(board.getToMove(), replies);
+        board.undo();
+      }
+      keys[i] = group << 48 | fewerReplies << 32 | history[move];
+    }
+    // insertion sort, there are only a few moves
+    for (int i = first + 1; i < count; i++) {
+      long key = keys[i];
+      int move = moves[i];
+      int j = i - 1;
+      while (j >= first && keys[j] < key) {
+        keys[j + 1] = keys[j];
+        moves[j + 1] = moves[j];
+        j--;
+      }
+      keys[j + 1] = key;
+      moves[j + 1] = move;
+    }
+  }
+
+  /**
+   * Move the given move to the front of the buffer, keeping the order of the others. The
+   * searches use it to try the hash move first.
+   *
+   * @param buffer - the moves.
+   * @param count  - the number of moves.
+   * @param move   - the move to put first.
+   * @return false if the move is not in the buffer.
+   */
+  static boolean moveToFront(int[] buffer, int count, int move) {
+    for (int i = 0; i < count; i++) {
+      if (buffer[i] == move) {
+        System.arraycopy(buffer, 0, buffer, 1, i);
+        buffer[0] = move;
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Record a move that caused a cutoff.
+   *
+   * @param move  - the move.
+   * @param ply   - the plies made since the root.
+   * @param depth - the plies that were left to search, deeper cutoffs count more.
+   */
+  void cutoff(int move, int ply, int depth) {
+    int[] killer = killers[ply];
+    if (killer[0] != move) {
+      killer[1] = killer[0];
+      killer[0] = move;
+    }
+    history[move] = Math.min(history[move] + depth * depth, HISTORY_LIMIT);
+  }
+}
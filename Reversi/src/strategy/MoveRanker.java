@@ -0,0 +1,152 @@
+package strategy;
+
+import java.util.Arrays;
+
+import game.utility.BoardSnapshot;
+import game.utility.GameState;
+import game.utility.RankedMoves;
+import game.utility.SearchBoard;
+
+/**
+ * Represent a search that ranks the best moves of a position, where a strategy only needs
+ * the best one. It is what the strong hints show: the top moves with their scores. The search
+ * deepens one ply at a time until its depth or its time is used up, and the ranking of the
+ * last depth searched in full is kept. Each root move is searched with the PvsSearch of
+ * PvsStrategy: once the top ones are full, a move is first tested with a null window at the
+ * score of the worst of them, and a move that cannot beat it keeps a bound instead of an
+ * exact score, which is enough to leave it out. The moves are tried in the order of the last
+ * ranking, so the best ones raise the window early. The transposition table is kept from one
+ * ranking to the next, the position after a move is mostly searched already.
+ * The search also stops when its thread is interrupted.
+ */
+public final class MoveRanker {
+  // slots of the transposition table
+  private static final int TABLE_ENTRIES = 1 << 16;
+  private static final int INFINITY = PvsSearch.INFINITY;
+
+  private final int depth;
+  private final long timeLimitMillis; // 0 to always search the full depth
+  private final Evaluator evaluator;
+  private final MoveOrdering ordering = new MoveOrdering(false);
+  private final TranspositionTable table = new TranspositionTable(TABLE_ENTRIES);
+
+  /**
+   * Constructor for a move ranker that scores with the disc difference.
+   *
+   * @param depth           - the deepest search to try.
+   * @param timeLimitMillis - the time a ranking may take in milliseconds, 0 to always
+   *                        search the full depth.
+   * @throws IllegalArgumentException if the time limit is negative.
+   */
+  public MoveRanker(int depth, long timeLimitMillis) {
+    this(depth, timeLimitMillis, null);
+  }
+
+  /**
+   * Constructor for a move ranker with its own evaluation.
+   *
+   * @param depth           - the deepest search to try.
+   * @param timeLimitMillis - the time a ranking may take in milliseconds, 0 to always
+   *                        search the full depth.
+   * @param evaluator       - the evaluation of the positions where the search stops, null
+   *                        for the disc difference.
+   * @throws IllegalArgumentException if the time limit is negative.
+   */
+  public MoveRanker(int depth, long timeLimitMillis, Evaluator evaluator) {
+    if (timeLimitMillis < 0) {
+      throw new IllegalArgumentException("Time limit cannot be negative");
+    }
+    this.depth = depth;
+    this.timeLimitMillis = timeLimitMillis;
+    this.evaluator = evaluator == null ? new DiscDifferenceEvaluator() : evaluator;
+  }
+
+  /**
+   * Rank the valid moves of a position. When not even one ply finishes in time, the moves
+   * come in board order with a score of 0 and a depth of 0.
+   *
+   * @param snapshot - the position, with BLACK_TURN or WHITE_TURN to move.
+   * @param count    - how many of the best moves to keep.
+   * @return the best moves, as many as asked for or all of them if there are fewer.
+   * @throws IllegalArgumentException if the count is not positive or no one is to move.
+   */
+  public synchronized RankedMoves rank(BoardSnapshot snapshot, int count) {
+    long start = System.nanoTime();
+    if (count <= 0) {
+      throw new IllegalArgumentException("Need to rank at least one move");
+    }
+    if (snapshot.getTurn() != GameState.BLACK_TURN
+            && snapshot.getTurn() != GameState.WHITE_TURN) {
+      throw new IllegalArgumentException("No player to move");
+    }
+    SearchBoard board = SearchBoard.from(snapshot);
+    if (board.isGameOver()) {
+      return new RankedMoves(board.getRays(), new int[0], new int[0], 0);
+    }
+    int maxDepth = board.limitDepth(depth);
+    table.newSearch();
+    // symmetric positions share their entries
+    board.useSymmetries();
+    ordering.newSearch(board.getRays(), maxDepth);
+    PvsSearch search = new PvsSearch(board, maxDepth,
+            timeLimitMillis == 0 ? 0 : start + timeLimitMillis * 1_000_000L, table, ordering,
+            evaluator);
+
+    int[] moves = new int[board.getRays().getCellCount()];
+    int moveCount = board.generateMoves(board.getToMove(), moves);
+    moves = Arrays.copyOf(moves, moveCount);
+    int[] scores = new int[moveCount];
+    int[] found = new int[moveCount]; // the scores of the depth being searched
+    int[] top = new int[count]; // the best exact scores of the depth, best first
+    int reached = 0;
+    for (int iteration = 1; iteration <= maxDepth; iteration++) {
+      int topCount = 0;
+      for (int i = 0; i < moveCount && !search.isAborted(); i++) {
+        // the full window until the top ones are full, then a null window test first
+        boolean full = topCount < count;
+        int alpha = full ? -INFINITY : top[count - 1];
+        found[i] = search.searchMove(moves[i], full, iteration, 1, alpha, INFINITY);
+        if (found[i] > alpha) {
+          topCount = insert(top, topCount, found[i]);
+        }
+      }
+      if (search.isAborted()) {
+        break;
+      }
+      System.arraycopy(found, 0, scores, 0, moveCount);
+      sortByScore(moves, scores);
+      reached = iteration;
+    }
+    int kept = Math.min(count, moveCount);
+    return new RankedMoves(board.getRays(), Arrays.copyOf(moves, kept),
+            Arrays.copyOf(scores, kept), reached);
+  }
+
+  // insert a score in the best scores, best first, and return how many there are now.
+  private static int insert(int[] top, int topCount, int score) {
+    int i = Math.min(topCount, top.length - 1);
+    while (i > 0 && top[i - 1] < score) {
+      top[i] = top[i - 1];
+      i--;
+    }
+    top[i] = score;
+    return Math.min(topCount + 1, top.length);
+  }
+
+  // sort the moves by score, best first. equal scores keep their order, so a move that
+  // failed low stays behind the move whose score it could not beat.
+  private static void sortByScore(int[] moves, int[] scores) {
+    for (int i = 1; i < moves.length; i++) {
+      int move = moves[i];
+      int score = scores[i];
+      int j = i - 1;
+      while (j >= 0 && scores[j] < score) {
+        moves[j + 1] = moves[j];
+        scores[j + 1] = scores[j];
+        j--;
+      }
+      moves[j + 1] = move;
+      scores[j + 1] = score;
+    }
+  }
+}
@@ -0,0 +1,192 @@
+package strategy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Optional;
+
+import game.ReadonlyReversiModel;
+import game.type.BoardType;
+import game.utility.GameState;
+import game.utility.ICell;
+import game.utility.RayTable;
+import game.utility.Symmetries;
+
+/**
+ * Represent an opening book for one board type and size, as made by the OpeningBookBuilder:
+ * the best move found by a deep search for each position of the first plies of the game.
+ * Positions are keyed by the hash of their canonical form (see Symmetries), which includes
+ * the player to move, and moves are cells of the canonical form: one entry serves a
+ * position and all its rotations and reflections.
+ * The book is a binary file: a header (MAGIC, VERSION, the board type and size, the entry
+ * count) as big endian ints, then the entries sorted by key, each as its key (a long) and
+ * the index of its move in the canonical form (an int). The file is memory-mapped
+ * and the key is found by a binary search on the mapped bytes, so a lookup costs about
+ * twenty reads and nothing is loaded up front. Lookups only read, so threads may share a
+ * book.
+ */
+public final class OpeningBook {
+  /**
+   * The first int of a book file.
+   */
+  public static final int MAGIC = 0x48524f42; // "HROB"
+  /**
+   * The version of the file format.
+   */
+  public static final int VERSION = 2;
+
+  private static final int HEADER_BYTES = 5 * Integer.BYTES;
+  private static final int ENTRY_BYTES = Long.BYTES + Integer.BYTES;
+
+  private final RayTable rays;
+  private final ByteBuffer entries; // the mapped file
+  private final int entryCount;
+
+  private OpeningBook(RayTable rays, ByteBuffer entries, int entryCount) {
+    this.rays = rays;
+    this.entries = entries;
+    this.entryCount = entryCount;
+  }
+
+  /**
+   * Open a book file written by write. The file is mapped, not read.
+   *
+   * @param file - the book file.
+   * @return the book.
+   * @throws IOException if the file can't be read or is not a book file.
+   */
+  public static OpeningBook load(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      // the mapping stays valid once the channel is closed
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC) {
+        throw new IOException("Not an opening book file: " + file);
+      }
+      if (buffer.getInt() != VERSION) {
+        throw new IOException("Unknown version of opening book file: " + file);
+      }
+      int type = buffer.getInt();
+      int size = buffer.getInt();
+      int entryCount = buffer.getInt();
+      if (type < 0 || type >= BoardType.values().length || size <= 0 || entryCount < 0) {
+        throw new IOException("Not an opening book file: " + file);
+      }
+      if (buffer.remaining() < (long) entryCount * ENTRY_BYTES) {
+        throw new IOException("Truncated opening book file: " + file);
+      }
+      return new OpeningBook(RayTable.of(BoardType.values()[type], size), buffer, entryCount);
+    }
+  }
+
+  /**
+   * Write a book to a file, replacing it if it exists.
+   *
+   * @param file  - the book file.
+   * @param rays  - the ray table of the board of the book.
+   * @param keys  - the canonical hash of each position.
+   * @param moves - the index of the move of each position in its canonical form, in the
+   *              same order.
+   * @throws IOException              if the file can't be written.
+   * @throws IllegalArgumentException if the arrays don't match, a key is there twice or a
+   *                                  move is not a cell of the board.
+   */
+  public static void write(Path file, RayTable rays, long[] keys, int[] moves)
+          throws IOException {
+    if (keys.length != moves.length) {
+      throw new IllegalArgumentException("Every position needs a move");
+    }
+    Integer[] order = new Integer[keys.length];
+    for (int i = 0; i < order.length; i++) {
+      order[i] = i;
+      if (moves[i] < 0 || moves[i] >= rays.getCellCount()) {
+        throw new IllegalArgumentException("Move is not a cell of the board: " + moves[i]);
+      }
+    }
+    Arrays.sort(order, (a, b) -> Long.compare(keys[a], keys[b]));
+    ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + keys.length * ENTRY_BYTES);
+    buffer.putInt(MAGIC).putInt(VERSION).putInt(rays.getBoardType().ordinal())
+            .putInt(rays.getSize()).putInt(keys.length);
+    for (int i = 0; i < order.length; i++) {
+      if (i > 0 && keys[order[i]] == keys[order[i - 1]]) {
+        throw new IllegalArgumentException("Position is in the book twice");
+      }
+      buffer.putLong(keys[order[i]]).putInt(moves[order[i]]);
+    }
+    Files.write(file, buffer.array());
+  }
+
+  /**
+   * Get the ray table of the boards of the book.
+   *
+   * @return the ray table.
+   */
+  public RayTable getRays() {
+    return rays;
+  }
+
+  /**
+   * Get the number of positions in the book.
+   *
+   * @return the entry count.
+   */
+  public int getEntryCount() {
+    return entryCount;
+  }
+
+  /**
+   * Find the move of a position.
+   *
+   * @param key - the canonical hash of the position.
+   * @return the index of the move in the canonical form of the position, -1 if the position
+   *         is not in the book.
+   */
+  public int lookup(long key) {
+    int low = 0;
+    int high = entryCount - 1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      int at = HEADER_BYTES + middle * ENTRY_BYTES;
+      long found = entries.getLong(at);
+      if (found < key) {
+        low = middle + 1;
+      } else if (found > key) {
+        high = middle - 1;
+      } else {
+        return entries.getInt(at + Long.BYTES);
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Find the book move of the player in the position of a model.
+   *
+   * @param model  - the model.
+   * @param player - the player to move.
+   * @return the move, empty if the position is not in the book, it is not the player's turn,
+   *         the book is for another board or its move is not a cell of the board.
+   */
+  public Optional<ICell> move(ReadonlyReversiModel model, GameState player) {
+    if (player != model.getCurrentState() || model.getBoardType() != rays.getBoardType()
+            || model.getSize() != rays.getSize()) {
+      return Optional.empty();
+    }
+    Symmetries symmetries = Symmetries.of(rays);
+    long[] hashes = symmetries.hashes(model.getSnapshot());
+    int transform = symmetries.canonicalTransform(hashes);
+    int move = lookup(hashes[transform]);
+    // a damaged file may hold any int
+    if (move < 0 || move >= rays.getCellCount()) {
+      return Optional.empty();
+    }
+    move = symmetries.map(symmetries.inverse(transform), move);
+    ICell cell = model.getCell(rays.getQ(move), rays.getR(move));
+    // two positions may share a hash: a move that is not valid here is not for this one
+    return model.isValidMove(cell, player) ? Optional.of(cell) : Optional.empty();
+  }
+}
@@ -0,0 +1,192 @@
+package strategy;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import game.ReversiModel;
+import game.type.BoardType;
+import game.type.HexBitboard;
+import game.type.SquareReversi;
+import game.utility.GameState;
+import game.utility.ICell;
+import game.utility.RayTable;
+import game.utility.SearchBoard;
+import player.HumanPlayer;
+import player.PlayerColor;
+
+/**
+ * Headless builder of an OpeningBook. From the start position of a new game it goes through
+ * every position reachable in the first plies, by every sequence of moves, and asks a deep
+ * search for the move of each one. Positions reached by several sequences, or that are
+ * rotations or reflections of each other, are searched once. The positions are replayed on
+ * a fresh model from the start of the game, and the searches are spread over the
+ * processors with a parallel stream, each thread with a search of its own.
+ * Run it from the command line to write a book file, see main.
+ */
+public final class OpeningBookBuilder {
+  /**
+   * The depth of the searches of main, by default.
+   */
+  public static final int DEFAULT_DEPTH = 8;
+
+  private final Supplier<ReversiModel> boards;
+  private final Supplier<ReversiStrategy> searches;
+  private final int plies;
+  private RayTable rays;
+  private long[] keys = new long[0];
+  private int[] moves = new int[0];
+
+  /**
+   * Constructor for a book builder.
+   *
+   * @param boards   - makes a new model for each position, not started yet.
+   * @param searches - make the strategies that find the move of each position, one for each
+   *                 thread.
+   * @param plies    - the moves from the start of the game that the book covers.
+   * @throws IllegalArgumentException if the plies are negative.
+   */
+  public OpeningBookBuilder(Supplier<ReversiModel> boards, Supplier<ReversiStrategy> searches,
+                            int plies) {
+    if (plies < 0) {
+      throw new IllegalArgumentException("Plies cannot be negative");
+    }
+    this.boards = boards;
+    this.searches = searches;
+    this.plies = plies;
+  }
+
+  /**
+   * Find the positions of the first plies and search the move of each one.
+   *
+   * @return the number of positions in the book.
+   */
+  public int build() {
+    List<int[]> lines = new ArrayList<>(); // the moves that lead to each position
+    List<Long> found = new ArrayList<>();
+    expand(new int[0], new HashSet<>(), lines, found);
+    keys = new long[lines.size()];
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = found.get(i);
+    }
+    ThreadLocal<ReversiStrategy> search = ThreadLocal.withInitial(searches);
+    moves = IntStream.range(0, lines.size()).parallel()
+            .map(i -> search(lines.get(i), search.get()))
+            .toArray();
+
+    // a search may find no move, the positions without one are left out
+    int kept = 0;
+    for (int i = 0; i < keys.length; i++) {
+      if (moves[i] >= 0) {
+        keys[kept] = keys[i];
+        moves[kept++] = moves[i];
+      }
+    }
+    keys = Arrays.copyOf(keys, kept);
+    moves = Arrays.copyOf(moves, kept);
+    return kept;
+  }
+
+  // add the position after the moves and the ones that follow it, each once.
+  private void expand(int[] line, Set<Long> seen, List<int[]> lines, List<Long> found) {
+    ReversiModel model = replay(line);
+    if (line.length >= plies || model.isGameOver()) {
+      return;
+    }
+    SearchBoard board = SearchBoard.from(model, model.getCurrentState());
+    board.useSymmetries();
+    long key = board.getCanonicalHash();
+    if (!seen.add(key)) {
+      return;
+    }
+    lines.add(line);
+    found.add(key);
+    int[] next = new int[rays.getCellCount()];
+    int count = board.generateMoves(board.getToMove(), next);
+    for (int i = 0; i < count; i++) {
+      int[] longer = Arrays.copyOf(line, line.length + 1);
+      longer[line.length] = next[i];
+      expand(longer, seen, lines, found);
+    }
+  }
+
+  // a new game with the moves played.
+  private ReversiModel replay(int[] line) {
+    ReversiModel model = boards.get();
+    model.setBlackPlayer(new HumanPlayer(PlayerColor.BLACK));
+    model.setWhitePlayer(new HumanPlayer(PlayerColor.WHITE));
+    model.gameStarted();
+    if (rays == null) {
+      rays = RayTable.of(model.getBoardType(), model.getSize());
+    }
+    for (int move : line) {
+      model.makeMove(model.getCell(rays.getQ(move), rays.getR(move)));
+    }
+    return model;
+  }
+
+  // the index of the move the search plays after the moves, in the canonical form of the
+  // position, -1 if it finds none.
+  private int search(int[] line, ReversiStrategy strategy) {
+    ReversiModel model = replay(line);
+    GameState player = model.getCurrentState();
+    Optional<ICell> move = strategy.determineMove(model, player);
+    SearchBoard board = SearchBoard.from(model, player);
+    board.useSymmetries();
+    return board.toCanonical(move.map(cell -> rays.indexOf(cell.getQ(), cell.getR()))
+            .orElse(-1));
+  }
+
+  /**
+   * Write the book built last to a file.
+   *
+   * @param file - the book file.
+   * @throws IOException           if the file can't be written.
+   * @throws IllegalStateException if the book is not built.
+   */
+  public void write(Path file) throws IOException {
+    if (rays == null) {
+      throw new IllegalStateException("The book is not built");
+    }
+    OpeningBook.write(file, rays, keys, moves);
+  }
+
+  /**
+   * Build a book and write it to a file. The arguments are the board type (hex or square),
+   * its size, the plies, the book file and optionally the depth of the searches, as in
+   * "hex 5 4 hex5.book". The moves are searched by a PvsStrategy with move ordering and the
+   * default PatternEvaluator.
+   *
+   * @param args - the command line arguments.
+   * @throws IOException if the book file can't be written.
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length < 4) {
+      System.out.println("Usage: OpeningBookBuilder <hex|square> <size> <plies> <file> [depth]");
+      return;
+    }
+    BoardType boardType = args[0].equalsIgnoreCase("square")
+            ? BoardType.SQUARE : BoardType.HEXAGONAL;
+    int size = Integer.parseInt(args[1]);
+    int plies = Integer.parseInt(args[2]);
+    int depth = args.length > 4 ? Integer.parseInt(args[4]) : DEFAULT_DEPTH;
+    Supplier<ReversiModel> boards = boardType == BoardType.SQUARE
+            ? () -> new SquareReversi(size) : () -> new HexBitboard(size);
+    OpeningBookBuilder builder = new OpeningBookBuilder(boards,
+        () -> new PvsStrategy(depth, 0, 1 << 16, new MoveOrdering(false),
+                new PatternEvaluator()), plies);
+
+    long start = System.nanoTime();
+    int positions = builder.build();
+    System.out.printf("%d positions in %.1f s%n", positions, (System.nanoTime() - start) / 1e9);
+    builder.write(Paths.get(args[3]));
+  }
+}
@@ -0,0 +1,163 @@
+package strategy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.LongAdder;
+
+import game.utility.BoardSnapshot;
+import game.utility.GameState;
+import game.utility.ICell;
+import game.utility.RayTable;
+import game.utility.SearchBoard;
+import game.ReadonlyReversiModel;
+
+/**
+ * Minimax strategy that searches the moves of the root position on several threads at once.
+ * The first move (the best one of the last search, if the table has it) is searched alone,
+ * so the others start with its score: a root move only needs to be searched far enough to
+ * show it is not better than the best one found so far. The other moves are then split
+ * across a ForkJoinPool, each task on its own copy of the board. The best score found so far
+ * is shared by the tasks, and so is a lock-free transposition table, which is kept from one
+ * move to the next.
+ * It plays a move with the same minimax value as MinimaxStrategy at the same depth, but may
+ * pick another move among moves of equal value.
+ */
+public class ParallelMinimaxStrategy implements ReversiStrategy {
+  private static final int DEFAULT_TABLE_ENTRIES = 1 << 16;
+
+  private final int depth;
+  private final int threads;
+  private final SharedTranspositionTable table;
+  private ForkJoinPool pool; // made on the first search
+  private long nodeCount; // nodes searched for the last move
+
+  /**
+   * Constructor for a parallel minimax strategy with a table of 64k entries.
+   *
+   * @param depth   - how deep to search.
+   * @param threads - the number of threads to search with.
+   * @throws IllegalArgumentException if there is less than one thread.
+   */
+  public ParallelMinimaxStrategy(int depth, int threads) {
+    this(depth, threads, DEFAULT_TABLE_ENTRIES);
+  }
+
+  /**
+   * Constructor for a parallel minimax strategy.
+   *
+   * @param depth        - how deep to search.
+   * @param threads      - the number of threads to search with.
+   * @param tableEntries - slots of the shared transposition table, rounded down to a power
+   *                     of two.
+   * @throws IllegalArgumentException if there is less than one thread or one table entry.
+   */
+  public ParallelMinimaxStrategy(int depth, int threads, int tableEntries) {
+    if (threads < 1) {
+      throw new IllegalArgumentException("The search needs at least one thread");
+    }
+    this.depth = depth;
+    this.threads = threads;
+    this.table = new SharedTranspositionTable(tableEntries);
+  }
+
+  /**
+   * Get the number of positions searched for the last move, by all the threads.
+   *
+   * @return the node count.
+   */
+  public long getNodeCount() {
+    return nodeCount;
+  }
+
+  @Override
+  public Optional<ICell> determineMove(ReadonlyReversiModel model, GameState player) {
+    SearchBoard board = SearchBoard.from(model, player);
+    if (depth <= 0 || board.isGameOver()) {
+      return Optional.empty();
+    }
+    // every ply fills a cell, so the game ends before the search goes deeper than this
+    int maxDepth = board.limitDepth(depth);
+    table.newSearch();
+    board.useSymmetries(); // symmetric positions share their entries
+    int[] moves = new int[board.getRays().getCellCount()];
+    int count = board.generateMoves(board.getToMove(), moves);
+    long entry = table.probe(board.getCanonicalHash());
+    if (entry != SharedTranspositionTable.MISS) {
+      MoveOrdering.moveToFront(moves, count,
+              board.fromCanonical(SharedTranspositionTable.moveOf(entry)));
+    }
+
+    RootSplit split = new RootSplit(board.snapshot(), maxDepth, moves, count);
+    getPool().invoke(ForkJoinTask.adapt(split::searchAll));
+    nodeCount = split.nodes.sum();
+    table.store(board.getCanonicalHash(), maxDepth, split.bestScore, TranspositionTable.EXACT,
+            board.toCanonical(split.bestMove));
+    RayTable rays = board.getRays();
+    return Optional.of(model.getCell(rays.getQ(split.bestMove), rays.getR(split.bestMove)));
+  }
+
+  private synchronized ForkJoinPool getPool() {
+    if (pool == null) {
+      pool = new ForkJoinPool(threads);
+    }
+    return pool;
+  }
+
+  // the search of the root moves of one position, shared by the tasks that split it.
+  private final class RootSplit {
+    private final BoardSnapshot position;
+    private final int searchDepth;
+    private final int[] moves;
+    private final int count;
+    private final LongAdder nodes = new LongAdder();
+    private volatile int alpha = -SharedSearch.INFINITY; // the best score so far
+    private int bestScore; // guarded by this
+    private int bestMove = -1;
+    private int bestOrder;
+
+    private RootSplit(BoardSnapshot position, int searchDepth, int[] moves, int count) {
+      this.position = position;
+      this.searchDepth = searchDepth;
+      this.moves = moves;
+      this.count = count;
+    }
+
+    // search the first move alone, then the others in parallel.
+    private void searchAll() {
+      searchMove(0);
+      List<ForkJoinTask<?>> tasks = new ArrayList<>();
+      for (int i = 1; i < count; i++) {
+        int order = i;
+        tasks.add(ForkJoinTask.adapt(() -> searchMove(order)));
+      }
+      ForkJoinTask.invokeAll(tasks);
+    }
+
+    // search the root move at the given place in the order, on a copy of the board.
+    private void searchMove(int order) {
+      SharedSearch search = new SharedSearch(SearchBoard.from(position), searchDepth,
+              table);
+      search.getBoard().play(moves[order]);
+      int bound = alpha;
+      int score = -search.search(searchDepth - 1, 1, -SharedSearch.INFINITY, -bound);
+      nodes.add(search.getNodes());
+      // a score at or below the bound only says the move is not better than the best one
+      if (score > bound) {
+        offer(score, order);
+      }
+    }
+
+    // keep the move if it is the best so far, the earlier one in the order on a tie.
+    private synchronized void offer(int score, int order) {
+      if (bestMove < 0 || score > bestScore || score == bestScore && order < bestOrder) {
+        bestScore = score;
+        bestMove = moves[order];
+        bestOrder = order;
+        alpha = Math.max(alpha, score);
+      }
+    }
+  }
+}
@@ -0,0 +1,293 @@
+package strategy;
+
+import game.utility.PatternSet;
+import game.utility.RayTable;
+import game.utility.SearchBoard;
+
+/**
+ * Evaluator that scores a position by table lookups on the patterns of the board (corner
+ * regions and edges, see PatternSet), plus a few features: mobility (the number of valid
+ * moves), potential mobility (the empty cells next to opponent discs, where moves may open
+ * up later) and stable discs (corners, and runs of one color along an edge from a taken
+ * corner, which can never be flipped).
+ * Each pattern reads its cells as a base 3 number and adds the weight at that index of the
+ * table of its class. The board keeps those indices up to date as moves are played and
+ * taken back (see SearchBoard.usePatterns), so the evaluation doesn't allocate and costs
+ * one table read per pattern. The default tables are built from simple rules: corners are
+ * worth a lot, and discs next to an empty corner lose value because they may give the
+ * corner away.
+ * Trained weights (see PatternTrainer) replace them; they estimate the final disc
+ * difference in the same unit as a finished game, which is scored by its disc difference
+ * times GAME_OVER_WEIGHT. Weights are for black; white gets the opposite score.
+ */
+public class PatternEvaluator implements Evaluator {
+  /**
+   * The score of each disc of difference at the end of the game.
+   */
+  public static final int GAME_OVER_WEIGHT = 1000;
+  /**
+   * The default weight of each valid move more than the opponent.
+   */
+  public static final int DEFAULT_MOBILITY_WEIGHT = 4;
+  /**
+   * The default weight of each empty cell next to an opponent disc, more than the opponent.
+   */
+  public static final int DEFAULT_POTENTIAL_MOBILITY_WEIGHT = 1;
+  /**
+   * The default weight of each stable disc more than the opponent.
+   */
+  public static final int DEFAULT_STABLE_WEIGHT = 8;
+
+  // weights of the default tables
+  private static final int CORNER_WEIGHT = 25;
+  private static final int NEXT_TO_EMPTY_CORNER_WEIGHT = -6;
+  private static final int NEXT_TO_TAKEN_CORNER_WEIGHT = 2;
+  private static final int EDGE_WEIGHT = 2;
+
+  private final int defaultMobilityWeight;
+  private final int defaultPotentialMobilityWeight;
+  private final int defaultStableWeight;
+  private final PatternWeights weights; // null to always use the default tables
+  private PatternSet patterns; // of the last board evaluated
+  private int[][][] tables; // [stage][class][index] -> weight for black
+  private int[][] featureWeights; // [stage][feature] -> weight for black
+  // features of the last scan
+  private int blackMoves;
+  private int whiteMoves;
+  private int frontier;
+  private int[] neighbours; // [cell * directions + direction] -> neighbour, -1 if none
+  private int directions;
+
+  /**
+   * Create a pattern evaluator with the default weights.
+   */
+  public PatternEvaluator() {
+    this(DEFAULT_MOBILITY_WEIGHT, DEFAULT_POTENTIAL_MOBILITY_WEIGHT, DEFAULT_STABLE_WEIGHT);
+  }
+
+  /**
+   * Create a pattern evaluator with the given feature weights and the default tables.
+   *
+   * @param mobilityWeight          - weight of each valid move, 0 to not count them.
+   * @param potentialMobilityWeight - weight of each empty cell next to an opponent disc.
+   * @param stableWeight            - weight of each stable disc.
+   */
+  public PatternEvaluator(int mobilityWeight, int potentialMobilityWeight, int stableWeight) {
+    this(mobilityWeight, potentialMobilityWeight, stableWeight, null);
+  }
+
+  /**
+   * Create a pattern evaluator with trained weights, see PatternTrainer. Boards of another
+   * type or size than the weights are for get the default weights.
+   *
+   * @param weights - the weights.
+   * @throws IllegalArgumentException if the weights are null.
+   */
+  public PatternEvaluator(PatternWeights weights) {
+    this(DEFAULT_MOBILITY_WEIGHT, DEFAULT_POTENTIAL_MOBILITY_WEIGHT, DEFAULT_STABLE_WEIGHT,
+            weights);
+    if (weights == null) {
+      throw new IllegalArgumentException("Weights cannot be null");
+    }
+  }
+
+  private PatternEvaluator(int mobilityWeight, int potentialMobilityWeight, int stableWeight,
+                           PatternWeights weights) {
+    this.defaultMobilityWeight = mobilityWeight;
+    this.defaultPotentialMobilityWeight = potentialMobilityWeight;
+    this.defaultStableWeight = stableWeight;
+    this.weights = weights;
+  }
+
+  @Override
+  public int evaluate(SearchBoard board, int color) {
+    if (scan(board)) {
+      return GAME_OVER_WEIGHT * (board.count(color) - board.count(SearchBoard.opponent(color)));
+    }
+
+    int stage = tables.length == 1 ? 0 : PatternWeights.stageOf(tables.length,
+            patterns.getRays().getCellCount(), board.count(SearchBoard.EMPTY));
+    int[][] stageTables = tables[stage];
+    int[] weights = featureWeights[stage];
+    int score = 0;
+    for (int pattern = 0; pattern < patterns.getPatternCount(); pattern++) {
+      score += stageTables[patterns.getPatternClass(pattern)][board.getPatternIndex(pattern)];
+    }
+    score += weights[0] * (blackMoves - whiteMoves) + weights[1] * frontier;
+    if (weights[2] != 0) {
+      score += weights[2] * stableDiscs(board);
+    }
+    return color == SearchBoard.BLACK ? score : -score;
+  }
+
+  /**
+   * Write the features of a position, as the trainer fits weights to them: the index of each
+   * pattern, then the mobility, potential mobility and stable discs of black minus the ones
+   * of white.
+   *
+   * @param board    - the position.
+   * @param features - receives the features, must hold the patterns of the board and 3 more.
+   * @return false if the game is over, and nothing is written.
+   */
+  boolean features(SearchBoard board, int[] features) {
+    if (scan(board)) {
+      return false;
+    }
+    int count = patterns.getPatternCount();
+    for (int pattern = 0; pattern < count; pattern++) {
+      features[pattern] = board.getPatternIndex(pattern);
+    }
+    features[count] = blackMoves - whiteMoves;
+    features[count + 1] = frontier;
+    features[count + 2] = stableDiscs(board);
+    return true;
+  }
+
+  // count the moves and the frontier of both players, return true if the game is over.
+  private boolean scan(SearchBoard board) {
+    if (patterns == null || patterns.getRays() != board.getRays()) {
+      prepare(board.getRays());
+    }
+    board.usePatterns();
+    boolean over = board.count(SearchBoard.BLACK) == 0 || board.count(SearchBoard.WHITE) == 0
+            || board.count(SearchBoard.EMPTY) == 0;
+    blackMoves = 0;
+    whiteMoves = 0;
+    frontier = 0;
+    if (!over) {
+      // one pass over the empty cells: a move must be next to an opponent disc, so the cells
+      // of the potential mobility are the only ones where moves are looked for
+      for (int index = 0, first = 0; first < neighbours.length; index++, first += directions) {
+        if (board.get(index) != SearchBoard.EMPTY) {
+          continue;
+        }
+        boolean nextToBlack = false;
+        boolean nextToWhite = false;
+        for (int i = first; i < first + directions; i++) {
+          int neighbour = neighbours[i];
+          if (neighbour >= 0) {
+            nextToBlack |= board.get(neighbour) == SearchBoard.BLACK;
+            nextToWhite |= board.get(neighbour) == SearchBoard.WHITE;
+          }
+        }
+        if (nextToWhite) {
+          frontier++;
+          if (board.isValidMove(index, SearchBoard.BLACK)) {
+            blackMoves++;
+          }
+        }
+        if (nextToBlack) {
+          frontier--;
+          if (board.isValidMove(index, SearchBoard.WHITE)) {
+            whiteMoves++;
+          }
+        }
+      }
+      // the player to move has no valid move: the models end the game
+      over = (board.getToMove() == SearchBoard.BLACK ? blackMoves : whiteMoves) == 0;
+    }
+    return over;
+  }
+
+  // build the tables and the neighbours of the boards of the given ray table.
+  private void prepare(RayTable rays) {
+    patterns = PatternSet.of(rays);
+    if (weights != null && weights.isFor(rays)) {
+      int stages = weights.getStageCount();
+      tables = new int[stages][][];
+      featureWeights = new int[stages][];
+      for (int stage = 0; stage < stages; stage++) {
+        tables[stage] = new int[][] {weights.getTable(stage, PatternSet.CORNER),
+            weights.getTable(stage, PatternSet.EDGE)};
+        featureWeights[stage] = weights.getFeatureWeights(stage);
+      }
+    } else {
+      tables = new int[][][] {defaultTables(patterns)};
+      featureWeights = new int[][] {{defaultMobilityWeight, defaultPotentialMobilityWeight,
+          defaultStableWeight}};
+    }
+    directions = rays.getDirections();
+    neighbours = new int[rays.getCellCount() * directions];
+    for (int index = 0; index < rays.getCellCount(); index++) {
+      for (int direction = 0; direction < directions; direction++) {
+        int[] ray = rays.ray(index, direction);
+        neighbours[index * directions + direction] = ray.length > 0 ? ray[0] : -1;
+      }
+    }
+  }
+
+  // black stable discs minus white ones: the corners, and the runs of the color of a corner
+  // along the edges that start at it.
+  private int stableDiscs(SearchBoard board) {
+    int balance = 0;
+    for (int pattern = 0; pattern < patterns.getPatternCount(); pattern++) {
+      int[] cells = patterns.cells(pattern);
+      if (patterns.getPatternClass(pattern) == PatternSet.CORNER) {
+        balance += sign(board.get(cells[0]));
+        continue;
+      }
+      int from = run(board, cells, 0, 1);
+      // a run that fills the edge would be counted from both ends
+      int to = from == cells.length - 1 ? 0 : run(board, cells, cells.length - 1, -1);
+      balance += from * sign(board.get(cells[0]))
+              + to * sign(board.get(cells[cells.length - 1]));
+    }
+    return balance;
+  }
+
+  // the discs of the color of the corner at the start that follow it along the edge.
+  private static int run(SearchBoard board, int[] cells, int start, int step) {
+    int color = board.get(cells[start]);
+    if (color == SearchBoard.EMPTY) {
+      return 0;
+    }
+    int length = 0;
+    for (int i = start + step; i >= 0 && i < cells.length && board.get(cells[i]) == color;
+         i += step) {
+      length++;
+    }
+    return length;
+  }
+
+  // 1 for black, -1 for white, 0 for empty.
+  private static int sign(int color) {
+    return color == SearchBoard.BLACK ? 1 : color == SearchBoard.WHITE ? -1 : 0;
+  }
+
+  /**
+   * Build the default weight tables of the given patterns.
+   *
+   * @param patterns - the patterns.
+   * @return the table of each pattern class, indexed by pattern index, weights for black.
+   */
+  static int[][] defaultTables(PatternSet patterns) {
+    int[][] tables = new int[2][];
+    int[] corner = new int[patterns.getTableSize(PatternSet.CORNER)];
+    for (int index = 0; index < corner.length; index++) {
+      int cornerColor = index % 3;
+      int neighbours = 0;
+      for (int rest = index / 3; rest > 0; rest /= 3) {
+        neighbours += sign(rest % 3);
+      }
+      corner[index] = CORNER_WEIGHT * sign(cornerColor) + neighbours
+              * (cornerColor == SearchBoard.EMPTY
+              ? NEXT_TO_EMPTY_CORNER_WEIGHT : NEXT_TO_TAKEN_CORNER_WEIGHT);
+    }
+    tables[PatternSet.CORNER] = corner;
+
+    int[] edge = new int[patterns.getTableSize(PatternSet.EDGE)];
+    int cells = 0;
+    for (int size = edge.length; size > 1; size /= 3) {
+      cells++;
+    }
+    for (int index = 0; index < edge.length; index++) {
+      // the corners at both ends are weighted by the corner regions
+      int rest = index / 3;
+      for (int place = 1; place < cells - 1; place++, rest /= 3) {
+        edge[index] += EDGE_WEIGHT * sign(rest % 3);
+      }
+    }
+    tables[PatternSet.EDGE] = edge;
+    return tables;
+  }
+}
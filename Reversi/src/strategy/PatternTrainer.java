@@ -0,0 +1,432 @@
+package strategy;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import game.ReversiModel;
+import game.type.BoardType;
+import game.type.HexBitboard;
+import game.type.SquareReversi;
+import game.utility.GameState;
+import game.utility.ICell;
+import game.utility.PatternSet;
+import game.utility.RayTable;
+import game.utility.SearchBoard;
+import player.HumanPlayer;
+import player.PlayerColor;
+
+/**
+ * Headless trainer of the weights of a PatternEvaluator. It plays games between the given
+ * strategies, starting each one with a few random moves so the games differ, and keeps the
+ * features of every position (see PatternEvaluator) with its label: the final disc
+ * difference of the game, or the exact one with perfect play once few enough cells are
+ * empty. Then it fits the weights so they predict the labels, by gradient descent on the
+ * squared error: each table weight moves by the mean error of the positions it appears in,
+ * and each feature weight by its least squares step. An index and its mirror (see
+ * PatternSet.mirror) share their weight, so the weights score all the images of a position
+ * the same and the searches may share entries between symmetric positions.
+ * The samples are kept in primitive arrays, and the games and the gradient are spread over
+ * the processors with parallel streams. Games are seeded one by one, so a run gives the
+ * same weights on any number of processors.
+ * Run it from the command line to write a weight file, see main.
+ */
+public final class PatternTrainer {
+  /**
+   * The empty cells from which positions are labeled by an exact solve, by default.
+   */
+  public static final int DEFAULT_SOLVE_EMPTIES = 10;
+  /**
+   * The passes over the samples of a fit, by default.
+   */
+  public static final int DEFAULT_EPOCHS = 200;
+  /**
+   * The stages the game is split in, by default.
+   */
+  public static final int DEFAULT_STAGES = 4;
+
+  // samples per task of the parallel gradient
+  private static final int CHUNK = 1 << 12;
+  // slots of the transposition table of each exact solve
+  private static final int SOLVE_TABLE_ENTRIES = 1 << 12;
+
+  private final Supplier<ReversiModel> boards;
+  private final List<Supplier<ReversiStrategy>> players;
+  private final int randomMoves;
+  private final int solveEmpties;
+  private RayTable rays;
+  private int patternCount;
+  private int width; // features of a sample: the patterns, then the single features
+  private int[] features = new int[0]; // [sample * width + feature]
+  private float[] targets = new float[0]; // [sample] -> final disc difference for black
+  private short[] empties = new short[0]; // [sample] -> empty cells
+  private int sampleCount;
+  private double trainingError;
+
+  /**
+   * Constructor for a trainer.
+   *
+   * @param boards       - makes a new model for each game, not started yet.
+   * @param players      - make the strategies of the games, each player of a game is picked
+   *                     at random among them.
+   * @param randomMoves  - the random moves at the start of each game.
+   * @param solveEmpties - positions with at most this many empty cells are labeled with
+   *                     their exact outcome, 0 to label every position with the outcome of
+   *                     its game.
+   * @throws IllegalArgumentException if there is no player or a count is negative.
+   */
+  public PatternTrainer(Supplier<ReversiModel> boards, List<Supplier<ReversiStrategy>> players,
+                        int randomMoves, int solveEmpties) {
+    if (players.isEmpty()) {
+      throw new IllegalArgumentException("There must be at least one player");
+    }
+    if (randomMoves < 0 || solveEmpties < 0) {
+      throw new IllegalArgumentException("Counts cannot be negative");
+    }
+    this.boards = boards;
+    this.players = players;
+    this.randomMoves = randomMoves;
+    this.solveEmpties = solveEmpties;
+  }
+
+  /**
+   * Get the number of positions kept so far.
+   *
+   * @return the sample count.
+   */
+  public int getSampleCount() {
+    return sampleCount;
+  }
+
+  /**
+   * Get the root mean squared error of the last fit on its samples.
+   *
+   * @return the error, in discs.
+   */
+  public double getTrainingError() {
+    return trainingError;
+  }
+
+  /**
+   * Play games and keep their positions as samples.
+   *
+   * @param games - the number of games.
+   * @param seed  - the seed of the first game, the next ones use the following seeds.
+   */
+  public void playGames(int games, long seed) {
+    List<Samples> played = IntStream.range(0, games).parallel()
+            .mapToObj(game -> play(new Random(seed + game)))
+            .collect(Collectors.toList());
+    int added = 0;
+    for (Samples game : played) {
+      added += game.count;
+    }
+    if (rays == null && !played.isEmpty()) {
+      rays = played.get(0).rays;
+      patternCount = PatternSet.of(rays).getPatternCount();
+      width = patternCount + PatternWeights.FEATURES;
+    }
+    features = Arrays.copyOf(features, (sampleCount + added) * width);
+    targets = Arrays.copyOf(targets, sampleCount + added);
+    empties = Arrays.copyOf(empties, sampleCount + added);
+    for (Samples game : played) {
+      System.arraycopy(game.features, 0, features, sampleCount * width, game.count * width);
+      System.arraycopy(game.targets, 0, targets, sampleCount, game.count);
+      System.arraycopy(game.empties, 0, empties, sampleCount, game.count);
+      sampleCount += game.count;
+    }
+  }
+
+  // play one game and return its positions.
+  private Samples play(Random random) {
+    ReversiModel model = boards.get();
+    model.setBlackPlayer(new HumanPlayer(PlayerColor.BLACK));
+    model.setWhitePlayer(new HumanPlayer(PlayerColor.WHITE));
+    model.gameStarted();
+    ReversiStrategy black = players.get(random.nextInt(players.size())).get();
+    ReversiStrategy white = players.get(random.nextInt(players.size())).get();
+    SearchBoard board = SearchBoard.from(model, GameState.BLACK_TURN);
+    RayTable gameRays = board.getRays();
+    Samples samples = new Samples(gameRays,
+            PatternSet.of(gameRays).getPatternCount() + PatternWeights.FEATURES);
+    PatternEvaluator evaluator = new PatternEvaluator();
+    TranspositionTable table = null;
+    int[] moves = new int[gameRays.getCellCount()];
+
+    // the outcome of the game is known at its end, exact labels as they are found
+    for (int ply = 0; !board.isGameOver(); ply++) {
+      if (evaluator.features(board, samples.next())) {
+        int empty = board.count(SearchBoard.EMPTY);
+        if (empty <= solveEmpties) {
+          table = table == null ? new TranspositionTable(SOLVE_TABLE_ENTRIES) : table;
+          int margin = EndgameStrategy.margin(board, table);
+          samples.add(board.getToMove() == SearchBoard.BLACK ? margin : -margin, empty);
+        } else {
+          samples.add(Float.NaN, empty);
+        }
+      }
+      int move = -1;
+      GameState player = model.getCurrentState();
+      if (ply >= randomMoves) {
+        ReversiStrategy strategy = board.getToMove() == SearchBoard.BLACK ? black : white;
+        Optional<ICell> cell = strategy.determineMove(model, player);
+        move = cell.map(c -> gameRays.indexOf(c.getQ(), c.getR())).orElse(-1);
+      }
+      if (move < 0) {
+        int count = board.generateMoves(board.getToMove(), moves);
+        move = moves[random.nextInt(count)];
+      }
+      model.makeMove(model.getCell(gameRays.getQ(move), gameRays.getR(move)));
+      board.play(move);
+    }
+    int outcome = board.count(SearchBoard.BLACK) - board.count(SearchBoard.WHITE);
+    for (int sample = 0; sample < samples.count; sample++) {
+      if (Float.isNaN(samples.targets[sample])) {
+        samples.targets[sample] = outcome;
+      }
+    }
+    return samples;
+  }
+
+  /**
+   * Fit the weights to the samples kept so far, with weights of their own for each stage of
+   * the game.
+   *
+   * @param stages - the stages to split the game in.
+   * @param epochs - the passes over the samples.
+   * @return the weights, in the unit of PatternEvaluator.GAME_OVER_WEIGHT per disc.
+   * @throws IllegalArgumentException if there is no stage.
+   * @throws IllegalStateException    if there is no sample.
+   */
+  public PatternWeights fit(int stages, int epochs) {
+    if (stages <= 0) {
+      throw new IllegalArgumentException("There must be at least one stage");
+    }
+    if (sampleCount == 0) {
+      throw new IllegalStateException("There are no samples to fit");
+    }
+    PatternSet patterns = PatternSet.of(rays);
+    Layout layout = new Layout(patterns, stages);
+    double[] weights = new double[stages * layout.stride];
+
+    // how often each table weight is used, and the squares of the features for their steps
+    double[] scale = new double[weights.length];
+    for (int sample = 0; sample < sampleCount; sample++) {
+      int base = sample * width;
+      int stage = layout.base(empties[sample]);
+      for (int pattern = 0; pattern < patternCount; pattern++) {
+        scale[stage + layout.offsets[pattern] + features[base + pattern]]++;
+      }
+      for (int feature = 0; feature < PatternWeights.FEATURES; feature++) {
+        double value = features[base + patternCount + feature];
+        scale[stage + layout.tableWeights + feature] += value * value;
+      }
+    }
+    tie(scale, patterns, layout);
+
+    int chunks = (sampleCount + CHUNK - 1) / CHUNK;
+    for (int epoch = 0; epoch < epochs; epoch++) {
+      double[] current = weights;
+      double[] gradient = IntStream.range(0, chunks).parallel()
+              .mapToObj(chunk -> gradient(current, layout, chunk))
+              .reduce(PatternTrainer::sum).get();
+      tie(gradient, patterns, layout);
+      // the features of a sample share its error, so each moves a share of it
+      for (int i = 0; i < weights.length; i++) {
+        if (scale[i] > 0) {
+          weights[i] += gradient[i] / scale[i] / width;
+        }
+      }
+    }
+    double[] last = gradient(weights, layout, -1);
+    trainingError = Math.sqrt(last[weights.length] / sampleCount);
+
+    int cornerSize = patterns.getTableSize(PatternSet.CORNER);
+    int[][] featureWeights = new int[stages][];
+    int[][][] tables = new int[stages][2][];
+    for (int stage = 0; stage < stages; stage++) {
+      int base = stage * layout.stride;
+      int featureBase = base + layout.tableWeights;
+      tables[stage][PatternSet.CORNER] = toUnits(weights, base, base + cornerSize);
+      tables[stage][PatternSet.EDGE] = toUnits(weights, base + cornerSize, featureBase);
+      featureWeights[stage] = toUnits(weights, featureBase, base + layout.stride);
+    }
+    return new PatternWeights(rays, featureWeights, tables);
+  }
+
+  /**
+   * Train weights and write them to a file. The arguments are the board type (hex or
+   * square), its size, the number of games, the weight file and optionally the epochs, as in
+   * "hex 5 20000 hex5.weights". The games are played by a 2 ply MinimaxStrategy with the
+   * default PatternEvaluator, after one random move for each 8 cells of the board. Games of
+   * MaxCaptureStrategy or CornerStrategy play too badly for their outcomes to teach much:
+   * weights trained on them lose to the default ones.
+   *
+   * @param args - the command line arguments.
+   * @throws IOException if the weight file can't be written.
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length < 4) {
+      System.out.println("Usage: PatternTrainer <hex|square> <size> <games> <file> [epochs]");
+      return;
+    }
+    BoardType boardType = args[0].equalsIgnoreCase("square")
+            ? BoardType.SQUARE : BoardType.HEXAGONAL;
+    int size = Integer.parseInt(args[1]);
+    int games = Integer.parseInt(args[2]);
+    int epochs = args.length > 4 ? Integer.parseInt(args[4]) : DEFAULT_EPOCHS;
+    Supplier<ReversiModel> boards = boardType == BoardType.SQUARE
+            ? () -> new SquareReversi(size) : () -> new HexBitboard(size);
+    List<Supplier<ReversiStrategy>> players = List.of(
+        () -> new MinimaxStrategy(2, 0, 0, null, new PatternEvaluator()));
+    int cells = RayTable.of(boardType, size).getCellCount();
+    PatternTrainer trainer = new PatternTrainer(boards, players, cells / 8,
+            DEFAULT_SOLVE_EMPTIES);
+
+    long start = System.nanoTime();
+    trainer.playGames(games, 0);
+    long played = System.nanoTime();
+    System.out.printf("%d positions from %d games in %.1f s%n", trainer.getSampleCount(),
+            games, (played - start) / 1e9);
+    PatternWeights weights = trainer.fit(DEFAULT_STAGES, epochs);
+    System.out.printf("Fit in %.1f s, error %.2f discs%n", (System.nanoTime() - played) / 1e9,
+            trainer.getTrainingError());
+    weights.write(Paths.get(args[3]));
+  }
+
+  // the sum of error times feature for each weight, over a chunk of samples or all of them
+  // for -1; the squared error follows the weights.
+  private double[] gradient(double[] weights, Layout layout, int chunk) {
+    double[] gradient = new double[weights.length + 1];
+    int[] offsets = layout.offsets;
+    int from = chunk < 0 ? 0 : chunk * CHUNK;
+    int to = chunk < 0 ? sampleCount : Math.min(sampleCount, from + CHUNK);
+    for (int sample = from; sample < to; sample++) {
+      int base = sample * width;
+      int stage = layout.base(empties[sample]);
+      int featureBase = stage + layout.tableWeights;
+      double prediction = 0;
+      for (int pattern = 0; pattern < patternCount; pattern++) {
+        prediction += weights[stage + offsets[pattern] + features[base + pattern]];
+      }
+      for (int feature = 0; feature < PatternWeights.FEATURES; feature++) {
+        prediction += weights[featureBase + feature] * features[base + patternCount + feature];
+      }
+      double error = targets[sample] - prediction;
+      for (int pattern = 0; pattern < patternCount; pattern++) {
+        gradient[stage + offsets[pattern] + features[base + pattern]] += error;
+      }
+      for (int feature = 0; feature < PatternWeights.FEATURES; feature++) {
+        gradient[featureBase + feature] += error * features[base + patternCount + feature];
+      }
+      gradient[weights.length] += error * error;
+    }
+    return gradient;
+  }
+
+  // give each table index and its mirror the sum of their values, so their weights move
+  // together and stay equal.
+  private static void tie(double[] values, PatternSet patterns, Layout layout) {
+    int cornerSize = patterns.getTableSize(PatternSet.CORNER);
+    for (int stage = 0; stage < layout.stages; stage++) {
+      for (int patternClass = PatternSet.CORNER; patternClass <= PatternSet.EDGE;
+           patternClass++) {
+        int base = stage * layout.stride + (patternClass == PatternSet.CORNER ? 0 : cornerSize);
+        for (int index = 0; index < patterns.getTableSize(patternClass); index++) {
+          int mirror = patterns.mirror(patternClass, index);
+          if (index < mirror) {
+            values[base + index] += values[base + mirror];
+            values[base + mirror] = values[base + index];
+          }
+        }
+      }
+    }
+  }
+
+  private static double[] sum(double[] a, double[] b) {
+    for (int i = 0; i < a.length; i++) {
+      a[i] += b[i];
+    }
+    return a;
+  }
+
+  // round weights in discs to the unit of the evaluator.
+  private static int[] toUnits(double[] weights, int from, int to) {
+    int[] units = new int[to - from];
+    for (int i = from; i < to; i++) {
+      units[i - from] = (int) Math.round(weights[i] * PatternEvaluator.GAME_OVER_WEIGHT);
+    }
+    return units;
+  }
+
+  // where the weights of each stage and each pattern are among the weights of a fit.
+  private static final class Layout {
+    private final int[] offsets; // [pattern] -> start of its table in a stage
+    private final int tableWeights; // weights of the tables of a stage
+    private final int stride; // weights of a stage, the tables then the features
+    private final int stages;
+    private final int cellCount;
+
+    private Layout(PatternSet patterns, int stages) {
+      int cornerSize = patterns.getTableSize(PatternSet.CORNER);
+      this.offsets = new int[patterns.getPatternCount()];
+      for (int pattern = 0; pattern < offsets.length; pattern++) {
+        offsets[pattern] = patterns.getPatternClass(pattern) == PatternSet.CORNER
+                ? 0 : cornerSize;
+      }
+      this.tableWeights = cornerSize + patterns.getTableSize(PatternSet.EDGE);
+      this.stride = tableWeights + PatternWeights.FEATURES;
+      this.stages = stages;
+      this.cellCount = patterns.getRays().getCellCount();
+    }
+
+    // the start of the weights of the stage of a position.
+    private int base(int empties) {
+      return PatternWeights.stageOf(stages, cellCount, empties) * stride;
+    }
+  }
+
+  // the positions of one game.
+  private static final class Samples {
+    private final RayTable rays;
+    private final int width;
+    private final int[] next; // the features of the next sample
+    private int[] features;
+    private float[] targets;
+    private short[] empties;
+    private int count;
+
+    private Samples(RayTable rays, int width) {
+      this.rays = rays;
+      this.width = width;
+      this.next = new int[width];
+      // a game has about one position per cell
+      this.features = new int[width * rays.getCellCount()];
+      this.targets = new float[rays.getCellCount()];
+      this.empties = new short[rays.getCellCount()];
+    }
+
+    // the buffer for the features of the next sample, kept by add.
+    private int[] next() {
+      return next;
+    }
+
+    // keep the features of the next buffer with their label.
+    private void add(float target, int empty) {
+      if (count == targets.length) {
+        targets = Arrays.copyOf(targets, count * 2);
+        empties = Arrays.copyOf(empties, count * 2);
+        features = Arrays.copyOf(features, count * 2 * width);
+      }
+      System.arraycopy(next, 0, features, count * width, width);
+      empties[count] = (short) empty;
+      targets[count++] = target;
+    }
+  }
+}
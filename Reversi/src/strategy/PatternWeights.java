@@ -0,0 +1,232 @@
+package strategy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import game.utility.PatternSet;
+import game.utility.RayTable;
+
+/**
+ * Represent the weights of a PatternEvaluator for one board type and size, as made by the
+ * PatternTrainer. The game is split in stages by the number of discs on the board, as the
+ * worth of a pattern changes from the opening to the end. Each stage has a weight table for
+ * each class of pattern and the weights of the mobility, potential mobility and stable disc
+ * features. An index and its mirror (see PatternSet.mirror) have the same weight, so the
+ * weights score all the images of a position the same.
+ * They are kept in a compact binary file: a header (MAGIC, VERSION, the cell count and
+ * directions of the board, the stage count), then for each stage the three feature weights
+ * and each table as its size and its weights, all as big endian ints. The file is
+ * memory-mapped to load it, so even big tables are read without copying the file through a
+ * stream.
+ */
+public final class PatternWeights {
+  /**
+   * The first int of a weight file.
+   */
+  public static final int MAGIC = 0x48525057; // "HRPW"
+  /**
+   * The version of the file format. Version 2 orders the cells of the corner regions along
+   * their axis of symmetry.
+   */
+  public static final int VERSION = 2;
+
+  /**
+   * The number of features with a single weight: mobility, potential mobility and stable
+   * discs, in that order.
+   */
+  public static final int FEATURES = 3;
+
+  private static final int HEADER_INTS = 5;
+
+  private final int cellCount;
+  private final int directions;
+  private final int[][] features; // [stage][feature] -> weight for black
+  private final int[][][] tables; // [stage][class][index] -> weight for black
+
+  /**
+   * Constructor for the weights of the boards of a ray table.
+   *
+   * @param rays     - the ray table of the boards.
+   * @param features - the weights of the features of each stage, see FEATURES.
+   * @param tables   - the table of each pattern class of each stage, indexed by pattern
+   *                 index, weights for black.
+   * @throws IllegalArgumentException if there is no stage, the weights don't fit the
+   *                                  patterns of the board, or an index and its mirror
+   *                                  have different weights.
+   */
+  public PatternWeights(RayTable rays, int[][] features, int[][][] tables) {
+    this(rays.getCellCount(), rays.getDirections(), features, tables);
+    if (tables.length == 0 || features.length != tables.length) {
+      throw new IllegalArgumentException("Every stage needs its features and tables");
+    }
+    PatternSet patterns = PatternSet.of(rays);
+    for (int stage = 0; stage < tables.length; stage++) {
+      if (features[stage].length != FEATURES || tables[stage].length != 2
+              || tables[stage][PatternSet.CORNER].length
+              != patterns.getTableSize(PatternSet.CORNER)
+              || tables[stage][PatternSet.EDGE].length
+              != patterns.getTableSize(PatternSet.EDGE)) {
+        throw new IllegalArgumentException("Weights don't fit the patterns of the board");
+      }
+      for (int patternClass = PatternSet.CORNER; patternClass <= PatternSet.EDGE;
+           patternClass++) {
+        int[] table = tables[stage][patternClass];
+        for (int index = 0; index < table.length; index++) {
+          if (table[index] != table[patterns.mirror(patternClass, index)]) {
+            throw new IllegalArgumentException("Weights of mirrored patterns differ");
+          }
+        }
+      }
+    }
+  }
+
+  private PatternWeights(int cellCount, int directions, int[][] features, int[][][] tables) {
+    this.cellCount = cellCount;
+    this.directions = directions;
+    this.features = features;
+    this.tables = tables;
+  }
+
+  /**
+   * Get the stage of a position, from 0 at the start of the game to stages - 1 at its end.
+   *
+   * @param stages    - the number of stages.
+   * @param cellCount - the cells of the board.
+   * @param empties   - the empty cells of the position.
+   * @return the stage.
+   */
+  public static int stageOf(int stages, int cellCount, int empties) {
+    return (cellCount - empties) * stages / (cellCount + 1);
+  }
+
+  /**
+   * Load weights from a file written by write.
+   *
+   * @param file - the weight file.
+   * @return the weights.
+   * @throws IOException if the file can't be read or is not a weight file.
+   */
+  public static PatternWeights load(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      if (buffer.remaining() < HEADER_INTS * Integer.BYTES || buffer.getInt() != MAGIC) {
+        throw new IOException("Not a pattern weight file: " + file);
+      }
+      if (buffer.getInt() != VERSION) {
+        throw new IOException("Unknown version of pattern weight file: " + file);
+      }
+      int cellCount = buffer.getInt();
+      int directions = buffer.getInt();
+      int stages = buffer.getInt();
+      if (stages <= 0) {
+        throw new IOException("Not a pattern weight file: " + file);
+      }
+      int[][] features = new int[stages][];
+      int[][][] tables = new int[stages][2][];
+      for (int stage = 0; stage < stages; stage++) {
+        features[stage] = read(buffer, FEATURES, file);
+        for (int patternClass = 0; patternClass < 2; patternClass++) {
+          tables[stage][patternClass] = read(buffer, read(buffer, 1, file)[0], file);
+        }
+      }
+      return new PatternWeights(cellCount, directions, features, tables);
+    }
+  }
+
+  // read ints from the buffer.
+  private static int[] read(ByteBuffer buffer, int count, Path file) throws IOException {
+    if (count < 0 || buffer.remaining() < (long) count * Integer.BYTES) {
+      throw new IOException("Truncated pattern weight file: " + file);
+    }
+    int[] ints = new int[count];
+    buffer.asIntBuffer().get(ints);
+    buffer.position(buffer.position() + count * Integer.BYTES);
+    return ints;
+  }
+
+  /**
+   * Write the weights to a file, replacing it if it exists.
+   *
+   * @param file - the weight file.
+   * @throws IOException if the file can't be written.
+   */
+  public void write(Path file) throws IOException {
+    int ints = HEADER_INTS;
+    for (int stage = 0; stage < tables.length; stage++) {
+      ints += FEATURES;
+      for (int[] table : tables[stage]) {
+        ints += 1 + table.length;
+      }
+    }
+    ByteBuffer buffer = ByteBuffer.allocate(ints * Integer.BYTES);
+    buffer.putInt(MAGIC).putInt(VERSION).putInt(cellCount).putInt(directions)
+            .putInt(tables.length);
+    for (int stage = 0; stage < tables.length; stage++) {
+      for (int weight : features[stage]) {
+        buffer.putInt(weight);
+      }
+      for (int[] table : tables[stage]) {
+        buffer.putInt(table.length);
+        buffer.asIntBuffer().put(table);
+        buffer.position(buffer.position() + table.length * Integer.BYTES);
+      }
+    }
+    Files.write(file, buffer.array());
+  }
+
+  /**
+   * Check if the weights are for the boards of the given ray table.
+   *
+   * @param rays - the ray table.
+   * @return true if the tables fit the patterns of its boards.
+   */
+  public boolean isFor(RayTable rays) {
+    if (rays.getCellCount() != cellCount || rays.getDirections() != directions) {
+      return false;
+    }
+    PatternSet patterns = PatternSet.of(rays);
+    for (int[][] stage : tables) {
+      if (stage[PatternSet.CORNER].length != patterns.getTableSize(PatternSet.CORNER)
+              || stage[PatternSet.EDGE].length != patterns.getTableSize(PatternSet.EDGE)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Get the number of stages of the game the weights are split in.
+   *
+   * @return the stage count.
+   */
+  public int getStageCount() {
+    return tables.length;
+  }
+
+  /**
+   * Get the weights of the features of a stage. The array is shared and must not be changed.
+   *
+   * @param stage - the stage.
+   * @return the weights of mobility, potential mobility and stable discs, for black.
+   */
+  public int[] getFeatureWeights(int stage) {
+    return features[stage];
+  }
+
+  /**
+   * Get the weight table of a pattern class in a stage. The array is shared and must not be
+   * changed.
+   *
+   * @param stage        - the stage.
+   * @param patternClass - PatternSet.CORNER or PatternSet.EDGE.
+   * @return the weights for black, indexed by pattern index.
+   */
+  public int[] getTable(int stage, int patternClass) {
+    return tables[stage][patternClass];
+  }
+}
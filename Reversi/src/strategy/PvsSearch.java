@@ -0,0 +1,243 @@
+package strategy;
+
+import game.utility.SearchBoard;
+
+/**
+ * Represent the principal variation search of one position, shared by PvsStrategy, which
+ * only needs the best move, and MoveRanker, which needs the scores of the best moves. The
+ * first move of a position is searched with the full window, the others with a null window
+ * first, and again with the full window only when they beat the first.
+ * Results go to a transposition table when there is one, keyed by the canonical hash of the
+ * board, so symmetric positions share their entries once the board uses its symmetries.
+ * The search stops when its deadline passes or its thread is interrupted; it looks at both
+ * every 1024 nodes, and then returns 0 from every position without storing anything.
+ */
+final class PvsSearch {
+  /**
+   * A score beyond any evaluation.
+   */
+  static final int INFINITY = 1 << 20;
+  // nodes searched between two looks at the clock, minus one
+  private static final int CLOCK_INTERVAL = 1023;
+
+  private final SearchBoard board;
+  private final long deadline; // System.nanoTime() to stop at, 0 for no limit
+  private final TranspositionTable table; // may be null
+  private final MoveOrdering ordering; // may be null
+  private final Evaluator evaluator;
+  private final int[][] moves; // one move buffer per ply
+  private int rootMove = -1; // the best move of the last root search
+  private long nodes;
+  private long researches;
+  private boolean aborted;
+
+  /**
+   * Create a search of the position of a board.
+   *
+   * @param board     - the board to search, owned by this search.
+   * @param maxDepth  - the deepest ply the search will reach.
+   * @param deadline  - System.nanoTime() to stop at, 0 for no limit.
+   * @param table     - the table of searched positions, null to search without one.
+   * @param ordering  - the ordering of the moves, null to try them in board order.
+   * @param evaluator - the evaluation of the positions where the search stops.
+   */
+  PvsSearch(SearchBoard board, int maxDepth, long deadline, TranspositionTable table,
+            MoveOrdering ordering, Evaluator evaluator) {
+    this.board = board;
+    this.deadline = deadline;
+    this.table = table;
+    this.ordering = ordering;
+    this.evaluator = evaluator;
+    this.moves = new int[maxDepth + 1][board.getRays().getCellCount()];
+  }
+
+  /**
+   * Get the number of positions searched so far.
+   *
+   * @return the node count.
+   */
+  long getNodes() {
+    return nodes;
+  }
+
+  /**
+   * Get the number of null window tests that failed so far, so their position was searched
+   * again with the full window, and of the re-searches counted with countResearch.
+   *
+   * @return the re-search count.
+   */
+  long getResearches() {
+    return researches;
+  }
+
+  /**
+   * Count a search of the root done again with a wider window.
+   */
+  void countResearch() {
+    researches++;
+  }
+
+  /**
+   * Check if the search has stopped before it finished.
+   *
+   * @return true if the deadline passed or the thread was interrupted.
+   */
+  boolean isAborted() {
+    return aborted;
+  }
+
+  /**
+   * Get the best move found by the last root search whose score was inside its window.
+   *
+   * @return the index of the move, -1 if there is none yet.
+   */
+  int getRootMove() {
+    return rootMove;
+  }
+
+  /**
+   * Get the first valid move of the player to move, for when not even one ply finishes.
+   *
+   * @return the index of the move.
+   */
+  int firstMove() {
+    board.generateMoves(board.getToMove(), moves[0]);
+    return moves[0][0];
+  }
+
+  /**
+   * Search the position of the board as the root of the tree. The best move of the last
+   * root search is tried first, it is the most likely to stay the best.
+   *
+   * @param depth - the plies to search.
+   * @param alpha - the lower end of the window.
+   * @param beta  - the upper end of the window.
+   * @return the score for the player to move, a bound if it is outside the window. The best
+   *         move is kept for getRootMove when the score is inside the window.
+   */
+  int root(int depth, int alpha, int beta) {
+    int[] buffer = moves[0];
+    int count = board.generateMoves(board.getToMove(), buffer);
+    boolean first = rootMove >= 0 && MoveOrdering.moveToFront(buffer, count, rootMove);
+    if (ordering != null) {
+      ordering.order(board, buffer, first ? 1 : 0, count, 0, depth);
+    }
+    int bestScore = -INFINITY;
+    int low = alpha;
+    for (int i = 0; i < count; i++) {
+      int score = searchMove(buffer[i], i == 0, depth, 1, low, beta);
+      if (aborted) {
+        return 0;
+      }
+      if (score > bestScore) {
+        bestScore = score;
+        if (score > low) {
+          rootMove = buffer[i];
+          low = score;
+        }
+        if (score >= beta) {
+          break;
+        }
+      }
+    }
+    if (table != null && bestScore > alpha && bestScore < beta) {
+      table.store(board.getCanonicalHash(), depth, bestScore, TranspositionTable.EXACT,
+              board.toCanonical(rootMove));
+    }
+    return bestScore;
+  }
+
+  /**
+   * Search a move of the position of the board: the first move of a position with the
+   * window, the others with a null window first.
+   *
+   * @param move      - the index of the move, valid for the player to move.
+   * @param firstMove - true to search the move with the window at once.
+   * @param depth     - the plies to search, the move included.
+   * @param ply       - the plies made since the root after the move, which picks the move
+   *                  buffer.
+   * @param alpha     - the lower end of the window.
+   * @param beta      - the upper end of the window.
+   * @return the score for the player who makes the move, a bound if it is outside the window.
+   */
+  int searchMove(int move, boolean firstMove, int depth, int ply, int alpha, int beta) {
+    board.play(move);
+    int score;
+    if (firstMove) {
+      score = -pvs(depth - 1, ply, -beta, -alpha);
+    } else {
+      score = -pvs(depth - 1, ply, -alpha - 1, -alpha);
+      if (score > alpha && score < beta && !aborted) {
+        researches++;
+        score = -pvs(depth - 1, ply, -beta, -alpha);
+      }
+    }
+    board.undo();
+    return score;
+  }
+
+  // principal variation search of the position of the board.
+  // return the score for the player to move, a bound if it is outside the window.
+  private int pvs(int depth, int ply, int alpha, int beta) {
+    if ((++nodes & CLOCK_INTERVAL) == 0 && (deadline != 0 && System.nanoTime() - deadline > 0
+            || Thread.currentThread().isInterrupted())) {
+      aborted = true;
+    }
+    if (aborted) {
+      return 0;
+    }
+    if (depth == 0 || board.isGameOver()) {
+      return evaluator.evaluate(board, board.getToMove());
+    }
+    long key = board.getCanonicalHash();
+    int hashMove = -1;
+    if (table != null) {
+      int slot = table.probe(key);
+      if (slot >= 0) {
+        hashMove = board.fromCanonical(table.getMove(slot));
+        int stored = table.getScore(slot);
+        int bound = table.getBound(slot);
+        if (table.getDepth(slot) >= depth && (bound == TranspositionTable.EXACT
+                || bound == TranspositionTable.LOWER && stored >= beta
+                || bound == TranspositionTable.UPPER && stored <= alpha)) {
+          return stored;
+        }
+      }
+    }
+
+    int[] buffer = moves[ply];
+    int count = board.generateMoves(board.getToMove(), buffer);
+    boolean first = hashMove >= 0 && MoveOrdering.moveToFront(buffer, count, hashMove);
+    if (ordering != null) {
+      ordering.order(board, buffer, first ? 1 : 0, count, ply, depth);
+    }
+    int bestScore = -INFINITY;
+    int bestMove = -1;
+    int low = alpha;
+    for (int i = 0; i < count; i++) {
+      int score = searchMove(buffer[i], i == 0, depth, ply + 1, low, beta);
+      if (aborted) {
+        return 0;
+      }
+      if (score > bestScore) {
+        bestScore = score;
+        bestMove = buffer[i];
+        if (score > low) {
+          low = score;
+        }
+        if (score >= beta) {
+          if (ordering != null) {
+            ordering.cutoff(buffer[i], ply, depth);
+          }
+          break;
+        }
+      }
+    }
+    if (table != null) {
+      int bound = bestScore <= alpha ? TranspositionTable.UPPER
+              : bestScore >= beta ? TranspositionTable.LOWER : TranspositionTable.EXACT;
+      table.store(key, depth, bestScore, bound, board.toCanonical(bestMove));
+    }
+    return bestScore;
+  }
+}
@@ -0,0 +1,158 @@
+package strategy;
+
+import java.util.Optional;
+
+import game.utility.GameState;
+import game.utility.ICell;
+import game.utility.RayTable;
+import game.utility.SearchBoard;
+import game.ReadonlyReversiModel;
+
+/**
+ * Strategy that searches with principal variation search (also known as NegaScout) on
+ * integer scores. Once the first move of a position is searched with the full window, the
+ * other moves are only searched with a null window, which just tells whether they are
+ * better than the first; a move is searched again with the full window only when it is.
+ * With good move ordering most of those tests fail, and they cut much more than full windows.
+ * The search deepens one ply at a time, and each search starts with an aspiration window
+ * around the score of the previous one, widened when the score falls outside of it.
+ * Positions where the search stops are scored by an Evaluator, the disc difference by
+ * default as for MinimaxStrategy, so both find moves of the same value at the same depth.
+ * The search itself is a PvsSearch, which the strong hints share, see MoveRanker.
+ */
+public class PvsStrategy implements ReversiStrategy {
+  // half the width of the first aspiration window, in discs
+  private static final int ASPIRATION_WINDOW = 4;
+  private static final int INFINITY = PvsSearch.INFINITY;
+
+  private final int depth;
+  private final long timeLimitMillis; // 0 for a search of fixed depth
+  private final TranspositionTable table; // null to search without one
+  private final MoveOrdering ordering; // null to keep the moves in board order
+  private final Evaluator evaluator;
+  private long nodeCount; // nodes searched for the last move
+  private long researchCount; // searches done again with a wider window for the last move
+
+  /**
+   * Constructor for a PVS strategy of fixed depth, without a table or move ordering.
+   *
+   * @param depth - how deep to search.
+   */
+  public PvsStrategy(int depth) {
+    this(depth, 0, 0, null);
+  }
+
+  /**
+   * Constructor for a PVS strategy.
+   *
+   * @param depth           - the deepest search to try.
+   * @param timeLimitMillis - the time a move may take in milliseconds, 0 to always search
+   *                        the full depth.
+   * @param tableEntries    - slots of the transposition table, rounded down to a power of
+   *                        two, 0 for no table.
+   * @param ordering        - the ordering of the moves, null to try them in board order.
+   * @throws IllegalArgumentException if the time limit or the table size is negative.
+   */
+  public PvsStrategy(int depth, long timeLimitMillis, int tableEntries, MoveOrdering ordering) {
+    this(depth, timeLimitMillis, tableEntries, ordering, null);
+  }
+
+  /**
+   * Constructor for a PVS strategy with its own evaluation.
+   *
+   * @param depth           - the deepest search to try.
+   * @param timeLimitMillis - the time a move may take in milliseconds, 0 to always search
+   *                        the full depth.
+   * @param tableEntries    - slots of the transposition table, rounded down to a power of
+   *                        two, 0 for no table.
+   * @param ordering        - the ordering of the moves, null to try them in board order.
+   * @param evaluator       - the evaluation of the positions where the search stops, null
+   *                        for the disc difference.
+   * @throws IllegalArgumentException if the time limit or the table size is negative.
+   */
+  public PvsStrategy(int depth, long timeLimitMillis, int tableEntries, MoveOrdering ordering,
+                     Evaluator evaluator) {
+    if (timeLimitMillis < 0) {
+      throw new IllegalArgumentException("Time limit cannot be negative");
+    }
+    if (tableEntries < 0) {
+      throw new IllegalArgumentException("Table size cannot be negative");
+    }
+    this.depth = depth;
+    this.timeLimitMillis = timeLimitMillis;
+    this.table = tableEntries == 0 ? null : new TranspositionTable(tableEntries);
+    this.ordering = ordering;
+    this.evaluator = evaluator == null ? new DiscDifferenceEvaluator() : evaluator;
+  }
+
+  /**
+   * Get the number of positions searched for the last move, to compare settings.
+   *
+   * @return the node count.
+   */
+  public long getNodeCount() {
+    return nodeCount;
+  }
+
+  /**
+   * Get the number of null window tests and aspiration windows that failed for the last
+   * move, so their position was searched again with a wider window.
+   *
+   * @return the re-search count.
+   */
+  public long getResearchCount() {
+    return researchCount;
+  }
+
+  @Override
+  public Optional<ICell> determineMove(ReadonlyReversiModel model, GameState player) {
+    long start = System.nanoTime();
+    SearchBoard board = SearchBoard.from(model, player);
+    if (depth <= 0 || board.isGameOver()) {
+      return Optional.empty();
+    }
+    int maxDepth = board.limitDepth(depth);
+    if (table != null) {
+      table.newSearch();
+      // symmetric positions share their entries
+      board.useSymmetries();
+    }
+    if (ordering != null) {
+      ordering.newSearch(board.getRays(), maxDepth);
+    }
+    PvsSearch search = new PvsSearch(board, maxDepth,
+            timeLimitMillis == 0 ? 0 : start + timeLimitMillis * 1_000_000L, table, ordering,
+            evaluator);
+
+    int bestMove = search.firstMove(); // in case not even one ply finishes in time
+    int score = 0;
+    for (int iteration = 1; iteration <= maxDepth && !search.isAborted(); iteration++) {
+      int delta = ASPIRATION_WINDOW;
+      int alpha = iteration == 1 ? -INFINITY : score - delta;
+      int beta = iteration == 1 ? INFINITY : score + delta;
+      while (true) {
+        int value = search.root(iteration, alpha, beta);
+        if (search.isAborted()) {
+          break;
+        }
+        if (value <= alpha) {
+          delta *= 2;
+          alpha = Math.max(value - delta, -INFINITY);
+          search.countResearch();
+        } else if (value >= beta) {
+          delta *= 2;
+          beta = Math.min(value + delta, INFINITY);
+          search.countResearch();
+        } else {
+          score = value;
+          bestMove = search.getRootMove();
+          break;
+        }
+      }
+    }
+    nodeCount = search.getNodes();
+    researchCount = search.getResearches();
+    RayTable rays = board.getRays();
+    return Optional.of(model.getCell(rays.getQ(bestMove), rays.getR(bestMove)));
+  }
+}
@@ -0,0 +1,21 @@
+package strategy;
+
+import java.util.Optional;
+
+import game.utility.ICell;
+
+/**
+ * Represent a strategy that picks its move from the scored moves of the position, as filled
+ * in by ReadonlyReversiModel.scoreMoves. A CombinedStrategy scores the moves once and hands
+ * the same MoveContext to each of its stages, and the strategy only chooses among the
+ * candidates the filters before it kept.
+ */
+public interface ScoredMoveStrategy extends ReversiStrategy {
+  /**
+   * Determine the best move among the candidate moves of a position.
+   *
+   * @param context - the moves of the position, with their captures and flips.
+   * @return the best move for the player to move.
+   */
+  Optional<ICell> determineMove(MoveContext context);
+}
@@ -0,0 +1,195 @@
+package strategy;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import game.utility.SearchBoard;
+
+/**
+ * Represent the search of one thread of a multi-threaded strategy: a negamax alpha-beta
+ * search on its own SearchBoard. The threads share nothing but a lock-free transposition
+ * table, so they never wait on each other. Scores are the disc difference for the player to
+ * move, which is the score of MinimaxStrategy seen from that player.
+ * A search stops when its deadline passes or another thread raises the shared stop flag; it
+ * looks at both every 1024 nodes, and stores nothing in the table once it has stopped.
+ */
+final class SharedSearch {
+  /**
+   * A score beyond any disc difference.
+   */
+  static final int INFINITY = 1 << 20;
+  // nodes searched between two looks at the clock and the stop flag, minus one
+  private static final int CLOCK_INTERVAL = 1023;
+
+  private final SearchBoard board;
+  private final SharedTranspositionTable table;
+  private final AtomicBoolean stop;
+  private final long deadline; // System.nanoTime() to stop at, 0 for no limit
+  private final int rotation; // how far the moves after the hash move are rotated
+  private final int[][] moves; // one move buffer per ply
+  private long nodes;
+  private boolean stopped;
+  private int rootMove = -1;
+
+  /**
+   * Create a search on the given board, which searches until it is done.
+   *
+   * @param board    - the board to search, owned by this search.
+   * @param maxDepth - the deepest ply the search will reach.
+   * @param table    - the table shared with the other threads.
+   */
+  SharedSearch(SearchBoard board, int maxDepth, SharedTranspositionTable table) {
+    this(board, maxDepth, table, new AtomicBoolean(), 0, 0);
+  }
+
+  /**
+   * Create a search on the given board that can be stopped.
+   *
+   * @param board    - the board to search, owned by this search.
+   * @param maxDepth - the deepest ply the search will reach.
+   * @param table    - the table shared with the other threads.
+   * @param stop     - the flag that stops the searches of all the threads.
+   * @param deadline - System.nanoTime() to stop at, 0 for no limit. The search raises the
+   *                 stop flag when it passes.
+   * @param rotation - how far to rotate the moves after the hash move in every position, so
+   *                 threads searching the same position start with different moves.
+   */
+  SharedSearch(SearchBoard board, int maxDepth, SharedTranspositionTable table,
+               AtomicBoolean stop, long deadline, int rotation) {
+    this.board = board;
+    board.useSymmetries(); // symmetric positions share their entries
+    this.table = table;
+    this.stop = stop;
+    this.deadline = deadline;
+    this.rotation = rotation;
+    this.moves = new int[maxDepth + 1][board.getRays().getCellCount()];
+  }
+
+  /**
+   * Get the board of this search.
+   *
+   * @return the board.
+   */
+  SearchBoard getBoard() {
+    return board;
+  }
+
+  /**
+   * Get the number of positions searched so far.
+   *
+   * @return the node count.
+   */
+  long getNodes() {
+    return nodes;
+  }
+
+  /**
+   * Check if the search has stopped before it finished.
+   *
+   * @return true if the search was stopped.
+   */
+  boolean isStopped() {
+    return stopped;
+  }
+
+  /**
+   * Search the position of the board to the given depth, as the root of the tree.
+   *
+   * @param depth - the plies to search.
+   * @return the best move, or -1 if the search was stopped before it finished.
+   */
+  int root(int depth) {
+    search(depth, 0, -INFINITY, INFINITY);
+    return stopped ? -1 : rootMove;
+  }
+
+  /**
+   * Search the position of the board to the given depth.
+   *
+   * @param depth - the plies left to search.
+   * @param ply   - the plies made since the root, which picks the move buffer.
+   * @param alpha - the score the player to move already has elsewhere.
+   * @param beta  - the score the opponent already has elsewhere, negated.
+   * @return the score for the player to move, a bound if it is outside the window.
+   */
+  int search(int depth, int ply, int alpha, int beta) {
+    if ((++nodes & CLOCK_INTERVAL) == 0 && (stop.get()
+            || deadline != 0 && System.nanoTime() - deadline > 0)) {
+      stop.set(true);
+      stopped = true;
+    }
+    if (stopped) {
+      return 0;
+    }
+    if (depth == 0 || board.isGameOver()) {
+      return evaluate();
+    }
+    long key = board.getCanonicalHash();
+    int hashMove = -1;
+    long entry = table.probe(key);
+    if (entry != SharedTranspositionTable.MISS) {
+      hashMove = board.fromCanonical(SharedTranspositionTable.moveOf(entry));
+      int stored = SharedTranspositionTable.scoreOf(entry);
+      int bound = SharedTranspositionTable.boundOf(entry);
+      // the root needs a move, not only a score
+      if (ply > 0 && SharedTranspositionTable.depthOf(entry) >= depth
+              && (bound == TranspositionTable.EXACT
+              || bound == TranspositionTable.LOWER && stored >= beta
+              || bound == TranspositionTable.UPPER && stored <= alpha)) {
+        return stored;
+      }
+    }
+
+    int[] buffer = moves[ply];
+    int count = board.generateMoves(board.getToMove(), buffer);
+    int first = hashMove >= 0 && MoveOrdering.moveToFront(buffer, count, hashMove) ? 1 : 0;
+    if (rotation != 0 && count - first > 1) {
+      rotate(buffer, first, count, rotation % (count - first));
+    }
+    int bestScore = -INFINITY;
+    int bestMove = -1;
+    int low = alpha;
+    for (int i = 0; i < count && low < beta; i++) {
+      board.play(buffer[i]);
+      int score = -search(depth - 1, ply + 1, -beta, -low);
+      board.undo();
+      if (stopped) {
+        return 0;
+      }
+      if (score > bestScore) {
+        bestScore = score;
+        bestMove = buffer[i];
+        low = Math.max(low, score);
+      }
+    }
+    int bound = bestScore <= alpha ? TranspositionTable.UPPER
+            : bestScore >= beta ? TranspositionTable.LOWER : TranspositionTable.EXACT;
+    table.store(key, depth, bestScore, bound, board.toCanonical(bestMove));
+    if (ply == 0) {
+      rootMove = bestMove;
+    }
+    return bestScore;
+  }
+
+  // rotate the moves of the buffer from the given place to the count left by the distance.
+  // it reverses both parts and then the whole, so it needs no other array.
+  private static void rotate(int[] buffer, int from, int count, int distance) {
+    reverse(buffer, from, from + distance);
+    reverse(buffer, from + distance, count);
+    reverse(buffer, from, count);
+  }
+
+  // reverse the moves of the buffer from the given place to the end, excluded.
+  private static void reverse(int[] buffer, int from, int end) {
+    for (int i = from, j = end - 1; i < j; i++, j--) {
+      int move = buffer[i];
+      buffer[i] = buffer[j];
+      buffer[j] = move;
+    }
+  }
+
+  // disc difference for the player to move.
+  private int evaluate() {
+    int toMove = board.getToMove();
+    return board.count(toMove) - board.count(SearchBoard.opponent(toMove));
+  }
+}
@@ -0,0 +1,148 @@
+package strategy;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Represent a transposition table shared by searches running on several threads at once,
+ * without locks. Each slot is two words: the entry (depth, bound, score, best move and age
+ * packed in a long) and the key XOR the entry. A reader takes both words and only trusts
+ * the entry if XORing them gives back the key it looks for, so an entry torn by two threads
+ * writing the same slot at the same time reads as a miss instead of a wrong result.
+ * Like TranspositionTable, it has a power of two number of slots, keeps the deeper result
+ * of the current search in a slot, and replaces results of older searches first. Scores are
+ * stored from the side of the player to move in the position.
+ */
+public final class SharedTranspositionTable {
+  /**
+   * What probe returns when the position is not in the table.
+   */
+  public static final long MISS = 0L;
+
+  // entry layout: score in the low 32 bits, then move + 1, depth + 1, bound and age.
+  private static final int MOVE_SHIFT = 32;
+  private static final int DEPTH_SHIFT = 48;
+  private static final int BOUND_SHIFT = 58;
+  private static final int AGE_SHIFT = 60;
+  private static final int MAX_DEPTH = 1022;
+
+  private final int mask;
+  private final AtomicLongArray checks; // key ^ entry
+  private final AtomicLongArray entries;
+  private volatile int age;
+
+  /**
+   * Create an empty table.
+   *
+   * @param entries - the number of slots wanted, rounded down to a power of two.
+   * @throws IllegalArgumentException if entries is zero or negative.
+   */
+  public SharedTranspositionTable(int entries) {
+    if (entries <= 0) {
+      throw new IllegalArgumentException("A transposition table needs at least one entry");
+    }
+    int capacity = Integer.highestOneBit(entries);
+    this.mask = capacity - 1;
+    this.checks = new AtomicLongArray(capacity);
+    this.entries = new AtomicLongArray(capacity);
+  }
+
+  /**
+   * Get the number of slots of the table.
+   *
+   * @return the capacity.
+   */
+  public int getCapacity() {
+    return mask + 1;
+  }
+
+  /**
+   * Start a new search, the results stored so far are replaced first. Call it while no
+   * search uses the table.
+   */
+  public void newSearch() {
+    age = (age + 1) & 0xF;
+  }
+
+  /**
+   * Look up the given position.
+   *
+   * @param key - the Zobrist hash of the position.
+   * @return the packed entry, read with the static methods of this class, or MISS.
+   */
+  public long probe(long key) {
+    int slot = (int) key & mask;
+    long entry = entries.getOpaque(slot);
+    long check = checks.getOpaque(slot);
+    return entry != MISS && (check ^ entry) == key ? entry : MISS;
+  }
+
+  /**
+   * Store the result of a search, unless its slot holds a deeper result of the current
+   * search for another position.
+   *
+   * @param key   - the Zobrist hash of the position.
+   * @param depth - the depth the position was searched to.
+   * @param score - the score, for the player to move in the position.
+   * @param bound - TranspositionTable.EXACT, LOWER or UPPER.
+   * @param move  - the index of the best move, -1 if there is none.
+   */
+  public void store(long key, int depth, int score, int bound, int move) {
+    int slot = (int) key & mask;
+    long old = entries.getOpaque(slot);
+    if (old != MISS && (checks.getOpaque(slot) ^ old) != key
+            && ageOf(old) == age && depthOf(old) > depth) {
+      return;
+    }
+    long entry = (score & 0xFFFFFFFFL)
+            | (long) (move + 1) << MOVE_SHIFT
+            | (long) (Math.min(depth, MAX_DEPTH) + 1) << DEPTH_SHIFT
+            | (long) bound << BOUND_SHIFT
+            | (long) age << AGE_SHIFT;
+    entries.setOpaque(slot, entry);
+    checks.setOpaque(slot, key ^ entry);
+  }
+
+  /**
+   * Get the score of an entry, for the player to move in its position.
+   *
+   * @param entry - an entry returned by probe.
+   * @return the score.
+   */
+  public static int scoreOf(long entry) {
+    return (int) entry;
+  }
+
+  /**
+   * Get the best move of an entry.
+   *
+   * @param entry - an entry returned by probe.
+   * @return the index of the move, -1 if there is none.
+   */
+  public static int moveOf(long entry) {
+    return (int) (entry >>> MOVE_SHIFT & 0xFFFF) - 1;
+  }
+
+  /**
+   * Get the depth the position of an entry was searched to.
+   *
+   * @param entry - an entry returned by probe.
+   * @return the depth.
+   */
+  public static int depthOf(long entry) {
+    return (int) (entry >>> DEPTH_SHIFT & 0x3FF) - 1;
+  }
+
+  /**
+   * Get what the score of an entry tells about the value of its position.
+   *
+   * @param entry - an entry returned by probe.
+   * @return TranspositionTable.EXACT, LOWER or UPPER.
+   */
+  public static int boundOf(long entry) {
+    return (int) (entry >>> BOUND_SHIFT & 0x3);
+  }
+
+  private static int ageOf(long entry) {
+    return (int) (entry >>> AGE_SHIFT & 0xF);
+  }
+}
@@ -0,0 +1,52 @@
+package strategy;
+
+import game.utility.SearchBoard;
+import game.utility.StableDiscs;
+
+/**
+ * Evaluator that scores a position by the difference in numbers of discs plus the
+ * difference in numbers of stable discs (see StableDiscs) times a weight. Discs that can
+ * never be flipped are part of the final score already, the others may still change hands.
+ * On a full board every disc is stable, so the score is the disc difference times the
+ * weight plus one.
+ */
+public class StabilityEvaluator implements Evaluator {
+  /**
+   * The default weight of each stable disc more than the opponent.
+   */
+  public static final int DEFAULT_STABLE_WEIGHT = 4;
+
+  private final int stableWeight;
+  private StableDiscs stableDiscs; // for the boards of the last position evaluated
+
+  /**
+   * Create a stability evaluator with the default weight.
+   */
+  public StabilityEvaluator() {
+    this(DEFAULT_STABLE_WEIGHT);
+  }
+
+  /**
+   * Create a stability evaluator with the given weight.
+   *
+   * @param stableWeight - weight of each stable disc, on top of its weight as a disc.
+   * @throws IllegalArgumentException if the weight is negative.
+   */
+  public StabilityEvaluator(int stableWeight) {
+    if (stableWeight < 0) {
+      throw new IllegalArgumentException("Stable weight cannot be negative");
+    }
+    this.stableWeight = stableWeight;
+  }
+
+  @Override
+  public int evaluate(SearchBoard board, int color) {
+    if (stableDiscs == null || !stableDiscs.isFor(board.getRays())) {
+      stableDiscs = new StableDiscs(board.getRays());
+    }
+    int opponent = SearchBoard.opponent(color);
+    stableDiscs.analyze(board);
+    return board.count(color) - board.count(opponent)
+            + stableWeight * (stableDiscs.count(color) - stableDiscs.count(opponent));
+  }
+}
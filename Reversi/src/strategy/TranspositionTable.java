@@ -0,0 +1,156 @@
+package strategy;
+
+import java.util.Arrays;
+
+/**
+ * Represent a transposition table for game tree search: results of searched positions, keyed
+ * by their Zobrist hash, so a position reached again through another order of moves is not
+ * searched again. The table has a power of two number of slots, held in parallel primitive
+ * arrays, and each hash maps to one slot.
+ * A slot keeps the deepest result of the current search. Results of an older search (an
+ * earlier move of the game) are replaced first, so the table can be kept for a whole game.
+ * Scores are stored from the side of the player to move in the position.
+ */
+public final class TranspositionTable {
+  /**
+   * The score is the exact value of the position.
+   */
+  public static final int EXACT = 0;
+  /**
+   * The value of the position is at least the score.
+   */
+  public static final int LOWER = 1;
+  /**
+   * The value of the position is at most the score.
+   */
+  public static final int UPPER = 2;
+
+  private final int mask;
+  private final long[] keys;
+  private final int[] scores;
+  private final int[] moves;
+  private final short[] depths; // -1 for an empty slot
+  private final byte[] bounds;
+  private final byte[] ages;
+  private byte age;
+
+  /**
+   * Create an empty table.
+   *
+   * @param entries - the number of slots wanted, rounded down to a power of two.
+   * @throws IllegalArgumentException if entries is zero or negative.
+   */
+  public TranspositionTable(int entries) {
+    if (entries <= 0) {
+      throw new IllegalArgumentException("A transposition table needs at least one entry");
+    }
+    int capacity = Integer.highestOneBit(entries);
+    this.mask = capacity - 1;
+    this.keys = new long[capacity];
+    this.scores = new int[capacity];
+    this.moves = new int[capacity];
+    this.depths = new short[capacity];
+    this.bounds = new byte[capacity];
+    this.ages = new byte[capacity];
+    Arrays.fill(depths, (short) -1);
+  }
+
+  /**
+   * Get the number of slots of the table.
+   *
+   * @return the capacity.
+   */
+  public int getCapacity() {
+    return keys.length;
+  }
+
+  /**
+   * Start a new search: the results stored so far can still be found, but are replaced
+   * before the ones of the new search.
+   */
+  public void newSearch() {
+    age++;
+  }
+
+  /**
+   * Forget every result.
+   */
+  public void clear() {
+    Arrays.fill(depths, (short) -1);
+  }
+
+  /**
+   * Find the slot holding the given position.
+   *
+   * @param key - the Zobrist hash of the position.
+   * @return the slot, or -1 if the position is not in the table.
+   */
+  public int probe(long key) {
+    int slot = (int) key & mask;
+    return depths[slot] >= 0 && keys[slot] == key ? slot : -1;
+  }
+
+  /**
+   * Get the depth the position of the slot was searched to.
+   *
+   * @param slot - a slot returned by probe.
+   * @return the depth.
+   */
+  public int getDepth(int slot) {
+    return depths[slot];
+  }
+
+  /**
+   * Get the score of the position of the slot, for the player to move in it.
+   *
+   * @param slot - a slot returned by probe.
+   * @return the score.
+   */
+  public int getScore(int slot) {
+    return scores[slot];
+  }
+
+  /**
+   * Get what the score of the slot tells about the value of the position.
+   *
+   * @param slot - a slot returned by probe.
+   * @return EXACT, LOWER or UPPER.
+   */
+  public int getBound(int slot) {
+    return bounds[slot];
+  }
+
+  /**
+   * Get the best move found in the position of the slot.
+   *
+   * @param slot - a slot returned by probe.
+   * @return the index of the move, -1 if there is none.
+   */
+  public int getMove(int slot) {
+    return moves[slot];
+  }
+
+  /**
+   * Store the result of a search, unless its slot holds a deeper result of the current
+   * search for another position.
+   *
+   * @param key   - the Zobrist hash of the position.
+   * @param depth - the depth the position was searched to.
+   * @param score - the score, for the player to move in the position.
+   * @param bound - EXACT, LOWER or UPPER.
+   * @param move  - the index of the best move, -1 if there is none.
+   */
+  public void store(long key, int depth, int score, int bound, int move) {
+    int slot = (int) key & mask;
+    if (depths[slot] >= 0 && keys[slot] != key && ages[slot] == age
+            && depths[slot] > depth) {
+      return;
+    }
+    keys[slot] = key;
+    scores[slot] = score;
+    moves[slot] = move;
+    depths[slot] = (short) Math.min(depth, Short.MAX_VALUE);
+    bounds[slot] = (byte) bound;
+    ages[slot] = age;
+  }
+}
@@ -5,12 +5,15 @@ import java.awt.GridLayout;
 import java.awt.Dimension;
 
 
+import java.util.function.Supplier;
+
 import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.JOptionPane;
 import controller.ViewFeatures;
 import game.ReadonlyReversiModel;
+import game.utility.RankedMoves;
 import player.PlayerColor;
 
 /**
@@ -19,6 +22,7 @@ import player.PlayerColor;
  */
 public class HexReversiView extends JFrame implements ReversiView {
   private final ReadonlyReversiModel model;
+  private final Supplier<RankedMoves> strongHints;
   private JLabel scoreLabel;
   private JLabel playerTurnLabel;
   private JLabel playerColor;
@@ -34,7 +38,20 @@ public class HexReversiView extends JFrame implements ReversiView {
    * @param model - the model of the displayed game.
    */
   public HexReversiView(ReadonlyReversiModel model, PlayerColor color) {
+    this(model, color, () -> null);
+  }
+
+  /**
+   * Constructor for a view that also shows the strong hints of the position.
+   *
+   * @param model       - the model of the displayed game.
+   * @param color       - color of the player.
+   * @param strongHints - the best moves of the position, null until they are found.
+   */
+  public HexReversiView(ReadonlyReversiModel model, PlayerColor color,
+      Supplier<RankedMoves> strongHints) {
     this.model = model;
+    this.strongHints = strongHints;
     this.color = color;
 
     this.setTitle("Hexagon Reversi game");
@@ -95,7 +112,7 @@ public class HexReversiView extends JFrame implements ReversiView {
       // Pass the controller to the panel
       panel.setController(controller);
     } else {
-      panel = new JHexReversiPanel(model, controller, color);
+      panel = new JHexReversiPanel(model, strongHints, controller, color);
       this.add(panel, BorderLayout.CENTER);
       this.pack();
     }
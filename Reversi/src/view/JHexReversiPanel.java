@@ -17,10 +17,13 @@ import java.awt.geom.Point2D;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.function.Supplier;
 
 import controller.ViewFeatures;
+import game.utility.GameState;
 import game.utility.ICell;
 import game.utility.PlayerState;
+import game.utility.RankedMoves;
 import game.ReadonlyReversiModel;
 import player.PlayerColor;
 
@@ -30,6 +33,7 @@ import player.PlayerColor;
  */
 public class JHexReversiPanel extends JPanel implements KeyListener {
   private final ReadonlyReversiModel model;
+  private final Supplier<RankedMoves> strongHints; // the best moves, null until found
   private final PlayerColor color;
 
   /**
@@ -50,11 +54,14 @@ public class JHexReversiPanel extends JPanel implements KeyListener {
   /**
    * Constructor for JHexReversiPanel.
    *
-   * @param model - the model of a reversi game.
-   * @param color - take in a color of a player.
+   * @param model       - the model of a reversi game.
+   * @param strongHints - the strong hints of the position, see HintDecorator.
+   * @param color       - take in a color of a player.
    */
-  public JHexReversiPanel(ReadonlyReversiModel model, ViewFeatures controller, PlayerColor color) {
+  public JHexReversiPanel(ReadonlyReversiModel model, Supplier<RankedMoves> strongHints,
+                          ViewFeatures controller, PlayerColor color) {
     this.color = color;
+    this.strongHints = Objects.requireNonNull(strongHints);
     this.setMinimumSize(new Dimension(500, 500));
     this.panelHeight = this.getMinimumSize().height;
     this.panelWidth = this.getMinimumSize().width;
@@ -111,6 +118,22 @@ public class JHexReversiPanel extends JPanel implements KeyListener {
   }
 
 
+  // draw the rank and score of one of the best moves on its cell.
+  private void drawRankedMove(Graphics2D g2d, Point2D.Double center, double hexSize, int rank,
+                              int score) {
+    g2d.setColor(rank == 0 ? Color.BLUE : Color.MAGENTA);
+    Font font = new Font("Arial", Font.BOLD, (int) (hexSize / 2.5));
+    g2d.setFont(font);
+
+    FontMetrics metrics = g2d.getFontMetrics(font);
+    String textToDisplay = (rank + 1) + ":" + (score > 0 ? "+" : "") + score;
+    int x = (int) (center.x - metrics.getHeight() / 2 + metrics.getAscent());
+    int y = (int) (center.y - metrics.stringWidth(textToDisplay) / 2);
+
+    // the panel draws with x and y swapped, as drawHint does
+    g2d.drawString(textToDisplay, y, x);
+  }
+
   // use to draw cell Image for each cell in the board.
   private void drawEachCellImage(int currentWidth, int currentHeight) {
     double hexSize = currentWidth / 25.0;
@@ -197,16 +220,30 @@ public class JHexReversiPanel extends JPanel implements KeyListener {
         drawCircleInsideCell(g2d, center, hexSize, circleColor);
       }
 
-      if (color == PlayerColor.BLACK && model.isBlackHintsEnabled()
-              || color == PlayerColor.WHITE && model.isWhiteHintsEnabled()) {
-        if ((selectedCell != null) && selectedCell.getPlayer().equals(PlayerState.EMPTY)) {
-          int flippableDiscs = model.getCaptureCells(selectedCell, model.getCurrentState());
-          Point2D.Double cellCenter = convertAxialToPixel(selectedCell.getQ(),
-                  selectedCell.getR(), hexSize, offsetX, offsetY);
-          drawHint(g2d, cellCenter, hexSize, flippableDiscs);
-        }
-      }
+    }
 
+    // the model caches the hints of the position, repainting does not evaluate the rules
+    if (color == PlayerColor.BLACK && model.isBlackHintsEnabled()
+            || color == PlayerColor.WHITE && model.isWhiteHintsEnabled()) {
+      if ((selectedCell != null) && selectedCell.getPlayer().equals(PlayerState.EMPTY)) {
+        int flippableDiscs = model.getHintCaptures(selectedCell.getQ(), selectedCell.getR());
+        Point2D.Double cellCenter = convertAxialToPixel(selectedCell.getQ(),
+                selectedCell.getR(), hexSize, offsetX, offsetY);
+        drawHint(g2d, cellCenter, hexSize, flippableDiscs);
+      }
+    }
+    // the strong hints are read as they are, the search runs on another thread. they are
+    // the moves of the player to move, so they only show on that player's turn
+    RankedMoves bestMoves = strongHints.get();
+    if (bestMoves != null && ((color == PlayerColor.BLACK && model.isBlackHintsEnabled()
+            && model.getCurrentState() == GameState.BLACK_TURN)
+            || (color == PlayerColor.WHITE && model.isWhiteHintsEnabled()
+            && model.getCurrentState() == GameState.WHITE_TURN))) {
+      for (int rank = 0; rank < bestMoves.size(); rank++) {
+        Point2D.Double cellCenter = convertAxialToPixel(bestMoves.getQ(rank),
+                bestMoves.getR(rank), hexSize, offsetX, offsetY);
+        drawRankedMove(g2d, cellCenter, hexSize, rank, bestMoves.getScore(rank));
+      }
     }
 
 
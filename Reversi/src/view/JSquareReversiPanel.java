@@ -21,11 +21,13 @@ import java.awt.event.MouseEvent;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.function.Supplier;
 
 import controller.ViewFeatures;
 import game.utility.GameState;
 import game.utility.ICell;
 import game.utility.PlayerState;
+import game.utility.RankedMoves;
 import game.ReadonlyReversiModel;
 import player.PlayerColor;
 
@@ -34,6 +36,7 @@ import player.PlayerColor;
  */
 public class JSquareReversiPanel extends JPanel implements KeyListener {
   private ReadonlyReversiModel model;
+  private final Supplier<RankedMoves> strongHints; // the best moves, null until found
   private ViewFeatures controller;
   private PlayerColor playerColor;
 
@@ -53,12 +56,14 @@ public class JSquareReversiPanel extends JPanel implements KeyListener {
   /**
    * Constructor for JSquareReversi.
    * @param model - a square reversi model.
+   * @param strongHints - the strong hints of the position, see HintDecorator.
    * @param controller - a controller.
    * @param color - a player color.
    */
-  public JSquareReversiPanel(ReadonlyReversiModel model, ViewFeatures controller,
-                             PlayerColor color) {
+  public JSquareReversiPanel(ReadonlyReversiModel model, Supplier<RankedMoves> strongHints,
+                             ViewFeatures controller, PlayerColor color) {
     this.model = model;
+    this.strongHints = Objects.requireNonNull(strongHints);
     this.controller = controller;
     this.playerColor = color;
     this.setMinimumSize(new Dimension(500, 500));
@@ -183,20 +188,45 @@ public class JSquareReversiPanel extends JPanel implements KeyListener {
       SquareCellImage cellImage = entry.getValue();
       cellImage.draw(g2d); // Ensure cellImage.draw() uses internal cellSize for drawing
       drawDisc(g2d, entry.getKey(), cellImage);
+    }
 
-      // Draw hints if enabled
-      if (selectedCell != null
-              && selectedCell.getPlayer() == PlayerState.EMPTY
-              && ((model.isBlackHintsEnabled()
-              && model.getCurrentState() == GameState.BLACK_TURN)
-              || (model.isWhiteHintsEnabled()
-              && model.getCurrentState() == GameState.WHITE_TURN))) {
-        int flippableDiscs = model.getCaptureCells(selectedCell, model.getCurrentState());
-        drawHint(g2d, selectedCell, cellSize, flippableDiscs);
+    // Draw hints if enabled, from the hints the model caches for the position
+    if (selectedCell != null
+            && selectedCell.getPlayer() == PlayerState.EMPTY
+            && ((model.isBlackHintsEnabled()
+            && model.getCurrentState() == GameState.BLACK_TURN)
+            || (model.isWhiteHintsEnabled()
+            && model.getCurrentState() == GameState.WHITE_TURN))) {
+      int flippableDiscs = model.getHintCaptures(selectedCell.getQ(), selectedCell.getR());
+      drawHint(g2d, selectedCell, cellSize, flippableDiscs);
+    }
+    // the strong hints are read as they are, the search runs on another thread
+    RankedMoves bestMoves = strongHints.get();
+    if (bestMoves != null && ((model.isBlackHintsEnabled()
+            && model.getCurrentState() == GameState.BLACK_TURN)
+            || (model.isWhiteHintsEnabled()
+            && model.getCurrentState() == GameState.WHITE_TURN))) {
+      for (int rank = 0; rank < bestMoves.size(); rank++) {
+        drawRankedMove(g2d, bestMoves.getQ(rank), bestMoves.getR(rank), cellSize, rank,
+                bestMoves.getScore(rank));
       }
     }
   }
 
+  // draw the rank and score of one of the best moves in the top of its cell.
+  private void drawRankedMove(Graphics2D g2d, int q, int r, int cellSize, int rank,
+                              int score) {
+    g2d.setColor(rank == 0 ? Color.BLUE : Color.MAGENTA);
+    Font font = new Font("Arial", Font.BOLD, cellSize / 4);
+    g2d.setFont(font);
+    FontMetrics metrics = g2d.getFontMetrics(font);
+
+    String text = (rank + 1) + ":" + (score > 0 ? "+" : "") + score;
+    int x = q * cellSize + (cellSize - metrics.stringWidth(text)) / 2;
+    int y = r * cellSize + metrics.getAscent();
+    g2d.drawString(text, x, y);
+  }
+
   private void drawHint(Graphics2D g2d, ICell cell, int cellSize, int flippableDiscs) {
     // Set font color and size
     g2d.setColor(Color.BLACK);
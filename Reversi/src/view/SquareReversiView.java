@@ -5,6 +5,8 @@ import java.awt.Dimension;
 import java.awt.GridLayout;
 
 
+import java.util.function.Supplier;
+
 import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
@@ -13,6 +15,7 @@ import javax.swing.JOptionPane;
 
 import controller.ViewFeatures;
 import game.ReadonlyReversiModel;
+import game.utility.RankedMoves;
 import player.PlayerColor;
 
 /**
@@ -22,6 +25,7 @@ import player.PlayerColor;
  */
 public class SquareReversiView extends JFrame implements ReversiView {
   private final ReadonlyReversiModel model;
+  private final Supplier<RankedMoves> strongHints;
   private JLabel scoreLabel;
   private JLabel playerTurnLabel;
   private JLabel playerColor;
@@ -35,7 +39,20 @@ public class SquareReversiView extends JFrame implements ReversiView {
    * @param color - color of the player.
    */
   public SquareReversiView(ReadonlyReversiModel model, PlayerColor color) {
+    this(model, color, () -> null);
+  }
+
+  /**
+   * Constructor for a view that also shows the strong hints of the position.
+   *
+   * @param model       - the model of the displayed game.
+   * @param color       - color of the player.
+   * @param strongHints - the best moves of the position, null until they are found.
+   */
+  public SquareReversiView(ReadonlyReversiModel model, PlayerColor color,
+      Supplier<RankedMoves> strongHints) {
     this.model = model;
+    this.strongHints = strongHints;
     this.color = color;
 
     this.setTitle("Square Reversi game");
@@ -100,7 +117,7 @@ public class SquareReversiView extends JFrame implements ReversiView {
       // Pass the controller to the panel
       panel.setController(controller);
     } else {
-      panel = new JSquareReversiPanel(model, controller, color);
+      panel = new JSquareReversiPanel(model, strongHints, controller, color);
       this.add(panel, BorderLayout.CENTER);
       this.pack();
     }
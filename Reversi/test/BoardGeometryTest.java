@@ -0,0 +1,148 @@
+import org.junit.Test;
+
+import java.util.Optional;
+
+import game.ReversiModel;
+import game.type.BoardType;
+import game.type.HexReversi;
+import game.utility.BoardGeometry;
+import game.utility.GameState;
+import game.utility.ICell;
+import game.utility.RayTable;
+import player.HumanPlayer;
+import player.PlayerColor;
+import strategy.AvoidCornerCellStrategy;
+import strategy.CornerStrategy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the corners, edges and corner distances of the boards.
+ */
+public class BoardGeometryTest {
+  // count the cells of a geometry that pass a check.
+  private interface CellCheck {
+    boolean test(BoardGeometry geometry, int index);
+  }
+
+  private static int count(BoardGeometry geometry, CellCheck check) {
+    int count = 0;
+    for (int index = 0; index < geometry.getRays().getCellCount(); index++) {
+      if (check.test(geometry, index)) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  @Test
+  public void testHexagonCorners() {
+    BoardGeometry geometry = BoardGeometry.of(BoardType.HEXAGONAL, 3);
+    RayTable rays = geometry.getRays();
+    assertSame(geometry, BoardGeometry.of(rays));
+    assertEquals(6, geometry.getCornerCount());
+    // in the order the strategies try them
+    int[][] corners = {{3, -3}, {3, 0}, {-3, 3}, {-3, 0}, {0, 3}, {0, -3}};
+    for (int corner = 0; corner < corners.length; corner++) {
+      int index = rays.indexOf(corners[corner][0], corners[corner][1]);
+      assertTrue(geometry.isCorner(index));
+      assertEquals(index, geometry.getCorner(corner));
+    }
+    // 18 cells on the border, two C cells and one X cell for each corner
+    assertEquals(18, count(geometry, BoardGeometry::isEdge));
+    assertEquals(12, count(geometry, BoardGeometry::isCCell));
+    assertEquals(6, count(geometry, BoardGeometry::isXCell));
+    assertTrue(geometry.isCCell(rays.indexOf(1, -3)));
+    assertTrue(geometry.isXCell(rays.indexOf(0, -2)));
+    assertFalse(geometry.isNextToCorner(rays.indexOf(1, -2)));
+    assertFalse(geometry.isNextToCorner(rays.indexOf(0, 0)));
+  }
+
+  @Test
+  public void testSquareCorners() {
+    BoardGeometry geometry = BoardGeometry.of(BoardType.SQUARE, 8);
+    RayTable rays = geometry.getRays();
+    assertEquals(4, geometry.getCornerCount());
+    assertEquals(rays.indexOf(0, 0), geometry.getCorner(0));
+    assertEquals(rays.indexOf(0, 7), geometry.getCorner(1));
+    assertEquals(rays.indexOf(7, 0), geometry.getCorner(2));
+    assertEquals(rays.indexOf(7, 7), geometry.getCorner(3));
+    assertEquals(28, count(geometry, BoardGeometry::isEdge));
+    assertEquals(8, count(geometry, BoardGeometry::isCCell));
+    assertEquals(4, count(geometry, BoardGeometry::isXCell));
+    assertTrue(geometry.isXCell(rays.indexOf(6, 1)));
+    assertTrue(geometry.isCCell(rays.indexOf(0, 6)));
+    assertEquals(0, BoardGeometry.of(BoardType.SQUARE, 1).getCornerCount());
+  }
+
+  @Test
+  public void testCornerDistances() {
+    BoardGeometry hexagon = BoardGeometry.of(BoardType.HEXAGONAL, 5);
+    RayTable rays = hexagon.getRays();
+    for (int index = 0; index < rays.getCellCount(); index++) {
+      int closest = Integer.MAX_VALUE;
+      for (int corner = 0; corner < hexagon.getCornerCount(); corner++) {
+        int dq = rays.getQ(index) - rays.getQ(hexagon.getCorner(corner));
+        int dr = rays.getR(index) - rays.getR(hexagon.getCorner(corner));
+        closest = Math.min(closest, (Math.abs(dq) + Math.abs(dr) + Math.abs(dq + dr)) / 2);
+      }
+      assertEquals(closest, hexagon.getCornerDistance(index));
+    }
+    assertEquals(5, hexagon.getCornerDistance(rays.indexOf(0, 0)));
+
+    BoardGeometry square = BoardGeometry.of(BoardType.SQUARE, 6);
+    rays = square.getRays();
+    for (int index = 0; index < rays.getCellCount(); index++) {
+      int q = Math.min(rays.getQ(index), 5 - rays.getQ(index));
+      int r = Math.min(rays.getR(index), 5 - rays.getR(index));
+      assertEquals(Math.max(q, r), square.getCornerDistance(index));
+      assertEquals(q + r, square.getAxialCornerDistance(index));
+    }
+  }
+
+  @Test
+  public void testAxialCornerDistances() {
+    BoardGeometry hexagon = BoardGeometry.of(BoardType.HEXAGONAL, 4);
+    RayTable rays = hexagon.getRays();
+    int[][] corners = {{0, -4}, {4, -4}, {-4, 0}, {4, 0}, {-4, 4}, {0, 4}};
+    for (int index = 0; index < rays.getCellCount(); index++) {
+      int closest = Integer.MAX_VALUE;
+      for (int[] corner : corners) {
+        closest = Math.min(closest, Math.abs(corner[0] - rays.getQ(index))
+                + Math.abs(corner[1] - rays.getR(index)));
+      }
+      assertEquals(closest, hexagon.getAxialCornerDistance(index));
+    }
+    // not the steps: (2, -2) is two steps from (4, -4), but its coordinates differ by 4
+    assertEquals(2, hexagon.getCornerDistance(rays.indexOf(2, -2)));
+    assertEquals(4, hexagon.getAxialCornerDistance(rays.indexOf(2, -2)));
+    assertEquals(-1, BoardGeometry.of(BoardType.SQUARE, 1).getAxialCornerDistance(0));
+  }
+
+  @Test
+  public void testStrategiesReadTheGeometry() {
+    ReversiModel game = new HexReversi(4);
+    game.setBlackPlayer(new HumanPlayer(PlayerColor.BLACK));
+    game.setWhitePlayer(new HumanPlayer(PlayerColor.WHITE));
+    game.gameStarted();
+    BoardGeometry geometry = BoardGeometry.of(BoardType.HEXAGONAL, 4);
+    RayTable rays = geometry.getRays();
+    int farthest = -1;
+    for (ICell cell : game.getLegalMoves(GameState.BLACK_TURN)) {
+      farthest = Math.max(farthest,
+              geometry.getAxialCornerDistance(rays.indexOf(cell.getQ(), cell.getR())));
+    }
+    Optional<ICell> move = new AvoidCornerCellStrategy(BoardType.HEXAGONAL)
+            .determineMove(game, GameState.BLACK_TURN);
+    assertEquals(farthest,
+            geometry.getAxialCornerDistance(rays.indexOf(move.get().getQ(),
+                    move.get().getR())));
+    // no corner to take: the first valid move
+    assertEquals(game.getLegalMoves(GameState.BLACK_TURN).get(0),
+            new CornerStrategy(BoardType.HEXAGONAL).determineMove(game, GameState.BLACK_TURN)
+                    .get());
+  }
+}
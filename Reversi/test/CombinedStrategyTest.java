@@ -1,9 +1,14 @@
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.Random;
 
+import game.ReversiModel;
 import game.type.BoardType;
+import game.type.HexReversi;
+import game.type.SquareReversi;
 import game.utility.Cell;
 import game.utility.GameState;
 import game.utility.ICell;
@@ -14,6 +19,8 @@ import strategy.CombinedStrategy;
 import strategy.CornerStrategy;
 import strategy.MaxCaptureStrategy;
 import strategy.MinimaxStrategy;
+import strategy.MoveContext;
+import strategy.MoveFilter;
 import strategy.ReversiStrategy;
 
 /**
@@ -164,5 +171,74 @@ public class CombinedStrategyTest {
     Assert.assertEquals(cell.getR(), chosenMove.get().getR());
   }
 
+  @Test
+  public void testStagesShareOneScoring() {
+    CountingModel model = new CountingModel(TestGames.started(new HexReversi(4)));
+    CombinedStrategy combined = new CombinedStrategy();
+    combined.addFilter(MoveFilter.awayFromCorners());
+    combined.addStrategy((m, player) -> Optional.empty());
+    combined.addStrategy(new AvoidCornerCellStrategy(BoardType.HEXAGONAL));
+    combined.addStrategy(new CornerStrategy(BoardType.HEXAGONAL));
+    Optional<ICell> move = combined.determineMove(model, GameState.BLACK_TURN);
+    Assert.assertTrue(move.isPresent());
+    Assert.assertEquals(1, model.getScorings());
+
+    // a strategy that finds a move before the moves are needed plays without scoring
+    CombinedStrategy first = new CombinedStrategy();
+    first.addStrategy((m, player) -> Optional.of(m.getCell(0, 0)));
+    first.addStrategy(new MaxCaptureStrategy());
+    Assert.assertEquals(Optional.of(model.getCell(0, 0)),
+            first.determineMove(model, GameState.BLACK_TURN));
+    Assert.assertEquals(1, model.getScorings());
+  }
 
+  @Test
+  public void testFiltersNarrowTheMoves() {
+    ReversiModel game = TestGames.started(new SquareReversi(8));
+    CombinedStrategy combined = new CombinedStrategy();
+    combined.addFilter(MoveFilter.corners());
+    combined.addFilter(MoveFilter.awayFromCorners());
+    combined.addStrategy(new MaxCaptureStrategy());
+    Random random = new Random(3);
+    while (!game.isGameOver()) {
+      GameState player = game.getCurrentState();
+      List<ICell> moves = game.getLegalMoves(player);
+      // a corner, else the most captures away from the corners, upper left on a tie
+      ICell best = null;
+      int bestRank = -1;
+      for (ICell cell : moves) {
+        int q = cell.getQ();
+        int r = cell.getR();
+        boolean corner = (q == 0 || q == 7) && (r == 0 || r == 7);
+        boolean nextToCorner = !corner && (q <= 1 || q >= 6) && (r <= 1 || r >= 6);
+        int rank = corner ? 1000 + game.getCaptureCells(cell, player)
+                : (nextToCorner ? 0 : 100) + game.getCaptureCells(cell, player);
+        if (rank > bestRank) {
+          best = cell;
+          bestRank = rank;
+        }
+      }
+      Assert.assertEquals(Optional.of(best), combined.determineMove(game, player));
+      game.makeMove(moves.get(random.nextInt(moves.size())));
+    }
+  }
+
+  @Test
+  public void testContextFindsTheCorners() {
+    ReversiModel game = TestGames.started(new HexReversi(3));
+    MoveContext context = new MoveContext();
+    context.reset(game, GameState.BLACK_TURN);
+    Assert.assertEquals(6, context.getCandidateCount());
+    for (int move = 0; move < context.getMoves().size(); move++) {
+      Assert.assertFalse(context.isCorner(move));
+      Assert.assertFalse(context.isNextToCorner(move));
+    }
+    // a filter that keeps nothing leaves every move
+    Assert.assertEquals(6, context.narrow(MoveFilter.corners()));
+    Assert.assertEquals(3, context.narrow((c, move) -> move % 2 == 0));
+    Assert.assertFalse(context.isCandidate(1));
+    // a new position starts with every move again
+    context.reset(game, GameState.BLACK_TURN);
+    Assert.assertTrue(context.isCandidate(1));
+  }
 }
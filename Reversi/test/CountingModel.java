@@ -0,0 +1,67 @@
+import java.util.List;
+
+import decorator.HintDecorator;
+import game.ReversiModel;
+import game.utility.GameState;
+import game.utility.ICell;
+import game.utility.MoveList;
+
+/**
+ * A decorator that counts how often the rules of the model it decorates are evaluated: the
+ * scorings of all the moves, and the checks of single moves.
+ */
+public final class CountingModel extends HintDecorator {
+  private int scorings;
+  private int evaluations;
+
+  /**
+   * Constructor for a counting model.
+   *
+   * @param model - the model to count the evaluations of.
+   */
+  public CountingModel(ReversiModel model) {
+    super(model);
+  }
+
+  /**
+   * Get the number of times all the moves were scored.
+   *
+   * @return the count.
+   */
+  public int getScorings() {
+    return scorings;
+  }
+
+  /**
+   * Get the number of times single moves were checked or the legal moves listed.
+   *
+   * @return the count.
+   */
+  public int getEvaluations() {
+    return evaluations;
+  }
+
+  @Override
+  public void scoreMoves(GameState player, MoveList into) {
+    scorings++;
+    super.scoreMoves(player, into);
+  }
+
+  @Override
+  public boolean isValidMove(ICell cell, GameState player) {
+    evaluations++;
+    return super.isValidMove(cell, player);
+  }
+
+  @Override
+  public int getCaptureCells(ICell cell, GameState player) {
+    evaluations++;
+    return super.getCaptureCells(cell, player);
+  }
+
+  @Override
+  public List<ICell> getLegalMoves(GameState player) {
+    evaluations++;
+    return super.getLegalMoves(player);
+  }
+}
@@ -0,0 +1,109 @@
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import game.type.HexReversi;
+import game.type.SquareReversi;
+import game.ReversiModel;
+import game.utility.GameState;
+import game.utility.ICell;
+import game.utility.SearchBoard;
+import strategy.EndgameStrategy;
+import strategy.MaxCaptureStrategy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the endgame solver.
+ */
+public class EndgameTest {
+  // play random moves until at most the given number of cells are empty.
+  private static void playUntil(ReversiModel game, Random random, int empties) {
+    while (!game.isGameOver()
+            && SearchBoard.from(game, game.getCurrentState()).count(SearchBoard.EMPTY) > empties) {
+      List<ICell> moves = game.getLegalMoves(game.getCurrentState());
+      ICell next = moves.get(random.nextInt(moves.size()));
+      game.makeMove(game.getCell(next.getQ(), next.getR()));
+    }
+  }
+
+  // check the solution of the position of the game against a search without pruning.
+  private static void checkSolution(ReversiModel game, EndgameStrategy solver) {
+    GameState turn = game.getCurrentState();
+    Optional<EndgameStrategy.Solution> solution = solver.solve(game, turn);
+    assertTrue(solution.isPresent());
+    SearchBoard board = SearchBoard.from(game, turn);
+    assertEquals(TestGames.value(board, Integer.MAX_VALUE), solution.get().getMargin());
+
+    ICell move = solution.get().getMove();
+    assertTrue(game.isValidMove(move, turn));
+    board.play(board.getRays().indexOf(move.getQ(), move.getR()));
+    assertEquals(solution.get().getMargin(), -TestGames.value(board, Integer.MAX_VALUE));
+  }
+
+  @Test
+  public void testExactMarginOnHexBoards() {
+    EndgameStrategy solver = new EndgameStrategy(9, new MaxCaptureStrategy(), 1 << 10);
+    for (int seed = 0; seed < 6; seed++) {
+      HexReversi game = new HexReversi(3);
+      TestGames.started(game);
+      playUntil(game, new Random(seed), 9);
+      if (!game.isGameOver()) {
+        checkSolution(game, solver);
+      }
+    }
+  }
+
+  @Test
+  public void testExactMarginOnSquareBoards() {
+    EndgameStrategy solver = new EndgameStrategy(9, new MaxCaptureStrategy());
+    for (int seed = 0; seed < 6; seed++) {
+      SquareReversi game = new SquareReversi(6);
+      TestGames.started(game);
+      playUntil(game, new Random(seed), 9);
+      if (!game.isGameOver()) {
+        checkSolution(game, solver);
+      }
+    }
+  }
+
+  @Test
+  public void testPlaysTheSolvedMarginOut() {
+    // both players follow the solver, so the game ends with the margin of the first solve
+    HexReversi game;
+    int seed = 0;
+    do {
+      game = new HexReversi(3);
+      TestGames.started(game);
+      playUntil(game, new Random(seed++), 11);
+    } while (game.isGameOver());
+    EndgameStrategy solver = new EndgameStrategy(11, new MaxCaptureStrategy());
+    boolean blackToMove = game.getCurrentState() == GameState.BLACK_TURN;
+    int margin = solver.solve(game, game.getCurrentState()).get().getMargin();
+    while (!game.isGameOver()) {
+      ICell move = solver.determineMove(game, game.getCurrentState()).get();
+      game.makeMove(game.getCell(move.getQ(), move.getR()));
+    }
+    int[] scores = game.getScores();
+    assertEquals(margin, blackToMove ? scores[0] - scores[1] : scores[1] - scores[0]);
+  }
+
+  @Test
+  public void testFallsBackAboveTheThreshold() {
+    HexReversi game = new HexReversi(3);
+    TestGames.started(game);
+    EndgameStrategy solver = new EndgameStrategy(4, new MaxCaptureStrategy());
+    assertFalse(solver.solve(game, GameState.BLACK_TURN).isPresent());
+    assertEquals(new MaxCaptureStrategy().determineMove(game, GameState.BLACK_TURN),
+            solver.determineMove(game, GameState.BLACK_TURN));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNoFallback() {
+    new EndgameStrategy(10, null);
+  }
+}
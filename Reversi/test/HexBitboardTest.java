@@ -0,0 +1,114 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import game.type.HexBitboard;
+import game.type.HexReversi;
+import game.utility.GameState;
+import game.utility.ICell;
+import game.utility.PlayerState;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the multi-word bitboard hexagon reversi model.
+ */
+public class HexBitboardTest {
+  private HexBitboard hexGame;
+
+  @Before
+  public void init() {
+    hexGame = new HexBitboard(6);
+    TestGames.started(hexGame);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInitZeroSize() {
+    new HexBitboard(0);
+  }
+
+  @Test
+  public void testInitialBoard() {
+    // 3 * 6 * 6 + 3 * 6 + 1 cells, more than a single long can hold
+    assertEquals(127, hexGame.getBoard().size());
+    assertEquals(PlayerState.EMPTY, hexGame.getCell(0, 0).getPlayer());
+    assertEquals(PlayerState.WHITE, hexGame.getCell(0, 1).getPlayer());
+    assertEquals(PlayerState.BLACK, hexGame.getCell(1, 0).getPlayer());
+    assertArrayEquals(new int[]{3, 3}, hexGame.getScores());
+    assertTrue(hexGame.cellExists(6, -6));
+    assertFalse(hexGame.cellExists(6, 1));
+  }
+
+  @Test
+  public void testMakeMoveFlips() {
+    hexGame.makeMove(hexGame.getCell(1, -2));
+    assertEquals(PlayerState.BLACK, hexGame.getCell(1, -1).getPlayer());
+    assertArrayEquals(new int[]{5, 2}, hexGame.getScores());
+    assertEquals(GameState.WHITE_TURN, hexGame.getCurrentState());
+  }
+
+  @Test
+  public void testPositionHashFollowsTheBoard() {
+    assertEquals(hexGame.getSnapshot().getHash(), hexGame.getPositionHash());
+    // a cell in a word of its own, far from the first one
+    ICell corner = hexGame.getCell(6, -6);
+    corner.setPlayer(PlayerState.WHITE);
+    assertEquals(hexGame.getSnapshot().getHash(), hexGame.getPositionHash());
+    corner.flip();
+    assertEquals(hexGame.getSnapshot().getHash(), hexGame.getPositionHash());
+    hexGame.makeMove(hexGame.getCell(1, -2));
+    assertEquals(hexGame.getSnapshot().getHash(), hexGame.getPositionHash());
+    assertEquals(hexGame.getPositionHash(), hexGame.getClone().getPositionHash());
+    corner.setPlayer(PlayerState.EMPTY);
+    assertEquals(hexGame.getSnapshot().getHash(), hexGame.getPositionHash());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMakeMoveInvalid() {
+    hexGame.makeMove(hexGame.getCell(6, -6));
+  }
+
+  @Test
+  public void testMatchesHexReversiOnRandomGames() {
+    for (int size = 1; size <= 7; size++) {
+      for (int seed = 0; seed < 3; seed++) {
+        HexReversi reference = new HexReversi(size);
+        HexBitboard fast = new HexBitboard(size);
+        TestGames.started(reference);
+        TestGames.started(fast);
+        Random random = new Random(seed);
+
+        while (!reference.isGameOver()) {
+          assertFalse(fast.isGameOver());
+          List<ICell> valid = new ArrayList<>();
+          for (ICell cell : reference.getBoard()) {
+            ICell other = fast.getCell(cell.getQ(), cell.getR());
+            assertEquals(cell.getPlayer(), other.getPlayer());
+            boolean legal = reference.isValidMove(cell, reference.getCurrentState());
+            assertEquals(legal, fast.isValidMove(other, fast.getCurrentState()));
+            if (legal) {
+              assertEquals(reference.getCaptureCells(cell, reference.getCurrentState()),
+                      fast.getCaptureCells(other, fast.getCurrentState()));
+              valid.add(cell);
+            }
+          }
+          valid.sort(Comparator.comparingInt(ICell::getR).thenComparingInt(ICell::getQ));
+          ICell move = valid.get(random.nextInt(valid.size()));
+          reference.makeMove(move);
+          fast.makeMove(fast.getCell(move.getQ(), move.getR()));
+          assertArrayEquals(reference.getScores(), fast.getScores());
+          assertEquals(reference.getPositionHash(), fast.getPositionHash());
+          assertEquals(fast.getSnapshot().getHash(), fast.getPositionHash());
+        }
+        assertTrue(fast.isGameOver());
+      }
+    }
+  }
+}
@@ -0,0 +1,155 @@
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import controller.Controller;
+import decorator.HintDecorator;
+import game.ReversiModel;
+import game.type.HexReversi;
+import game.type.SquareBitboard;
+import game.type.SquareReversi;
+import game.utility.GameState;
+import game.utility.ICell;
+import game.utility.RankedMoves;
+import player.HumanPlayer;
+import player.PlayerColor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the hints the HintDecorator caches for the views.
+ */
+public class HintDecoratorTest {
+  // check the hints of every cell against the rules of the model.
+  private static void checkHints(ReversiModel game, HintDecorator hints) {
+    GameState player = game.getCurrentState();
+    for (ICell cell : game.getBoard()) {
+      int expected = game.isValidMove(cell, player) ? game.getCaptureCells(cell, player) : 0;
+      assertEquals(expected, game.getHintCaptures(cell.getQ(), cell.getR()));
+      assertEquals(expected, hints.getHintCaptures(cell.getQ(), cell.getR()));
+    }
+  }
+
+  @Test
+  public void testHintsFollowTheGame() {
+    for (ReversiModel game : new ReversiModel[]{new HexReversi(4), new SquareReversi(6),
+        new SquareBitboard(8)}) {
+      HintDecorator hints = new HintDecorator(TestGames.started(game));
+      Random random = new Random(3);
+      while (!game.isGameOver()) {
+        checkHints(game, hints);
+        List<ICell> moves = game.getLegalMoves(game.getCurrentState());
+        // half of the moves bypass the decorator, the hash still tells the position changed
+        ReversiModel mover = random.nextBoolean() ? hints : game;
+        mover.makeMove(moves.get(random.nextInt(moves.size())));
+      }
+      assertEquals(0, hints.getHintCaptures(0, 0));
+    }
+  }
+
+  @Test
+  public void testRepaintingDoesNotEvaluateTheRules() {
+    ReversiModel game = TestGames.started(new HexReversi(5));
+    CountingModel counting = new CountingModel(game);
+    HintDecorator hints = new HintDecorator(counting);
+    for (int repaint = 0; repaint < 10; repaint++) {
+      for (ICell cell : game.getBoard()) {
+        hints.getHintCaptures(cell.getQ(), cell.getR());
+      }
+    }
+    assertEquals(1, counting.getScorings());
+    assertEquals(0, counting.getEvaluations());
+
+    hints.makeMove(game.getLegalMoves(GameState.BLACK_TURN).get(0));
+    assertEquals(1, counting.getScorings());
+    hints.getHintCaptures(0, 0);
+    hints.getHintCaptures(0, 0);
+    assertEquals(2, counting.getScorings());
+    assertEquals(0, counting.getEvaluations());
+  }
+
+  // decorate a game with a controller attached, the models only report new turns then.
+  private static HintDecorator controlled(ReversiModel game) {
+    HintDecorator hints = new HintDecorator(game);
+    new Controller(hints, new HumanPlayer(PlayerColor.BLACK),
+            new MockView(hints, new StringBuilder()));
+    return hints;
+  }
+
+  // check that strong hints are valid moves of the current position of a game.
+  private static void checkStrongHints(ReversiModel game, RankedMoves best, int count) {
+    assertEquals(count, best.size());
+    for (int rank = 0; rank < best.size(); rank++) {
+      assertTrue(game.isValidMove(game.getCell(best.getQ(rank), best.getR(rank)),
+              game.getCurrentState()));
+    }
+  }
+
+  @Test
+  public void testStrongHintsArePublished() throws InterruptedException {
+    ReversiModel game = TestGames.started(new HexReversi(4));
+    HintDecorator hints = controlled(game);
+    Semaphore published = new Semaphore(0);
+    hints.addHintListener(published::release);
+    assertNull(hints.getStrongHints());
+    hints.enableStrongHints(2, 4, 5000);
+    assertTrue(hints.isStrongHintsEnabled());
+    assertTrue(published.tryAcquire(10, TimeUnit.SECONDS));
+    checkStrongHints(game, hints.getStrongHints(), 2);
+    assertEquals(4, hints.getStrongHints().getDepth());
+
+    // the next turn is searched on its own
+    hints.makeMove(game.getCell(hints.getStrongHints().getQ(0),
+            hints.getStrongHints().getR(0)));
+    assertTrue(published.tryAcquire(10, TimeUnit.SECONDS));
+    checkStrongHints(game, hints.getStrongHints(), 2);
+
+    hints.disableStrongHints();
+    assertFalse(hints.isStrongHintsEnabled());
+    assertNull(hints.getStrongHints());
+  }
+
+  @Test
+  public void testOpeningPositionGetsStrongHints() throws InterruptedException {
+    for (ReversiModel game : new ReversiModel[]{new HexReversi(4), new SquareReversi(6)}) {
+      // no controller is attached yet, so the search has to start from the decorator
+      HintDecorator hints = new HintDecorator(game);
+      Semaphore published = new Semaphore(0);
+      hints.addHintListener(published::release);
+      hints.enableStrongHints(2, 3, 5000);
+      TestGames.started(hints);
+      assertTrue(published.tryAcquire(10, TimeUnit.SECONDS));
+      checkStrongHints(game, hints.getStrongHints(), 2);
+      hints.disableStrongHints();
+    }
+  }
+
+  @Test
+  public void testStaleStrongHintsAreDiscarded() throws InterruptedException {
+    ReversiModel game = TestGames.started(new HexReversi(7));
+    HintDecorator hints = controlled(game);
+    Semaphore published = new Semaphore(0);
+    hints.addHintListener(published::release);
+    // a deep search, still running when the moves land
+    hints.enableStrongHints(3, 60, 300);
+    Random random = new Random(4);
+    for (int move = 0; move < 3; move++) {
+      long version = hints.getPositionVersion();
+      List<ICell> moves = game.getLegalMoves(game.getCurrentState());
+      game.makeMove(moves.get(random.nextInt(moves.size())));
+      assertTrue(hints.getPositionVersion() > version);
+      assertNull(hints.getStrongHints());
+    }
+    // only the search of the last position publishes
+    assertTrue(published.tryAcquire(10, TimeUnit.SECONDS));
+    checkStrongHints(game, hints.getStrongHints(), 3);
+    assertFalse(published.tryAcquire(500, TimeUnit.MILLISECONDS));
+    hints.disableStrongHints();
+  }
+}
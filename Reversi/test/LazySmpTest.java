@@ -0,0 +1,62 @@
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import game.type.HexReversi;
+import game.utility.GameState;
+import game.utility.ICell;
+import game.utility.SearchBoard;
+import strategy.LazySmpStrategy;
+import strategy.MinimaxStrategy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the Lazy SMP strategy.
+ */
+public class LazySmpTest {
+  @Test
+  public void testSolvesLikeMinimax() {
+    // searching to the end of the game, every thread agrees on the value of the best move
+    Random random = new Random(12);
+    HexReversi game = TestGames.started(new HexReversi(2));
+    LazySmpStrategy lazySmp = new LazySmpStrategy(Integer.MAX_VALUE, 0, 4, 1 << 12);
+    for (int i = 0; i < 3; i++) {
+      List<ICell> moves = game.getLegalMoves(game.getCurrentState());
+      ICell next = moves.get(random.nextInt(moves.size()));
+      game.makeMove(game.getCell(next.getQ(), next.getR()));
+    }
+    while (!game.isGameOver()) {
+      GameState turn = game.getCurrentState();
+      ICell expected = new MinimaxStrategy(Integer.MAX_VALUE).determineMove(game, turn).get();
+      Optional<ICell> chosen = lazySmp.determineMove(game, turn);
+      assertTrue(chosen.isPresent());
+      assertTrue(game.isValidMove(chosen.get(), turn));
+      assertEquals(TestGames.valueAfter(game, expected, Integer.MAX_VALUE),
+              TestGames.valueAfter(game, chosen.get(), Integer.MAX_VALUE));
+      game.makeMove(game.getCell(chosen.get().getQ(), chosen.get().getR()));
+    }
+  }
+
+  @Test
+  public void testStopsDeepeningInTime() {
+    HexReversi game = TestGames.started(new HexReversi(6));
+    LazySmpStrategy strategy = new LazySmpStrategy(Integer.MAX_VALUE, 100, 4);
+    Optional<ICell> chosen = strategy.determineMove(game, GameState.BLACK_TURN);
+
+    assertTrue(chosen.isPresent());
+    assertTrue(game.isValidMove(chosen.get(), GameState.BLACK_TURN));
+    // the time ran out long before the search reached the end of the game
+    int empty = SearchBoard.from(game, GameState.BLACK_TURN).count(SearchBoard.EMPTY);
+    assertTrue(strategy.getDepthReached() >= 1);
+    assertTrue(strategy.getDepthReached() < empty);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNoThreads() {
+    new LazySmpStrategy(3, 0, 0);
+  }
+}
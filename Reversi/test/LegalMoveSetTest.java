@@ -0,0 +1,129 @@
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import game.ReversiModel;
+import game.type.HexBitboard;
+import game.type.HexReversi;
+import game.type.SquareBitboard;
+import game.type.SquareReversi;
+import game.utility.Cell;
+import game.utility.GameState;
+import game.utility.ICell;
+import game.utility.PlayerState;
+import game.utility.RayTable;
+import game.utility.SearchBoard;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the legal moves the models keep up to date across moves.
+ */
+public class LegalMoveSetTest {
+
+  // the legal moves of the player found by checking every cell of a fresh search board.
+  private static List<String> bruteForce(ReversiModel model, GameState player) {
+    SearchBoard board = SearchBoard.from(model.getSnapshot());
+    RayTable rays = board.getRays();
+    List<String> moves = new ArrayList<>();
+    for (int index = 0; index < rays.getCellCount(); index++) {
+      if (board.isValidMove(index, SearchBoard.colorOf(player))) {
+        moves.add(rays.getQ(index) + "," + rays.getR(index));
+      }
+    }
+    return moves;
+  }
+
+  private static List<String> coordinates(List<ICell> cells) {
+    List<String> moves = new ArrayList<>();
+    for (ICell cell : cells) {
+      assertEquals(PlayerState.EMPTY, cell.getPlayer());
+      moves.add(cell.getQ() + "," + cell.getR());
+    }
+    return moves;
+  }
+
+  // play random games and compare the kept legal moves with a full scan after every move.
+  private static void checkRandomGames(ReversiModel model, long seed) {
+    Random random = new Random(seed);
+    TestGames.started(model);
+    while (!model.isGameOver()) {
+      for (GameState player : new GameState[]{GameState.BLACK_TURN, GameState.WHITE_TURN}) {
+        assertEquals(bruteForce(model, player), coordinates(model.getLegalMoves(player)));
+        // isValidMove answers for the player asked about, on the board and off it
+        List<ICell> legal = model.getLegalMoves(player);
+        for (ICell cell : model.getBoard()) {
+          boolean isLegal = legal.contains(cell);
+          assertEquals(isLegal, model.isValidMove(cell, player));
+          if (cell.getPlayer() == PlayerState.EMPTY) {
+            assertEquals(isLegal, model.isValidMove(new Cell(cell.getQ(), cell.getR()), player));
+          }
+        }
+      }
+      List<ICell> moves = model.getLegalMoves(model.getCurrentState());
+      assertTrue(model.hasValidMoves());
+      model.makeMove(moves.get(random.nextInt(moves.size())));
+    }
+    List<ICell> moves = model.getLegalMoves(model.getCurrentState());
+    assertEquals(moves.isEmpty(), !model.hasValidMoves());
+  }
+
+  @Test
+  public void testHexLegalMovesOnRandomGames() {
+    for (int size = 1; size <= 6; size++) {
+      for (int seed = 0; seed < 3; seed++) {
+        checkRandomGames(new HexReversi(size), seed);
+      }
+    }
+  }
+
+  @Test
+  public void testSquareLegalMovesOnRandomGames() {
+    for (int size = 4; size <= 10; size += 2) {
+      for (int seed = 0; seed < 3; seed++) {
+        checkRandomGames(new SquareReversi(size), seed);
+      }
+    }
+  }
+
+  @Test
+  public void testBitboardLegalMovesOnRandomGames() {
+    for (int seed = 0; seed < 3; seed++) {
+      checkRandomGames(new SquareBitboard(8), seed);
+      checkRandomGames(new HexBitboard(5), seed);
+    }
+  }
+
+  @Test
+  public void testInitialLegalMovesInBoardOrder() {
+    HexReversi hexGame = new HexReversi(3);
+    TestGames.started(hexGame);
+    List<ICell> moves = hexGame.getLegalMoves(GameState.BLACK_TURN);
+    assertEquals(6, moves.size());
+    for (int i = 1; i < moves.size(); i++) {
+      ICell previous = moves.get(i - 1);
+      ICell cell = moves.get(i);
+      assertTrue(previous.getR() < cell.getR()
+              || previous.getR() == cell.getR() && previous.getQ() < cell.getQ());
+    }
+    assertTrue(moves.contains(hexGame.getCell(1, -2)));
+  }
+
+  @Test
+  public void testPicksUpCellsSetDirectly() {
+    SquareReversi squareGame = new SquareReversi(4);
+    TestGames.started(squareGame);
+    assertTrue(squareGame.isValidMove(squareGame.getCell(2, 0), GameState.BLACK_TURN));
+
+    squareGame.getCell(2, 1).setPlayer(PlayerState.BLACK);
+    assertFalse(squareGame.isValidMove(squareGame.getCell(2, 0), GameState.BLACK_TURN));
+    assertEquals(bruteForce(squareGame, GameState.BLACK_TURN),
+            coordinates(squareGame.getLegalMoves(GameState.BLACK_TURN)));
+    assertEquals(bruteForce(squareGame, GameState.WHITE_TURN),
+            coordinates(squareGame.getLegalMoves(GameState.WHITE_TURN)));
+  }
+}
@@ -1,15 +1,21 @@
 import org.junit.Test;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.Random;
 
+import game.type.HexReversi;
 import game.utility.GameState;
 import game.utility.ICell;
 import game.utility.PlayerState;
+import game.utility.SearchBoard;
 import game.ReadonlyReversiModel;
 import strategy.MinimaxStrategy;
+import strategy.MoveOrdering;
 import strategy.ReversiStrategy;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Represent an example of how Minimax strategy works.
@@ -36,4 +42,90 @@ public class MinimaxTest {
     }
 
   }
+
+  @Test
+  public void testTimeLimitedMinimaxStopsDeepening() {
+    HexReversi game = TestGames.started(new HexReversi(6));
+    MinimaxStrategy strategy = new MinimaxStrategy(Integer.MAX_VALUE, 100);
+    Optional<ICell> chosen = strategy.determineMove(game, GameState.BLACK_TURN);
+
+    assertTrue(chosen.isPresent());
+    assertTrue(game.isValidMove(chosen.get(), GameState.BLACK_TURN));
+    // the time ran out long before the search reached the end of the game
+    int empty = SearchBoard.from(game, GameState.BLACK_TURN).count(SearchBoard.EMPTY);
+    assertTrue(strategy.getDepthReached() >= 1);
+    assertTrue(strategy.getDepthReached() < empty);
+  }
+
+  // play the given move, then the rest of the game with full depth searches for both sides.
+  // return black's discs minus white's at the end.
+  private static int playOut(HexReversi game, ICell move) {
+    HexReversi copy = (HexReversi) game.getClone();
+    copy.makeMove(copy.getCell(move.getQ(), move.getR()));
+    ReversiStrategy perfect = new MinimaxStrategy(copy.getBoard().size());
+    while (!copy.isGameOver()) {
+      ICell next = perfect.determineMove(copy, copy.getCurrentState()).get();
+      copy.makeMove(copy.getCell(next.getQ(), next.getR()));
+    }
+    return copy.getScores()[0] - copy.getScores()[1];
+  }
+
+  @Test
+  public void testTimeLimitedMinimaxSolvesSmallBoards() {
+    // with time to spare, the deepening reaches the end of the game on a small board,
+    // so it finds a move as good as the one of a full depth search
+    HexReversi game = TestGames.started(new HexReversi(2));
+    Optional<ICell> timed = new MinimaxStrategy(Integer.MAX_VALUE, 10_000)
+            .determineMove(game, GameState.BLACK_TURN);
+    Optional<ICell> fixed = new MinimaxStrategy(game.getBoard().size())
+            .determineMove(game, GameState.BLACK_TURN);
+    assertTrue(timed.isPresent());
+    assertEquals(playOut(game, fixed.get()), playOut(game, timed.get()));
+  }
+
+  @Test
+  public void testTranspositionTableCutsNodes() {
+    HexReversi game = TestGames.started(new HexReversi(5));
+    MinimaxStrategy plain = new MinimaxStrategy(6);
+    MinimaxStrategy withTable = new MinimaxStrategy(6, 0, 1 << 16);
+    Optional<ICell> expected = plain.determineMove(game, GameState.BLACK_TURN);
+    Optional<ICell> chosen = withTable.determineMove(game, GameState.BLACK_TURN);
+    assertEquals(expected, chosen);
+    assertTrue(withTable.getNodeCount() < plain.getNodeCount());
+
+    // the table is kept, so searching the same position again is much cheaper
+    long firstSearch = withTable.getNodeCount();
+    withTable.determineMove(game, GameState.BLACK_TURN);
+    assertTrue(withTable.getNodeCount() < firstSearch / 2);
+  }
+
+  @Test
+  public void testMoveOrderingCutsNodes() {
+    // a midgame position, the start is too symmetric for the history to help
+    HexReversi game = TestGames.started(new HexReversi(5));
+    Random random = new Random(2);
+    for (int i = 0; i < 24; i++) {
+      List<ICell> moves = game.getLegalMoves(game.getCurrentState());
+      ICell next = moves.get(random.nextInt(moves.size()));
+      game.makeMove(game.getCell(next.getQ(), next.getR()));
+    }
+    MinimaxStrategy plain = new MinimaxStrategy(6);
+    MinimaxStrategy ordered = new MinimaxStrategy(6, 0, 0, new MoveOrdering(false));
+    MinimaxStrategy byMobility = new MinimaxStrategy(6, 0, 0, new MoveOrdering(true));
+    plain.determineMove(game, game.getCurrentState());
+    Optional<ICell> chosen = ordered.determineMove(game, game.getCurrentState());
+    byMobility.determineMove(game, game.getCurrentState());
+
+    assertTrue(game.isValidMove(chosen.get(), game.getCurrentState()));
+    assertTrue(ordered.getNodeCount() < plain.getNodeCount());
+    assertTrue(byMobility.getNodeCount() < plain.getNodeCount());
+    // the first move tried makes more of the cutoffs
+    assertTrue(ordered.getFirstMoveCutoffCount() * plain.getCutoffCount()
+            > plain.getFirstMoveCutoffCount() * ordered.getCutoffCount());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeTimeLimit() {
+    new MinimaxStrategy(3, -1);
+  }
 }
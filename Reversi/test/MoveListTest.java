@@ -0,0 +1,135 @@
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import decorator.HintDecorator;
+import game.ReversiModel;
+import game.type.BoardType;
+import game.type.HexBitboard;
+import game.type.HexReversi;
+import game.type.SquareBitboard;
+import game.type.SquareReversi;
+import game.utility.GameState;
+import game.utility.ICell;
+import game.utility.MoveList;
+import game.utility.PlayerState;
+import game.utility.RayTable;
+import strategy.CombinedStrategy;
+import strategy.CornerStrategy;
+import strategy.MaxCaptureStrategy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the scored moves of the models and the strategies that use them.
+ */
+public class MoveListTest {
+  // play a random game and check at each turn that the scored moves of both players are
+  // the legal moves with their captures, and that a move flips the cells of its mask.
+  private static void checkRandomGame(ReversiModel model, long seed) {
+    Random random = new Random(seed);
+    TestGames.started(model);
+    RayTable rays = RayTable.of(model.getBoardType(), model.getSize());
+    MoveList moves = new MoveList();
+    while (!model.isGameOver()) {
+      for (GameState player : new GameState[]{GameState.BLACK_TURN, GameState.WHITE_TURN}) {
+        model.scoreMoves(player, moves);
+        assertEquals(rays, moves.getRays());
+        List<ICell> legal = model.getLegalMoves(player);
+        assertEquals(legal.size(), moves.size());
+        for (int move = 0; move < moves.size(); move++) {
+          ICell cell = legal.get(move);
+          assertEquals(rays.indexOf(cell.getQ(), cell.getR()), moves.getIndex(move));
+          assertEquals(model.getCaptureCells(cell, player), moves.getCaptures(move));
+        }
+      }
+
+      model.scoreMoves(model.getCurrentState(), moves);
+      int move = random.nextInt(moves.size());
+      PlayerState[] before = new PlayerState[rays.getCellCount()];
+      for (int index = 0; index < before.length; index++) {
+        before[index] = model.getCell(rays.getQ(index), rays.getR(index)).getPlayer();
+      }
+      int captures = moves.getCaptures(move);
+      int[] flipped = new int[rays.getCellCount()];
+      for (int index = 0; index < flipped.length; index++) {
+        flipped[index] = moves.flips(move, index) ? 1 : 0;
+      }
+      model.makeMove(model.getCell(moves.getQ(move), moves.getR(move)));
+      int changed = 0;
+      for (int index = 0; index < before.length; index++) {
+        PlayerState after = model.getCell(rays.getQ(index), rays.getR(index)).getPlayer();
+        if (index != rays.indexOf(moves.getQ(move), moves.getR(move))) {
+          assertEquals(flipped[index] == 1, after != before[index]);
+          changed += flipped[index];
+        }
+      }
+      assertEquals(captures, changed);
+    }
+  }
+
+  @Test
+  public void testScoredMovesMatchTheRules() {
+    for (int seed = 0; seed < 3; seed++) {
+      checkRandomGame(new HexReversi(4), seed);
+      checkRandomGame(new SquareReversi(6), seed);
+      checkRandomGame(new HexBitboard(5), seed);
+      checkRandomGame(new SquareBitboard(8), seed);
+      checkRandomGame(new HexReversi(6), seed);
+    }
+  }
+
+  @Test
+  public void testListIsRefilledForAnotherBoard() {
+    MoveList moves = new MoveList();
+    ReversiModel hexGame = TestGames.started(new HexReversi(3));
+    hexGame.scoreMoves(GameState.BLACK_TURN, moves);
+    assertEquals(6, moves.size());
+    assertEquals(1, moves.getCaptures(0));
+    ReversiModel squareGame = TestGames.started(new SquareReversi(8));
+    new HintDecorator(squareGame).scoreMoves(GameState.BLACK_TURN, moves);
+    assertEquals(RayTable.of(BoardType.SQUARE, 8), moves.getRays());
+    assertEquals(4, moves.size());
+    assertEquals(-1, moves.find(0));
+    int move = moves.find(moves.getRays().indexOf(4, 2));
+    assertTrue(move >= 0);
+    assertTrue(moves.flips(move, moves.getRays().indexOf(4, 3)));
+    assertFalse(moves.flips(move, moves.getRays().indexOf(4, 4)));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testAddToAListOfNoBoard() {
+    new MoveList().add(0);
+  }
+
+  @Test
+  public void testStrategiesShareTheScoredMoves() {
+    ReversiModel game = TestGames.started(new SquareReversi(8));
+    Random random = new Random(2);
+    MaxCaptureStrategy maxCapture = new MaxCaptureStrategy();
+    CombinedStrategy combined = new CombinedStrategy();
+    combined.addStrategy(new CornerStrategy(BoardType.SQUARE));
+    combined.addStrategy(maxCapture);
+    while (!game.isGameOver()) {
+      GameState player = game.getCurrentState();
+      // the most captures, the most upper left move on a tie
+      ICell best = null;
+      for (ICell cell : game.getLegalMoves(player)) {
+        if (best == null || game.getCaptureCells(cell, player)
+                > game.getCaptureCells(best, player)) {
+          best = cell;
+        }
+      }
+      assertEquals(Optional.of(best), maxCapture.determineMove(game, player));
+      ICell chosen = combined.determineMove(game, player).get();
+      assertTrue(game.isValidMove(chosen, player));
+
+      List<ICell> moves = game.getLegalMoves(player);
+      game.makeMove(moves.get(random.nextInt(moves.size())));
+    }
+  }
+}
@@ -0,0 +1,80 @@
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import game.ReversiModel;
+import game.type.HexReversi;
+import game.type.SquareReversi;
+import game.utility.ICell;
+import game.utility.RankedMoves;
+import game.utility.SearchBoard;
+import strategy.MoveRanker;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the search that ranks the best moves for the strong hints.
+ */
+public class MoveRankerTest {
+  // check the ranking of each position of a random game against the minimax values.
+  private static void checkRandomGame(ReversiModel game, int depth, int count, long seed) {
+    Random random = new Random(seed);
+    MoveRanker ranker = new MoveRanker(depth, 0);
+    TestGames.started(game);
+    while (!game.isGameOver()) {
+      SearchBoard board = SearchBoard.from(game.getSnapshot());
+      int[] moves = new int[board.getRays().getCellCount()];
+      int moveCount = board.generateMoves(board.getToMove(), moves);
+      int[] values = new int[moveCount];
+      for (int i = 0; i < moveCount; i++) {
+        board.play(moves[i]);
+        values[i] = -TestGames.value(board, depth - 1);
+        board.undo();
+      }
+      Arrays.sort(values);
+
+      RankedMoves ranked = ranker.rank(game.getSnapshot(), count);
+      assertEquals(Math.min(count, moveCount), ranked.size());
+      assertEquals(Math.min(depth, board.count(SearchBoard.EMPTY)), ranked.getDepth());
+      for (int rank = 0; rank < ranked.size(); rank++) {
+        // the k best scores, each the exact value of its move
+        assertEquals(values[moveCount - 1 - rank], ranked.getScore(rank));
+        board.play(ranked.getIndex(rank));
+        assertEquals(ranked.getScore(rank), -TestGames.value(board, depth - 1));
+        board.undo();
+      }
+
+      List<ICell> legal = game.getLegalMoves(game.getCurrentState());
+      game.makeMove(legal.get(random.nextInt(legal.size())));
+    }
+  }
+
+  @Test
+  public void testRankingMatchesMinimax() {
+    for (int seed = 0; seed < 3; seed++) {
+      checkRandomGame(new HexReversi(3), 3, 3, seed);
+      checkRandomGame(new SquareReversi(6), 3, 2, seed);
+    }
+  }
+
+  @Test
+  public void testTimeLimitKeepsTheLastFullDepth() {
+    ReversiModel game = TestGames.started(new HexReversi(7));
+    RankedMoves ranked = new MoveRanker(60, 50).rank(game.getSnapshot(), 4);
+    assertEquals(4, ranked.size());
+    assertTrue(ranked.getDepth() >= 1);
+    assertTrue(ranked.getDepth() < 60);
+    for (int rank = 1; rank < ranked.size(); rank++) {
+      assertTrue(ranked.getScore(rank - 1) >= ranked.getScore(rank));
+    }
+    assertEquals(0, ranked.rankOf(ranked.getQ(0), ranked.getR(0)));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRankNoMoves() {
+    new MoveRanker(3, 0).rank(TestGames.started(new HexReversi(3)).getSnapshot(), 0);
+  }
+}
@@ -0,0 +1,179 @@
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import controller.PlayerActionListener;
+import game.ReversiModel;
+import game.type.BoardType;
+import game.type.HexReversi;
+import game.type.SquareReversi;
+import game.utility.GameState;
+import game.utility.ICell;
+import game.utility.RayTable;
+import game.utility.Symmetries;
+import player.AIPlayer;
+import player.PlayerColor;
+import strategy.MaxCaptureStrategy;
+import strategy.MinimaxStrategy;
+import strategy.OpeningBook;
+import strategy.OpeningBookBuilder;
+import strategy.ReversiStrategy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for building and reading opening books.
+ */
+public class OpeningBookTest {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  // a book of the first two plies on hex size 3, searched by a 2 ply minimax.
+  private OpeningBook hexBook() throws IOException {
+    OpeningBookBuilder builder = new OpeningBookBuilder(() -> new HexReversi(3),
+        () -> new MinimaxStrategy(2), 2);
+    // the start position, and the one after each of its 6 moves, which are all rotations
+    // and reflections of each other
+    assertEquals(2, builder.build());
+    Path file = folder.newFile("hex3.book").toPath();
+    builder.write(file);
+    return OpeningBook.load(file);
+  }
+
+  private static long canonicalHash(ReversiModel game) {
+    return Symmetries.of(RayTable.of(game.getBoardType(), game.getSize()))
+            .canonicalHash(game.getSnapshot());
+  }
+
+  @Test
+  public void testBookPlaysTheSearchedMoves() throws IOException {
+    OpeningBook book = hexBook();
+    assertEquals(2, book.getEntryCount());
+    ReversiModel start = TestGames.started(new HexReversi(3));
+    Optional<ICell> first = book.move(start, GameState.BLACK_TURN);
+    assertEquals(new MinimaxStrategy(2).determineMove(start, GameState.BLACK_TURN), first);
+
+    // after any first move, the book move leads to an image of the position the search led
+    // to after the first move in board order, the one the builder searched
+    ICell firstMove = start.getLegalMoves(GameState.BLACK_TURN).get(0);
+    ReversiModel searched = TestGames.started(new HexReversi(3));
+    searched.makeMove(searched.getCell(firstMove.getQ(), firstMove.getR()));
+    searched.makeMove(new MinimaxStrategy(2).determineMove(searched, GameState.WHITE_TURN)
+            .get());
+    for (ICell cell : start.getLegalMoves(GameState.BLACK_TURN)) {
+      ReversiModel game = TestGames.started(new HexReversi(3));
+      game.makeMove(game.getCell(cell.getQ(), cell.getR()));
+      Optional<ICell> move = book.move(game, GameState.WHITE_TURN);
+      assertTrue(move.isPresent());
+      game.makeMove(move.get());
+      assertEquals(canonicalHash(searched), canonicalHash(game));
+      // out of the book
+      assertFalse(book.move(game, game.getCurrentState()).isPresent());
+    }
+  }
+
+  @Test
+  public void testBookIgnoresOtherBoardsAndTurns() throws IOException {
+    OpeningBook book = hexBook();
+    ReversiModel game = TestGames.started(new HexReversi(3));
+    assertFalse(book.move(game, GameState.WHITE_TURN).isPresent());
+    assertFalse(book.move(TestGames.started(new HexReversi(4)), GameState.BLACK_TURN)
+            .isPresent());
+    assertFalse(book.move(TestGames.started(new SquareReversi(6)), GameState.BLACK_TURN)
+            .isPresent());
+    assertEquals(-1, book.lookup(game.getPositionHash() + 1));
+  }
+
+  @Test
+  public void testAiPlayerPlaysFromTheBook() throws IOException {
+    ReversiModel game = TestGames.started(new HexReversi(3));
+    // a strategy that must not be asked while the book has the position
+    ReversiStrategy never = (model, player) -> {
+      throw new AssertionError("The book has this position");
+    };
+    List<String> moves = new ArrayList<>();
+    PlayerActionListener listener = new PlayerActionListener() {
+      @Override
+      public void onMoveMade(int q, int r) {
+        moves.add(q + "," + r);
+      }
+
+      @Override
+      public void onPassTurn() {
+        moves.add("pass");
+      }
+
+      @Override
+      public void indicateMyColor() {
+        // nothing to show
+      }
+    };
+    OpeningBook book = hexBook();
+    AIPlayer player = new AIPlayer(never, game, PlayerColor.BLACK, book);
+    player.setActionListener(listener);
+    player.play(GameState.BLACK_TURN);
+    ICell expected = book.move(game, GameState.BLACK_TURN).get();
+    assertEquals(List.of(expected.getQ() + "," + expected.getR()), moves);
+  }
+
+  @Test
+  public void testWriteSortsAndChecksTheEntries() throws IOException {
+    RayTable rays = RayTable.of(BoardType.SQUARE, 4);
+    Path file = folder.newFile("square4.book").toPath();
+    OpeningBook.write(file, rays, new long[] {5, -3, 9, 0}, new int[] {1, 2, 3, 4});
+    OpeningBook book = OpeningBook.load(file);
+    assertEquals(rays, book.getRays());
+    assertEquals(2, book.lookup(-3));
+    assertEquals(4, book.lookup(0));
+    assertEquals(1, book.lookup(5));
+    assertEquals(3, book.lookup(9));
+    assertEquals(-1, book.lookup(6));
+  }
+
+  @Test
+  public void testMoveOutsideTheBoardIsIgnored() throws IOException {
+    ReversiModel game = TestGames.started(new HexReversi(3));
+    RayTable rays = RayTable.of(BoardType.HEXAGONAL, 3);
+    for (int move : new int[] {rays.getCellCount(), Integer.MAX_VALUE, -2}) {
+      Path file = folder.newFile("damaged" + move + ".book").toPath();
+      OpeningBook.write(file, rays, new long[] {canonicalHash(game)}, new int[] {0});
+      // overwrite the move of the only entry, after the header and its key
+      byte[] bytes = Files.readAllBytes(file);
+      ByteBuffer.wrap(bytes).putInt(5 * Integer.BYTES + Long.BYTES, move);
+      Files.write(file, bytes);
+      OpeningBook book = OpeningBook.load(file);
+      assertEquals(move, book.lookup(canonicalHash(game)));
+      assertFalse(book.move(game, GameState.BLACK_TURN).isPresent());
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testWriteRejectsTwiceTheSamePosition() throws IOException {
+    OpeningBook.write(folder.newFile("twice.book").toPath(), RayTable.of(BoardType.SQUARE, 4),
+            new long[] {7, 7}, new int[] {1, 2});
+  }
+
+  @Test(expected = IOException.class)
+  public void testLoadRejectsOtherFiles() throws IOException {
+    Path file = folder.newFile("other.book").toPath();
+    Files.write(file, new byte[] {1, 2, 3, 4, 5, 6, 7, 8});
+    OpeningBook.load(file);
+  }
+
+  @Test
+  public void testNoPlies() {
+    OpeningBookBuilder builder = new OpeningBookBuilder(() -> new HexReversi(3),
+        MaxCaptureStrategy::new, 0);
+    assertEquals(0, builder.build());
+  }
+}
@@ -0,0 +1,56 @@
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import game.type.HexReversi;
+import game.utility.GameState;
+import game.utility.ICell;
+import strategy.MinimaxStrategy;
+import strategy.ParallelMinimaxStrategy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the parallel minimax strategy.
+ */
+public class ParallelMinimaxTest {
+  @Test
+  public void testSameValueAsMinimax() {
+    Random random = new Random(11);
+    HexReversi game = TestGames.started(new HexReversi(3));
+    ParallelMinimaxStrategy parallel = new ParallelMinimaxStrategy(4, 4, 1 << 12);
+    while (!game.isGameOver()) {
+      GameState turn = game.getCurrentState();
+      ICell expected = new MinimaxStrategy(4).determineMove(game, turn).get();
+      Optional<ICell> chosen = parallel.determineMove(game, turn);
+      assertTrue(chosen.isPresent());
+      assertTrue(game.isValidMove(chosen.get(), turn));
+      assertEquals(TestGames.valueAfter(game, expected, 4),
+              TestGames.valueAfter(game, chosen.get(), 4));
+
+      List<ICell> moves = game.getLegalMoves(turn);
+      ICell next = moves.get(random.nextInt(moves.size()));
+      game.makeMove(game.getCell(next.getQ(), next.getR()));
+    }
+  }
+
+  @Test
+  public void testNoMoveWhenGameIsOver() {
+    HexReversi game = TestGames.started(new HexReversi(1));
+    while (!game.isGameOver()) {
+      ICell next = game.getLegalMoves(game.getCurrentState()).get(0);
+      game.makeMove(game.getCell(next.getQ(), next.getR()));
+    }
+    assertFalse(new ParallelMinimaxStrategy(3, 2)
+            .determineMove(game, game.getCurrentState()).isPresent());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNoThreads() {
+    new ParallelMinimaxStrategy(3, 0);
+  }
+}
@@ -0,0 +1,103 @@
+import org.junit.Test;
+
+import game.type.BoardType;
+import game.utility.PatternSet;
+import game.utility.RayTable;
+import game.utility.SearchBoard;
+import strategy.DiscDifferenceEvaluator;
+import strategy.PatternEvaluator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the patterns of the boards and the pattern evaluator.
+ */
+public class PatternEvaluatorTest {
+  // a board of the given geometry with discs on the given cells, black at even places of
+  // the array and white at odd ones.
+  private static SearchBoard board(RayTable rays, int toMove, int... discs) {
+    byte[] cells = new byte[rays.getCellCount()];
+    for (int i = 0; i < discs.length; i++) {
+      cells[discs[i]] = i % 2 == 0 ? SearchBoard.BLACK : SearchBoard.WHITE;
+    }
+    return new SearchBoard(rays, cells, toMove, 0);
+  }
+
+  @Test
+  public void testHexPatterns() {
+    PatternSet patterns = PatternSet.of(RayTable.of(BoardType.HEXAGONAL, 3));
+    int corners = 0;
+    int edges = 0;
+    for (int pattern = 0; pattern < patterns.getPatternCount(); pattern++) {
+      if (patterns.getPatternClass(pattern) == PatternSet.CORNER) {
+        corners++;
+        assertEquals(4, patterns.cells(pattern).length);
+      } else {
+        edges++;
+        assertEquals(4, patterns.cells(pattern).length);
+      }
+    }
+    assertEquals(6, corners);
+    assertEquals(6, edges);
+    assertEquals(81, patterns.getTableSize(PatternSet.EDGE));
+  }
+
+  @Test
+  public void testSquarePatterns() {
+    PatternSet patterns = PatternSet.of(RayTable.of(BoardType.SQUARE, 8));
+    assertEquals(8, patterns.getPatternCount());
+    assertEquals(6561, patterns.getTableSize(PatternSet.EDGE));
+    // the top edge, from the top left corner to the top right one
+    RayTable rays = patterns.getRays();
+    int[] top = patterns.cells(4);
+    assertEquals(rays.indexOf(0, 0), top[0]);
+    assertEquals(rays.indexOf(7, 0), top[7]);
+  }
+
+  @Test
+  public void testIndexIsBaseThree() {
+    RayTable rays = RayTable.of(BoardType.SQUARE, 8);
+    PatternSet patterns = PatternSet.of(rays);
+    int[] cells = patterns.cells(0);
+    SearchBoard board = board(rays, SearchBoard.BLACK, cells[0], cells[1]);
+    assertEquals(SearchBoard.BLACK + 3 * SearchBoard.WHITE, patterns.index(board, 0));
+  }
+
+  @Test
+  public void testScoresAreOppositeForTheTwoPlayers() {
+    RayTable rays = RayTable.of(BoardType.HEXAGONAL, 3);
+    SearchBoard board = board(rays, SearchBoard.BLACK, 0, 1, 5, 6, 17, 18, 19, 20);
+    PatternEvaluator evaluator = new PatternEvaluator();
+    assertEquals(-evaluator.evaluate(board, SearchBoard.WHITE),
+            evaluator.evaluate(board, SearchBoard.BLACK));
+  }
+
+  @Test
+  public void testTakenCornerIsWorthMore() {
+    RayTable rays = RayTable.of(BoardType.SQUARE, 8);
+    PatternEvaluator evaluator = new PatternEvaluator();
+    int corner = rays.indexOf(0, 0);
+    int center = rays.indexOf(3, 3);
+    // the same discs, but black owns the corner instead of a center cell
+    SearchBoard onCorner = board(rays, SearchBoard.WHITE, corner, rays.indexOf(4, 4),
+            rays.indexOf(3, 4), rays.indexOf(5, 5), rays.indexOf(4, 3));
+    SearchBoard inCenter = board(rays, SearchBoard.WHITE, center, rays.indexOf(4, 4),
+            rays.indexOf(3, 4), rays.indexOf(5, 5), rays.indexOf(4, 3));
+    assertTrue(evaluator.evaluate(onCorner, SearchBoard.BLACK)
+            > evaluator.evaluate(inCenter, SearchBoard.BLACK));
+  }
+
+  @Test
+  public void testGameOverIsScoredByDiscs() {
+    RayTable rays = RayTable.of(BoardType.HEXAGONAL, 2);
+    // white has no disc left
+    byte[] cells = new byte[rays.getCellCount()];
+    cells[0] = SearchBoard.BLACK;
+    cells[1] = SearchBoard.BLACK;
+    SearchBoard board = new SearchBoard(rays, cells, SearchBoard.WHITE, 0);
+    assertEquals(2 * PatternEvaluator.GAME_OVER_WEIGHT,
+            new PatternEvaluator().evaluate(board, SearchBoard.BLACK));
+    assertEquals(2, new DiscDifferenceEvaluator().evaluate(board, SearchBoard.BLACK));
+  }
+}
@@ -0,0 +1,147 @@
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import game.type.BoardType;
+import game.type.HexReversi;
+import game.type.SquareReversi;
+import game.ReversiModel;
+import game.utility.GameState;
+import game.utility.ICell;
+import game.utility.PatternSet;
+import game.utility.RayTable;
+import game.utility.SearchBoard;
+import game.utility.Symmetries;
+import strategy.MaxCaptureStrategy;
+import strategy.PatternEvaluator;
+import strategy.PatternTrainer;
+import strategy.PatternWeights;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the training of pattern weights and their files.
+ */
+public class PatternTrainerTest {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private static PatternTrainer trainer(int games) {
+    PatternTrainer trainer = new PatternTrainer(() -> new HexReversi(3),
+            List.of(MaxCaptureStrategy::new), 4, 6);
+    trainer.playGames(games, 0);
+    return trainer;
+  }
+
+  @Test
+  public void testFitLowersTheError() {
+    PatternTrainer trainer = trainer(200);
+    assertTrue(trainer.getSampleCount() > 200);
+    trainer.fit(2, 0);
+    double before = trainer.getTrainingError();
+    trainer.fit(2, 50);
+    assertTrue(trainer.getTrainingError() < before);
+  }
+
+  @Test
+  public void testTrainingIsRepeatable() {
+    PatternWeights first = trainer(50).fit(2, 10);
+    PatternWeights second = trainer(50).fit(2, 10);
+    assertArrayEquals(first.getTable(1, PatternSet.EDGE), second.getTable(1, PatternSet.EDGE));
+  }
+
+  @Test
+  public void testWeightFileRoundTrip() throws IOException {
+    PatternWeights weights = trainer(50).fit(3, 10);
+    Path file = folder.newFile("hex3.weights").toPath();
+    weights.write(file);
+    PatternWeights loaded = PatternWeights.load(file);
+    assertEquals(3, loaded.getStageCount());
+    for (int stage = 0; stage < 3; stage++) {
+      assertArrayEquals(weights.getFeatureWeights(stage), loaded.getFeatureWeights(stage));
+      assertArrayEquals(weights.getTable(stage, PatternSet.CORNER),
+              loaded.getTable(stage, PatternSet.CORNER));
+      assertArrayEquals(weights.getTable(stage, PatternSet.EDGE),
+              loaded.getTable(stage, PatternSet.EDGE));
+    }
+    assertTrue(loaded.isFor(RayTable.of(BoardType.HEXAGONAL, 3)));
+  }
+
+  @Test
+  public void testTrainedWeightsAreUsedOnTheirBoardOnly() {
+    PatternWeights weights = trainer(100).fit(1, 20);
+    SearchBoard hex = SearchBoard.from(TestGames.started(new HexReversi(3)), GameState.BLACK_TURN);
+    assertNotEquals(new PatternEvaluator().evaluate(hex, SearchBoard.BLACK),
+            new PatternEvaluator(weights).evaluate(hex, SearchBoard.BLACK));
+
+    SearchBoard square = SearchBoard.from(TestGames.started(new SquareReversi(8)),
+            GameState.BLACK_TURN);
+    assertEquals(new PatternEvaluator().evaluate(square, SearchBoard.BLACK),
+            new PatternEvaluator(weights).evaluate(square, SearchBoard.BLACK));
+  }
+
+  // check that the weights give every image of the positions of random games one score.
+  private static void checkImagesScoreTheSame(ReversiModel game, PatternWeights weights) {
+    PatternEvaluator evaluator = new PatternEvaluator(weights);
+    Random random = new Random(2);
+    TestGames.started(game);
+    while (!game.isGameOver()) {
+      SearchBoard board = SearchBoard.from(game.getSnapshot());
+      RayTable rays = board.getRays();
+      Symmetries symmetries = Symmetries.of(rays);
+      int score = evaluator.evaluate(board, SearchBoard.BLACK);
+      for (int transform = 1; transform < symmetries.getCount(); transform++) {
+        byte[] image = new byte[rays.getCellCount()];
+        for (int index = 0; index < image.length; index++) {
+          image[symmetries.map(transform, index)] = (byte) board.get(index);
+        }
+        SearchBoard imageBoard = new SearchBoard(rays, image, board.getToMove(), 0);
+        assertEquals(score, evaluator.evaluate(imageBoard, SearchBoard.BLACK));
+      }
+      List<ICell> moves = game.getLegalMoves(game.getCurrentState());
+      game.makeMove(moves.get(random.nextInt(moves.size())));
+    }
+  }
+
+  @Test
+  public void testTrainedWeightsScoreEveryImageTheSame() {
+    checkImagesScoreTheSame(new HexReversi(3), trainer(100).fit(2, 20));
+    PatternTrainer square = new PatternTrainer(() -> new SquareReversi(6),
+            List.of(MaxCaptureStrategy::new), 4, 6);
+    square.playGames(50, 0);
+    checkImagesScoreTheSame(new SquareReversi(6), square.fit(2, 20));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testWeightsOfMirroredPatternsMustMatch() {
+    RayTable rays = RayTable.of(BoardType.HEXAGONAL, 3);
+    PatternSet patterns = PatternSet.of(rays);
+    int[] corner = new int[patterns.getTableSize(PatternSet.CORNER)];
+    // a white disc on one side of an empty corner but not on the other
+    corner[2 * 9] = 1;
+    new PatternWeights(rays, new int[][] {{0, 0, 0}},
+            new int[][][] {{corner, new int[patterns.getTableSize(PatternSet.EDGE)]}});
+  }
+
+  @Test(expected = IOException.class)
+  public void testLoadRejectsOtherFiles() throws IOException {
+    Path file = folder.newFile("other.weights").toPath();
+    Files.write(file, new byte[] {1, 2, 3, 4, 5, 6, 7, 8});
+    PatternWeights.load(file);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testFitNeedsSamples() {
+    new PatternTrainer(() -> new HexReversi(3), List.of(MaxCaptureStrategy::new), 0, 0)
+            .fit(1, 1);
+  }
+}
@@ -0,0 +1,64 @@
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import game.type.HexReversi;
+import game.utility.GameState;
+import game.utility.ICell;
+import strategy.MinimaxStrategy;
+import strategy.MoveOrdering;
+import strategy.PvsStrategy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the principal variation search strategy.
+ */
+public class PvsTest {
+  private static void playRandomMoves(HexReversi game, Random random, int count) {
+    for (int i = 0; i < count && !game.isGameOver(); i++) {
+      List<ICell> moves = game.getLegalMoves(game.getCurrentState());
+      ICell next = moves.get(random.nextInt(moves.size()));
+      game.makeMove(game.getCell(next.getQ(), next.getR()));
+    }
+  }
+
+  @Test
+  public void testSameValueAsMinimax() {
+    Random random = new Random(14);
+    HexReversi game = TestGames.started(new HexReversi(3));
+    PvsStrategy plain = new PvsStrategy(4);
+    PvsStrategy full = new PvsStrategy(4, 0, 1 << 12, new MoveOrdering(true));
+    while (!game.isGameOver()) {
+      GameState turn = game.getCurrentState();
+      ICell best = new MinimaxStrategy(4).determineMove(game, turn).get();
+      int expected = TestGames.valueAfter(game, best, 4);
+      for (PvsStrategy strategy : new PvsStrategy[] {plain, full}) {
+        Optional<ICell> chosen = strategy.determineMove(game, turn);
+        assertTrue(chosen.isPresent());
+        assertTrue(game.isValidMove(chosen.get(), turn));
+        assertEquals(expected, TestGames.valueAfter(game, chosen.get(), 4));
+      }
+      playRandomMoves(game, random, 1);
+    }
+  }
+
+  @Test
+  public void testFewerNodesThanMinimax() {
+    HexReversi game = TestGames.started(new HexReversi(5));
+    playRandomMoves(game, new Random(2), 24);
+    MinimaxStrategy minimax = new MinimaxStrategy(7, 0, 1 << 16, new MoveOrdering(false));
+    PvsStrategy pvs = new PvsStrategy(7, 0, 1 << 16, new MoveOrdering(false));
+    minimax.determineMove(game, game.getCurrentState());
+    pvs.determineMove(game, game.getCurrentState());
+    assertTrue(pvs.getNodeCount() < minimax.getNodeCount());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeTableSize() {
+    new PvsStrategy(3, 0, -1, null);
+  }
+}
@@ -0,0 +1,64 @@
+import org.junit.Test;
+
+import game.type.BoardType;
+import game.utility.RayTable;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Represent examples of the precomputed ray tables.
+ */
+public class RayTableTest {
+
+  @Test
+  public void testTablesAreShared() {
+    assertSame(RayTable.of(BoardType.HEXAGONAL, 3), RayTable.of(BoardType.HEXAGONAL, 3));
+    assertSame(RayTable.of(BoardType.SQUARE, 8), RayTable.of(BoardType.SQUARE, 8));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidSize() {
+    RayTable.of(BoardType.SQUARE, 0);
+  }
+
+  @Test
+  public void testHexCells() {
+    RayTable table = RayTable.of(BoardType.HEXAGONAL, 2);
+    assertEquals(19, table.getCellCount());
+    assertEquals(6, table.getDirections());
+    assertEquals(0, table.indexOf(0, -2)); // the upper left cell comes first
+    assertEquals(-1, table.indexOf(-2, -2));
+    assertEquals(-1, table.indexOf(3, 0));
+    int center = table.indexOf(0, 0);
+    assertEquals(0, table.getQ(center));
+    assertEquals(0, table.getR(center));
+  }
+
+  @Test
+  public void testHexRays() {
+    RayTable table = RayTable.of(BoardType.HEXAGONAL, 2);
+    int center = table.indexOf(0, 0);
+    // direction 0 walks towards larger r
+    assertArrayEquals(new int[]{table.indexOf(0, 1), table.indexOf(0, 2)},
+            table.ray(center, 0));
+    int corner = table.indexOf(2, -2);
+    assertEquals(0, table.ray(corner, 4).length);
+    assertEquals(4, table.ray(corner, 1).length);
+    assertEquals(3, table.opposite(0));
+  }
+
+  @Test
+  public void testSquareRays() {
+    RayTable table = RayTable.of(BoardType.SQUARE, 4);
+    assertEquals(16, table.getCellCount());
+    assertEquals(8, table.getDirections());
+    int corner = table.indexOf(0, 0);
+    // south-east diagonal from the top left corner
+    assertArrayEquals(new int[]{table.indexOf(1, 1), table.indexOf(2, 2), table.indexOf(3, 3)},
+            table.ray(corner, 3));
+    assertEquals(0, table.ray(corner, 0).length);
+    assertEquals(4, table.opposite(0));
+  }
+}
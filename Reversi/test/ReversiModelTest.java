@@ -7,9 +7,14 @@ import game.utility.GameState;
 import game.type.HexReversi;
 import game.utility.ICell;
 import game.utility.PlayerState;
+import game.ReversiModel;
+import player.HumanPlayer;
+import player.PlayerColor;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Represent examples of a hexagon reversi model.
@@ -328,5 +333,27 @@ public class ReversiModelTest {
     assertThrows(IllegalStateException.class, () -> hexGameSizeOf6.makeMove(null));
   }
 
-
+  @Test
+  public void testCloneIsIndependentAndStarted() {
+    hexGame.setBlackPlayer(new HumanPlayer(PlayerColor.BLACK));
+    hexGame.setWhitePlayer(new HumanPlayer(PlayerColor.WHITE));
+    hexGame.gameStarted();
+    hexGame.makeMove(hexGame.getCell(1, -2));
+
+    ReversiModel clone = hexGame.getClone();
+    assertTrue(clone.isGameStarted());
+    assertEquals(GameState.WHITE_TURN, clone.getCurrentState());
+    assertArrayEquals(hexGame.getScores(), clone.getScores());
+
+    // playing on the clone must not touch the live game
+    ICell move = null;
+    for (ICell cell : clone.getBoard()) {
+      if (clone.isValidMove(cell, clone.getCurrentState())) {
+        move = cell;
+      }
+    }
+    clone.makeMove(move);
+    assertEquals(PlayerState.EMPTY, hexGame.getCell(move.getQ(), move.getR()).getPlayer());
+    assertArrayEquals(new int[]{5, 2}, hexGame.getScores());
+  }
 }
@@ -0,0 +1,181 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import game.type.HexReversi;
+import game.utility.GameState;
+import game.utility.ICell;
+import game.utility.PatternSet;
+import game.utility.RayTable;
+import game.utility.SearchBoard;
+import game.utility.ZobristKeys;
+import player.HumanPlayer;
+import player.PlayerColor;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Represent examples of playing and taking back moves on a search board.
+ */
+public class SearchBoardTest {
+  private HexReversi hexGame;
+
+  @Before
+  public void init() {
+    hexGame = new HexReversi(3);
+    hexGame.setBlackPlayer(new HumanPlayer(PlayerColor.BLACK));
+    hexGame.setWhitePlayer(new HumanPlayer(PlayerColor.WHITE));
+    hexGame.gameStarted();
+  }
+
+  private static byte[] cellsOf(SearchBoard board) {
+    byte[] cells = new byte[board.getRays().getCellCount()];
+    for (int i = 0; i < cells.length; i++) {
+      cells[i] = (byte) board.get(i);
+    }
+    return cells;
+  }
+
+  @Test
+  public void testCopiesTheModel() {
+    SearchBoard board = SearchBoard.from(hexGame, GameState.BLACK_TURN);
+    RayTable rays = board.getRays();
+    assertEquals(SearchBoard.BLACK, board.getToMove());
+    assertEquals(3, board.count(SearchBoard.BLACK));
+    assertEquals(3, board.count(SearchBoard.WHITE));
+    assertEquals(SearchBoard.WHITE, board.get(rays.indexOf(0, 1)));
+    for (ICell cell : hexGame.getBoard()) {
+      int index = rays.indexOf(cell.getQ(), cell.getR());
+      assertEquals(hexGame.isValidMove(cell, GameState.BLACK_TURN),
+              board.isValidMove(index, SearchBoard.BLACK));
+    }
+  }
+
+  @Test
+  public void testPlayMatchesTheModel() {
+    SearchBoard board = SearchBoard.from(hexGame, GameState.BLACK_TURN);
+    RayTable rays = board.getRays();
+    int index = rays.indexOf(1, -2);
+    assertEquals(hexGame.getCaptureCells(hexGame.getCell(1, -2), GameState.BLACK_TURN),
+            board.play(index));
+    hexGame.makeMove(hexGame.getCell(1, -2));
+    assertArrayEquals(cellsOf(SearchBoard.from(hexGame, GameState.WHITE_TURN)),
+            cellsOf(board));
+    assertEquals(SearchBoard.WHITE, board.getToMove());
+  }
+
+  @Test
+  public void testInvalidMoveIsNotPlayed() {
+    SearchBoard board = SearchBoard.from(hexGame, GameState.BLACK_TURN);
+    assertEquals(0, board.play(board.getRays().indexOf(3, -3)));
+    assertEquals(0, board.getPly());
+  }
+
+  @Test
+  public void testUndoRestoresEveryPosition() {
+    SearchBoard board = SearchBoard.from(hexGame, GameState.BLACK_TURN);
+    byte[] start = cellsOf(board);
+    int[] moves = new int[board.getRays().getCellCount()];
+    Random random = new Random(3);
+    int played = 0;
+    while (!board.isGameOver()) {
+      int count = board.generateMoves(board.getToMove(), moves);
+      assertTrue(board.play(moves[random.nextInt(count)]) > 0);
+      played++;
+    }
+    assertEquals(played, board.getPly());
+    board.pass();
+    board.undo();
+    while (board.getPly() > 0) {
+      board.undo();
+    }
+    assertArrayEquals(start, cellsOf(board));
+    assertEquals(SearchBoard.BLACK, board.getToMove());
+    assertEquals(3, board.count(SearchBoard.BLACK));
+    assertFalse(board.isGameOver());
+  }
+
+  @Test
+  public void testDepthIsLimitedByTheEmptyCells() {
+    SearchBoard board = SearchBoard.from(hexGame, GameState.BLACK_TURN);
+    int empty = board.count(SearchBoard.EMPTY);
+    assertEquals(2, board.limitDepth(2));
+    assertEquals(empty, board.limitDepth(empty + 10));
+    assertEquals(0, board.limitDepth(-1));
+    int[] moves = new int[board.getRays().getCellCount()];
+    board.generateMoves(board.getToMove(), moves);
+    board.play(moves[0]);
+    assertEquals(empty - 1, board.limitDepth(empty));
+  }
+
+  @Test
+  public void testHashFollowsTheModel() {
+    SearchBoard board = SearchBoard.from(hexGame, GameState.BLACK_TURN);
+    ZobristKeys keys = ZobristKeys.of(board.getRays());
+    assertEquals(hexGame.getPositionHash(), board.getHash());
+    long start = board.getHash();
+    Random random = new Random(7);
+    int[] moves = new int[board.getRays().getCellCount()];
+    while (!hexGame.isGameOver()) {
+      int count = board.generateMoves(board.getToMove(), moves);
+      int move = moves[random.nextInt(count)];
+      board.play(move);
+      RayTable rays = board.getRays();
+      hexGame.makeMove(hexGame.getCell(rays.getQ(move), rays.getR(move)));
+      assertEquals(keys.hash(cellsOf(board), board.getToMove()), board.getHash());
+      assertEquals(hexGame.getPositionHash(), board.getHash());
+      assertEquals(hexGame.getSnapshot().getHash(), board.getHash());
+    }
+    board.pass();
+    assertNotEquals(hexGame.getPositionHash(), board.getHash());
+    while (board.getPly() > 0) {
+      board.undo();
+    }
+    assertEquals(start, board.getHash());
+  }
+
+  @Test
+  public void testPatternIndicesFollowTheBoard() {
+    SearchBoard board = SearchBoard.from(hexGame, GameState.BLACK_TURN);
+    PatternSet patterns = PatternSet.of(board.getRays());
+    board.usePatterns();
+    int[] start = patternIndicesOf(board, patterns);
+    Random random = new Random(5);
+    int[] moves = new int[board.getRays().getCellCount()];
+    while (!board.isGameOver()) {
+      int count = board.generateMoves(board.getToMove(), moves);
+      board.play(moves[random.nextInt(count)]);
+      for (int pattern = 0; pattern < patterns.getPatternCount(); pattern++) {
+        assertEquals(patterns.index(board, pattern), board.getPatternIndex(pattern));
+      }
+    }
+    board.pass();
+    while (board.getPly() > 0) {
+      board.undo();
+    }
+    assertArrayEquals(start, patternIndicesOf(board, patterns));
+  }
+
+  private static int[] patternIndicesOf(SearchBoard board, PatternSet patterns) {
+    int[] indices = new int[patterns.getPatternCount()];
+    for (int pattern = 0; pattern < indices.length; pattern++) {
+      indices[pattern] = board.getPatternIndex(pattern);
+    }
+    return indices;
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testPatternIndicesNotKept() {
+    SearchBoard.from(hexGame, GameState.BLACK_TURN).getPatternIndex(0);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testUndoWithoutMove() {
+    SearchBoard.from(hexGame, GameState.BLACK_TURN).undo();
+  }
+}
@@ -0,0 +1,131 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import game.type.SquareBitboard;
+import game.type.SquareReversi;
+import game.utility.GameState;
+import game.utility.ICell;
+import game.utility.PlayerState;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the bitboard square reversi model.
+ */
+public class SquareBitboardTest {
+  private SquareBitboard bitboard;
+
+  @Before
+  public void init() {
+    bitboard = new SquareBitboard(8);
+    TestGames.started(bitboard);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testOnlySizeEight() {
+    new SquareBitboard(6);
+  }
+
+  @Test
+  public void testInitialBoard() {
+    assertEquals(64, bitboard.getBoard().size());
+    assertEquals(PlayerState.BLACK, bitboard.getCell(3, 3).getPlayer());
+    assertEquals(PlayerState.WHITE, bitboard.getCell(4, 3).getPlayer());
+    assertEquals(PlayerState.WHITE, bitboard.getCell(3, 4).getPlayer());
+    assertEquals(PlayerState.BLACK, bitboard.getCell(4, 4).getPlayer());
+    assertArrayEquals(new int[]{2, 2}, bitboard.getScores());
+  }
+
+  @Test
+  public void testOpeningMoves() {
+    int moves = 0;
+    for (ICell cell : bitboard.getBoard()) {
+      if (bitboard.isValidMove(cell, GameState.BLACK_TURN)) {
+        moves++;
+        assertEquals(1, bitboard.getCaptureCells(cell, GameState.BLACK_TURN));
+      }
+    }
+    assertEquals(4, moves);
+    assertFalse(bitboard.isValidMove(bitboard.getCell(0, 0), GameState.BLACK_TURN));
+  }
+
+  @Test
+  public void testMakeMoveFlips() {
+    bitboard.makeMove(bitboard.getCell(4, 2));
+    assertEquals(PlayerState.BLACK, bitboard.getCell(4, 3).getPlayer());
+    assertArrayEquals(new int[]{4, 1}, bitboard.getScores());
+    assertEquals(GameState.WHITE_TURN, bitboard.getCurrentState());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMakeMoveInvalid() {
+    bitboard.makeMove(bitboard.getCell(0, 0));
+  }
+
+  @Test
+  public void testCellsAreViewsOfTheBitboards() {
+    ICell corner = bitboard.getCell(0, 0);
+    corner.setPlayer(PlayerState.WHITE);
+    assertArrayEquals(new int[]{2, 3}, bitboard.getScores());
+    corner.flip();
+    assertEquals(PlayerState.BLACK, bitboard.getCell(0, 0).getPlayer());
+  }
+
+  @Test
+  public void testPositionHashFollowsTheBoard() {
+    assertEquals(bitboard.getSnapshot().getHash(), bitboard.getPositionHash());
+    ICell corner = bitboard.getCell(0, 0);
+    corner.setPlayer(PlayerState.WHITE);
+    assertEquals(bitboard.getSnapshot().getHash(), bitboard.getPositionHash());
+    corner.flip();
+    assertEquals(bitboard.getSnapshot().getHash(), bitboard.getPositionHash());
+    bitboard.makeMove(bitboard.getCell(4, 2));
+    assertEquals(bitboard.getSnapshot().getHash(), bitboard.getPositionHash());
+    assertEquals(bitboard.getPositionHash(), bitboard.getClone().getPositionHash());
+    corner.setPlayer(PlayerState.EMPTY);
+    assertEquals(bitboard.getSnapshot().getHash(), bitboard.getPositionHash());
+  }
+
+  @Test
+  public void testMatchesSquareReversiOnRandomGames() {
+    for (int seed = 0; seed < 5; seed++) {
+      SquareReversi reference = new SquareReversi(8);
+      SquareBitboard fast = new SquareBitboard(8);
+      TestGames.started(reference);
+      TestGames.started(fast);
+      Random random = new Random(seed);
+
+      while (!reference.isGameOver()) {
+        assertTrue(!fast.isGameOver());
+        List<ICell> valid = new ArrayList<>();
+        for (ICell cell : reference.getBoard()) {
+          ICell other = fast.getCell(cell.getQ(), cell.getR());
+          assertEquals(cell.getPlayer(), other.getPlayer());
+          boolean legal = reference.isValidMove(cell, reference.getCurrentState());
+          assertEquals(legal, fast.isValidMove(other, fast.getCurrentState()));
+          if (legal) {
+            assertEquals(reference.getCaptureCells(cell, reference.getCurrentState()),
+                    fast.getCaptureCells(other, fast.getCurrentState()));
+            valid.add(cell);
+          }
+        }
+        valid.sort(Comparator.comparingInt(ICell::getR).thenComparingInt(ICell::getQ));
+        ICell move = valid.get(random.nextInt(valid.size()));
+        reference.makeMove(move);
+        fast.makeMove(fast.getCell(move.getQ(), move.getR()));
+        assertArrayEquals(reference.getScores(), fast.getScores());
+        assertEquals(reference.getPositionHash(), fast.getPositionHash());
+        assertEquals(fast.getSnapshot().getHash(), fast.getPositionHash());
+      }
+      assertTrue(fast.isGameOver());
+    }
+  }
+}
@@ -3,10 +3,14 @@ import game.utility.Cell;
 import game.utility.GameState;
 import game.utility.ICell;
 import game.utility.PlayerState;
+import game.ReversiModel;
+import player.HumanPlayer;
+import player.PlayerColor;
 import org.junit.Before;
 import org.junit.Test;
 
 import static game.utility.GameState.BLACK_TURN;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertTrue;
@@ -122,16 +126,49 @@ public class SquareReversiTest {
     assertEquals(4, squareGameSize6.getBoard().size());
   }
 
+  @Test
+  public void testCloneKeepsThePosition() {
+    squareGame.setBlackPlayer(new HumanPlayer(PlayerColor.BLACK));
+    squareGame.setWhitePlayer(new HumanPlayer(PlayerColor.WHITE));
+    squareGame.gameStarted();
+    squareGame.makeMove(squareGame.getCell(4, 2));
+
+    ReversiModel clone = squareGame.getClone();
+    assertTrue(clone.isGameStarted());
+    assertEquals(GameState.WHITE_TURN, clone.getCurrentState());
+    assertEquals(PlayerState.BLACK, clone.getCell(4, 2).getPlayer());
+    clone.getCell(0, 0).setPlayer(PlayerState.WHITE);
+    assertEquals(PlayerState.EMPTY, squareGame.getCell(0, 0).getPlayer());
+  }
 
+  @Test
+  public void testScoresFollowEveryChange() {
+    squareGame.setBlackPlayer(new HumanPlayer(PlayerColor.BLACK));
+    squareGame.setWhitePlayer(new HumanPlayer(PlayerColor.WHITE));
+    squareGame.gameStarted();
+    assertArrayEquals(new int[]{2, 2}, squareGame.getScores());
+    squareGame.makeMove(squareGame.getCell(4, 2));
+    assertArrayEquals(new int[]{4, 1}, squareGame.getScores());
+    squareGame.getCell(0, 0).setPlayer(PlayerState.WHITE);
+    squareGame.getCell(4, 2).flip();
+    assertArrayEquals(new int[]{3, 3}, squareGame.getScores());
+  }
 
-
-
-
-
-
-
-
-
-
-
-}
\ No newline at end of file
+  @Test
+  public void testReturnWinnerCountsTheWholeBoard() {
+    squareGame.setBlackPlayer(new HumanPlayer(PlayerColor.BLACK));
+    squareGame.setWhitePlayer(new HumanPlayer(PlayerColor.WHITE));
+    squareGame.gameStarted();
+    for (ICell cell : squareGame.getBoard()) {
+      cell.setPlayer(PlayerState.WHITE);
+    }
+    squareGame.getCell(0, 0).setPlayer(PlayerState.BLACK);
+    assertTrue(squareGame.isGameOver());
+    assertEquals(GameState.WHITE_WIN, squareGame.returnWinner());
+
+    for (ICell cell : squareGame.getBoard()) {
+      cell.setPlayer(cell.getR() < 4 ? PlayerState.BLACK : PlayerState.WHITE);
+    }
+    assertEquals(GameState.TIE, squareGame.returnWinner());
+  }
+}
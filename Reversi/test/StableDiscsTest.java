@@ -0,0 +1,205 @@
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import decorator.HintDecorator;
+import game.type.BoardType;
+import game.type.HexBitboard;
+import game.type.HexReversi;
+import game.type.SquareBitboard;
+import game.type.SquareReversi;
+import game.ReversiModel;
+import game.utility.ICell;
+import game.utility.PlayerState;
+import game.utility.RayTable;
+import game.utility.SearchBoard;
+import game.utility.StableDiscs;
+import strategy.StabilityEvaluator;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the stable discs of the models, the analyser and the stability evaluator.
+ */
+public class StableDiscsTest {
+  // a board of the given geometry with discs on the given cells, black at even places of
+  // the array and white at odd ones.
+  private static SearchBoard board(RayTable rays, int... discs) {
+    byte[] cells = new byte[rays.getCellCount()];
+    for (int i = 0; i < discs.length; i++) {
+      cells[discs[i]] = i % 2 == 0 ? SearchBoard.BLACK : SearchBoard.WHITE;
+    }
+    return new SearchBoard(rays, cells, SearchBoard.BLACK, 0);
+  }
+
+  // play random games and check that a disc found stable keeps its color to the end, and
+  // that the analysis from scratch finds no disc the model doesn't.
+  private static void checkRandomGames(ReversiModel model, long seed) {
+    Random random = new Random(seed);
+    TestGames.started(model);
+    SearchBoard first = SearchBoard.from(model.getSnapshot());
+    RayTable rays = first.getRays();
+    StableDiscs fromScratch = new StableDiscs(rays);
+    PlayerState[] stableColors = new PlayerState[rays.getCellCount()];
+    while (!model.isGameOver()) {
+      SearchBoard board = SearchBoard.from(model.getSnapshot());
+      fromScratch.analyze(board);
+      int[] counts = new int[3];
+      for (int index = 0; index < rays.getCellCount(); index++) {
+        ICell cell = model.getCell(rays.getQ(index), rays.getR(index));
+        if (stableColors[index] != null) {
+          assertEquals(stableColors[index], cell.getPlayer());
+        }
+        if (model.isStable(cell.getQ(), cell.getR())) {
+          assertTrue(board.get(index) != SearchBoard.EMPTY);
+          stableColors[index] = cell.getPlayer();
+          counts[board.get(index)]++;
+        } else {
+          assertFalse(fromScratch.isStable(index));
+        }
+      }
+      assertArrayEquals(new int[]{counts[SearchBoard.BLACK], counts[SearchBoard.WHITE]},
+              model.getStableCounts());
+      List<ICell> moves = model.getLegalMoves(model.getCurrentState());
+      ICell next = moves.get(random.nextInt(moves.size()));
+      model.makeMove(model.getCell(next.getQ(), next.getR()));
+    }
+  }
+
+  @Test
+  public void testNoStableDiscAtTheStart() {
+    ReversiModel hexGame = TestGames.started(new HexReversi(3));
+    assertArrayEquals(new int[]{0, 0}, hexGame.getStableCounts());
+    assertFalse(hexGame.isStable(0, 1));
+    ReversiModel squareGame = TestGames.started(new SquareReversi(8));
+    assertArrayEquals(new int[]{0, 0}, squareGame.getStableCounts());
+    assertFalse(squareGame.isStable(3, 3));
+    assertFalse(squareGame.isStable(-1, 0));
+  }
+
+  @Test
+  public void testStabilitySpreadsFromACorner() {
+    RayTable rays = RayTable.of(BoardType.SQUARE, 8);
+    StableDiscs stable = new StableDiscs(rays).analyze(board(rays,
+            rays.indexOf(0, 0), rays.indexOf(7, 7), rays.indexOf(1, 0), rays.indexOf(6, 7),
+            rays.indexOf(0, 1), rays.indexOf(4, 4), rays.indexOf(1, 1)));
+    assertTrue(stable.isStable(rays.indexOf(0, 0)));
+    assertTrue(stable.isStable(rays.indexOf(1, 0)));
+    assertTrue(stable.isStable(rays.indexOf(0, 1)));
+    assertTrue(stable.isStable(rays.indexOf(7, 7)));
+    assertTrue(stable.isStable(rays.indexOf(6, 7)));
+    // the diagonal through it is open at both ends
+    assertFalse(stable.isStable(rays.indexOf(1, 1)));
+    assertFalse(stable.isStable(rays.indexOf(4, 4)));
+    assertEquals(3, stable.count(SearchBoard.BLACK));
+    assertEquals(2, stable.count(SearchBoard.WHITE));
+  }
+
+  @Test
+  public void testFullBoardIsStable() {
+    for (RayTable rays : new RayTable[]{RayTable.of(BoardType.HEXAGONAL, 4),
+        RayTable.of(BoardType.SQUARE, 6)}) {
+      int[] discs = new int[rays.getCellCount()];
+      for (int index = 0; index < discs.length; index++) {
+        discs[index] = index;
+      }
+      StableDiscs stable = new StableDiscs(rays).analyze(board(rays, discs));
+      assertEquals(rays.getCellCount(),
+              stable.count(SearchBoard.BLACK) + stable.count(SearchBoard.WHITE));
+    }
+  }
+
+  @Test
+  public void testFullLinesHoldTheirDiscs() {
+    // the top row is full: its discs can't be taken along it, and the board ends on the
+    // other axes, even between discs of the other color
+    RayTable rays = RayTable.of(BoardType.SQUARE, 4);
+    StableDiscs stable = new StableDiscs(rays).analyze(board(rays,
+            rays.indexOf(0, 0), rays.indexOf(1, 0), rays.indexOf(2, 0), rays.indexOf(3, 0)));
+    assertEquals(2, stable.count(SearchBoard.BLACK));
+    assertEquals(2, stable.count(SearchBoard.WHITE));
+    // with a cell left empty, the white disc between black ones may still be taken
+    stable.analyze(board(rays, rays.indexOf(0, 0), rays.indexOf(1, 0), rays.indexOf(2, 0)));
+    assertTrue(stable.isStable(rays.indexOf(0, 0)));
+    assertFalse(stable.isStable(rays.indexOf(1, 0)));
+    assertFalse(stable.isStable(rays.indexOf(2, 0)));
+  }
+
+  @Test
+  public void testStableDiscsNeverFlipInRandomGames() {
+    for (int seed = 0; seed < 4; seed++) {
+      checkRandomGames(new HexReversi(4), seed);
+      checkRandomGames(new SquareReversi(6), seed);
+      checkRandomGames(new HexBitboard(5), seed);
+      checkRandomGames(new SquareBitboard(8), seed);
+    }
+  }
+
+  @Test
+  public void testNewGameForgetsTheStableDiscs() {
+    ReversiModel game = TestGames.started(new SquareReversi(4));
+    Random random = new Random(0);
+    while (!game.isGameOver()) {
+      List<ICell> moves = game.getLegalMoves(game.getCurrentState());
+      game.makeMove(moves.get(random.nextInt(moves.size())));
+    }
+    int[] counts = game.getStableCounts();
+    assertTrue(counts[0] + counts[1] > 0);
+    TestGames.started(game);
+    assertArrayEquals(new int[]{0, 0}, game.getStableCounts());
+  }
+
+  @Test
+  public void testChangedCellsReachTheAnalyser() {
+    ReversiModel[] games = {new HexReversi(4), new SquareReversi(6), new HexBitboard(5),
+        new SquareBitboard(8)};
+    int[][] corners = {{4, -4}, {0, 0}, {5, -5}, {0, 0}};
+    for (int i = 0; i < games.length; i++) {
+      ReversiModel game = TestGames.started(games[i]);
+      ICell corner = game.getCell(corners[i][0], corners[i][1]);
+      corner.setPlayer(PlayerState.BLACK);
+      assertTrue(game.isStable(corners[i][0], corners[i][1]));
+      assertArrayEquals(new int[]{1, 0}, game.getStableCounts());
+      corner.flip();
+      assertArrayEquals(new int[]{0, 1}, game.getStableCounts());
+      assertArrayEquals(new int[]{0, 1}, game.getClone().getStableCounts());
+      corner.setPlayer(PlayerState.EMPTY);
+      assertFalse(game.isStable(corners[i][0], corners[i][1]));
+      assertArrayEquals(new int[]{0, 0}, game.getStableCounts());
+    }
+  }
+
+  @Test
+  public void testHintDecoratorShowsTheStableDiscs() {
+    ReversiModel game = TestGames.started(new SquareReversi(4));
+    HintDecorator hints = new HintDecorator(game);
+    Random random = new Random(1);
+    while (!game.isGameOver()) {
+      List<ICell> moves = game.getLegalMoves(game.getCurrentState());
+      game.makeMove(moves.get(random.nextInt(moves.size())));
+      assertArrayEquals(game.getStableCounts(), hints.getStableCounts());
+      assertEquals(game.isStable(0, 0), hints.isStable(0, 0));
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testAnalyzeOtherBoard() {
+    new StableDiscs(RayTable.of(BoardType.SQUARE, 8))
+            .analyze(board(RayTable.of(BoardType.SQUARE, 6)));
+  }
+
+  @Test
+  public void testStabilityEvaluator() {
+    RayTable rays = RayTable.of(BoardType.SQUARE, 8);
+    SearchBoard board = board(rays, rays.indexOf(0, 0), rays.indexOf(4, 4),
+            rays.indexOf(1, 0), rays.indexOf(4, 3));
+    StabilityEvaluator evaluator = new StabilityEvaluator(3);
+    // two discs each, black has two stable ones
+    assertEquals(6, evaluator.evaluate(board, SearchBoard.BLACK));
+    assertEquals(-6, evaluator.evaluate(board, SearchBoard.WHITE));
+  }
+}
@@ -0,0 +1,156 @@
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import game.ReversiModel;
+import game.type.BoardType;
+import game.type.HexReversi;
+import game.type.SquareReversi;
+import game.utility.ICell;
+import game.utility.RayTable;
+import game.utility.SearchBoard;
+import game.utility.Symmetries;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the symmetries of the boards and the canonical hashes of positions.
+ */
+public class SymmetriesTest {
+  // check that every transform is a permutation that keeps neighbours next to each other,
+  // and that its inverse takes every cell back.
+  private static void checkTransforms(RayTable rays, int count) {
+    Symmetries symmetries = Symmetries.of(rays);
+    assertEquals(count, symmetries.getCount());
+    for (int transform = 0; transform < count; transform++) {
+      boolean[] seen = new boolean[rays.getCellCount()];
+      for (int index = 0; index < rays.getCellCount(); index++) {
+        int image = symmetries.map(transform, index);
+        assertTrue(image >= 0 && !seen[image]);
+        seen[image] = true;
+        assertEquals(index, symmetries.map(symmetries.inverse(transform), image));
+        for (int direction = 0; direction < rays.getDirections(); direction++) {
+          int[] ray = rays.ray(index, direction);
+          if (ray.length > 0) {
+            assertTrue(isNeighbour(rays, image, symmetries.map(transform, ray[0])));
+          }
+        }
+      }
+    }
+  }
+
+  private static boolean isNeighbour(RayTable rays, int index, int other) {
+    for (int direction = 0; direction < rays.getDirections(); direction++) {
+      int[] ray = rays.ray(index, direction);
+      if (ray.length > 0 && ray[0] == other) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Test
+  public void testHexTransforms() {
+    for (int size = 1; size <= 5; size++) {
+      checkTransforms(RayTable.of(BoardType.HEXAGONAL, size), 12);
+    }
+  }
+
+  @Test
+  public void testSquareTransforms() {
+    for (int size = 4; size <= 10; size += 2) {
+      checkTransforms(RayTable.of(BoardType.SQUARE, size), 8);
+    }
+  }
+
+  @Test
+  public void testTransformsAreDistinct() {
+    RayTable rays = RayTable.of(BoardType.HEXAGONAL, 4);
+    Symmetries symmetries = Symmetries.of(rays);
+    // a corner goes to each of the 6 corners, and the edge cell next to it to both sides
+    int corner = rays.indexOf(4, -4);
+    int side = rays.indexOf(4, -3);
+    for (int transform = 0; transform < 12; transform++) {
+      for (int other = transform + 1; other < 12; other++) {
+        assertTrue(symmetries.map(transform, corner) != symmetries.map(other, corner)
+                || symmetries.map(transform, side) != symmetries.map(other, side));
+      }
+    }
+  }
+
+  // play a random game and the same game turned by each transform that keeps the start
+  // position, and compare the hashes.
+  private static void checkSymmetricGames(RayTable rays, ReversiModel[] games, long seed) {
+    Symmetries symmetries = Symmetries.of(rays);
+    long[] start = symmetries.hashes(games[0].getSnapshot());
+    boolean[] keepsStart = new boolean[games.length];
+    int kept = 0;
+    for (int transform = 0; transform < games.length; transform++) {
+      keepsStart[transform] = start[transform] == start[0];
+      kept += keepsStart[transform] ? 1 : 0;
+    }
+    // the colors of the start alternate: a sixth or a quarter of a turn swaps them
+    assertEquals(games.length / 2, kept);
+    Random random = new Random(seed);
+    SearchBoard board = SearchBoard.from(games[0].getSnapshot());
+    board.useSymmetries();
+    long first = board.getCanonicalHash();
+    while (!games[0].isGameOver()) {
+      long canonical = symmetries.canonicalHash(games[0].getSnapshot());
+      // the hashes kept by play match the ones of a new board
+      assertEquals(canonical, board.getCanonicalHash());
+      for (int transform = 0; transform < games.length; transform++) {
+        if (keepsStart[transform]) {
+          assertEquals(canonical, symmetries.canonicalHash(games[transform].getSnapshot()));
+        }
+      }
+      // the canonical form maps moves back and forth
+      for (int index = 0; index < rays.getCellCount(); index++) {
+        assertEquals(index, board.fromCanonical(board.toCanonical(index)));
+      }
+      List<ICell> moves = games[0].getLegalMoves(games[0].getCurrentState());
+      ICell move = moves.get(random.nextInt(moves.size()));
+      int index = rays.indexOf(move.getQ(), move.getR());
+      for (int transform = 0; transform < games.length; transform++) {
+        if (!keepsStart[transform]) {
+          continue;
+        }
+        int image = symmetries.map(transform, index);
+        games[transform].makeMove(games[transform].getCell(rays.getQ(image), rays.getR(image)));
+      }
+      board.play(index);
+      assertEquals(games[0].getPositionHash(), board.getHash());
+    }
+    // taking every move back restores the canonical hash of the start
+    while (board.getPly() > 0) {
+      board.undo();
+    }
+    assertEquals(first, board.getCanonicalHash());
+  }
+
+  @Test
+  public void testSymmetricGamesShareTheirCanonicalHash() {
+    for (int seed = 0; seed < 3; seed++) {
+      ReversiModel[] hexGames = new ReversiModel[12];
+      for (int transform = 0; transform < hexGames.length; transform++) {
+        hexGames[transform] = TestGames.started(new HexReversi(4));
+      }
+      checkSymmetricGames(RayTable.of(BoardType.HEXAGONAL, 4), hexGames, seed);
+      ReversiModel[] squareGames = new ReversiModel[8];
+      for (int transform = 0; transform < squareGames.length; transform++) {
+        squareGames[transform] = TestGames.started(new SquareReversi(6));
+      }
+      checkSymmetricGames(RayTable.of(BoardType.SQUARE, 6), squareGames, seed);
+    }
+  }
+
+  @Test
+  public void testCanonicalHashWithoutSymmetries() {
+    SearchBoard board = SearchBoard.from(TestGames.started(new HexReversi(3)).getSnapshot());
+    assertEquals(board.getHash(), board.getCanonicalHash());
+    assertEquals(5, board.toCanonical(5));
+    assertEquals(-1, board.fromCanonical(-1));
+  }
+}
@@ -0,0 +1,68 @@
+import game.ReadonlyReversiModel;
+import game.ReversiModel;
+import game.utility.ICell;
+import game.utility.SearchBoard;
+import player.HumanPlayer;
+import player.PlayerColor;
+
+/**
+ * Fixtures shared by the tests: games started with two human players, and a plain minimax
+ * to check the searches against.
+ */
+public final class TestGames {
+  private TestGames() {
+  }
+
+  /**
+   * Give a game two human players and start it.
+   *
+   * @param model - the game.
+   * @param <T>   - the type of the game.
+   * @return the same game, started.
+   */
+  public static <T extends ReversiModel> T started(T model) {
+    model.setBlackPlayer(new HumanPlayer(PlayerColor.BLACK));
+    model.setWhitePlayer(new HumanPlayer(PlayerColor.WHITE));
+    model.gameStarted();
+    return model;
+  }
+
+  /**
+   * Get the minimax value of the position of a board for the player to move, searched
+   * without pruning and scored by the disc difference.
+   *
+   * @param board - the board, left as it was.
+   * @param depth - how deep to search, Integer.MAX_VALUE for the end of the game.
+   * @return the value.
+   */
+  public static int value(SearchBoard board, int depth) {
+    int toMove = board.getToMove();
+    if (depth == 0 || board.isGameOver()) {
+      return board.count(toMove) - board.count(SearchBoard.opponent(toMove));
+    }
+    int[] moves = new int[board.getRays().getCellCount()];
+    int count = board.generateMoves(toMove, moves);
+    int best = Integer.MIN_VALUE;
+    for (int i = 0; i < count; i++) {
+      board.play(moves[i]);
+      best = Math.max(best, -value(board, depth - 1));
+      board.undo();
+    }
+    return best;
+  }
+
+  /**
+   * Get the minimax value of a move for the player to move in a game: the move is played,
+   * then the rest of the depth is searched as in value.
+   *
+   * @param game  - the game, left as it was.
+   * @param move  - the move, legal for the player to move.
+   * @param depth - how deep to search, counting the move, Integer.MAX_VALUE for the end.
+   * @return the value for the player who makes the move.
+   */
+  public static int valueAfter(ReadonlyReversiModel game, ICell move, int depth) {
+    SearchBoard board = SearchBoard.from(game, game.getCurrentState());
+    board.play(board.getRays().indexOf(move.getQ(), move.getR()));
+    return -value(board, depth - 1);
+  }
+}
@@ -0,0 +1,58 @@
+import org.junit.Test;
+
+import strategy.TranspositionTable;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests for the transposition table of the minimax search.
+ */
+public class TranspositionTableTest {
+
+  @Test
+  public void testCapacityIsAPowerOfTwo() {
+    assertEquals(1024, new TranspositionTable(1500).getCapacity());
+    assertEquals(1, new TranspositionTable(1).getCapacity());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNoEntries() {
+    new TranspositionTable(0);
+  }
+
+  @Test
+  public void testStoreAndProbe() {
+    TranspositionTable table = new TranspositionTable(16);
+    assertEquals(-1, table.probe(42L));
+    table.store(42L, 3, -7, TranspositionTable.LOWER, 5);
+    int slot = table.probe(42L);
+    assertEquals(42 & 15, slot);
+    assertEquals(3, table.getDepth(slot));
+    assertEquals(-7, table.getScore(slot));
+    assertEquals(TranspositionTable.LOWER, table.getBound(slot));
+    assertEquals(5, table.getMove(slot));
+    assertEquals(-1, table.probe(42L + 16));
+    table.clear();
+    assertEquals(-1, table.probe(42L));
+  }
+
+  @Test
+  public void testReplaceByDepthThenAge() {
+    TranspositionTable table = new TranspositionTable(16);
+    table.store(1L, 5, 0, TranspositionTable.EXACT, 0);
+    // same slot, shallower result of the same search: the deeper one stays
+    table.store(17L, 2, 0, TranspositionTable.EXACT, 0);
+    assertEquals(-1, table.probe(17L));
+    assertEquals(5, table.getDepth(table.probe(1L)));
+    // a deeper one replaces it
+    table.store(33L, 6, 0, TranspositionTable.EXACT, 0);
+    assertEquals(-1, table.probe(1L));
+    // a result of a newer search replaces an older one of any depth
+    table.newSearch();
+    table.store(17L, 1, 0, TranspositionTable.EXACT, 0);
+    assertEquals(1, table.getDepth(table.probe(17L)));
+    // the same position is always updated
+    table.store(17L, 0, 3, TranspositionTable.UPPER, 2);
+    assertEquals(3, table.getScore(table.probe(17L)));
+  }
+}